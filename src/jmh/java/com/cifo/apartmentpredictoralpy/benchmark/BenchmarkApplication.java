@@ -0,0 +1,86 @@
+package com.cifo.apartmentpredictoralpy.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.cifo.apartmentpredictoralpy.ApartmentPredictorAlpyApplication;
+
+/**
+ * Starts the application on a throw-away H2 database, without its web server
+ * unless startWeb() is used.
+ *
+ * mode "mem" uses an in-memory database, "file" an embedded file database under
+ * target/jmh-h2 (deleted first). The schema is created by Hibernate and seed.sql
+ * is not applied, so every trial starts from empty tables. Nothing is saved to or
+ * loaded from the model, price distributions and feature store files of a
+ * developer's run. Automatic retraining is off so background training does not
+ * skew the timings.
+ */
+final class BenchmarkApplication {
+
+    private static final Path FILE_DB_DIR = Path.of("target/jmh-h2");
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String mode) throws IOException {
+        return start(mode, WebApplicationType.NONE);
+    }
+
+    /**
+     * Starts the application with Tomcat on a random port (local.server.port).
+     *
+     * @param args extra --property=value arguments
+     */
+    static ConfigurableApplicationContext startWeb(String mode, String... args) throws IOException {
+        return start(mode, WebApplicationType.SERVLET, args);
+    }
+
+    private static ConfigurableApplicationContext start(String mode, WebApplicationType type, String... args)
+            throws IOException {
+        String url = switch (mode) {
+            case "mem" -> "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+            case "file" -> {
+                deleteRecursively(FILE_DB_DIR);
+                yield "jdbc:h2:file:./" + FILE_DB_DIR + "/benchmark";
+            }
+            default -> throw new IllegalArgumentException("Unknown database mode " + mode);
+        };
+        SpringApplication application = new SpringApplication(ApartmentPredictorAlpyApplication.class);
+        application.setWebApplicationType(type);
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--apartment.seed.script=",
+                "--spring.devtools.restart.enabled=false",
+                "--logging.level.root=WARN",
+                "--server.port=0",
+                "--apartment.import.file=",
+                "--apartment.model.file=",
+                "--apartment.price-distributions.file=",
+                "--apartment.feature-store.file=",
+                "--apartment.model.retrain-after-priced-rows=0"));
+        arguments.addAll(List.of(args));
+        return application.run(arguments.toArray(String[]::new));
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.cifo.apartmentpredictoralpy.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+
+/**
+ * Synthetic data for the benchmarks, scaled up from db/Housing.csv.
+ *
+ * Every generated row copies a random row of the Kaggle file and moves its price
+ * and area by up to 10%, so value distributions (and therefore tree shapes and
+ * branch patterns) stay close to the real data at any size. A fixed seed makes
+ * runs comparable.
+ */
+final class BenchmarkData {
+
+    static final Path HOUSING_CSV = Path.of("db/Housing.csv");
+
+    private static final long SEED = 42;
+
+    private final String header;
+    private final List<String[]> rows;
+
+    private BenchmarkData(String header, List<String[]> rows) {
+        this.header = header;
+        this.rows = rows;
+    }
+
+    static BenchmarkData housing() {
+        try {
+            List<String> lines = Files.readAllLines(HOUSING_CSV, StandardCharsets.UTF_8);
+            List<String[]> rows = new ArrayList<>(lines.size());
+            for (String line : lines.subList(1, lines.size())) {
+                if (!line.isBlank()) {
+                    rows.add(line.split(","));
+                }
+            }
+            return new BenchmarkData(lines.get(0), rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Run the benchmarks from the project directory", e);
+        }
+    }
+
+    /**
+     * @return a CSV document with the Housing.csv header and {@code count} rows
+     */
+    String csv(int count) {
+        Random random = new Random(SEED);
+        StringBuilder csv = new StringBuilder(count * 80).append(header).append('\n');
+        for (int i = 0; i < count; i++) {
+            String[] row = rows.get(random.nextInt(rows.size())).clone();
+            row[0] = Long.toString(jitter(Long.parseLong(row[0]), random));
+            row[1] = Long.toString(jitter(Long.parseLong(row[1]), random));
+            csv.append(String.join(",", row)).append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * @return {@code count} new (unsaved) apartments built the same way as csv()
+     */
+    List<Apartment> apartments(int count) {
+        Random random = new Random(SEED);
+        List<Apartment> apartments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] row = rows.get(random.nextInt(rows.size()));
+            Apartment apartment = new Apartment();
+            apartment.setPrice((int) jitter(Long.parseLong(row[0]), random));
+            apartment.setArea((int) jitter(Long.parseLong(row[1]), random));
+            apartment.setBedrooms(Integer.parseInt(row[2]));
+            apartment.setBathrooms(Integer.parseInt(row[3]));
+            apartment.setStories(Integer.parseInt(row[4]));
+            apartment.setMainroad(yes(row[5]));
+            apartment.setGuestroom(yes(row[6]));
+            apartment.setBasement(yes(row[7]));
+            apartment.setHotwater(yes(row[8]));
+            apartment.setHeating(yes(row[8]));
+            apartment.setAirconditioning(yes(row[9]));
+            apartment.setParking(Integer.parseInt(row[10]));
+            apartment.setPrefarea(yes(row[11]));
+            apartment.setFurnishingstatus(switch (row[12]) {
+                case "furnished" -> "Furnished";
+                case "semi-furnished" -> "Semi-Furnished";
+                default -> "Unfurnished";
+            });
+            apartments.add(apartment);
+        }
+        return apartments;
+    }
+
+    private static long jitter(long value, Random random) {
+        return Math.round(value * (0.9 + 0.2 * random.nextDouble()));
+    }
+
+    private static boolean yes(String value) {
+        return "yes".equals(value);
+    }
+}
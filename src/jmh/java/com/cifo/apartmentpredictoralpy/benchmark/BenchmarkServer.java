@@ -0,0 +1,58 @@
+package com.cifo.apartmentpredictoralpy.benchmark;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.api.Trigger;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+
+/**
+ * The web application as its own process, for HTTP benchmarks whose client must
+ * not share the server's JVM.
+ *
+ * Arguments: rows, latencyMillis, then --property=value arguments for
+ * BenchmarkApplication.startWeb(). Loads {@code rows} apartments into a file
+ * database and, when latencyMillis is positive, makes every SELECT on APARTMENT
+ * sleep that long while holding its connection, like a remote database under
+ * load would. Prints READY and the port once the data is in, then serves until
+ * killed.
+ */
+final class BenchmarkServer {
+
+    static final String READY = "READY";
+
+    private BenchmarkServer() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.parseInt(args[0]);
+        SlowSelect.latencyMillis = Long.parseLong(args[1]);
+        ConfigurableApplicationContext context = BenchmarkApplication.startWeb("file",
+                Arrays.copyOfRange(args, 2, args.length));
+        context.getBean(ApartmentRepository.class).bulkSave(BenchmarkData.housing().apartments(rows));
+        if (SlowSelect.latencyMillis > 0) {
+            context.getBean(JdbcTemplate.class).execute("CREATE TRIGGER SLOW_SELECT BEFORE SELECT ON APARTMENT CALL '"
+                    + SlowSelect.class.getName() + "'");
+        }
+        System.out.println(READY + " " + context.getEnvironment().getProperty("local.server.port"));
+    }
+
+    /** H2 trigger that delays each SELECT statement on its table. */
+    public static final class SlowSelect implements Trigger {
+
+        static volatile long latencyMillis;
+
+        @Override
+        public void fire(Connection connection, Object[] oldRow, Object[] newRow) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
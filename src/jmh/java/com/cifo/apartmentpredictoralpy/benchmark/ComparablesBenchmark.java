@@ -0,0 +1,106 @@
+package com.cifo.apartmentpredictoralpy.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.search.ComparablesIndex;
+
+/**
+ * k-nearest-neighbour queries for comparable apartments over {@code rows}
+ * synthetic apartments: exact and approximate (64 leaves) KD-tree searches
+ * against the brute-force scan they replace.
+ *
+ * The recall of the approximate search (share of the exact neighbours it
+ * finds) is printed once per trial, since JMH only measures the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComparablesBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    /** Leaves visited by the approximate search, as apartment.comparables.approximate-leaves. */
+    private static final int LEAVES = 64;
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"10"})
+    public int k;
+
+    private ComparablesIndex index;
+    private ApartmentSummary[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        List<Apartment> apartments = BenchmarkData.housing().apartments(rows + QUERIES);
+        List<ApartmentSummary> indexed = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            indexed.add(summary(i + 1, apartments.get(i)));
+        }
+        index = new ComparablesIndex();
+        index.putAll(indexed);
+        queries = new ApartmentSummary[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = summary(0, apartments.get(rows + i));
+        }
+
+        int found = 0;
+        for (ApartmentSummary query : queries) {
+            Set<Long> exact = new HashSet<>();
+            index.nearest(query, k, ComparablesIndex.EXACT).forEach(n -> exact.add(n.idApartment()));
+            for (ComparablesIndex.Neighbor neighbor : index.nearest(query, k, LEAVES)) {
+                found += exact.contains(neighbor.idApartment()) ? 1 : 0;
+            }
+        }
+        System.out.printf("%nApproximate (%d leaves) recall@%d over %d queries: %.3f%n",
+                LEAVES, k, QUERIES, (double) found / (QUERIES * k));
+    }
+
+    private static ApartmentSummary summary(int id, Apartment apartment) {
+        apartment.setIdApartment(id);
+        return ApartmentSummary.of(apartment);
+    }
+
+    private ApartmentSummary nextQuery() {
+        return queries[next++ & (QUERIES - 1)];
+    }
+
+    @Benchmark
+    public List<ComparablesIndex.Neighbor> exact() {
+        return index.nearest(nextQuery(), k, ComparablesIndex.EXACT);
+    }
+
+    @Benchmark
+    public List<ComparablesIndex.Neighbor> approximate() {
+        return index.nearest(nextQuery(), k, LEAVES);
+    }
+
+    @Benchmark
+    public List<ComparablesIndex.Neighbor> bruteForce() {
+        return index.nearestByScan(nextQuery(), k);
+    }
+}
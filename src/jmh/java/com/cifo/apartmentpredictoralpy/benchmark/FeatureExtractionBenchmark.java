@@ -0,0 +1,66 @@
+package com.cifo.apartmentpredictoralpy.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cifo.apartmentpredictoralpy.ml.ApartmentFeatures;
+import com.cifo.apartmentpredictoralpy.ml.ArrayFeatureSource;
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+
+/**
+ * Turning Apartment entities into feature arrays: row-major (training input),
+ * column-major (batch prediction input) and one row at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeatureExtractionBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private List<Apartment> apartments;
+    private final float[] row = new float[ApartmentFeatures.COUNT];
+
+    @Setup
+    public void generate() {
+        apartments = BenchmarkData.housing().apartments(rows);
+    }
+
+    @Benchmark
+    public ArrayFeatureSource rowMajor() {
+        ArrayFeatureSource.Builder builder = new ArrayFeatureSource.Builder();
+        apartments.forEach(builder::add);
+        return builder.build();
+    }
+
+    @Benchmark
+    public float[][] columnMajor() {
+        return ApartmentFeatures.toColumns(apartments);
+    }
+
+    @Benchmark
+    public float encodeEach() {
+        float sum = 0;
+        for (Apartment apartment : apartments) {
+            ApartmentFeatures.encode(apartment, row, 0);
+            sum += row[ApartmentFeatures.AREA];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,174 @@
+package com.cifo.apartmentpredictoralpy.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load test of the apartment listing over HTTP, with request threads on the
+ * bounded Tomcat pool (virtualThreads=false) and on virtual threads (true).
+ *
+ * 400 client threads, twice Tomcat's default 200 request threads, each fetch a
+ * page of 50 apartments from a random position of a {@code rows}-row file
+ * database, through the synchronous and the CompletableFuture endpoint. The
+ * server is a BenchmarkServer process with a fixed 512 MB heap and a connection
+ * pool of one connection per client thread, so neither Hikari's default 10
+ * connections nor the client's allocations cap it. Run with e.g.
+ * mvn -Pbenchmark -DskipTests verify -Djmh.include=HttpLoadBenchmark
+ *
+ * latencyMillis=0 measures the server's CPU cost per request, where both modes
+ * should score alike. With latencyMillis=1000 every listing query blocks a second
+ * on its connection, so the platform pool, with 200 of the 400 requests in
+ * flight, tops out at 200 requests/s and virtual threads, with all of them, at
+ * 400 requests/s; the latency is that long so those limits stay below what the
+ * server's CPUs can serve. On a machine with two or more CPUs the server is
+ * pinned to the upper half and the client to the lower half (taskset), so the
+ * client's load stays out of the server's budget. On one CPU they share it, and
+ * the 400 responses that wake together queue for it, which eats most of the
+ * virtual-thread gain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(HttpLoadBenchmark.CLIENTS)
+@Fork(1)
+public class HttpLoadBenchmark {
+
+    static final int CLIENTS = 400;
+
+    private static final Path TASKSET = Path.of("/usr/bin/taskset");
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"0", "1000"})
+    public long latencyMillis;
+
+    @Param({"10000"})
+    public int rows;
+
+    private Process server;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        List<Integer> cpus = cpus();
+        if (cpus.size() >= 2) {
+            List<Integer> serverCpus = cpus.subList(cpus.size() / 2, cpus.size());
+            run(TASKSET.toString(), "-a", "-p", "-c", join(cpus.subList(0, cpus.size() / 2)),
+                    Long.toString(ProcessHandle.current().pid()));
+            command.addAll(List.of(TASKSET.toString(), "-c", join(serverCpus)));
+        }
+        command.addAll(List.of(
+                ProcessHandle.current().info().command().orElse("java"), "-Xms512m", "-Xmx512m",
+                // DevTools would restart a main() launch on its own class loader
+                "-Dspring.devtools.restart.enabled=false",
+                "-cp", System.getProperty("java.class.path"), BenchmarkServer.class.getName(),
+                Integer.toString(rows), Long.toString(latencyMillis),
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.hikari.maximum-pool-size=" + CLIENTS));
+        server = new ProcessBuilder(command).redirectErrorStream(true).start();
+        BufferedReader output = new BufferedReader(
+                new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = output.readLine()) != null && !line.startsWith(BenchmarkServer.READY)) {
+            System.out.println(line);
+        }
+        if (line == null) {
+            throw new IllegalStateException("Benchmark server exited with " + server.waitFor());
+        }
+        // Keep draining so a chatty server never blocks on a full pipe
+        Thread.ofVirtual().start(() -> output.lines().forEach(System.out::println));
+        baseUrl = "http://localhost:" + line.substring(BenchmarkServer.READY.length()).trim();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+        client.close();
+        server.destroy();
+        server.waitFor();
+    }
+
+    @Benchmark
+    public int listing() throws IOException, InterruptedException {
+        return get("/api/apartments");
+    }
+
+    @Benchmark
+    public int listingAsync() throws IOException, InterruptedException {
+        return get("/api/apartments/async");
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        long afterId = ThreadLocalRandom.current().nextLong(rows);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path + "?size=50&afterId=" + afterId))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+        }
+        return response.body().length();
+    }
+
+    /** The CPUs this process may run on, empty when taskset is not available. */
+    private static List<Integer> cpus() throws IOException, InterruptedException {
+        List<Integer> cpus = new ArrayList<>();
+        if (!Files.isExecutable(TASKSET)) {
+            return cpus;
+        }
+        // "pid 123's current affinity list: 0-3,6"
+        String output = run(TASKSET.toString(), "-c", "-p", Long.toString(ProcessHandle.current().pid()));
+        for (String range : output.substring(output.lastIndexOf(':') + 1).trim().split(",")) {
+            String[] bounds = range.split("-");
+            int last = Integer.parseInt(bounds[bounds.length - 1]);
+            for (int cpu = Integer.parseInt(bounds[0]); cpu <= last; cpu++) {
+                cpus.add(cpu);
+            }
+        }
+        return cpus;
+    }
+
+    private static String join(List<Integer> cpus) {
+        return String.join(",", cpus.stream().map(String::valueOf).toList());
+    }
+
+    private static String run(String... command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException(String.join(" ", command) + " failed: " + output);
+        }
+        return output;
+    }
+}
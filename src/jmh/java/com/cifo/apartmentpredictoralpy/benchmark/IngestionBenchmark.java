@@ -0,0 +1,78 @@
+package com.cifo.apartmentpredictoralpy.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.cifo.apartmentpredictoralpy.service.ApartmentCsvLoader;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * CSV import throughput: ApartmentCsvLoader parsing a scaled-up Housing.csv and
+ * inserting it with JDBC batches, on an in-memory and on a file database.
+ *
+ * The loader is built with a no-op event publisher so the search index rebuild
+ * that normally follows an import is not part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IngestionBenchmark {
+
+    @Param({"mem", "file"})
+    public String mode;
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ApartmentCsvLoader loader;
+    private JdbcTemplate jdbc;
+    private String csv;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = BenchmarkApplication.start(mode);
+        DataSource dataSource = context.getBean(DataSource.class);
+        loader = new ApartmentCsvLoader(dataSource, event -> { }, new SimpleMeterRegistry(), 1000, 10_000);
+        jdbc = new JdbcTemplate(dataSource);
+        csv = BenchmarkData.housing().csv(rows);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbc.execute("DELETE FROM APARTMENT");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public long loadCsv() throws IOException {
+        return loader.loadCsv(new StringReader(csv)).rows();
+    }
+}
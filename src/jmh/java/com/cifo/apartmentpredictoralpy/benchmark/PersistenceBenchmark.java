@@ -0,0 +1,85 @@
+package com.cifo.apartmentpredictoralpy.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+
+/**
+ * ApartmentRepository.saveAll() against bulkSave(), on an in-memory and on a
+ * file database. Each invocation saves a fresh list of new apartments; the
+ * table is emptied after every iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @Param({"mem", "file"})
+    public String mode;
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ApartmentRepository repository;
+    private JdbcTemplate jdbc;
+    private BenchmarkData data;
+    private List<Apartment> apartments;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        context = BenchmarkApplication.start(mode);
+        repository = context.getBean(ApartmentRepository.class);
+        jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+        data = BenchmarkData.housing();
+    }
+
+    @Setup(Level.Invocation)
+    public void newApartments() {
+        apartments = data.apartments(rows);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbc.execute("DELETE FROM APARTMENT");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Iterable<Apartment> saveAll() {
+        return repository.saveAll(apartments);
+    }
+
+    @Benchmark
+    public long bulkSave() {
+        return repository.bulkSave(apartments);
+    }
+}
@@ -0,0 +1,101 @@
+package com.cifo.apartmentpredictoralpy.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cifo.apartmentpredictoralpy.ml.ApartmentFeatures;
+import com.cifo.apartmentpredictoralpy.ml.ArrayFeatureSource;
+import com.cifo.apartmentpredictoralpy.ml.GradientBoostingParams;
+import com.cifo.apartmentpredictoralpy.ml.GradientBoostingTrainer;
+import com.cifo.apartmentpredictoralpy.ml.PriceModel;
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+
+/**
+ * Price prediction with a model trained (once per trial) on the synthetic data
+ * using the default hyperparameters.
+ *
+ * single* score one apartment per call, from an entity or from an already
+ * encoded row; batch* score {@code rows} apartments given as feature columns,
+ * on the calling thread or on a ForkJoinPool with every core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PredictionBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private ForkJoinPool pool;
+    private PriceModel model;
+    private List<Apartment> apartments;
+    private float[] encoded;
+    private float[][] columns;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void train() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        apartments = BenchmarkData.housing().apartments(rows);
+        ArrayFeatureSource.Builder builder = new ArrayFeatureSource.Builder();
+        apartments.forEach(builder::add);
+        model = new GradientBoostingTrainer(pool).train(builder.build(), GradientBoostingParams.DEFAULTS);
+        encoded = new float[rows * ApartmentFeatures.COUNT];
+        for (int r = 0; r < rows; r++) {
+            ApartmentFeatures.encode(apartments.get(r), encoded, r * ApartmentFeatures.COUNT);
+        }
+        columns = ApartmentFeatures.toColumns(apartments);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        pool.shutdown();
+    }
+
+    /** Cycles through the apartments so single predictions do not hit one hot path. */
+    private int nextRow() {
+        int row = next;
+        next = row + 1 == rows ? 0 : row + 1;
+        return row;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double singleFromEntity() {
+        return model.predict(apartments.get(nextRow()));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double singleFromRow() {
+        return model.predict(encoded, nextRow() * ApartmentFeatures.COUNT);
+    }
+
+    @Benchmark
+    public double[] batchSequential() {
+        return model.predictBatch(columns, null);
+    }
+
+    @Benchmark
+    public double[] batchParallel() {
+        return model.predictBatch(columns, pool);
+    }
+}
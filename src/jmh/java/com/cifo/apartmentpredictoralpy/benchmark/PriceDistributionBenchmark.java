@@ -0,0 +1,88 @@
+package com.cifo.apartmentpredictoralpy.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.search.PriceDistributions;
+
+/**
+ * Price quantiles of a segment (3 bedrooms) over {@code rows} synthetic
+ * apartments: from the sketches when nothing changed since the last query
+ * (cached), right after an apartment was added (the segment's merged sketch is
+ * re-sorted), merged from the cells of a segment not queried before, and by
+ * sorting the segment's prices, as an ORDER BY percentile query would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceDistributionBenchmark {
+
+    private static final PriceDistributions.Segment SEGMENT =
+            new PriceDistributions.Segment(3, null, null, null, null, null, null, null, null);
+
+    @Param({"100000"})
+    public int rows;
+
+    private PriceDistributions distributions;
+    private List<ApartmentSummary> apartments;
+    private PriceDistributions.Segment[] otherSegments;
+    private double[] segmentPrices;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        apartments = BenchmarkData.housing().apartments(rows).stream().map(ApartmentSummary::of).toList();
+        distributions = new PriceDistributions(PriceDistributions.DEFAULT_K);
+        apartments.forEach(distributions::add);
+        segmentPrices = apartments.stream().filter(a -> Integer.valueOf(3).equals(a.bedrooms()))
+                .mapToDouble(ApartmentSummary::price).toArray();
+        // More segments than are kept merged, so each query below merges cells again
+        otherSegments = new PriceDistributions.Segment[128];
+        for (int i = 0; i < otherSegments.length; i++) {
+            otherSegments[i] = new PriceDistributions.Segment(i % 2 == 0 ? null : 1 + i % 6, (i & 2) != 0,
+                    null, (i & 4) != 0, (i & 8) != 0, (i & 16) != 0, (i & 32) != 0, null, (i & 64) != 0);
+        }
+    }
+
+    @Benchmark
+    public PriceDistributions.Distribution cached() {
+        return distributions.distribution(SEGMENT);
+    }
+
+    @Benchmark
+    public PriceDistributions.Distribution afterUpdate() {
+        distributions.add(apartments.get(next++ % apartments.size()));
+        return distributions.distribution(SEGMENT);
+    }
+
+    @Benchmark
+    public PriceDistributions.Distribution uncachedSegment() {
+        return distributions.distribution(otherSegments[next++ & (otherSegments.length - 1)]);
+    }
+
+    @Benchmark
+    public double[] sortSegment() {
+        double[] sorted = segmentPrices.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return new double[] {sorted[n / 10], sorted[n / 2], sorted[9 * n / 10]};
+    }
+}
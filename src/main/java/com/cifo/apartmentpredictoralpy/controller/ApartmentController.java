@@ -0,0 +1,174 @@
+package com.cifo.apartmentpredictoralpy.controller;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentRating;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.search.ApartmentIndex;
+import com.cifo.apartmentpredictoralpy.search.ApartmentQuery;
+import com.cifo.apartmentpredictoralpy.service.ApartmentSearchService;
+import com.cifo.apartmentpredictoralpy.service.ApartmentService;
+import com.cifo.apartmentpredictoralpy.service.InvalidRequestException;
+
+/**
+ * REST endpoints for apartments.
+ *
+ * GET /api/apartments lists apartment summaries with keyset pagination:
+ * - sort / direction: column to sort by (default idApartment, asc)
+ * - size: rows per page (default 50)
+ * - afterId / afterValue: copy nextAfterId / nextAfterValue from the previous
+ *   response to get the next page. afterValue is only used when sorting by a
+ *   column other than idApartment. Apartments whose sort column is NULL come
+ *   last; a page ending among them has a null nextAfterValue, and omitting
+ *   afterValue continues inside that NULL tail.
+ * Each page also carries the rating aggregates of its apartments (ratings,
+ * keyed by idApartment; apartments without reviews are absent).
+ * GET /api/apartments/async takes the same parameters and returns the same page,
+ * but runs the queries on apiExecutor (see AsyncRequestConfig) and releases the
+ * request thread while they wait on the database.
+ *
+ * GET /api/apartments/{id}/rating returns one apartment's rating aggregate and
+ * POST /api/apartments/ratings/rebuild recomputes all of them.
+ *
+ * GET /api/apartments/search filters with the in-memory search index:
+ * - mainroad, guestroom, basement, hotwater, heating, airconditioning, prefarea:
+ *   true or false to require or exclude the amenity
+ * - furnishing: one or more furnishingstatus values, any of them matches
+ * - minPrice/maxPrice, minArea/maxArea, minBedrooms/maxBedrooms, minParking/maxParking
+ * - limit: matches returned (default 50); total always counts every match
+ */
+@RestController
+@RequestMapping("/api/apartments")
+public class ApartmentController {
+
+    private final ApartmentService apartmentService;
+    private final ApartmentSearchService searchService;
+    private final ExecutorService apiExecutor;
+
+    public ApartmentController(ApartmentService apartmentService, ApartmentSearchService searchService,
+                               @Qualifier("apiExecutor") ExecutorService apiExecutor) {
+        this.apartmentService = apartmentService;
+        this.searchService = searchService;
+        this.apiExecutor = apiExecutor;
+    }
+
+    @GetMapping
+    public ApartmentPage listApartments(@RequestParam(defaultValue = "idApartment") String sort,
+                                        @RequestParam(defaultValue = "asc") String direction,
+                                        @RequestParam(defaultValue = "50") int size,
+                                        @RequestParam(required = false) Long afterId,
+                                        @RequestParam(required = false) Integer afterValue) {
+        return listPage(sort, direction, size, afterId, afterValue);
+    }
+
+    @GetMapping("/async")
+    public CompletableFuture<ApartmentPage> listApartmentsAsync(@RequestParam(defaultValue = "idApartment") String sort,
+                                                                @RequestParam(defaultValue = "asc") String direction,
+                                                                @RequestParam(defaultValue = "50") int size,
+                                                                @RequestParam(required = false) Long afterId,
+                                                                @RequestParam(required = false) Integer afterValue) {
+        return CompletableFuture.supplyAsync(() -> listPage(sort, direction, size, afterId, afterValue), apiExecutor);
+    }
+
+    private ApartmentPage listPage(String sort, String direction, int size, Long afterId, Integer afterValue) {
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new InvalidRequestException("direction must be asc or desc"));
+        Sort order = Sort.by(sortDirection, sort);
+        if (!"idApartment".equals(sort)) {
+            order = order.and(Sort.by(sortDirection, "idApartment"));
+        }
+
+        ScrollPosition position = ScrollPosition.keyset();
+        if (afterId != null) {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            if (!"idApartment".equals(sort)) {
+                keys.put(sort, afterValue);
+            }
+            keys.put("idApartment", afterId);
+            position = ScrollPosition.forward(keys);
+        }
+
+        Window<ApartmentSummary> window = apartmentService.listApartments(position, order, size);
+        Map<Long, ApartmentRating> ratings = apartmentService.findRatings(
+                window.getContent().stream().map(ApartmentSummary::idApartment).toList());
+        if (window.isEmpty() || !window.hasNext()) {
+            return new ApartmentPage(window.getContent(), ratings, false, null, null);
+        }
+        Map<String, Object> last = ((KeysetScrollPosition) window.positionAt(window.size() - 1)).getKeys();
+        return new ApartmentPage(window.getContent(), ratings, true,
+                (Long) last.get("idApartment"), "idApartment".equals(sort) ? null : last.get(sort));
+    }
+
+    @GetMapping("/{id}/rating")
+    public ResponseEntity<ApartmentRating> rating(@PathVariable long id) {
+        return ResponseEntity.of(apartmentService.findRating(id));
+    }
+
+    @PostMapping("/ratings/rebuild")
+    public Map<String, Integer> rebuildRatings() {
+        return Map.of("apartments", apartmentService.rebuildRatings());
+    }
+
+    @GetMapping("/search")
+    public ApartmentSearchService.SearchPage search(@RequestParam(required = false) Boolean mainroad,
+                                                    @RequestParam(required = false) Boolean guestroom,
+                                                    @RequestParam(required = false) Boolean basement,
+                                                    @RequestParam(required = false) Boolean hotwater,
+                                                    @RequestParam(required = false) Boolean heating,
+                                                    @RequestParam(required = false) Boolean airconditioning,
+                                                    @RequestParam(required = false) Boolean prefarea,
+                                                    @RequestParam(required = false) List<String> furnishing,
+                                                    @RequestParam(required = false) Integer minPrice,
+                                                    @RequestParam(required = false) Integer maxPrice,
+                                                    @RequestParam(required = false) Integer minArea,
+                                                    @RequestParam(required = false) Integer maxArea,
+                                                    @RequestParam(required = false) Integer minBedrooms,
+                                                    @RequestParam(required = false) Integer maxBedrooms,
+                                                    @RequestParam(required = false) Integer minParking,
+                                                    @RequestParam(required = false) Integer maxParking,
+                                                    @RequestParam(defaultValue = "50") int limit) {
+        ApartmentQuery.Builder query = ApartmentQuery.builder();
+        Boolean[] flags = {mainroad, guestroom, basement, hotwater, heating, airconditioning, prefarea};
+        for (ApartmentIndex.Amenity amenity : ApartmentIndex.Amenity.values()) {
+            if (flags[amenity.ordinal()] != null) {
+                query.amenity(amenity, flags[amenity.ordinal()]);
+            }
+        }
+        if (furnishing != null) {
+            furnishing.forEach(query::furnishing);
+        }
+        try {
+            query.range(ApartmentIndex.RangeField.PRICE, minPrice, maxPrice)
+                    .range(ApartmentIndex.RangeField.AREA, minArea, maxArea)
+                    .range(ApartmentIndex.RangeField.BEDROOMS, minBedrooms, maxBedrooms)
+                    .range(ApartmentIndex.RangeField.PARKING, minParking, maxParking);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e.getMessage(), e);
+        }
+        return searchService.searchApartments(query.build(), limit);
+    }
+
+    /**
+     * One page of the apartment listing plus the cursor of the next page.
+     */
+    public record ApartmentPage(List<ApartmentSummary> items, Map<Long, ApartmentRating> ratings, boolean hasNext,
+                                Long nextAfterId, Object nextAfterValue) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.cifo.apartmentpredictoralpy.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.cifo.apartmentpredictoralpy.service.InvalidRequestException;
+import com.cifo.apartmentpredictoralpy.service.ServiceUnavailableException;
+
+/**
+ * Turns invalid client input (InvalidRequestException) into 400 Bad Request
+ * and requests the service cannot serve yet (ServiceUnavailableException, e.g.
+ * no price model trained) into 503 Service Unavailable, with the exception
+ * message as the error. Both are only thrown where input is checked or
+ * readiness is tested; any other exception stays a 500 and its message is not
+ * sent to the client.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Map<String, String>> badRequest(InvalidRequestException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String, String>> unavailable(ServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+}
@@ -0,0 +1,50 @@
+package com.cifo.apartmentpredictoralpy.controller;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Threads behind the asynchronous endpoints (the ones returning CompletableFuture).
+ *
+ * With spring.threads.virtual.enabled=true Tomcat runs every request on a virtual
+ * thread and apiExecutor starts one virtual thread per task, so requests blocked
+ * on H2 or on a pooled connection no longer hold a platform thread. Otherwise the
+ * async endpoints share a fixed pool of apartment.async.threads platform threads,
+ * which keeps them from starving the Tomcat request threads.
+ *
+ * Locks on request paths are ReentrantLocks, never synchronized, so a virtual
+ * thread blocked inside one (or in JDBC under one) does not pin its carrier.
+ */
+@Configuration
+public class AsyncRequestConfig implements WebMvcConfigurer {
+
+    private final Duration timeout;
+
+    public AsyncRequestConfig(@Value("${apartment.async.timeout:30s}") Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService apiExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                       @Value("${apartment.async.threads:16}") int threads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("api-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("api-", 0).daemon().factory());
+    }
+
+    /**
+     * Requests still waiting for their CompletableFuture after the timeout get 503.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(timeout.toMillis());
+    }
+}
@@ -0,0 +1,69 @@
+package com.cifo.apartmentpredictoralpy.controller;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.search.ComparablesIndex;
+import com.cifo.apartmentpredictoralpy.service.ComparablesService;
+import com.cifo.apartmentpredictoralpy.service.InvalidRequestException;
+
+/**
+ * REST endpoints for comparable apartments, answered from memory.
+ *
+ * GET /api/comparables/{id} returns the priced apartments most similar to a
+ * stored one (404 if it does not exist); POST /api/comparables does the same
+ * for an apartment given in the body (same fields as the listing).
+ * POST /api/comparables/estimate prices the apartment in the body from its
+ * comparables. All of them take:
+ * - k: number of comparables (default 10, at most apartment.comparables.max-k)
+ * - mode: exact (default) or approximate
+ */
+@RestController
+@RequestMapping("/api/comparables")
+public class ComparablesController {
+
+    private final ComparablesService comparablesService;
+
+    public ComparablesController(ComparablesService comparablesService) {
+        this.comparablesService = comparablesService;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<List<ComparablesIndex.Neighbor>> comparables(@PathVariable long id,
+                                                                       @RequestParam(defaultValue = "10") int k,
+                                                                       @RequestParam(defaultValue = "exact") String mode) {
+        return ResponseEntity.of(comparablesService.comparables(id, k, mode(mode)));
+    }
+
+    @PostMapping
+    public List<ComparablesIndex.Neighbor> comparables(@RequestBody ApartmentSummary apartment,
+                                                       @RequestParam(defaultValue = "10") int k,
+                                                       @RequestParam(defaultValue = "exact") String mode) {
+        return comparablesService.comparables(apartment, k, mode(mode));
+    }
+
+    @PostMapping("/estimate")
+    public ComparablesService.KnnEstimate estimate(@RequestBody ApartmentSummary apartment,
+                                                   @RequestParam(defaultValue = "10") int k,
+                                                   @RequestParam(defaultValue = "exact") String mode) {
+        return comparablesService.estimate(apartment, k, mode(mode));
+    }
+
+    private static ComparablesService.Mode mode(String mode) {
+        try {
+            return ComparablesService.Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("mode must be exact or approximate");
+        }
+    }
+}
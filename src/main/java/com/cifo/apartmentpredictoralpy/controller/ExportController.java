@@ -0,0 +1,71 @@
+package com.cifo.apartmentpredictoralpy.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cifo.apartmentpredictoralpy.service.ExportFormat;
+import com.cifo.apartmentpredictoralpy.service.ExportService;
+import com.cifo.apartmentpredictoralpy.service.InvalidRequestException;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Full-table exports for analysts and offline training.
+ *
+ * GET /api/export/apartments, /api/export/owners and /api/export/reviews stream
+ * every row straight to the response (see ExportService), so the export size is
+ * not limited by the heap. Parameters:
+ * - format: ndjson (default) or csv
+ * - gzip: true to compress the body (Content-Encoding: gzip)
+ * The body is written on the request thread while the rows are read, without
+ * the async request timeout.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/{table}")
+    public void export(@PathVariable String table,
+                       @RequestParam(defaultValue = "ndjson") String format,
+                       @RequestParam(defaultValue = "false") boolean gzip,
+                       HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        if (!table.equals("apartments") && !table.equals("owners") && !table.equals("reviews")) {
+            throw new InvalidRequestException("Unknown export '" + table + "', use apartments, owners or reviews");
+        }
+
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + table + "." + exportFormat.extension() + "\"");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        OutputStream body = response.getOutputStream();
+        OutputStream out = gzip ? new GZIPOutputStream(body, 1 << 16) : body;
+        switch (table) {
+            case "apartments" -> exportService.exportApartments(exportFormat, out);
+            case "owners" -> exportService.exportOwners(exportFormat, out);
+            default -> exportService.exportReviews(exportFormat, out);
+        }
+        if (out instanceof GZIPOutputStream compressed) {
+            compressed.finish();
+        }
+        body.flush();
+    }
+}
@@ -0,0 +1,121 @@
+package com.cifo.apartmentpredictoralpy.controller;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cifo.apartmentpredictoralpy.ml.GradientBoostingParams;
+import com.cifo.apartmentpredictoralpy.ml.ParameterGrid;
+import com.cifo.apartmentpredictoralpy.ml.PriceModel;
+import com.cifo.apartmentpredictoralpy.service.ModelRegistry;
+import com.cifo.apartmentpredictoralpy.service.ModelTuningService;
+import com.cifo.apartmentpredictoralpy.service.TrainingJob;
+import com.cifo.apartmentpredictoralpy.service.TuningJob;
+
+/**
+ * REST endpoints for the price models.
+ *
+ * GET /api/models returns the current model and the history kept for rollback.
+ * POST /api/models/training queues a training run and returns 202 with the job
+ * status right away; the body is optional and holds GradientBoostingParams fields
+ * (all of them). GET /api/models/training/{id} polls a job, DELETE cancels it.
+ * POST /api/models/rollback makes the previous model (or ?version=) current again.
+ *
+ * POST /api/models/tuning queues a cross-validated grid search (body: a
+ * ParameterGrid, optional ?folds= and ?seed=) and returns 202; GET
+ * /api/models/tuning/{id} polls it and holds the report once it is done,
+ * DELETE cancels it.
+ */
+@RestController
+@RequestMapping("/api/models")
+public class ModelController {
+
+    private final ModelRegistry modelRegistry;
+    private final ModelTuningService modelTuningService;
+
+    public ModelController(ModelRegistry modelRegistry, ModelTuningService modelTuningService) {
+        this.modelRegistry = modelRegistry;
+        this.modelTuningService = modelTuningService;
+    }
+
+    @GetMapping
+    public Models models() {
+        return new Models(modelRegistry.current().map(ModelInfo::of).orElse(null),
+                modelRegistry.history().stream().map(ModelInfo::of).toList());
+    }
+
+    @PostMapping("/training")
+    public ResponseEntity<TrainingJob.Status> train(@RequestBody(required = false) GradientBoostingParams params) {
+        TrainingJob job = modelRegistry.submit(params != null ? params : GradientBoostingParams.DEFAULTS);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.status());
+    }
+
+    @GetMapping("/training")
+    public List<TrainingJob.Status> jobs() {
+        return modelRegistry.jobs().stream().map(TrainingJob::status).toList();
+    }
+
+    @GetMapping("/training/{id}")
+    public ResponseEntity<TrainingJob.Status> job(@PathVariable long id) {
+        return ResponseEntity.of(modelRegistry.findJob(id).map(TrainingJob::status));
+    }
+
+    @DeleteMapping("/training/{id}")
+    public ResponseEntity<TrainingJob.Status> cancel(@PathVariable long id) {
+        return ResponseEntity.of(modelRegistry.findJob(id).map(job -> {
+            job.cancel();
+            return job.status();
+        }));
+    }
+
+    @PostMapping("/rollback")
+    public ModelInfo rollback(@RequestParam(required = false) Long version) {
+        return ModelInfo.of(version == null ? modelRegistry.rollback() : modelRegistry.rollback(version));
+    }
+
+    @PostMapping("/tuning")
+    public ResponseEntity<TuningJob.Status> tune(@RequestBody ParameterGrid grid,
+                                                 @RequestParam(required = false) Integer folds,
+                                                 @RequestParam(defaultValue = "42") long seed) {
+        TuningJob job = modelTuningService.submit(grid, folds, seed);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.status());
+    }
+
+    @GetMapping("/tuning")
+    public List<TuningJob.Status> tuningJobs() {
+        return modelTuningService.jobs().stream().map(TuningJob::status).toList();
+    }
+
+    @GetMapping("/tuning/{id}")
+    public ResponseEntity<TuningJob.Status> tuningJob(@PathVariable long id) {
+        return ResponseEntity.of(modelTuningService.findJob(id).map(TuningJob::status));
+    }
+
+    @DeleteMapping("/tuning/{id}")
+    public ResponseEntity<TuningJob.Status> cancelTuning(@PathVariable long id) {
+        return ResponseEntity.of(modelTuningService.findJob(id).map(job -> {
+            job.cancel();
+            return job.status();
+        }));
+    }
+
+    public record Models(ModelInfo current, List<ModelInfo> history) {
+    }
+
+    public record ModelInfo(long version, Instant trainedAt, int treeCount, int nodeCount) {
+
+        static ModelInfo of(PriceModel model) {
+            return new ModelInfo(model.version(), model.trainedAt(), model.treeCount(), model.nodeCount());
+        }
+    }
+}
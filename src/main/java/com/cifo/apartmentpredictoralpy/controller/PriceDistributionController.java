@@ -0,0 +1,49 @@
+package com.cifo.apartmentpredictoralpy.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cifo.apartmentpredictoralpy.search.PriceDistributions;
+import com.cifo.apartmentpredictoralpy.service.InvalidRequestException;
+import com.cifo.apartmentpredictoralpy.service.PriceDistributionService;
+
+/**
+ * REST endpoint for price distributions per market segment, answered from memory.
+ *
+ * GET /api/price-distributions returns the count, minimum, p10, median, p90 and
+ * maximum of price and of price per unit of area. Any of bedrooms, prefarea,
+ * furnishing, mainroad, guestroom, basement, hotwater, heating and
+ * airconditioning narrows the segment (none = all priced apartments).
+ */
+@RestController
+@RequestMapping("/api/price-distributions")
+public class PriceDistributionController {
+
+    private final PriceDistributionService priceDistributionService;
+
+    public PriceDistributionController(PriceDistributionService priceDistributionService) {
+        this.priceDistributionService = priceDistributionService;
+    }
+
+    @GetMapping
+    public PriceDistributions.Distribution distribution(@RequestParam(required = false) Integer bedrooms,
+                                                        @RequestParam(required = false) Boolean prefarea,
+                                                        @RequestParam(required = false) String furnishing,
+                                                        @RequestParam(required = false) Boolean mainroad,
+                                                        @RequestParam(required = false) Boolean guestroom,
+                                                        @RequestParam(required = false) Boolean basement,
+                                                        @RequestParam(required = false) Boolean hotwater,
+                                                        @RequestParam(required = false) Boolean heating,
+                                                        @RequestParam(required = false) Boolean airconditioning) {
+        PriceDistributions.Segment segment;
+        try {
+            segment = new PriceDistributions.Segment(bedrooms, prefarea, furnishing,
+                    mainroad, guestroom, basement, hotwater, heating, airconditioning);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e.getMessage(), e);
+        }
+        return priceDistributionService.distribution(segment);
+    }
+}
@@ -0,0 +1,178 @@
+package com.cifo.apartmentpredictoralpy.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cifo.apartmentpredictoralpy.ml.ApartmentFeatures;
+import com.cifo.apartmentpredictoralpy.ml.PredictionCache;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.service.ApartmentService;
+import com.cifo.apartmentpredictoralpy.service.InvalidRequestException;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.json.JsonFactory;
+
+/**
+ * REST endpoints for price predictions.
+ *
+ * POST /api/predictions takes one apartment (same fields as the listing) and
+ * returns its predicted price.
+ *
+ * POST /api/predictions/async and POST /api/predictions/batch/async do the same
+ * as their synchronous twins but release the request thread until the prediction
+ * is done: the single prediction waits for its micro-batch (PredictionBatcher)
+ * without blocking, the batch one runs on apiExecutor (see AsyncRequestConfig).
+ * Both answer 503 when predictions cannot be queued right now.
+ *
+ * POST /api/predictions/batch takes feature columns, e.g.
+ * {"area": [7420, 8960], "bedrooms": [4, 4], "prefarea": [1, 0], ...}
+ * with the names of ApartmentFeatures.FEATURE_NAMES (booleans as 0/1,
+ * furnishingstatus as 0/1/2). Missing columns are treated as unknown values.
+ * The response holds one price per row, in input order. The body is parsed as a
+ * stream, and a column longer than apartment.prediction.max-batch-rows is
+ * rejected with 400 as soon as its next value is read, so an oversized request
+ * never costs more than one column buffer of that many rows per feature.
+ *
+ * GET /api/predictions/cache returns the hit/miss/eviction counters of the
+ * single-prediction cache.
+ */
+@RestController
+@RequestMapping("/api/predictions")
+public class PricePredictionController {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final ApartmentService apartmentService;
+    private final ExecutorService apiExecutor;
+    private final int maxBatchRows;
+
+    public PricePredictionController(ApartmentService apartmentService,
+                                     @Qualifier("apiExecutor") ExecutorService apiExecutor,
+                                     @Value("${apartment.prediction.max-batch-rows:100000}") int maxBatchRows) {
+        this.apartmentService = apartmentService;
+        this.apiExecutor = apiExecutor;
+        this.maxBatchRows = maxBatchRows;
+    }
+
+    @PostMapping
+    public PricePrediction predict(@RequestBody ApartmentSummary apartment) {
+        return new PricePrediction(apartmentService.predictPrice(apartment));
+    }
+
+    @PostMapping("/async")
+    public CompletableFuture<PricePrediction> predictAsync(@RequestBody ApartmentSummary apartment) {
+        return apartmentService.predictPriceAsync(apartment).thenApply(PricePrediction::new);
+    }
+
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BatchPricePrediction predictBatch(InputStream body) throws IOException {
+        return predictBatch(readColumns(body));
+    }
+
+    @PostMapping(path = "/batch/async", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<BatchPricePrediction> predictBatchAsync(InputStream body) throws IOException {
+        float[][] columns = readColumns(body);
+        return CompletableFuture.supplyAsync(() -> predictBatch(columns), apiExecutor);
+    }
+
+    private BatchPricePrediction predictBatch(float[][] columns) {
+        return new BatchPricePrediction(apartmentService.predictPrices(columns));
+    }
+
+    /**
+     * Reads {"feature": [values...], ...} into one column per ApartmentFeatures
+     * index, NaN-filled where the request has none (or a null value).
+     *
+     * @throws InvalidRequestException for malformed JSON, unknown or repeated
+     *         features, columns of different lengths, or more than maxBatchRows rows
+     */
+    private float[][] readColumns(InputStream body) throws IOException {
+        float[][] columns = new float[ApartmentFeatures.COUNT][];
+        int rows = -1;
+        try (JsonParser parser = JSON.createParser(ObjectReadContext.empty(), body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String name = parser.currentName();
+                int feature = ApartmentFeatures.FEATURE_NAMES.indexOf(name);
+                if (feature < 0) {
+                    throw new InvalidRequestException("Unknown feature '" + name + "'");
+                }
+                if (columns[feature] != null) {
+                    throw new InvalidRequestException("Feature '" + name + "' is given twice");
+                }
+                expect(parser.nextToken(), JsonToken.START_ARRAY);
+                float[] column = readColumn(parser, rows < 0 ? 16 : rows);
+                if (rows >= 0 && column.length != rows) {
+                    throw new InvalidRequestException("All feature columns must have the same length");
+                }
+                rows = column.length;
+                columns[feature] = column;
+            }
+            expect(parser.currentToken(), JsonToken.END_OBJECT);
+        } catch (JacksonException e) {
+            throw new InvalidRequestException("Malformed feature columns: " + e.getOriginalMessage());
+        }
+        if (rows < 0) {
+            throw new InvalidRequestException("At least one feature column is required");
+        }
+        for (int f = 0; f < columns.length; f++) {
+            if (columns[f] == null) {
+                columns[f] = new float[rows];
+                Arrays.fill(columns[f], Float.NaN);
+            }
+        }
+        return columns;
+    }
+
+    private float[] readColumn(JsonParser parser, int expectedRows) {
+        float[] column = new float[Math.min(expectedRows, maxBatchRows)];
+        int rows = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (rows == maxBatchRows) {
+                throw new InvalidRequestException("At most " + maxBatchRows + " rows can be predicted per request");
+            }
+            if (rows == column.length) {
+                column = Arrays.copyOf(column, (int) Math.min(Math.max(16L, 2L * rows), maxBatchRows));
+            }
+            column[rows++] = switch (token) {
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getFloatValue();
+                case VALUE_NULL -> Float.NaN;
+                default -> throw new InvalidRequestException("Feature values must be numbers, got " + token);
+            };
+        }
+        return rows == column.length ? column : Arrays.copyOf(column, rows);
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new InvalidRequestException("Malformed feature columns: expected " + expected + ", got " + actual);
+        }
+    }
+
+    @GetMapping("/cache")
+    public PredictionCache.Stats cacheStats() {
+        return apartmentService.predictionCacheStats();
+    }
+
+    public record PricePrediction(double price) {
+    }
+
+    public record BatchPricePrediction(double[] prices) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.cifo.apartmentpredictoralpy.controller;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.cifo.apartmentpredictoralpy.model.RankedApartment;
+import com.cifo.apartmentpredictoralpy.search.ApartmentRankings;
+import com.cifo.apartmentpredictoralpy.service.ApartmentRankingService;
+import com.cifo.apartmentpredictoralpy.service.InvalidRequestException;
+
+/**
+ * REST endpoints for the review leaderboards, answered from memory.
+ *
+ * GET /api/rankings/top-rated and GET /api/rankings/most-reviewed take:
+ * - at most one of bedrooms, prefarea or furnishing to rank within that segment
+ *   (none = all apartments)
+ * - limit: entries returned (default 10, at most apartment.ranking.size)
+ */
+@RestController
+@RequestMapping("/api/rankings")
+public class RankingController {
+
+    private final ApartmentRankingService rankingService;
+
+    public RankingController(ApartmentRankingService rankingService) {
+        this.rankingService = rankingService;
+    }
+
+    @GetMapping("/top-rated")
+    public List<RankedApartment> topRated(@RequestParam(required = false) Integer bedrooms,
+                                          @RequestParam(required = false) Boolean prefarea,
+                                          @RequestParam(required = false) String furnishing,
+                                          @RequestParam(defaultValue = "10") int limit) {
+        return rankingService.top(ApartmentRankings.Metric.TOP_RATED, segment(bedrooms, prefarea, furnishing), limit);
+    }
+
+    @GetMapping("/most-reviewed")
+    public List<RankedApartment> mostReviewed(@RequestParam(required = false) Integer bedrooms,
+                                              @RequestParam(required = false) Boolean prefarea,
+                                              @RequestParam(required = false) String furnishing,
+                                              @RequestParam(defaultValue = "10") int limit) {
+        return rankingService.top(ApartmentRankings.Metric.MOST_REVIEWED, segment(bedrooms, prefarea, furnishing), limit);
+    }
+
+    private static String segment(Integer bedrooms, Boolean prefarea, String furnishing) {
+        int given = (bedrooms != null ? 1 : 0) + (prefarea != null ? 1 : 0) + (furnishing != null ? 1 : 0);
+        if (given > 1) {
+            throw new InvalidRequestException("Rank by at most one of bedrooms, prefarea or furnishing");
+        }
+        if (bedrooms != null) {
+            return "bedrooms=" + bedrooms;
+        }
+        if (prefarea != null) {
+            return "prefarea=" + prefarea;
+        }
+        if (furnishing != null) {
+            return "furnishing=" + furnishing.toLowerCase(Locale.ROOT);
+        }
+        return ApartmentRankings.ALL;
+    }
+}
@@ -0,0 +1,74 @@
+package com.cifo.apartmentpredictoralpy.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Application metrics on top of what Spring Boot Actuator records by itself.
+ *
+ * Boot already times every repository method (spring.data.repository.invocations)
+ * and, with hibernate.generate_statistics, binds the Hibernate statistics
+ * (hibernate.*: queries, entity loads, second-level cache hits and misses).
+ * This adds:
+ * - apartment.repository.rows: rows read and written per repository method
+ * - apartment.http.queries: SQL statements per HTTP request
+ * The service and prediction timers are registered by the services themselves.
+ * Everything is exposed on /actuator/metrics and /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<QueryCountInterceptor> queryCountInterceptor;
+
+    public MetricsConfig(ObjectProvider<QueryCountInterceptor> queryCountInterceptor) {
+        this.queryCountInterceptor = queryCountInterceptor;
+    }
+
+    @Bean
+    public QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterInspector(QueryCounter queryCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+    }
+
+    @Bean
+    public QueryCountInterceptor queryCountInterceptor(QueryCounter queryCounter, MeterRegistry registry) {
+        return new QueryCountInterceptor(queryCounter, registry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryCountInterceptor.getObject()).addPathPatterns("/api/**");
+    }
+
+    /**
+     * Adds RepositoryRowMetrics to every Spring Data repository. Static, like all
+     * BeanPostProcessors, so the registry is only looked up when a repository is built.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryRowMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxy, information) -> proxy.addAdvice(new RepositoryRowMetrics(
+                                    registry.getObject(), information.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.cifo.apartmentpredictoralpy.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records how many SQL statements each request made Hibernate prepare, as the
+ * distribution summary apartment.http.queries (tags method and uri, the matched
+ * route pattern). A request that goes asynchronous is not recorded, as its work
+ * continues on other threads.
+ */
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+
+    private final QueryCounter queryCounter;
+    private final MeterRegistry registry;
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public QueryCountInterceptor(QueryCounter queryCounter, MeterRegistry registry) {
+        this.queryCounter = queryCounter;
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        queryCounter.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        queryCounter.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        int queries = queryCounter.stop();
+        if (queries < 0) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String method = request.getMethod();
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        summaries.computeIfAbsent(method + " " + uri, key -> DistributionSummary.builder("apartment.http.queries")
+                        .description("SQL statements prepared per HTTP request")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(registry))
+                .record(queries);
+    }
+}
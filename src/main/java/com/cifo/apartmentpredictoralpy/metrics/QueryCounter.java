@@ -0,0 +1,40 @@
+package com.cifo.apartmentpredictoralpy.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a
+ * count is open, e.g. for the duration of one HTTP request.
+ *
+ * Registered as Hibernate's StatementInspector (see MetricsConfig); it never
+ * changes the SQL. Statements sent with plain JDBC (the CSV import) are not seen.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] current = count.get();
+        if (current != null) {
+            current[0]++;
+        }
+        return sql;
+    }
+
+    /** Starts counting on the current thread. */
+    public void start() {
+        count.set(new int[1]);
+    }
+
+    /**
+     * Stops counting on the current thread.
+     *
+     * @return statements prepared since start(), or -1 if start() was not called
+     */
+    public int stop() {
+        int[] current = count.get();
+        count.remove();
+        return current == null ? -1 : current[0];
+    }
+}
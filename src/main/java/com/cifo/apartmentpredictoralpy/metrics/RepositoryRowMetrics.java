@@ -0,0 +1,117 @@
+package com.cifo.apartmentpredictoralpy.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.BaseStream;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.Modifying;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Repository advice counting the rows each repository method reads or writes,
+ * as the counter apartment.repository.rows (tags repository, method, operation).
+ *
+ * Timings come from Spring Boot's spring.data.repository.invocations timer; this
+ * only adds the row counts, which that timer cannot see. Rows are derived from
+ * the call itself:
+ * - save*, bulkSave*, delete*: the size of an Iterable argument, otherwise 1
+ * - @Modifying queries: the update count they return
+ * - anything else: the size of the returned collection, Window or Slice,
+ *   1 for an entity or a present Optional. Streams and scalar results
+ *   (counts, exists) are not counted.
+ */
+public class RepositoryRowMetrics implements MethodInterceptor {
+
+    private final MeterRegistry registry;
+    private final String repository;
+    private final Map<Method, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * @param repository simple name of the repository interface the advice is added to
+     */
+    public RepositoryRowMetrics(MeterRegistry registry, String repository) {
+        this.registry = registry;
+        this.repository = repository;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return result;
+        }
+        long rows = isWrite(method) ? rowsWritten(method, invocation.getArguments(), result) : rowsRead(result);
+        if (rows > 0) {
+            counters.computeIfAbsent(method, this::counter).increment(rows);
+        }
+        return result;
+    }
+
+    private Counter counter(Method method) {
+        return Counter.builder("apartment.repository.rows")
+                .description("Rows read or written by repository methods")
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .tag("operation", isWrite(method) ? "write" : "read")
+                .register(registry);
+    }
+
+    private static boolean isWrite(Method method) {
+        String name = method.getName();
+        return name.startsWith("save") || name.startsWith("bulkSave") || name.startsWith("delete")
+                || method.isAnnotationPresent(Modifying.class);
+    }
+
+    private static long rowsWritten(Method method, Object[] arguments, Object result) {
+        if (method.isAnnotationPresent(Modifying.class)) {
+            return result instanceof Number n ? n.longValue() : 0;
+        }
+        if (arguments.length == 0) {
+            return 0;
+        }
+        return arguments[0] instanceof Iterable<?> items ? size(items) : 1;
+    }
+
+    private static long rowsRead(Object result) {
+        if (result == null || result instanceof Number || result instanceof Boolean) {
+            return 0;
+        }
+        if (result instanceof Collection<?> rows) {
+            return rows.size();
+        }
+        if (result instanceof Window<?> window) {
+            return window.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Iterable<?> || result instanceof BaseStream<?, ?>) {
+            return 0;
+        }
+        return 1;
+    }
+
+    private static long size(Iterable<?> items) {
+        if (items instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        long size = 0;
+        for (Object ignored : items) {
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,397 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+/**
+ * Immutable column-oriented snapshot of every apartment, for training and
+ * analytics passes that would otherwise walk Apartment entities.
+ *
+ * Rows are sorted by idApartment. Each attribute is one primitive array:
+ * - price, area, bedrooms, bathrooms, stories and parking as int[] (a null
+ *   column is stored as MISSING),
+ * - the seven amenities (ApartmentFeatures.MAINROAD to PREFAREA) as one packed
+ *   bitset (long[]) each,
+ * - furnishingstatus as a byte code into a small dictionary of the distinct
+ *   values, trimmed and lower-cased as ApartmentFeatures reads them (NO_VALUE
+ *   for null, and for any value past the 128 the dictionary holds; the three
+ *   values ApartmentFeatures knows always have a code, so those rows still
+ *   encode as NaN).
+ * That is about 34 bytes per row, against several hundred for an Apartment with
+ * its boxed Integers, String and review list.
+ *
+ * As a FeatureSource the columns are read as ApartmentFeatures vectors and the
+ * price is the label (NaN when missing); priced() keeps only the rows that can be
+ * trained on. The arrays are never written after construction, so a snapshot can
+ * be shared between threads freely. withChanges() returns a new snapshot with
+ * some rows replaced or removed, copying the primitive columns instead of
+ * reading the database again.
+ */
+public final class ApartmentFeatureMatrix implements FeatureSource {
+
+    /** Column value of a null Integer field. */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    /** Furnishing code of a null or unrecorded furnishingstatus. */
+    public static final byte NO_VALUE = -1;
+
+    public static final ApartmentFeatureMatrix EMPTY = new Builder().build();
+
+    private static final int FLAG_COUNT = ApartmentFeatures.PREFAREA - ApartmentFeatures.MAINROAD + 1;
+
+    private final int rows;
+    private final long[] ids;
+    private final int[] price;
+    private final int[] area;
+    private final int[] bedrooms;
+    private final int[] bathrooms;
+    private final int[] stories;
+    private final int[] parking;
+    /** One bitset per amenity, in ApartmentFeatures order. */
+    private final long[][] flags;
+    private final byte[] furnishing;
+    private final String[] dictionary;
+    /** ApartmentFeatures.furnishing() of each dictionary entry. */
+    private final float[] furnishingFeature;
+
+    private ApartmentFeatureMatrix(Builder b) {
+        this.rows = b.rows;
+        this.ids = Arrays.copyOf(b.ids, b.rows);
+        this.price = Arrays.copyOf(b.price, b.rows);
+        this.area = Arrays.copyOf(b.area, b.rows);
+        this.bedrooms = Arrays.copyOf(b.bedrooms, b.rows);
+        this.bathrooms = Arrays.copyOf(b.bathrooms, b.rows);
+        this.stories = Arrays.copyOf(b.stories, b.rows);
+        this.parking = Arrays.copyOf(b.parking, b.rows);
+        this.flags = new long[FLAG_COUNT][];
+        for (int f = 0; f < FLAG_COUNT; f++) {
+            this.flags[f] = Arrays.copyOf(b.flags[f], words(b.rows));
+        }
+        this.furnishing = Arrays.copyOf(b.furnishing, b.rows);
+        this.dictionary = b.dictionary.toArray(String[]::new);
+        this.furnishingFeature = new float[dictionary.length];
+        for (int c = 0; c < dictionary.length; c++) {
+            furnishingFeature[c] = ApartmentFeatures.furnishing(dictionary[c]);
+        }
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public float value(int row, int feature) {
+        return switch (feature) {
+            case ApartmentFeatures.AREA -> feature(area[row]);
+            case ApartmentFeatures.BEDROOMS -> feature(bedrooms[row]);
+            case ApartmentFeatures.BATHROOMS -> feature(bathrooms[row]);
+            case ApartmentFeatures.STORIES -> feature(stories[row]);
+            case ApartmentFeatures.PARKING -> parking[row];
+            case ApartmentFeatures.FURNISHING -> furnishing[row] == NO_VALUE
+                    ? Float.NaN : furnishingFeature[furnishing[row]];
+            default -> flag(row, feature) ? 1f : 0f;
+        };
+    }
+
+    /** The price, NaN when the apartment has none. */
+    @Override
+    public float label(int row) {
+        return feature(price[row]);
+    }
+
+    private static float feature(int value) {
+        return value == MISSING ? Float.NaN : value;
+    }
+
+    public long id(int row) {
+        checkRow(row);
+        return ids[row];
+    }
+
+    /** Row of the given apartment, or -1 if it is not in the snapshot. */
+    public int rowOf(long idApartment) {
+        int row = Arrays.binarySearch(ids, 0, rows, idApartment);
+        return row < 0 ? -1 : row;
+    }
+
+    public int price(int row) {
+        return price[row];
+    }
+
+    public int area(int row) {
+        return area[row];
+    }
+
+    public int bedrooms(int row) {
+        return bedrooms[row];
+    }
+
+    public int bathrooms(int row) {
+        return bathrooms[row];
+    }
+
+    public int stories(int row) {
+        return stories[row];
+    }
+
+    public int parking(int row) {
+        return parking[row];
+    }
+
+    /**
+     * @param feature one of the amenity features, ApartmentFeatures.MAINROAD to PREFAREA
+     */
+    public boolean flag(int row, int feature) {
+        int f = feature - ApartmentFeatures.MAINROAD;
+        if (f < 0 || f >= FLAG_COUNT) {
+            throw new IllegalArgumentException("Feature " + feature + " is not an amenity");
+        }
+        checkRow(row);
+        return (flags[f][row >>> 6] & (1L << row)) != 0;
+    }
+
+    /** The furnishingstatus trimmed and in lower case, or null (also past the dictionary's 128 values). */
+    public String furnishingstatus(int row) {
+        byte code = furnishing[row];
+        return code == NO_VALUE ? null : dictionary[code];
+    }
+
+    /** Number of rows with a price. */
+    public int pricedRows() {
+        int count = 0;
+        for (int r = 0; r < rows; r++) {
+            if (price[r] != MISSING) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The rows that have a price, i.e. the training rows. Returns this snapshot
+     * when every row is priced.
+     */
+    public ApartmentFeatureMatrix priced() {
+        int priced = pricedRows();
+        if (priced == rows) {
+            return this;
+        }
+        Builder builder = new Builder(dictionary, priced);
+        for (int r = 0; r < rows; r++) {
+            if (price[r] != MISSING) {
+                builder.copyRow(this, r);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * A new snapshot where the given apartments replace (or are added to) the
+     * rows with their ids and the rows with the deleted ids are gone. Costs one
+     * copy of the columns plus sorting the upserts.
+     */
+    public ApartmentFeatureMatrix withChanges(Collection<ApartmentSummary> upserts, Set<Long> deletedIds) {
+        if (upserts.isEmpty() && deletedIds.isEmpty()) {
+            return this;
+        }
+        List<ApartmentSummary> sorted = new ArrayList<>(upserts);
+        sorted.sort(Comparator.comparingLong(ApartmentSummary::idApartment));
+        Builder builder = new Builder(dictionary, rows + sorted.size());
+        int r = 0;
+        int u = 0;
+        while (r < rows || u < sorted.size()) {
+            long rowId = r < rows ? ids[r] : Long.MAX_VALUE;
+            long upsertId = u < sorted.size() ? sorted.get(u).idApartment() : Long.MAX_VALUE;
+            if (upsertId <= rowId) {
+                if (u + 1 < sorted.size() && sorted.get(u + 1).idApartment() == upsertId) {
+                    throw new IllegalArgumentException("Apartment " + upsertId + " is upserted twice");
+                }
+                if (!deletedIds.contains(upsertId)) {
+                    builder.add(sorted.get(u));
+                }
+                u++;
+                if (upsertId == rowId) {
+                    r++;
+                }
+            } else {
+                if (!deletedIds.contains(rowId)) {
+                    builder.copyRow(this, r);
+                }
+                r++;
+            }
+        }
+        return builder.build();
+    }
+
+    /** Heap used by the column arrays. */
+    public long memoryBytes() {
+        long bytes = (long) ids.length * Long.BYTES
+                + 6L * price.length * Integer.BYTES
+                + furnishing.length;
+        for (long[] bits : flags) {
+            bytes += (long) bits.length * Long.BYTES;
+        }
+        return bytes;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        }
+    }
+
+    /**
+     * Collects rows in increasing idApartment order, e.g. from a repository
+     * stream sorted by id. Not thread safe; build() copies the columns.
+     */
+    public static final class Builder {
+
+        private long[] ids;
+        private int[] price;
+        private int[] area;
+        private int[] bedrooms;
+        private int[] bathrooms;
+        private int[] stories;
+        private int[] parking;
+        private final long[][] flags = new long[FLAG_COUNT][];
+        private byte[] furnishing;
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Byte> codes = new HashMap<>();
+        private int rows;
+
+        public Builder() {
+            this(new String[] {"unfurnished", "semi-furnished", "furnished"}, 1024);
+        }
+
+        private Builder(String[] dictionary, int capacity) {
+            for (String value : dictionary) {
+                code(value);
+            }
+            allocate(Math.max(capacity, 16));
+        }
+
+        public Builder add(ApartmentSummary apartment) {
+            int row = next(apartment.idApartment());
+            price[row] = column(apartment.price());
+            area[row] = column(apartment.area());
+            bedrooms[row] = column(apartment.bedrooms());
+            bathrooms[row] = column(apartment.bathrooms());
+            stories[row] = column(apartment.stories());
+            parking[row] = apartment.parking();
+            setFlag(row, ApartmentFeatures.MAINROAD, apartment.mainroad());
+            setFlag(row, ApartmentFeatures.GUESTROOM, apartment.guestroom());
+            setFlag(row, ApartmentFeatures.BASEMENT, apartment.basement());
+            setFlag(row, ApartmentFeatures.HOTWATER, apartment.hotwater());
+            setFlag(row, ApartmentFeatures.HEATING, apartment.heating());
+            setFlag(row, ApartmentFeatures.AIRCONDITIONING, apartment.airconditioning());
+            setFlag(row, ApartmentFeatures.PREFAREA, apartment.prefarea());
+            furnishing[row] = apartment.furnishingstatus() == null ? NO_VALUE : code(apartment.furnishingstatus());
+            return this;
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public ApartmentFeatureMatrix build() {
+            return new ApartmentFeatureMatrix(this);
+        }
+
+        /** Copies a row of a snapshot whose dictionary this builder started from. */
+        private void copyRow(ApartmentFeatureMatrix source, int r) {
+            int row = next(source.ids[r]);
+            price[row] = source.price[r];
+            area[row] = source.area[r];
+            bedrooms[row] = source.bedrooms[r];
+            bathrooms[row] = source.bathrooms[r];
+            stories[row] = source.stories[r];
+            parking[row] = source.parking[r];
+            for (int f = 0; f < FLAG_COUNT; f++) {
+                if ((source.flags[f][r >>> 6] & (1L << r)) != 0) {
+                    flags[f][row >>> 6] |= 1L << row;
+                }
+            }
+            furnishing[row] = source.furnishing[r];
+        }
+
+        private int next(long id) {
+            if (rows > 0 && id <= ids[rows - 1]) {
+                throw new IllegalArgumentException("Apartments must be added in increasing id order, got "
+                        + id + " after " + ids[rows - 1]);
+            }
+            if (rows == ids.length) {
+                grow();
+            }
+            ids[rows] = id;
+            return rows++;
+        }
+
+        private void setFlag(int row, int feature, boolean value) {
+            if (value) {
+                flags[feature - ApartmentFeatures.MAINROAD][row >>> 6] |= 1L << row;
+            }
+        }
+
+        private byte code(String status) {
+            String value = status.trim().toLowerCase(Locale.ROOT);
+            Byte code = codes.get(value);
+            if (code == null) {
+                if (dictionary.size() > Byte.MAX_VALUE) {
+                    // Free text the features read as NaN anyway
+                    return NO_VALUE;
+                }
+                code = (byte) dictionary.size();
+                dictionary.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        private static int column(Integer value) {
+            return value == null ? MISSING : value;
+        }
+
+        private void allocate(int capacity) {
+            ids = new long[capacity];
+            price = new int[capacity];
+            area = new int[capacity];
+            bedrooms = new int[capacity];
+            bathrooms = new int[capacity];
+            stories = new int[capacity];
+            parking = new int[capacity];
+            for (int f = 0; f < FLAG_COUNT; f++) {
+                flags[f] = new long[words(capacity)];
+            }
+            furnishing = new byte[capacity];
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            price = Arrays.copyOf(price, capacity);
+            area = Arrays.copyOf(area, capacity);
+            bedrooms = Arrays.copyOf(bedrooms, capacity);
+            bathrooms = Arrays.copyOf(bathrooms, capacity);
+            stories = Arrays.copyOf(stories, capacity);
+            parking = Arrays.copyOf(parking, capacity);
+            for (int f = 0; f < FLAG_COUNT; f++) {
+                flags[f] = Arrays.copyOf(flags[f], words(capacity));
+            }
+            furnishing = Arrays.copyOf(furnishing, capacity);
+        }
+    }
+}
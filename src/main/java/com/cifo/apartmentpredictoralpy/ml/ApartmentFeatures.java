@@ -0,0 +1,127 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.util.List;
+import java.util.Locale;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+/**
+ * Turns apartments into the numeric feature vectors used by the price model.
+ *
+ * The order of FEATURE_NAMES is the column order of every feature vector.
+ * Booleans become 0/1, furnishingstatus becomes 0 (unfurnished), 1 (semi-furnished)
+ * or 2 (furnished), and missing values (null Integer fields, unknown
+ * furnishingstatus) become NaN.
+ */
+public final class ApartmentFeatures {
+
+    public static final List<String> FEATURE_NAMES = List.of(
+            "area", "bedrooms", "bathrooms", "stories", "parking",
+            "mainroad", "guestroom", "basement", "hotwater", "heating",
+            "airconditioning", "prefarea", "furnishingstatus");
+
+    public static final int COUNT = FEATURE_NAMES.size();
+
+    public static final int AREA = 0;
+    public static final int BEDROOMS = 1;
+    public static final int BATHROOMS = 2;
+    public static final int STORIES = 3;
+    public static final int PARKING = 4;
+    public static final int MAINROAD = 5;
+    public static final int GUESTROOM = 6;
+    public static final int BASEMENT = 7;
+    public static final int HOTWATER = 8;
+    public static final int HEATING = 9;
+    public static final int AIRCONDITIONING = 10;
+    public static final int PREFAREA = 11;
+    public static final int FURNISHING = 12;
+
+    private ApartmentFeatures() {
+    }
+
+    public static float[] encode(Apartment a) {
+        float[] features = new float[COUNT];
+        encode(a, features, 0);
+        return features;
+    }
+
+    /**
+     * Writes the features of one apartment into {@code out} starting at {@code offset}.
+     */
+    public static void encode(Apartment a, float[] out, int offset) {
+        out[offset + AREA] = value(a.getArea());
+        out[offset + BEDROOMS] = value(a.getBedrooms());
+        out[offset + BATHROOMS] = value(a.getBathrooms());
+        out[offset + STORIES] = value(a.getStories());
+        out[offset + PARKING] = a.getParking();
+        out[offset + MAINROAD] = flag(a.isMainroad());
+        out[offset + GUESTROOM] = flag(a.isGuestroom());
+        out[offset + BASEMENT] = flag(a.isBasement());
+        out[offset + HOTWATER] = flag(a.isHotwater());
+        out[offset + HEATING] = flag(a.isHeating());
+        out[offset + AIRCONDITIONING] = flag(a.isAirconditioning());
+        out[offset + PREFAREA] = flag(a.isPrefarea());
+        out[offset + FURNISHING] = furnishing(a.getFurnishingstatus());
+    }
+
+    public static float[] encode(ApartmentSummary a) {
+        float[] features = new float[COUNT];
+        encode(a, features, 0);
+        return features;
+    }
+
+    public static void encode(ApartmentSummary a, float[] out, int offset) {
+        out[offset + AREA] = value(a.area());
+        out[offset + BEDROOMS] = value(a.bedrooms());
+        out[offset + BATHROOMS] = value(a.bathrooms());
+        out[offset + STORIES] = value(a.stories());
+        out[offset + PARKING] = a.parking();
+        out[offset + MAINROAD] = flag(a.mainroad());
+        out[offset + GUESTROOM] = flag(a.guestroom());
+        out[offset + BASEMENT] = flag(a.basement());
+        out[offset + HOTWATER] = flag(a.hotwater());
+        out[offset + HEATING] = flag(a.heating());
+        out[offset + AIRCONDITIONING] = flag(a.airconditioning());
+        out[offset + PREFAREA] = flag(a.prefarea());
+        out[offset + FURNISHING] = furnishing(a.furnishingstatus());
+    }
+
+    /**
+     * Encodes apartments column by column, the input format of PriceModel.predictBatch().
+     */
+    public static float[][] toColumns(List<Apartment> apartments) {
+        float[][] columns = new float[COUNT][apartments.size()];
+        float[] row = new float[COUNT];
+        for (int r = 0; r < apartments.size(); r++) {
+            encode(apartments.get(r), row, 0);
+            for (int f = 0; f < COUNT; f++) {
+                columns[f][r] = row[f];
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * 0 = unfurnished, 1 = semi-furnished, 2 = furnished, NaN = unknown.
+     */
+    public static float furnishing(String status) {
+        if (status == null) {
+            return Float.NaN;
+        }
+        return switch (status.trim().toLowerCase(Locale.ROOT)) {
+            case "unfurnished" -> 0f;
+            case "semi-furnished" -> 1f;
+            case "furnished" -> 2f;
+            default -> Float.NaN;
+        };
+    }
+
+    private static float value(Integer value) {
+        return value == null ? Float.NaN : value;
+    }
+
+    private static float flag(boolean value) {
+        return value ? 1f : 0f;
+    }
+}
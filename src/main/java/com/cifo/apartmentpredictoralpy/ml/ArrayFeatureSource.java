@@ -0,0 +1,87 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.util.Arrays;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+/**
+ * FeatureSource backed by a row-major float array.
+ */
+public final class ArrayFeatureSource implements FeatureSource {
+
+    private final float[] values;
+    private final float[] labels;
+
+    /**
+     * @param values row-major features, ApartmentFeatures.COUNT values per row
+     * @param labels one price per row
+     */
+    public ArrayFeatureSource(float[] values, float[] labels) {
+        if (values.length != labels.length * ApartmentFeatures.COUNT) {
+            throw new IllegalArgumentException("Expected " + ApartmentFeatures.COUNT + " features per label");
+        }
+        this.values = values;
+        this.labels = labels;
+    }
+
+    @Override
+    public int rows() {
+        return labels.length;
+    }
+
+    @Override
+    public float value(int row, int feature) {
+        return values[row * ApartmentFeatures.COUNT + feature];
+    }
+
+    @Override
+    public float label(int row) {
+        return labels[row];
+    }
+
+    /**
+     * Collects training rows one apartment at a time. Apartments without a price
+     * cannot be used as training rows and are skipped.
+     */
+    public static final class Builder {
+
+        private float[] values = new float[1024 * ApartmentFeatures.COUNT];
+        private float[] labels = new float[1024];
+        private int rows;
+
+        public Builder add(Apartment apartment) {
+            if (apartment.getPrice() != null) {
+                ensureCapacity();
+                ApartmentFeatures.encode(apartment, values, rows * ApartmentFeatures.COUNT);
+                labels[rows++] = apartment.getPrice();
+            }
+            return this;
+        }
+
+        public Builder add(ApartmentSummary apartment) {
+            if (apartment.price() != null) {
+                ensureCapacity();
+                ApartmentFeatures.encode(apartment, values, rows * ApartmentFeatures.COUNT);
+                labels[rows++] = apartment.price();
+            }
+            return this;
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public ArrayFeatureSource build() {
+            return new ArrayFeatureSource(
+                    Arrays.copyOf(values, rows * ApartmentFeatures.COUNT), Arrays.copyOf(labels, rows));
+        }
+
+        private void ensureCapacity() {
+            if (rows == labels.length) {
+                labels = Arrays.copyOf(labels, rows * 2);
+                values = Arrays.copyOf(values, rows * 2 * ApartmentFeatures.COUNT);
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Training rows quantised into at most 255 value bins per feature, plus one bin for
+ * missing values. The trainer builds its split histograms from these bins, which is
+ * much cheaper than sorting raw feature values at every node.
+ *
+ * Bin b of feature f holds the values v with {@code upperBound(f, b - 1) < v <= upperBound(f, b)}.
+ * Bin boundaries sit half way between neighbouring distinct values (or quantiles when a
+ * feature has more distinct values than bins), and the last value bin is open ended.
+ * Missing values (NaN) go to bin {@code valueBins(f)}.
+ *
+ * Instances are immutable once built and can be shared by several training runs
+ * over the same data (e.g. cross-validation folds).
+ */
+public final class BinnedFeatures {
+
+    /** Rows sampled per feature to choose bin boundaries. */
+    private static final int SAMPLE_ROWS = 200_000;
+
+    private static final int ROWS_PER_TASK = 16_384;
+
+    private final FeatureSource source;
+    private final float[][] upperBounds;
+    private final byte[][] bins;
+
+    private BinnedFeatures(FeatureSource source, float[][] upperBounds, byte[][] bins) {
+        this.source = source;
+        this.upperBounds = upperBounds;
+        this.bins = bins;
+    }
+
+    /**
+     * Chooses bin boundaries and bins every row, using the given pool for the work.
+     */
+    public static BinnedFeatures build(FeatureSource source, int maxBins, ForkJoinPool pool) {
+        int rows = source.rows();
+        int features = ApartmentFeatures.COUNT;
+        float[][] upperBounds = new float[features][];
+        byte[][] bins = new byte[features][rows];
+        int chunks = Math.max(1, (rows + ROWS_PER_TASK - 1) / ROWS_PER_TASK);
+
+        pool.submit(() -> {
+            IntStream.range(0, features).parallel()
+                    .forEach(f -> upperBounds[f] = chooseUpperBounds(source, f, maxBins));
+            // Row by row within each chunk, so a row-major source (e.g. a mapped
+            // feature store) is read in one sequential pass rather than once per feature
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                int from = chunk * ROWS_PER_TASK;
+                int to = Math.min(rows, from + ROWS_PER_TASK);
+                for (int row = from; row < to; row++) {
+                    for (int f = 0; f < features; f++) {
+                        bins[f][row] = (byte) binOf(upperBounds[f], source.value(row, f));
+                    }
+                }
+            });
+        }).join();
+        return new BinnedFeatures(source, upperBounds, bins);
+    }
+
+    public FeatureSource source() {
+        return source;
+    }
+
+    public int rows() {
+        return source.rows();
+    }
+
+    /** Number of value bins of the feature; the missing-value bin comes right after them. */
+    public int valueBins(int feature) {
+        return upperBounds[feature].length;
+    }
+
+    public float upperBound(int feature, int bin) {
+        return upperBounds[feature][bin];
+    }
+
+    /** Bin of the given row, from 0 to valueBins(feature) inclusive. */
+    public int bin(int feature, int row) {
+        return bins[feature][row] & 0xFF;
+    }
+
+    byte[] column(int feature) {
+        return bins[feature];
+    }
+
+    static int binOf(float[] bounds, float value) {
+        if (Float.isNaN(value)) {
+            return bounds.length;
+        }
+        int low = 0;
+        int high = bounds.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (value <= bounds[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static float[] chooseUpperBounds(FeatureSource source, int feature, int maxBins) {
+        int rows = source.rows();
+        int step = Math.max(1, rows / SAMPLE_ROWS);
+        float[] sample = new float[(rows + step - 1) / step];
+        int size = 0;
+        for (int row = 0; row < rows; row += step) {
+            float value = source.value(row, feature);
+            if (!Float.isNaN(value)) {
+                sample[size++] = value;
+            }
+        }
+        if (size == 0) {
+            return new float[] {Float.POSITIVE_INFINITY};
+        }
+        Arrays.sort(sample, 0, size);
+
+        float[] distinct = new float[size];
+        int distinctCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinctCount == 0 || sample[i] != distinct[distinctCount - 1]) {
+                distinct[distinctCount++] = sample[i];
+            }
+        }
+
+        float[] cuts;
+        if (distinctCount <= maxBins) {
+            cuts = Arrays.copyOf(distinct, distinctCount);
+        } else {
+            cuts = new float[maxBins];
+            int cutCount = 0;
+            for (int b = 1; b <= maxBins; b++) {
+                float cut = sample[(int) ((long) b * (size - 1) / maxBins)];
+                if (cutCount == 0 || cut != cuts[cutCount - 1]) {
+                    cuts[cutCount++] = cut;
+                }
+            }
+            cuts = Arrays.copyOf(cuts, cutCount);
+        }
+
+        // Place each boundary half way to the next cut value; the last bin is open ended
+        float[] bounds = new float[cuts.length];
+        for (int b = 0; b < cuts.length - 1; b++) {
+            bounds[b] = cuts[b] + (cuts[b + 1] - cuts[b]) / 2;
+        }
+        bounds[cuts.length - 1] = Float.POSITIVE_INFINITY;
+        return bounds;
+    }
+}
@@ -0,0 +1,36 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Outcome of a CrossValidator run.
+ *
+ * @param rows            rows in the data set
+ * @param folds           number of folds
+ * @param results         one per configuration: fully evaluated ones first, by RMSE, then pruned ones
+ * @param wallClock       elapsed time, binning included
+ * @param cpuTime         CPU time of the whole process meanwhile, null if the JVM does not report it
+ * @param coreUtilization cpuTime / (wallClock * parallelism), NaN if unknown
+ * @param parallelism     threads of the pool the runs were spread over
+ */
+public record CrossValidationReport(int rows, int folds, List<Result> results, Duration wallClock,
+                                    Duration cpuTime, double coreUtilization, int parallelism) {
+
+    /** The fully evaluated configuration with the lowest RMSE. */
+    public Optional<Result> best() {
+        return results.stream().filter(r -> !r.pruned()).findFirst();
+    }
+
+    /**
+     * Out-of-fold errors of one configuration, pooled over the validation rows of
+     * its completed folds (for a pruned configuration, only those it finished).
+     *
+     * @param foldRmse     RMSE per fold, null for folds that were not completed
+     * @param trainingTime summed time of its training runs, scoring included
+     */
+    public record Result(GradientBoostingParams params, int foldsCompleted, boolean pruned,
+                         double mae, double rmse, List<Double> foldRmse, Duration trainingTime) {
+    }
+}
@@ -0,0 +1,308 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * K-fold cross-validation of a grid of GradientBoostingParams.
+ *
+ * Every (configuration, fold) pair is one training run, and all runs are
+ * submitted to the training ForkJoinPool at once, fold by fold, so idle workers
+ * steal whole runs while a busy run still splits its large histograms over the
+ * pool. The features are binned once per distinct maxBins and that
+ * BinnedFeatures is shared read-only by every run; a fold is just an int[] of
+ * row indexes into it, so no feature data is copied per fold. (Bin boundaries
+ * are chosen over all rows, validation rows included; only feature values,
+ * never prices, leak into them.)
+ *
+ * Losing configurations are pruned: when a fold finishes, each configuration's
+ * RMSE on the folds it has completed is compared with the best RMSE seen on
+ * those same folds, and a configuration whose mean ratio exceeds
+ * 1 + pruneMargin stops (its queued folds are skipped and its running ones
+ * cancelled at the next tree). The configuration with the lowest ratio is
+ * never pruned.
+ */
+public final class CrossValidator {
+
+    private final GradientBoostingTrainer trainer;
+    private final ForkJoinPool pool;
+
+    public CrossValidator(GradientBoostingTrainer trainer, ForkJoinPool pool) {
+        this.trainer = trainer;
+        this.pool = pool;
+    }
+
+    /**
+     * Receives the progress of a cross-validation and can stop it.
+     */
+    public interface Monitor {
+
+        Monitor NONE = new Monitor() {
+        };
+
+        /** Called after every finished, skipped or cancelled training run. */
+        default void runFinished(int finished, int total) {
+        }
+
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the cross-validation on the calling thread's behalf and waits for it.
+     *
+     * @param folds       number of folds, at least 2 and at most the number of rows
+     * @param seed        seed of the row shuffle that assigns rows to folds
+     * @param pruneMargin relative RMSE margin beyond which a configuration is
+     *                    dropped, Double.POSITIVE_INFINITY to evaluate every fold
+     * @throws CancellationException if the monitor cancels the run
+     */
+    public CrossValidationReport run(FeatureSource data, List<GradientBoostingParams> grid, int folds, long seed,
+                                     double pruneMargin, Monitor monitor) {
+        if (grid.isEmpty()) {
+            throw new IllegalArgumentException("The parameter grid is empty");
+        }
+        if (folds < 2 || folds > data.rows()) {
+            throw new IllegalArgumentException("folds must be between 2 and the number of rows (" + data.rows() + ")");
+        }
+        if (!(pruneMargin >= 0)) {
+            throw new IllegalArgumentException("pruneMargin must not be negative");
+        }
+        long start = System.nanoTime();
+        long cpuStart = processCpuTime();
+
+        Fold[] splits = split(data.rows(), folds, seed);
+        Map<Integer, BinnedFeatures> binned = new HashMap<>();
+        for (GradientBoostingParams params : grid) {
+            binned.computeIfAbsent(params.maxBins(), bins -> BinnedFeatures.build(data, bins, pool));
+        }
+
+        State state = new State(grid, folds, pruneMargin, monitor);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(grid.size() * folds);
+        for (int f = 0; f < folds; f++) {
+            for (int c = 0; c < grid.size(); c++) {
+                Configuration configuration = state.configurations[c];
+                Fold fold = splits[f];
+                BinnedFeatures features = binned.get(configuration.params.maxBins());
+                tasks.add(pool.submit(() -> state.evaluate(configuration, fold, features)));
+            }
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        if (monitor.isCancelled()) {
+            throw new CancellationException("Cross-validation cancelled");
+        }
+
+        long wall = System.nanoTime() - start;
+        long cpu = cpuStart < 0 ? -1 : processCpuTime() - cpuStart;
+        List<CrossValidationReport.Result> results = new ArrayList<>();
+        for (Configuration configuration : state.configurations) {
+            results.add(configuration.result());
+        }
+        results.sort(Comparator.comparing(CrossValidationReport.Result::pruned)
+                .thenComparingDouble(CrossValidationReport.Result::rmse));
+        return new CrossValidationReport(data.rows(), folds, results, Duration.ofNanos(wall),
+                cpu < 0 ? null : Duration.ofNanos(cpu),
+                cpu < 0 ? Double.NaN : (double) cpu / wall / pool.getParallelism(), pool.getParallelism());
+    }
+
+    /** Shuffles the row indexes and cuts them into folds of (nearly) equal size. */
+    private static Fold[] split(int rows, int folds, long seed) {
+        int[] shuffled = GradientBoostingTrainer.allRows(rows);
+        Random random = new Random(seed);
+        for (int i = rows - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = tmp;
+        }
+        Fold[] result = new Fold[folds];
+        for (int f = 0; f < folds; f++) {
+            int from = (int) ((long) f * rows / folds);
+            int to = (int) ((long) (f + 1) * rows / folds);
+            int[] validation = new int[to - from];
+            int[] training = new int[rows - validation.length];
+            System.arraycopy(shuffled, from, validation, 0, validation.length);
+            System.arraycopy(shuffled, 0, training, 0, from);
+            System.arraycopy(shuffled, to, training, from, rows - to);
+            result[f] = new Fold(f, training, validation);
+        }
+        return result;
+    }
+
+    /** Process CPU time in nanoseconds, or -1 if the JVM does not report it. */
+    private static long processCpuTime() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sun) {
+            return sun.getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    private record Fold(int index, int[] training, int[] validation) {
+    }
+
+    /**
+     * Errors per configuration and fold, and the pruning decisions.
+     */
+    private final class State {
+
+        private final Configuration[] configurations;
+        private final int folds;
+        private final double pruneMargin;
+        private final Monitor monitor;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        /** Lowest RMSE seen on each fold. Guarded by lock. */
+        private final double[] bestFoldRmse;
+        private int finishedRuns;
+
+        State(List<GradientBoostingParams> grid, int folds, double pruneMargin, Monitor monitor) {
+            this.configurations = new Configuration[grid.size()];
+            for (int c = 0; c < configurations.length; c++) {
+                configurations[c] = new Configuration(grid.get(c), folds);
+            }
+            this.folds = folds;
+            this.pruneMargin = pruneMargin;
+            this.monitor = monitor;
+            this.bestFoldRmse = new double[folds];
+            Arrays.fill(bestFoldRmse, Double.POSITIVE_INFINITY);
+        }
+
+        void evaluate(Configuration configuration, Fold fold, BinnedFeatures features) {
+            try {
+                if (configuration.pruned || monitor.isCancelled()) {
+                    return;
+                }
+                long start = System.nanoTime();
+                PriceModel model = trainer.train(features, fold.training, configuration.params, new TrainingMonitor() {
+                    @Override
+                    public boolean isCancelled() {
+                        return configuration.pruned || monitor.isCancelled();
+                    }
+                });
+                double absSum = 0;
+                double squareSum = 0;
+                FeatureSource source = features.source();
+                float[] row = new float[ApartmentFeatures.COUNT];
+                for (int r : fold.validation) {
+                    for (int f = 0; f < row.length; f++) {
+                        row[f] = source.value(r, f);
+                    }
+                    double error = model.predict(row, 0) - source.label(r);
+                    absSum += Math.abs(error);
+                    squareSum += error * error;
+                }
+                recordFold(configuration, fold, absSum, squareSum, System.nanoTime() - start);
+            } catch (CancellationException e) {
+                // pruned or cancelled while training
+            } finally {
+                lock.lock();
+                int finished;
+                try {
+                    finished = ++finishedRuns;
+                } finally {
+                    lock.unlock();
+                }
+                monitor.runFinished(finished, configurations.length * folds);
+            }
+        }
+
+        private void recordFold(Configuration configuration, Fold fold, double absSum, double squareSum, long nanos) {
+            lock.lock();
+            try {
+                double rmse = Math.sqrt(squareSum / fold.validation.length);
+                configuration.foldRmse[fold.index] = rmse;
+                configuration.foldsCompleted++;
+                configuration.absSum += absSum;
+                configuration.squareSum += squareSum;
+                configuration.validationRows += fold.validation.length;
+                configuration.trainingNanos += nanos;
+                bestFoldRmse[fold.index] = Math.min(bestFoldRmse[fold.index], rmse);
+                prune();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Marks the configurations that are clearly behind the best one. Called with lock held. */
+        private void prune() {
+            if (pruneMargin == Double.POSITIVE_INFINITY) {
+                return;
+            }
+            double lowest = Double.POSITIVE_INFINITY;
+            for (Configuration configuration : configurations) {
+                if (!configuration.pruned && configuration.foldsCompleted > 0) {
+                    lowest = Math.min(lowest, configuration.ratioToBest(bestFoldRmse));
+                }
+            }
+            for (Configuration configuration : configurations) {
+                if (configuration.pruned || configuration.foldsCompleted == 0 || configuration.foldsCompleted == folds) {
+                    continue;
+                }
+                double ratio = configuration.ratioToBest(bestFoldRmse);
+                if (ratio > 1 + pruneMargin && ratio > lowest) {
+                    configuration.pruned = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Accumulated errors of one configuration. Written under State.lock; pruned
+     * is also read by the runs without it.
+     */
+    private static final class Configuration {
+
+        final GradientBoostingParams params;
+        final double[] foldRmse;
+        volatile boolean pruned;
+        int foldsCompleted;
+        double absSum;
+        double squareSum;
+        long validationRows;
+        long trainingNanos;
+
+        Configuration(GradientBoostingParams params, int folds) {
+            this.params = params;
+            this.foldRmse = new double[folds];
+            Arrays.fill(foldRmse, Double.NaN);
+        }
+
+        /** Mean of this configuration's RMSE divided by the best RMSE, over its completed folds. */
+        double ratioToBest(double[] bestFoldRmse) {
+            double sum = 0;
+            for (int f = 0; f < foldRmse.length; f++) {
+                if (!Double.isNaN(foldRmse[f])) {
+                    sum += bestFoldRmse[f] > 0 ? foldRmse[f] / bestFoldRmse[f] : 1;
+                }
+            }
+            return sum / foldsCompleted;
+        }
+
+        CrossValidationReport.Result result() {
+            List<Double> folds = new ArrayList<>(foldRmse.length);
+            for (double rmse : foldRmse) {
+                folds.add(Double.isNaN(rmse) ? null : rmse);
+            }
+            return new CrossValidationReport.Result(params, foldsCompleted, pruned,
+                    validationRows == 0 ? Double.NaN : absSum / validationRows,
+                    validationRows == 0 ? Double.NaN : Math.sqrt(squareSum / validationRows),
+                    folds, Duration.ofNanos(trainingNanos));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+/**
+ * Read-only table of training rows: {@link ApartmentFeatures#COUNT} feature
+ * columns plus the price label.
+ *
+ * The trainer only reads through this interface, so it can train from heap
+ * arrays as well as from other storage without creating Apartment entities.
+ * Implementations must be safe for concurrent reads.
+ */
+public interface FeatureSource {
+
+    int rows();
+
+    float value(int row, int feature);
+
+    float label(int row);
+}
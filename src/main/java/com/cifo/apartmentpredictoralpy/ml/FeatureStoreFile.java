@@ -0,0 +1,230 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+/**
+ * Append-only binary file of training rows, read back through memory-mapped
+ * segments (MappedFeatureSource) so training data does not have to fit in the heap.
+ *
+ * Layout (little endian):
+ * - int magic "APFS", int format version, int row size, int feature count,
+ *   then per feature a short byte length and the UTF-8 name
+ * - zero padding up to a multiple of ROW_BYTES, so every row is aligned
+ * - rows of ROW_BYTES: long idApartment, ApartmentFeatures.COUNT floats, float price
+ *
+ * The row count is not stored: it is the data length divided by ROW_BYTES. Rows
+ * are only ever added at the end, so a reader that mapped the file earlier keeps
+ * a consistent prefix. A row torn by a crash is cut off when the file is next
+ * opened for appending.
+ *
+ * A changed apartment gets a new row; the newest row of an id supersedes the
+ * older ones (MappedFeatureSource.latest()). A removal row, whose label is NaN,
+ * takes an apartment out, e.g. once it is deleted. Superseded rows stay in the
+ * file until it is deleted and filled again.
+ */
+public final class FeatureStoreFile {
+
+    private static final int MAGIC = 0x53465041; // "APFS" read as little endian
+    private static final int FORMAT_VERSION = 1;
+
+    /** id, features and label: 8 + 13 * 4 + 4 = 64 bytes, one cache line. */
+    public static final int ROW_BYTES = Long.BYTES + (ApartmentFeatures.COUNT + 1) * Float.BYTES;
+
+    static final int FEATURES_OFFSET = Long.BYTES;
+    static final int LABEL_OFFSET = FEATURES_OFFSET + ApartmentFeatures.COUNT * Float.BYTES;
+
+    /** Rows collected in memory before they are written to the channel. */
+    private static final int BUFFERED_ROWS = 1024;
+
+    private FeatureStoreFile() {
+    }
+
+    /**
+     * Opens the file for appending, creating it (and its directory) if needed.
+     *
+     * @throws IOException if an existing file is not a feature store of the
+     *                     current ApartmentFeatures
+     */
+    public static Appender append(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            int headerBytes;
+            if (channel.size() == 0) {
+                ByteBuffer header = header();
+                headerBytes = header.remaining();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+            } else {
+                headerBytes = readHeader(channel, file);
+            }
+            long rows = (channel.size() - headerBytes) / ROW_BYTES;
+            channel.truncate(headerBytes + rows * ROW_BYTES);
+            return new Appender(channel, headerBytes, rows);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps every complete row currently in the file. Rows appended later are
+     * not visible through the returned source.
+     */
+    public static MappedFeatureSource map(Path file) throws IOException {
+        return map(file, MappedFeatureSource.MAX_SEGMENT_ROWS);
+    }
+
+    static MappedFeatureSource map(Path file, int rowsPerSegment) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int headerBytes = readHeader(channel, file);
+            long rows = (channel.size() - headerBytes) / ROW_BYTES;
+            if (rows > Integer.MAX_VALUE) {
+                throw new IOException(file + " has more rows than a FeatureSource can address");
+            }
+            return MappedFeatureSource.map(channel, headerBytes, (int) rows, rowsPerSegment);
+        }
+    }
+
+    private static ByteBuffer header() {
+        List<byte[]> names = new ArrayList<>();
+        int size = 4 * 4;
+        for (String name : ApartmentFeatures.FEATURE_NAMES) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            names.add(bytes);
+            size += 2 + bytes.length;
+        }
+        size = (size + ROW_BYTES - 1) / ROW_BYTES * ROW_BYTES;
+        ByteBuffer header = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(ROW_BYTES).putInt(names.size());
+        for (byte[] name : names) {
+            header.putShort((short) name.length).put(name);
+        }
+        header.position(0);
+        return header;
+    }
+
+    /**
+     * Checks the header against the current format and features.
+     *
+     * @return the header size, i.e. the offset of the first row
+     */
+    private static int readHeader(FileChannel channel, Path file) throws IOException {
+        ByteBuffer expected = header();
+        int size = expected.remaining();
+        ByteBuffer actual = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (actual.hasRemaining()) {
+            if (channel.read(actual, actual.position()) < 0) {
+                break;
+            }
+        }
+        actual.flip();
+        if (actual.remaining() < 8 || actual.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a feature store file");
+        }
+        if (actual.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(file + " has unsupported format version " + actual.getInt(4));
+        }
+        if (!actual.equals(expected)) {
+            throw new IOException(file + " was written for other features than " + ApartmentFeatures.FEATURE_NAMES);
+        }
+        return size;
+    }
+
+    /**
+     * Adds rows at the end of a feature store file. Not thread safe; rows are
+     * buffered, so call flush() or close() before mapping the file.
+     */
+    public static final class Appender implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFERED_ROWS * ROW_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        private final float[] features = new float[ApartmentFeatures.COUNT];
+        private long rows;
+
+        private Appender(FileChannel channel, int headerBytes, long rows) throws IOException {
+            this.channel = channel;
+            this.rows = rows;
+            channel.position(headerBytes + rows * ROW_BYTES);
+        }
+
+        /** Rows in the file, including those still buffered. */
+        public long rows() {
+            return rows;
+        }
+
+        /**
+         * Appends one apartment if it has a price (rows without a label cannot be
+         * trained on).
+         *
+         * @return whether a row was appended
+         */
+        public boolean append(ApartmentSummary apartment) throws IOException {
+            if (apartment.price() == null) {
+                return false;
+            }
+            ApartmentFeatures.encode(apartment, features, 0);
+            append(apartment.idApartment(), features, apartment.price());
+            return true;
+        }
+
+        /**
+         * Appends a removal row: from now on the apartment has no training row.
+         */
+        public void appendRemoval(long id) throws IOException {
+            Arrays.fill(features, Float.NaN);
+            append(id, features, Float.NaN);
+        }
+
+        public void append(long id, float[] rowFeatures, float label) throws IOException {
+            if (rowFeatures.length != ApartmentFeatures.COUNT) {
+                throw new IllegalArgumentException("Expected " + ApartmentFeatures.COUNT + " features");
+            }
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putLong(id);
+            for (float value : rowFeatures) {
+                buffer.putFloat(value);
+            }
+            buffer.putFloat(label);
+            rows++;
+        }
+
+        /** Writes the buffered rows to the file (not necessarily to the disk). */
+        public void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /** Flushes and forces the rows to the disk. */
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+/**
+ * Hyperparameters of the gradient-boosted tree price model.
+ *
+ * @param numTrees       boosting rounds (one tree per round)
+ * @param maxDepth       maximum depth of each tree
+ * @param learningRate   shrinkage applied to every tree's output
+ * @param minSamplesLeaf minimum rows in a leaf
+ * @param lambda         L2 regularisation of leaf values
+ * @param maxBins        histogram bins per feature (2 to 255)
+ */
+public record GradientBoostingParams(int numTrees, int maxDepth, double learningRate,
+                                     int minSamplesLeaf, double lambda, int maxBins) {
+
+    public static final GradientBoostingParams DEFAULTS = new GradientBoostingParams(200, 6, 0.1, 5, 1.0, 255);
+
+    public GradientBoostingParams {
+        if (numTrees < 1 || maxDepth < 1 || minSamplesLeaf < 1) {
+            throw new IllegalArgumentException("numTrees, maxDepth and minSamplesLeaf must be positive");
+        }
+        if (!(learningRate > 0 && learningRate <= 1)) {
+            throw new IllegalArgumentException("learningRate must be in (0, 1]");
+        }
+        if (lambda < 0) {
+            throw new IllegalArgumentException("lambda must not be negative");
+        }
+        if (maxBins < 2 || maxBins > 255) {
+            throw new IllegalArgumentException("maxBins must be between 2 and 255");
+        }
+    }
+}
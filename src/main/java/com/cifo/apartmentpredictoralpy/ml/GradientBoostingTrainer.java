@@ -0,0 +1,326 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Trains gradient-boosted regression trees (squared error loss) on apartment prices.
+ *
+ * Split finding is histogram based, as in XGBoost's "hist" and LightGBM:
+ * - features are binned once (BinnedFeatures),
+ * - at each node the residual sums and row counts are accumulated per bin,
+ *   split over row chunks that run in parallel on the ForkJoinPool,
+ * - the best split of every feature is found by one scan over its bins,
+ * - only the smaller child's histogram is built; the larger one is the parent
+ *   histogram minus the smaller one.
+ *
+ * Trees grow depth first, so only O(maxDepth) histograms are alive at any time.
+ * The trainer is stateless and can run several trainings at once.
+ */
+public final class GradientBoostingTrainer {
+
+    /** Nodes with fewer rows build their histogram on the calling thread. */
+    private static final int ROWS_PER_TASK = 16_384;
+
+    /** Histogram slots per feature: 255 value bins plus the missing-value bin. */
+    private static final int STRIDE = 256;
+
+    private final ForkJoinPool pool;
+
+    public GradientBoostingTrainer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public PriceModel train(FeatureSource data, GradientBoostingParams params) {
+        return train(data, params, TrainingMonitor.NONE);
+    }
+
+    public PriceModel train(FeatureSource data, GradientBoostingParams params, TrainingMonitor monitor) {
+        return train(BinnedFeatures.build(data, params.maxBins(), pool), allRows(data.rows()), params, monitor);
+    }
+
+    public PriceModel train(BinnedFeatures data, int[] rows, GradientBoostingParams params) {
+        return train(data, rows, params, TrainingMonitor.NONE);
+    }
+
+    /**
+     * Trains on a subset of the rows of already binned data.
+     *
+     * @param rows    indexes of the training rows in {@code data}
+     * @param monitor told about every finished tree; checked for cancellation before each tree
+     * @throws CancellationException if the monitor cancels the run
+     */
+    public PriceModel train(BinnedFeatures data, int[] rows, GradientBoostingParams params, TrainingMonitor monitor) {
+        if (rows.length == 0) {
+            throw new IllegalArgumentException("Cannot train a price model without rows");
+        }
+        FeatureSource source = data.source();
+        int n = rows.length;
+
+        float[] residual = new float[n];
+        double labelSum = 0;
+        for (int i = 0; i < n; i++) {
+            residual[i] = source.label(rows[i]);
+            labelSum += residual[i];
+        }
+        float baseScore = (float) (labelSum / n);
+        for (int i = 0; i < n; i++) {
+            residual[i] -= baseScore;
+        }
+
+        RegressionTree[] trees = new RegressionTree[params.numTrees()];
+        int[] order = new int[n];
+        for (int t = 0; t < trees.length; t++) {
+            if (monitor.isCancelled()) {
+                throw new CancellationException("Training cancelled after " + t + " trees");
+            }
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            TreeBuilder builder = new TreeBuilder(data, rows, residual, order, params);
+            trees[t] = builder.build();
+            monitor.treeBuilt(t + 1, trees.length);
+        }
+        return new PriceModel(0, Instant.now(), baseScore, trees);
+    }
+
+    static int[] allRows(int count) {
+        int[] rows = new int[count];
+        Arrays.setAll(rows, i -> i);
+        return rows;
+    }
+
+    /**
+     * Grows one tree and subtracts its (shrunk) output from the residuals.
+     */
+    private final class TreeBuilder {
+
+        private final BinnedFeatures data;
+        private final int[] rows;
+        private final float[] residual;
+        private final int[] order;
+        private final GradientBoostingParams params;
+
+        private int[] feature = new int[64];
+        private float[] threshold = new float[64];
+        private int[] left = new int[64];
+        private int[] right = new int[64];
+        private float[] value = new float[64];
+        private int nodeCount;
+
+        TreeBuilder(BinnedFeatures data, int[] rows, float[] residual, int[] order, GradientBoostingParams params) {
+            this.data = data;
+            this.rows = rows;
+            this.residual = residual;
+            this.order = order;
+            this.params = params;
+        }
+
+        RegressionTree build() {
+            Histogram root = histogram(0, order.length);
+            grow(0, order.length, 0, root);
+            return new RegressionTree(
+                    Arrays.copyOf(feature, nodeCount), Arrays.copyOf(threshold, nodeCount),
+                    Arrays.copyOf(left, nodeCount), Arrays.copyOf(right, nodeCount),
+                    Arrays.copyOf(value, nodeCount));
+        }
+
+        private int grow(int start, int end, int depth, Histogram histogram) {
+            int node = newNode();
+            int count = end - start;
+            double sum = histogram.total(data.valueBins(0));
+
+            Split split = depth < params.maxDepth() && count >= 2 * params.minSamplesLeaf()
+                    ? bestSplit(histogram, sum, count) : null;
+            if (split == null) {
+                float output = (float) (params.learningRate() * sum / (count + params.lambda()));
+                feature[node] = -1;
+                value[node] = output;
+                for (int i = start; i < end; i++) {
+                    residual[order[i]] -= output;
+                }
+                return node;
+            }
+
+            int mid = partition(start, end, split.feature, split.bin);
+            Histogram smaller;
+            Histogram larger;
+            boolean leftIsSmaller = mid - start <= end - mid;
+            if (leftIsSmaller) {
+                smaller = histogram(start, mid);
+            } else {
+                smaller = histogram(mid, end);
+            }
+            larger = histogram.subtract(smaller);
+
+            feature[node] = split.feature;
+            threshold[node] = data.upperBound(split.feature, split.bin);
+            int leftChild = grow(start, mid, depth + 1, leftIsSmaller ? smaller : larger);
+            int rightChild = grow(mid, end, depth + 1, leftIsSmaller ? larger : smaller);
+            left[node] = leftChild;
+            right[node] = rightChild;
+            return node;
+        }
+
+        private Split bestSplit(Histogram histogram, double sum, int count) {
+            double lambda = params.lambda();
+            int minLeaf = params.minSamplesLeaf();
+            double parentScore = sum * sum / (count + lambda);
+            double bestGain = 1e-9;
+            Split best = null;
+            for (int f = 0; f < ApartmentFeatures.COUNT; f++) {
+                int base = f * STRIDE;
+                double leftSum = 0;
+                int leftCount = 0;
+                // The last value bin and the missing bin always stay on the right
+                for (int b = 0; b < data.valueBins(f) - 1; b++) {
+                    leftSum += histogram.sums[base + b];
+                    leftCount += histogram.counts[base + b];
+                    int rightCount = count - leftCount;
+                    if (leftCount < minLeaf) {
+                        continue;
+                    }
+                    if (rightCount < minLeaf) {
+                        break;
+                    }
+                    double rightSum = sum - leftSum;
+                    double gain = leftSum * leftSum / (leftCount + lambda)
+                            + rightSum * rightSum / (rightCount + lambda) - parentScore;
+                    if (gain > bestGain) {
+                        bestGain = gain;
+                        best = new Split(f, b);
+                    }
+                }
+            }
+            return best;
+        }
+
+        /** Moves the rows with bin <= splitBin to the front of the range and returns the first right row. */
+        private int partition(int start, int end, int splitFeature, int splitBin) {
+            byte[] column = data.column(splitFeature);
+            int i = start;
+            int j = end - 1;
+            while (i <= j) {
+                if ((column[rows[order[i]]] & 0xFF) <= splitBin) {
+                    i++;
+                } else {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j--] = tmp;
+                }
+            }
+            return i;
+        }
+
+        private Histogram histogram(int start, int end) {
+            if (end - start <= ROWS_PER_TASK) {
+                return Histogram.accumulate(data, rows, residual, order, start, end);
+            }
+            return pool.invoke(new HistogramTask(data, rows, residual, order, start, end));
+        }
+
+        private int newNode() {
+            if (nodeCount == feature.length) {
+                int capacity = nodeCount * 2;
+                feature = Arrays.copyOf(feature, capacity);
+                threshold = Arrays.copyOf(threshold, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                value = Arrays.copyOf(value, capacity);
+            }
+            return nodeCount++;
+        }
+    }
+
+    private record Split(int feature, int bin) {
+    }
+
+    /**
+     * Residual sums and row counts per (feature, bin).
+     */
+    private static final class Histogram {
+
+        final double[] sums = new double[ApartmentFeatures.COUNT * STRIDE];
+        final int[] counts = new int[ApartmentFeatures.COUNT * STRIDE];
+
+        static Histogram accumulate(BinnedFeatures data, int[] rows, float[] residual,
+                                    int[] order, int start, int end) {
+            Histogram h = new Histogram();
+            for (int f = 0; f < ApartmentFeatures.COUNT; f++) {
+                byte[] column = data.column(f);
+                int base = f * STRIDE;
+                for (int i = start; i < end; i++) {
+                    int position = order[i];
+                    int slot = base + (column[rows[position]] & 0xFF);
+                    h.sums[slot] += residual[position];
+                    h.counts[slot]++;
+                }
+            }
+            return h;
+        }
+
+        /** Residual sum over all bins of the given feature, i.e. of the whole node. */
+        double total(int valueBins) {
+            double total = 0;
+            for (int b = 0; b <= valueBins; b++) {
+                total += sums[b];
+            }
+            return total;
+        }
+
+        Histogram subtract(Histogram other) {
+            Histogram h = new Histogram();
+            for (int i = 0; i < sums.length; i++) {
+                h.sums[i] = sums[i] - other.sums[i];
+                h.counts[i] = counts[i] - other.counts[i];
+            }
+            return h;
+        }
+
+        void add(Histogram other) {
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += other.sums[i];
+                counts[i] += other.counts[i];
+            }
+        }
+    }
+
+    /**
+     * Builds the histogram of a row range by splitting it in halves until each
+     * piece is small enough, then merging the partial histograms.
+     */
+    private static final class HistogramTask extends RecursiveTask<Histogram> {
+
+        private final BinnedFeatures data;
+        private final int[] rows;
+        private final float[] residual;
+        private final int[] order;
+        private final int start;
+        private final int end;
+
+        HistogramTask(BinnedFeatures data, int[] rows, float[] residual, int[] order, int start, int end) {
+            this.data = data;
+            this.rows = rows;
+            this.residual = residual;
+            this.order = order;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Histogram compute() {
+            if (end - start <= ROWS_PER_TASK) {
+                return Histogram.accumulate(data, rows, residual, order, start, end);
+            }
+            int mid = (start + end) >>> 1;
+            HistogramTask right = new HistogramTask(data, rows, residual, order, mid, end);
+            right.fork();
+            Histogram result = new HistogramTask(data, rows, residual, order, start, mid).compute();
+            result.add(right.join());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+
+/**
+ * FeatureSource over the rows of a FeatureStoreFile, mapped read-only into
+ * memory in segments of at most MAX_SEGMENT_ROWS rows (a MappedByteBuffer holds
+ * at most 2 GiB).
+ *
+ * Nothing is copied onto the heap: every value() is an absolute read from the
+ * mapping, so the operating system pages the file in and out as the trainer
+ * scans it, and the data set can be larger than -Xmx. Absolute reads do not
+ * touch the buffers' positions, so concurrent reads are safe. The mapping stays
+ * valid after the file channel is closed and is released when the source is
+ * garbage collected.
+ *
+ * FeatureStoreFile.map() exposes every row in file order; latest() narrows that
+ * to the newest row per apartment, the view to train on.
+ */
+public final class MappedFeatureSource implements FeatureSource {
+
+    /** Whole rows that fit in one 2 GiB mapping. */
+    static final int MAX_SEGMENT_ROWS = Integer.MAX_VALUE / FeatureStoreFile.ROW_BYTES;
+
+    private final ByteBuffer[] segments;
+    private final int rowsPerSegment;
+    private final int mappedRows;
+    /** File row of each row of this source, or null if they are all of them in order. */
+    private final int[] fileRows;
+    private final int rows;
+
+    private MappedFeatureSource(ByteBuffer[] segments, int rowsPerSegment, int mappedRows, int[] fileRows) {
+        this.segments = segments;
+        this.rowsPerSegment = rowsPerSegment;
+        this.mappedRows = mappedRows;
+        this.fileRows = fileRows;
+        this.rows = fileRows == null ? mappedRows : fileRows.length;
+    }
+
+    static MappedFeatureSource map(FileChannel channel, long firstRowOffset, int rows, int rowsPerSegment)
+            throws IOException {
+        if (rowsPerSegment < 1 || rowsPerSegment > MAX_SEGMENT_ROWS) {
+            throw new IllegalArgumentException("rowsPerSegment must be between 1 and " + MAX_SEGMENT_ROWS);
+        }
+        int count = (int) ((rows + (long) rowsPerSegment - 1) / rowsPerSegment);
+        ByteBuffer[] segments = new ByteBuffer[count];
+        for (int s = 0; s < count; s++) {
+            int segmentRows = Math.min(rowsPerSegment, rows - s * rowsPerSegment);
+            long offset = firstRowOffset + (long) s * rowsPerSegment * FeatureStoreFile.ROW_BYTES;
+            segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                    (long) segmentRows * FeatureStoreFile.ROW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new MappedFeatureSource(segments, rowsPerSegment, rows, null);
+    }
+
+    /**
+     * The newest row of every apartment, in file order, leaving out apartments
+     * whose newest row is a removal (see FeatureStoreFile). Only the row indexes
+     * are kept on the heap, 4 bytes per row.
+     */
+    public MappedFeatureSource latest() {
+        BitSet seen = new BitSet();
+        int[] kept = new int[mappedRows];
+        int count = 0;
+        for (int fileRow = mappedRows - 1; fileRow >= 0; fileRow--) {
+            int id = Math.toIntExact(segment(fileRow).getLong(offset(fileRow)));
+            if (!seen.get(id)) {
+                seen.set(id);
+                if (!Float.isNaN(segment(fileRow).getFloat(offset(fileRow) + FeatureStoreFile.LABEL_OFFSET))) {
+                    kept[count++] = fileRow;
+                }
+            }
+        }
+        int[] fileRows = new int[count];
+        for (int i = 0; i < count; i++) {
+            fileRows[i] = kept[count - 1 - i];
+        }
+        return new MappedFeatureSource(segments, rowsPerSegment, mappedRows, fileRows);
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public float value(int row, int feature) {
+        if (feature < 0 || feature >= ApartmentFeatures.COUNT) {
+            throw new IndexOutOfBoundsException("Feature " + feature);
+        }
+        int fileRow = fileRow(row);
+        return segment(fileRow).getFloat(offset(fileRow) + FeatureStoreFile.FEATURES_OFFSET + feature * Float.BYTES);
+    }
+
+    @Override
+    public float label(int row) {
+        int fileRow = fileRow(row);
+        return segment(fileRow).getFloat(offset(fileRow) + FeatureStoreFile.LABEL_OFFSET);
+    }
+
+    public long id(int row) {
+        int fileRow = fileRow(row);
+        return segment(fileRow).getLong(offset(fileRow));
+    }
+
+    /** Size of the mapped file rows in bytes. */
+    public long mappedBytes() {
+        return (long) mappedRows * FeatureStoreFile.ROW_BYTES;
+    }
+
+    private int fileRow(int row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        }
+        return fileRows == null ? row : fileRows[row];
+    }
+
+    private ByteBuffer segment(int fileRow) {
+        return segments[fileRow / rowsPerSegment];
+    }
+
+    private int offset(int fileRow) {
+        return (fileRow % rowsPerSegment) * FeatureStoreFile.ROW_BYTES;
+    }
+}
@@ -0,0 +1,58 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring wiring for the price model classes, which are plain Java themselves.
+ */
+@Configuration
+public class MlConfig {
+
+    /**
+     * Work-stealing pool used for model training.
+     * apartment.model.training-threads = 0 (default) uses every available core.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool trainingPool(@Value("${apartment.model.training-threads:0}") int threads) {
+        return new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    public GradientBoostingTrainer gradientBoostingTrainer(ForkJoinPool trainingPool) {
+        return new GradientBoostingTrainer(trainingPool);
+    }
+
+    @Bean
+    public CrossValidator crossValidator(GradientBoostingTrainer gradientBoostingTrainer, ForkJoinPool trainingPool) {
+        return new CrossValidator(gradientBoostingTrainer, trainingPool);
+    }
+
+    /**
+     * Cache of single-apartment predictions, see PredictionCache.
+     * max-size = 0 disables it.
+     */
+    @Bean
+    public PredictionCache predictionCache(@Value("${apartment.prediction.cache.max-size:10000}") int maxSize,
+                                           @Value("${apartment.prediction.cache.ttl:10m}") Duration ttl) {
+        return new PredictionCache(maxSize, ttl);
+    }
+
+    /**
+     * Coalesces concurrent single predictions into micro-batches, see PredictionBatcher.
+     * apartment.prediction.batch.enabled = false scores every prediction on its caller's thread.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "apartment.prediction.batch.enabled", havingValue = "true", matchIfMissing = true)
+    public PredictionBatcher predictionBatcher(@Value("${apartment.prediction.batch.max-size:64}") int maxBatchSize,
+                                               @Value("${apartment.prediction.batch.max-drain-time:200us}") Duration maxDrainTime,
+                                               @Value("${apartment.prediction.batch.queue-capacity:4096}") int queueCapacity,
+                                               @Value("${apartment.prediction.batch.threads:1}") int threads) {
+        return new PredictionBatcher(maxBatchSize, maxDrainTime, queueCapacity, threads);
+    }
+}
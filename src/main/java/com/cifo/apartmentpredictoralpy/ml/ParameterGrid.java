@@ -0,0 +1,47 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Candidate values per GradientBoostingParams field; the grid is every
+ * combination of them. A null or empty list means the field keeps its
+ * GradientBoostingParams.DEFAULTS value.
+ */
+public record ParameterGrid(List<Integer> numTrees, List<Integer> maxDepth, List<Double> learningRate,
+                            List<Integer> minSamplesLeaf, List<Double> lambda, List<Integer> maxBins) {
+
+    /** Number of combinations, without building them. */
+    public long size() {
+        return (long) values(numTrees, 0).size() * values(maxDepth, 0).size() * values(learningRate, 0.0).size()
+                * values(minSamplesLeaf, 0).size() * values(lambda, 0.0).size() * values(maxBins, 0).size();
+    }
+
+    /**
+     * Every combination, with the last field varying fastest.
+     *
+     * @throws IllegalArgumentException if a combination is not valid GradientBoostingParams
+     */
+    public List<GradientBoostingParams> expand() {
+        GradientBoostingParams d = GradientBoostingParams.DEFAULTS;
+        List<GradientBoostingParams> grid = new ArrayList<>();
+        for (int trees : values(numTrees, d.numTrees())) {
+            for (int depth : values(maxDepth, d.maxDepth())) {
+                for (double rate : values(learningRate, d.learningRate())) {
+                    for (int leaf : values(minSamplesLeaf, d.minSamplesLeaf())) {
+                        for (double l2 : values(lambda, d.lambda())) {
+                            for (int bins : values(maxBins, d.maxBins())) {
+                                grid.add(new GradientBoostingParams(trees, depth, rate, leaf, l2, bins));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    private static <T> List<T> values(List<T> candidates, T fallback) {
+        return candidates == null || candidates.isEmpty() ? List.of(fallback) : candidates;
+    }
+}
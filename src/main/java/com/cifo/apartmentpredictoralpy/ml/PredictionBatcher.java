@@ -0,0 +1,193 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces concurrent single-apartment predictions into micro-batches.
+ *
+ * Callers submit one encoded feature vector and get a future. Dispatcher threads
+ * take the oldest waiting request plus the ones already queued behind it, up to
+ * maxBatchSize, and score the whole batch with one PriceModel.predictBatch()
+ * call, which walks each tree once for every row of the batch instead of once
+ * per request. Batching is opportunistic: nothing waits for company, requests
+ * that arrive while a batch is being scored simply form the next one, so an
+ * idle server answers a single request without delay.
+ *
+ * Waiting requests sit in a bounded queue. When it is full submit() fails at once
+ * with an IllegalStateException rather than letting latency grow without bound;
+ * callers are expected to retry later.
+ */
+public final class PredictionBatcher implements AutoCloseable {
+
+    private final int maxBatchSize;
+    private final long maxDrainNanos;
+    private final BlockingQueue<Request> queue;
+    private final List<Thread> dispatchers;
+    private volatile boolean closed;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param maxBatchSize  most requests scored together
+     * @param maxDrainTime  longest a batch keeps draining requests that are
+     *                      already queued; it never waits on an empty queue
+     * @param queueCapacity requests that may wait before submit() rejects new ones
+     * @param threads       dispatcher threads, each forming and scoring its own batches
+     */
+    public PredictionBatcher(int maxBatchSize, Duration maxDrainTime, int queueCapacity, int threads) {
+        if (maxBatchSize < 1 || queueCapacity < 1 || threads < 1) {
+            throw new IllegalArgumentException("Batch size, queue capacity and threads must be positive");
+        }
+        if (maxDrainTime.isNegative()) {
+            throw new IllegalArgumentException("maxDrainTime must not be negative");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxDrainNanos = maxDrainTime.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.dispatchers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread thread = Thread.ofPlatform().name("prediction-batcher-" + i).daemon().unstarted(this::dispatch);
+            dispatchers.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Queues one prediction.
+     *
+     * @param features one feature vector, ApartmentFeatures.COUNT values; not copied,
+     *                 so it must not change until the future completes
+     * @throws IllegalStateException if the queue is full or the batcher is closed
+     */
+    public CompletableFuture<Double> submit(PriceModel model, float[] features) {
+        if (features.length != ApartmentFeatures.COUNT) {
+            throw new IllegalArgumentException("Expected " + ApartmentFeatures.COUNT + " features");
+        }
+        if (closed) {
+            throw new IllegalStateException("The prediction batcher is shut down");
+        }
+        Request request = new Request(model, features, new CompletableFuture<>());
+        if (!queue.offer(request)) {
+            rejected.increment();
+            throw new IllegalStateException("Too many predictions waiting, try again later");
+        }
+        if (closed && queue.remove(request)) {
+            throw new IllegalStateException("The prediction batcher is shut down");
+        }
+        return request.result;
+    }
+
+    public Stats stats() {
+        return new Stats(batches.sum(), rows.sum(), rejected.sum(), queue.size());
+    }
+
+    /**
+     * Stops the dispatchers. Requests still queued fail with IllegalStateException.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        dispatchers.forEach(Thread::interrupt);
+        for (Thread thread : dispatchers) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<Request> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(r -> r.result.completeExceptionally(
+                new IllegalStateException("The prediction batcher is shut down")));
+    }
+
+    private void dispatch() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        while (!closed) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                batch.forEach(r -> r.result.completeExceptionally(
+                        new IllegalStateException("The prediction batcher is shut down")));
+                return;
+            }
+            score(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Blocks for the first request, then adds whatever else is already queued
+     * until the batch is full, a look finds the queue empty or maxDrainTime has
+     * passed since the first one arrived. It never waits for requests that are not there
+     * yet, so a lone request is scored at once.
+     */
+    private void collect(List<Request> batch) throws InterruptedException {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + maxDrainNanos;
+        while (batch.size() < maxBatchSize
+                && queue.drainTo(batch, maxBatchSize - batch.size()) > 0
+                && deadline - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Scores a batch, one predictBatch() call per distinct model (there is only
+     * more than one while a new model is being published).
+     */
+    private void score(List<Request> batch) {
+        Map<PriceModel, List<Request>> byModel = new IdentityHashMap<>(2);
+        for (Request request : batch) {
+            byModel.computeIfAbsent(request.model, m -> new ArrayList<>(batch.size())).add(request);
+        }
+        for (Map.Entry<PriceModel, List<Request>> group : byModel.entrySet()) {
+            List<Request> requests = group.getValue();
+            batches.increment();
+            rows.add(requests.size());
+            try {
+                float[][] columns = new float[ApartmentFeatures.COUNT][requests.size()];
+                for (int r = 0; r < requests.size(); r++) {
+                    float[] features = requests.get(r).features;
+                    for (int f = 0; f < ApartmentFeatures.COUNT; f++) {
+                        columns[f][r] = features[f];
+                    }
+                }
+                double[] prices = group.getKey().predictBatch(columns, null);
+                for (int r = 0; r < requests.size(); r++) {
+                    requests.get(r).result.complete(prices[r]);
+                }
+            } catch (RuntimeException e) {
+                requests.forEach(r -> r.result.completeExceptionally(e));
+            }
+        }
+    }
+
+    private record Request(PriceModel model, float[] features, CompletableFuture<Double> result) {
+    }
+
+    /**
+     * @param batches  predictBatch() calls made
+     * @param rows     predictions scored in those calls
+     * @param rejected submissions refused because the queue was full
+     * @param queued   requests waiting right now
+     */
+    public record Stats(long batches, long rows, long rejected, int queued) {
+
+        public double averageBatchSize() {
+            return batches == 0 ? 0 : (double) rows / batches;
+        }
+    }
+}
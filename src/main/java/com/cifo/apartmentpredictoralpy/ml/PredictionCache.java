@@ -0,0 +1,208 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded LRU cache of predicted prices, keyed by the encoded feature vector.
+ *
+ * The key is the feature vector packed losslessly into one long (45 bits, see
+ * {@link #key(float[], int)}), so two apartments share an entry only when all their
+ * features are equal. Vectors that do not fit (area above 1,048,574, counts above 14,
+ * fractional values) are simply not cached.
+ *
+ * Each entry remembers the model version that produced it and is ignored for any
+ * other version; {@link #invalidateAll()} drops everything when a model is published.
+ * Entries also expire after the configured time to live.
+ *
+ * The map is guarded by a ReentrantLock rather than synchronized, so virtual
+ * threads waiting for it do not pin their carrier thread.
+ */
+public final class PredictionCache {
+
+    /** Returned by key() for feature vectors that cannot be packed. */
+    public static final long NOT_CACHEABLE = -1L;
+
+    private static final int AREA_BITS = 20;
+    private static final int COUNT_BITS = 4;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PredictionCache(int maxSize, Duration ttl) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(Math.min(maxSize, 1 << 16), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > PredictionCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Packs a feature vector (ApartmentFeatures order) into a cache key.
+     *
+     * Layout from the low bits: area (20), bedrooms, bathrooms, stories, parking
+     * (4 each), the seven booleans (1 each) and furnishingstatus (2). In every numeric
+     * field the all-ones value stands for "missing".
+     *
+     * @return the key, or NOT_CACHEABLE if a value does not fit its field
+     */
+    public static long key(float[] features, int offset) {
+        long key = 0;
+        int shift = 0;
+        long area = field(features[offset + ApartmentFeatures.AREA], AREA_BITS);
+        if (area < 0) {
+            return NOT_CACHEABLE;
+        }
+        key |= area;
+        shift += AREA_BITS;
+        for (int f = ApartmentFeatures.BEDROOMS; f <= ApartmentFeatures.PARKING; f++) {
+            long value = field(features[offset + f], COUNT_BITS);
+            if (value < 0) {
+                return NOT_CACHEABLE;
+            }
+            key |= value << shift;
+            shift += COUNT_BITS;
+        }
+        for (int f = ApartmentFeatures.MAINROAD; f <= ApartmentFeatures.PREFAREA; f++) {
+            float flag = features[offset + f];
+            if (flag != 0f && flag != 1f) {
+                return NOT_CACHEABLE;
+            }
+            key |= (long) flag << shift++;
+        }
+        long furnishing = field(features[offset + ApartmentFeatures.FURNISHING], 2);
+        if (furnishing < 0) {
+            return NOT_CACHEABLE;
+        }
+        return key | furnishing << shift;
+    }
+
+    /**
+     * Value of a non-negative integer field of the given width, with the all-ones
+     * value standing for NaN. Returns -1 if the value does not fit.
+     */
+    private static long field(float value, int bits) {
+        long missing = (1L << bits) - 1;
+        if (Float.isNaN(value)) {
+            return missing;
+        }
+        if (value < 0 || value >= missing || value != (long) value) {
+            return -1;
+        }
+        return (long) value;
+    }
+
+    /**
+     * @return the cached price, or NaN on a miss
+     */
+    public double get(long key, long modelVersion) {
+        if (key == NOT_CACHEABLE) {
+            misses.increment();
+            return Double.NaN;
+        }
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.modelVersion == modelVersion
+                    && System.nanoTime() - entry.createdAt < ttlNanos) {
+                hits.increment();
+                return entry.price;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        return Double.NaN;
+    }
+
+    public void put(long key, long modelVersion, double price) {
+        if (key == NOT_CACHEABLE || maxSize == 0) {
+            return;
+        }
+        Entry entry = new Entry(modelVersion, price, System.nanoTime());
+        lock.lock();
+        try {
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every entry, e.g. because a new model has been published.
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            evictions.add(entries.size());
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes expired entries. Expired entries are also dropped lazily when read.
+     */
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (now - it.next().createdAt >= ttlNanos) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Stats stats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        public double hitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    private record Entry(long modelVersion, double price, long createdAt) {
+    }
+}
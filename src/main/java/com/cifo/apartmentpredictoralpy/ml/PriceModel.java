@@ -0,0 +1,212 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+
+/**
+ * Trained gradient-boosted tree ensemble that predicts apartment prices.
+ *
+ * The prediction is baseScore plus the sum of every tree's output. All trees are
+ * flattened into three primitive arrays shared by the whole ensemble:
+ * - nodeFeature[n]: feature tested by node n, or -1 for a leaf
+ * - nodeValue[n]: split threshold of an inner node, output of a leaf
+ * - nodeChild[n]: index of the left child; the right child is always nodeChild[n] + 1
+ * treeRoot[t] is the index of the root of tree t. Rows go left when
+ * {@code value <= threshold}, so NaN (missing) goes right.
+ *
+ * Instances are immutable and can be shared between threads.
+ */
+public final class PriceModel {
+
+    /** Rows evaluated together, tree by tree, in batch predictions. */
+    private static final int BLOCK_ROWS = 256;
+
+    private final long version;
+    private final Instant trainedAt;
+    private final float baseScore;
+    private final int[] treeRoot;
+    private final int[] nodeFeature;
+    private final float[] nodeValue;
+    private final int[] nodeChild;
+
+    public PriceModel(long version, Instant trainedAt, float baseScore, RegressionTree[] trees) {
+        this.version = version;
+        this.trainedAt = trainedAt;
+        this.baseScore = baseScore;
+        int nodes = 0;
+        for (RegressionTree tree : trees) {
+            nodes += tree.nodeCount();
+        }
+        treeRoot = new int[trees.length];
+        nodeFeature = new int[nodes];
+        nodeValue = new float[nodes];
+        nodeChild = new int[nodes];
+        int next = 0;
+        for (int t = 0; t < trees.length; t++) {
+            treeRoot[t] = next;
+            next = flatten(trees[t], next);
+        }
+    }
+
+    /**
+     * Rebuilds a model from its flat arrays, as stored by PriceModelFile.
+     */
+    PriceModel(long version, Instant trainedAt, float baseScore,
+               int[] treeRoot, int[] nodeFeature, float[] nodeValue, int[] nodeChild) {
+        this.version = version;
+        this.trainedAt = trainedAt;
+        this.baseScore = baseScore;
+        this.treeRoot = treeRoot;
+        this.nodeFeature = nodeFeature;
+        this.nodeValue = nodeValue;
+        this.nodeChild = nodeChild;
+    }
+
+    /**
+     * Lays out one tree breadth first from {@code base}, with sibling nodes next to each other.
+     *
+     * @return the first free index after the tree
+     */
+    private int flatten(RegressionTree tree, int base) {
+        int[] queue = new int[tree.nodeCount()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        int next = base + 1;
+        while (head < tail) {
+            int source = queue[head];
+            int target = base + head++;
+            int f = tree.feature[source];
+            nodeFeature[target] = f;
+            if (f < 0) {
+                nodeValue[target] = tree.value[source];
+            } else {
+                nodeValue[target] = tree.threshold[source];
+                nodeChild[target] = next;
+                next += 2;
+                queue[tail++] = tree.left[source];
+                queue[tail++] = tree.right[source];
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Number given by the ModelRegistry that published the model, 0 before that.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * This model under another version number; the trees are shared.
+     */
+    public PriceModel withVersion(long version) {
+        return new PriceModel(version, trainedAt, baseScore, treeRoot, nodeFeature, nodeValue, nodeChild);
+    }
+
+    public Instant trainedAt() {
+        return trainedAt;
+    }
+
+    public float baseScore() {
+        return baseScore;
+    }
+
+    public int treeCount() {
+        return treeRoot.length;
+    }
+
+    public int nodeCount() {
+        return nodeFeature.length;
+    }
+
+    int[] treeRoots() {
+        return treeRoot;
+    }
+
+    int[] nodeFeatures() {
+        return nodeFeature;
+    }
+
+    float[] nodeValues() {
+        return nodeValue;
+    }
+
+    int[] nodeChildren() {
+        return nodeChild;
+    }
+
+    public double predict(Apartment apartment) {
+        return predict(ApartmentFeatures.encode(apartment), 0);
+    }
+
+    /**
+     * @param row    feature vectors, ApartmentFeatures.COUNT values per row
+     * @param offset index of the first feature of the row to evaluate
+     */
+    public double predict(float[] row, int offset) {
+        double sum = baseScore;
+        for (int root : treeRoot) {
+            int node = root;
+            int f;
+            while ((f = nodeFeature[node]) >= 0) {
+                node = nodeChild[node] + (row[offset + f] <= nodeValue[node] ? 0 : 1);
+            }
+            sum += nodeValue[node];
+        }
+        return sum;
+    }
+
+    /**
+     * Predicts the prices of many rows given column by column.
+     *
+     * Rows are processed in blocks of 256; within a block each tree is applied to
+     * every row before moving on to the next tree, so a tree's nodes stay in
+     * the CPU cache while the block is scored.
+     *
+     * @param columns  one array per feature, in ApartmentFeatures order, all of the same length
+     * @param pool     pool used to score blocks in parallel, or null to score on the calling thread
+     */
+    public double[] predictBatch(float[][] columns, ForkJoinPool pool) {
+        if (columns.length != ApartmentFeatures.COUNT) {
+            throw new IllegalArgumentException("Expected " + ApartmentFeatures.COUNT + " feature columns");
+        }
+        int rows = columns[0].length;
+        for (float[] column : columns) {
+            if (column.length != rows) {
+                throw new IllegalArgumentException("All feature columns must have the same length");
+            }
+        }
+        double[] prices = new double[rows];
+        int blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        if (pool == null || blocks < 2) {
+            for (int b = 0; b < blocks; b++) {
+                scoreBlock(columns, prices, b * BLOCK_ROWS, Math.min(rows, (b + 1) * BLOCK_ROWS));
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(b ->
+                    scoreBlock(columns, prices, b * BLOCK_ROWS, Math.min(rows, (b + 1) * BLOCK_ROWS))))
+                    .join();
+        }
+        return prices;
+    }
+
+    private void scoreBlock(float[][] columns, double[] prices, int from, int to) {
+        Arrays.fill(prices, from, to, baseScore);
+        for (int root : treeRoot) {
+            for (int r = from; r < to; r++) {
+                int node = root;
+                int f;
+                while ((f = nodeFeature[node]) >= 0) {
+                    node = nodeChild[node] + (columns[f][r] <= nodeValue[node] ? 0 : 1);
+                }
+                prices[r] += nodeValue[node];
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary file format of a PriceModel.
+ *
+ * Layout (little endian):
+ * - int magic "APMF", int format version
+ * - long model version, long trainedAt seconds, int trainedAt nanos, float baseScore
+ * - int feature count, then per feature a short byte length and the UTF-8 name
+ * - zero padding up to a multiple of 4 bytes
+ * - int tree count, int node count
+ * - int[treeCount] treeRoot, int[nodeCount] nodeFeature, float[nodeCount] nodeValue, int[nodeCount] nodeChild
+ * - int CRC32C of every preceding byte
+ *
+ * The arrays are exactly PriceModel's flat arrays, so loading is a checksum pass
+ * plus four bulk copies out of the mapped file; no tree objects are rebuilt.
+ * Files are written to a temporary file in the target directory and moved into
+ * place atomically, so readers see either the old model or the new one.
+ */
+public final class PriceModelFile {
+
+    private static final int MAGIC = 0x464D5041; // "APMF" read as little endian
+    private static final int FORMAT_VERSION = 1;
+
+    private PriceModelFile() {
+    }
+
+    public static void write(PriceModel model, Path file) throws IOException {
+        write(model, file, ApartmentFeatures.FEATURE_NAMES);
+    }
+
+    static void write(PriceModel model, Path file, List<String> featureNames) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size(model, featureNames)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+        buffer.putLong(model.version());
+        buffer.putLong(model.trainedAt().getEpochSecond()).putInt(model.trainedAt().getNano());
+        buffer.putFloat(model.baseScore());
+        buffer.putInt(featureNames.size());
+        for (String name : featureNames) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+        while (buffer.position() % 4 != 0) {
+            buffer.put((byte) 0);
+        }
+        buffer.putInt(model.treeCount()).putInt(model.nodeCount());
+        buffer.asIntBuffer().put(model.treeRoots());
+        buffer.position(buffer.position() + 4 * model.treeCount());
+        buffer.asIntBuffer().put(model.nodeFeatures());
+        buffer.position(buffer.position() + 4 * model.nodeCount());
+        buffer.asFloatBuffer().put(model.nodeValues());
+        buffer.position(buffer.position() + 4 * model.nodeCount());
+        buffer.asIntBuffer().put(model.nodeChildren());
+        buffer.position(buffer.position() + 4 * model.nodeCount());
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static int size(PriceModel model, List<String> featureNames) {
+        int header = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+        for (String name : featureNames) {
+            header += 2 + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        header = (header + 3) & ~3;
+        return header + 4 + 4 + 4 * model.treeCount() + 3 * 4 * model.nodeCount() + 4;
+    }
+
+    /**
+     * Maps the file read-only and loads the model stored in it.
+     *
+     * @throws IOException           if the file cannot be read, is truncated or fails its checksum
+     * @throws IllegalStateException if the model was trained on other features than
+     *                               ApartmentFeatures.FEATURE_NAMES (i.e. the Apartment fields changed)
+     */
+    public static PriceModel read(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        int size = buffer.limit();
+        if (size < 8 || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a price model file");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(file + " has unsupported format version " + buffer.getInt(4));
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, size - 4));
+        if ((int) crc.getValue() != buffer.getInt(size - 4)) {
+            throw new IOException(file + " is corrupt (checksum mismatch)");
+        }
+
+        try {
+            buffer.position(8);
+            long version = buffer.getLong();
+            Instant trainedAt = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            float baseScore = buffer.getFloat();
+            int featureCount = buffer.getInt();
+            List<String> featureNames = new ArrayList<>(featureCount);
+            for (int i = 0; i < featureCount; i++) {
+                byte[] bytes = new byte[buffer.getShort()];
+                buffer.get(bytes);
+                featureNames.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            if (!featureNames.equals(ApartmentFeatures.FEATURE_NAMES)) {
+                throw new IllegalStateException("Model in " + file + " was trained on features " + featureNames
+                        + " but apartments now have " + ApartmentFeatures.FEATURE_NAMES);
+            }
+            buffer.position((buffer.position() + 3) & ~3);
+
+            int treeCount = buffer.getInt();
+            int nodeCount = buffer.getInt();
+            if (treeCount < 0 || nodeCount < 0
+                    || buffer.remaining() != 4L * treeCount + 3L * 4 * nodeCount + 4) {
+                throw new IOException(file + " has inconsistent array sizes");
+            }
+            int[] treeRoot = new int[treeCount];
+            int[] nodeFeature = new int[nodeCount];
+            float[] nodeValue = new float[nodeCount];
+            int[] nodeChild = new int[nodeCount];
+            buffer.asIntBuffer().get(treeRoot);
+            buffer.position(buffer.position() + 4 * treeCount);
+            buffer.asIntBuffer().get(nodeFeature);
+            buffer.position(buffer.position() + 4 * nodeCount);
+            buffer.asFloatBuffer().get(nodeValue);
+            buffer.position(buffer.position() + 4 * nodeCount);
+            buffer.asIntBuffer().get(nodeChild);
+            validate(file, treeRoot, nodeFeature, nodeChild);
+            return new PriceModel(version, trainedAt, baseScore, treeRoot, nodeFeature, nodeValue, nodeChild);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException(file + " is truncated or malformed", e);
+        }
+    }
+
+    /**
+     * Checks that every index points inside the arrays, so a bad file cannot make
+     * predictions fail later with ArrayIndexOutOfBoundsException.
+     */
+    private static void validate(Path file, int[] treeRoot, int[] nodeFeature, int[] nodeChild) throws IOException {
+        int nodes = nodeFeature.length;
+        for (int root : treeRoot) {
+            if (root < 0 || root >= nodes) {
+                throw new IOException(file + " has a tree root outside the node array");
+            }
+        }
+        for (int n = 0; n < nodes; n++) {
+            int f = nodeFeature[n];
+            if (f >= ApartmentFeatures.COUNT || (f >= 0 && (nodeChild[n] <= n || nodeChild[n] + 1 >= nodes))) {
+                throw new IOException(file + " has an invalid node " + n);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+/**
+ * One binary regression tree as grown by the trainer, stored as parallel arrays,
+ * node 0 being the root. PriceModel flattens its trees into a single layout
+ * for evaluation.
+ *
+ * An inner node sends a row left when {@code value <= threshold[node]} and right
+ * otherwise, so missing values (NaN) always go right. Leaves have
+ * {@code feature[node] == -1} and carry their output in {@code value[node]}.
+ */
+public final class RegressionTree {
+
+    final int[] feature;
+    final float[] threshold;
+    final int[] left;
+    final int[] right;
+    final float[] value;
+
+    RegressionTree(int[] feature, float[] threshold, int[] left, int[] right, float[] value) {
+        this.feature = feature;
+        this.threshold = threshold;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+    }
+
+    public int nodeCount() {
+        return feature.length;
+    }
+}
@@ -0,0 +1,21 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+/**
+ * Receives the progress of a training run and can stop it.
+ *
+ * The trainer calls {@link #treeBuilt(int, int)} after each tree and checks
+ * {@link #isCancelled()} before each tree; a cancelled run ends with a
+ * java.util.concurrent.CancellationException.
+ */
+public interface TrainingMonitor {
+
+    TrainingMonitor NONE = new TrainingMonitor() {
+    };
+
+    default void treeBuilt(int built, int total) {
+    }
+
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.stereotype.Component;
 
 /**
@@ -13,15 +14,47 @@ import org.springframework.stereotype.Component;
  * including its main attributes and any relationships with other domain
  * entities. It is used by JPA/Hibernate to automatically map its fields
  * to persistent storage.
+ *
+ * The secondary indexes back the filter finders of ApartmentRepository
+ * (price and area ranges, bedrooms + bathrooms, prefarea + furnishingstatus,
+ * apartments of an owner). IDX_APARTMENT_OWNER also serves the foreign key to
+ * Owner. ddl-auto=update creates them on existing databases.
  */
 
 @Entity
+@EntityListeners(ApartmentEntityListener.class)
 //@Component
-//@Table(name = "Apartment")
+@Table(indexes = {
+        @Index(name = "IDX_APARTMENT_PRICE", columnList = "price"),
+        @Index(name = "IDX_APARTMENT_AREA", columnList = "area"),
+        @Index(name = "IDX_APARTMENT_ROOMS", columnList = "bedrooms, bathrooms"),
+        @Index(name = "IDX_APARTMENT_PREFAREA_FURNISHING", columnList = "prefarea, furnishingstatus"),
+        @Index(name = "IDX_APARTMENT_OWNER", columnList = "idPerson")})
+@NamedEntityGraph(
+        name = Apartment.WITH_REVIEWS,
+        attributeNodes = @NamedAttributeNode(value = "reviews", subgraph = "reviewer"),
+        subgraphs = @NamedSubgraph(name = "reviewer", attributeNodes = @NamedAttributeNode("reviewer")))
 public class Apartment {
 
+    /**
+     * Entity graph that loads an apartment together with its reviews and their
+     * reviewers in a single query. Use it only where the reviews are really needed.
+     */
+    public static final String WITH_REVIEWS = "Apartment.withReviews";
+
+
+    /**
+     * Ids come from a sequence with a pooled optimizer: Hibernate reserves
+     * ID_ALLOCATION_SIZE ids per sequence call and can batch the INSERTs
+     * (IDENTITY columns force one INSERT round trip per entity).
+     * The sequence starts at 1001 so the ids used by seed.sql stay free.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "apartment_seq")
+    @SequenceGenerator(name = "apartment_seq", sequenceName = "APARTMENT_SEQ",
+            initialValue = 1001, allocationSize = ID_ALLOCATION_SIZE)
     private long idApartment;
 
     private Integer price;
@@ -62,16 +95,26 @@ public class Apartment {
      *
      * El atributo owner representa la referencia al Owner asociado al Apartment,
      * permitiendo navegar desde un Apartment hacia su Owner.
+     *
+     * cascade PERSIST/MERGE permite guardar un Apartment junto con un Owner nuevo
+     * (todavía no persistido) sin tener que guardar antes el Owner.
      */
-    @ManyToOne
+    @ManyToOne(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinColumn(name = "idPerson")
     private Owner owner;
 
+    /**
+     * Reviews are LAZY: listing apartments must not load every review.
+     * They are loaded on demand, either with the WITH_REVIEWS entity graph or,
+     * when several apartments touch getReviews(), in batches of 50 apartments
+     * per query (@BatchSize) instead of one query per apartment.
+     */
     @OneToMany(
             mappedBy = "apartment",
             cascade = CascadeType.ALL,
             orphanRemoval = true,
-            fetch = FetchType.EAGER)
+            fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     private List<Review> reviews = new ArrayList<>();
 
     public Apartment() {
@@ -233,6 +276,11 @@ public class Apartment {
         review.setApartment(this); // Keep relation consistent. IA advice after checking.
     }
 
+    /**
+     * Scalar columns plus the owner's id. The owner and the reviews are not
+     * printed (they point back here) and never loaded; see EntityDumper to
+     * print the graph.
+     */
     @Override
     public String toString() {
         return "Apartment{" +
@@ -251,8 +299,7 @@ public class Apartment {
                 ", parking=" + parking +
                 ", prefarea=" + prefarea +
                 ", furnishingstatus='" + furnishingstatus + '\'' +
-                ", owner=" + owner +
-                ", reviews=" + reviews +
+                ", idOwner=" + (owner != null ? owner.getIdPerson() : null) +
                 '}';
     }
 
@@ -0,0 +1,19 @@
+package com.cifo.apartmentpredictoralpy.model;
+
+/**
+ * Published (as a Spring application event) whenever an apartment is inserted,
+ * updated or deleted through JPA, see ApartmentEntityListener.
+ *
+ * The event is raised inside the transaction; listeners that must only see
+ * committed changes use @TransactionalEventListener.
+ */
+public record ApartmentChangedEvent(Apartment apartment, Change change) {
+
+    public enum Change {
+        CREATED, UPDATED, DELETED
+    }
+
+    public boolean isPriced() {
+        return apartment.getPrice() != null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.cifo.apartmentpredictoralpy.model;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA lifecycle listener that turns apartment writes into ApartmentChangedEvents.
+ *
+ * Hibernate creates it through Spring's bean container, so the event publisher
+ * is injected like in any other bean. Rows written with plain JDBC (e.g. the CSV
+ * import) do not go through JPA and raise no event.
+ */
+public class ApartmentEntityListener {
+
+    private final ApplicationEventPublisher events;
+
+    public ApartmentEntityListener(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    @PostPersist
+    void created(Apartment apartment) {
+        events.publishEvent(new ApartmentChangedEvent(apartment, ApartmentChangedEvent.Change.CREATED));
+    }
+
+    @PostUpdate
+    void updated(Apartment apartment) {
+        events.publishEvent(new ApartmentChangedEvent(apartment, ApartmentChangedEvent.Change.UPDATED));
+    }
+
+    @PostRemove
+    void deleted(Apartment apartment) {
+        events.publishEvent(new ApartmentChangedEvent(apartment, ApartmentChangedEvent.Change.DELETED));
+    }
+}
@@ -0,0 +1,73 @@
+package com.cifo.apartmentpredictoralpy.model;
+
+import java.time.LocalDate;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * Rating aggregate of one apartment's reviews (table APARTMENT_RATING).
+ *
+ * The rows are maintained with SQL by ReviewRepository whenever reviews are
+ * saved or deleted through it, so reading an apartment's rating is one
+ * primary key lookup instead of loading all its reviews. Apartments without
+ * reviews have no row. The entity is read-only for JPA.
+ */
+@Entity
+@Immutable
+public class ApartmentRating {
+
+    @Id
+    private long idApartment;
+    private long reviewCount;
+    private long ratingSum;
+    private Integer minRating;
+    private Integer maxRating;
+    private LocalDate lastReviewDate;
+
+    protected ApartmentRating() {
+    }
+
+    public long getIdApartment() {
+        return idApartment;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public Integer getMinRating() {
+        return minRating;
+    }
+
+    public Integer getMaxRating() {
+        return maxRating;
+    }
+
+    public LocalDate getLastReviewDate() {
+        return lastReviewDate;
+    }
+
+    /** Mean rating, or null without reviews. */
+    public Double getAverageRating() {
+        return reviewCount == 0 ? null : (double) ratingSum / reviewCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ApartmentRating{" +
+                "idApartment=" + idApartment +
+                ", reviewCount=" + reviewCount +
+                ", ratingSum=" + ratingSum +
+                ", minRating=" + minRating +
+                ", maxRating=" + maxRating +
+                ", lastReviewDate=" + lastReviewDate +
+                '}';
+    }
+}
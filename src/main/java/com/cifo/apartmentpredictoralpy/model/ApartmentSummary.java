@@ -0,0 +1,34 @@
+package com.cifo.apartmentpredictoralpy.model;
+
+/**
+ * DTO projection of Apartment with only its scalar columns.
+ *
+ * Spring Data selects just these columns (constructor expression), so listing
+ * apartments through this projection never loads the owner, the reviews or
+ * the reviewers, and no entity ends up in the persistence context.
+ */
+public record ApartmentSummary(
+        long idApartment,
+        Integer price,
+        Integer area,
+        Integer bedrooms,
+        Integer bathrooms,
+        Integer stories,
+        boolean mainroad,
+        boolean guestroom,
+        boolean basement,
+        boolean hotwater,
+        boolean heating,
+        boolean airconditioning,
+        int parking,
+        boolean prefarea,
+        String furnishingstatus) {
+
+    public static ApartmentSummary of(Apartment apartment) {
+        return new ApartmentSummary(apartment.getIdApartment(), apartment.getPrice(), apartment.getArea(),
+                apartment.getBedrooms(), apartment.getBathrooms(), apartment.getStories(),
+                apartment.isMainroad(), apartment.isGuestroom(), apartment.isBasement(),
+                apartment.isHotwater(), apartment.isHeating(), apartment.isAirconditioning(),
+                apartment.getParking(), apartment.isPrefarea(), apartment.getFurnishingstatus());
+    }
+}
@@ -0,0 +1,9 @@
+package com.cifo.apartmentpredictoralpy.model;
+
+/**
+ * Published after a bulk import has committed rows straight into the APARTMENT
+ * table. Such rows raise no ApartmentChangedEvent, so in-memory views of the
+ * apartments have to be rebuilt instead.
+ */
+public record ApartmentsImportedEvent(long rows) {
+}
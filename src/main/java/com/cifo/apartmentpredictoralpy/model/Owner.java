@@ -126,15 +126,22 @@ public class Owner extends Person {
      a.setOwner(this); // Keep relation consistent. IA advice after checking.
     }
 
+    /**
+     * Person and owner columns. The apartments are not printed (they point back
+     * here) and never loaded; see EntityDumper to print the graph.
+     */
     @Override
     public String toString() {
         return "Owner{" +
-                "isActive=" + isActive +
+                "idPerson=" + getIdPerson() +
+                ", name='" + getName() + '\'' +
+                ", email='" + getEmail() + '\'' +
+                ", age=" + getAge() +
+                ", isActive=" + isActive +
                 ", isBusiness=" + isBusiness +
                 ", idLegalOwner='" + idLegalOwner + '\'' +
                 ", registrationDate=" + registrationDate +
                 ", qtyDaysAsOwner=" + qtyDaysAsOwner +
-                ", apartments=" + apartments +
                 '}';
     }
 }
@@ -0,0 +1,12 @@
+package com.cifo.apartmentpredictoralpy.model;
+
+/**
+ * Cheap fingerprint of the priced apartments: how many there are, the highest
+ * id and the sums of their prices and areas. Built by a JPQL constructor
+ * expression in ApartmentRepository; a saved aggregate whose fingerprint no
+ * longer matches the table is out of date. A match proves little: moving an
+ * apartment to another segment or swapping two prices keeps every total, so
+ * the owner of the aggregate must also drop it on the first change it sees.
+ */
+public record PricedApartmentTotals(long count, long maxIdApartment, long priceSum, long areaSum) {
+}
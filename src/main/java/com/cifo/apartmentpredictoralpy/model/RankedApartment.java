@@ -0,0 +1,23 @@
+package com.cifo.apartmentpredictoralpy.model;
+
+/**
+ * Review totals of one apartment together with the attributes the rankings are
+ * segmented by. Built by JPQL constructor expressions in ApartmentRatingRepository.
+ */
+public record RankedApartment(
+        long idApartment,
+        Integer bedrooms,
+        boolean prefarea,
+        String furnishingstatus,
+        long reviewCount,
+        long ratingSum) {
+
+    public double averageRating() {
+        return reviewCount == 0 ? 0 : (double) ratingSum / reviewCount;
+    }
+
+    /** The same totals for an apartment whose attributes changed. */
+    public RankedApartment withAttributes(Integer bedrooms, boolean prefarea, String furnishingstatus) {
+        return new RankedApartment(idApartment, bedrooms, prefarea, furnishingstatus, reviewCount, ratingSum);
+    }
+}
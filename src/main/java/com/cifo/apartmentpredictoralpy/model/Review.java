@@ -4,13 +4,23 @@ import jakarta.persistence.*;
 
 import java.time.LocalDate;
 
-
+/**
+ * A review of an apartment by a reviewer.
+ *
+ * The indexes on the two foreign keys back the ReviewRepository finders (reviews
+ * of one apartment, reviews by one reviewer). H2 reuses an index on exactly the
+ * foreign key columns for the constraint, so they replace the anonymous FK
+ * indexes. H2 prefers a single-column FK index over a composite (fk, date) one
+ * even for ORDER BY date, so the few reviews per key are sorted after the lookup.
+ */
 @Entity
-//@Table(name = "Review")
-
+@Table(indexes = {
+        @Index(name = "IDX_REVIEW_APARTMENT", columnList = "idApartment"),
+        @Index(name = "IDX_REVIEW_REVIEWER", columnList = "idReviewer")})
 public class Review {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "review_seq")
+    @SequenceGenerator(name = "review_seq", sequenceName = "REVIEW_SEQ", allocationSize = 50)
     private Long id;
     private int rating;
     private String comment;
@@ -81,6 +91,10 @@ public class Review {
         this.apartment = apartment;
     }
 
+    /**
+     * Scalar columns plus the ids of the reviewer and the apartment, which are
+     * not loaded; see EntityDumper to print the graph.
+     */
     @Override
     public String toString() {
         return "Review{" +
@@ -88,8 +102,9 @@ public class Review {
                 ", rating=" + rating +
                 ", comment='" + comment + '\'' +
                 ", date=" + date +
-                ", reviewer=" + reviewer +
-                ", apartment=" + apartment +
+                ", title='" + title + '\'' +
+                ", idReviewer=" + (reviewer != null ? reviewer.getIdPerson() : null) +
+                ", idApartment=" + (apartment != null ? apartment.getIdApartment() : null) +
                 '}';
     }
 }
@@ -0,0 +1,17 @@
+package com.cifo.apartmentpredictoralpy.model;
+
+import java.time.LocalDate;
+
+/**
+ * DTO projection of Review with its scalar columns and the ids of its apartment
+ * and reviewer (null when unset), so neither of them is loaded.
+ */
+public record ReviewSummary(
+        Long id,
+        int rating,
+        String title,
+        String comment,
+        LocalDate date,
+        Long idApartment,
+        Long idReviewer) {
+}
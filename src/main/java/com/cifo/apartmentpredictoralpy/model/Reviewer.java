@@ -32,10 +32,16 @@ public class Reviewer extends Person {
         r.setReviewer(this); // Keep relation consistent. IA advice after checking.
     }
 
+    /**
+     * Person columns only; the reviews point back here and are never loaded.
+     */
     @Override
     public String toString() {
         return "Reviewer{" +
-                "reviews=" + reviews +
+                "idPerson=" + getIdPerson() +
+                ", name='" + getName() + '\'' +
+                ", email='" + getEmail() + '\'' +
+                ", age=" + getAge() +
                 '}';
     }
 }
@@ -0,0 +1,14 @@
+package com.cifo.apartmentpredictoralpy.model;
+
+import java.util.Set;
+
+/**
+ * Published by ReviewRepository after it has updated the rating aggregates of
+ * some apartments. Like ApartmentChangedEvent it is raised inside the transaction.
+ */
+public record ReviewsChangedEvent(Set<Long> idApartments) {
+
+    public ReviewsChangedEvent {
+        idApartments = Set.copyOf(idApartments);
+    }
+}
@@ -0,0 +1,33 @@
+package com.cifo.apartmentpredictoralpy.repository;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+/**
+ * Repository fragment for the keyset-paginated apartment listing on columns
+ * that may be NULL.
+ *
+ * Spring Data's derived keyset queries compare the sort keys with > and =, so a
+ * row whose key is NULL matches neither: it can never be paged past or into.
+ * findPage() sorts NULLs last in either direction and builds the seek predicate
+ * itself, with an explicit IS NULL branch. A cursor whose sort key is null
+ * therefore means "inside the NULL tail", where only idApartment still orders
+ * the rows.
+ */
+public interface ApartmentListingRepository {
+
+    /**
+     * Returns one window of apartment summaries.
+     *
+     * @param position ScrollPosition.keyset() for the first window, or a forward
+     *                 KeysetScrollPosition holding the sort keys of the last row of
+     *                 the previous window (a key may be null)
+     * @param sort     sort on scalar Apartment properties; must end with idApartment
+     *                 so the keyset is unique
+     * @param limit    rows per window
+     */
+    Window<ApartmentSummary> findPage(ScrollPosition position, Sort sort, int limit);
+}
@@ -0,0 +1,118 @@
+package com.cifo.apartmentpredictoralpy.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Implementation of {@link ApartmentListingRepository}.
+ *
+ * For the sort (k1, ..., kn) and the cursor (v1, ..., vn) the seek predicate is
+ * the usual lexicographic OR over i of "k1..k(i-1) equal and ki after vi", where
+ * "equal" is ki IS NULL for a null vi, and "after" is ki > vi (< when
+ * descending) OR ki IS NULL for a non-null vi and never true for a null one,
+ * since NULLs sort last.
+ */
+public class ApartmentListingRepositoryImpl implements ApartmentListingRepository {
+
+    private static final String SELECT = "SELECT new com.cifo.apartmentpredictoralpy.model.ApartmentSummary("
+            + "a.idApartment, a.price, a.area, a.bedrooms, a.bathrooms, a.stories, a.mainroad, a.guestroom, "
+            + "a.basement, a.hotwater, a.heating, a.airconditioning, a.parking, a.prefarea, a.furnishingstatus) "
+            + "FROM Apartment a";
+
+    /** Properties findPage() can sort by, with the way to read each from a row. */
+    private static final Map<String, Function<ApartmentSummary, Object>> KEYS = Map.of(
+            "idApartment", ApartmentSummary::idApartment,
+            "price", ApartmentSummary::price,
+            "area", ApartmentSummary::area,
+            "bedrooms", ApartmentSummary::bedrooms,
+            "bathrooms", ApartmentSummary::bathrooms,
+            "stories", ApartmentSummary::stories,
+            "parking", ApartmentSummary::parking);
+
+    private final EntityManager entityManager;
+
+    public ApartmentListingRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Window<ApartmentSummary> findPage(ScrollPosition position, Sort sort, int limit) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty() || !"idApartment".equals(orders.get(orders.size() - 1).getProperty())) {
+            throw new IllegalArgumentException("The sort must end with idApartment");
+        }
+        for (Sort.Order order : orders) {
+            if (!KEYS.containsKey(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort apartments by '" + order.getProperty() + "'");
+            }
+        }
+        if (!(position instanceof KeysetScrollPosition keyset) || keyset.scrollsBackward()) {
+            throw new IllegalArgumentException("Only forward keyset positions are supported");
+        }
+
+        StringBuilder jpql = new StringBuilder(SELECT);
+        List<Object> parameters = new ArrayList<>();
+        if (!keyset.isInitial()) {
+            jpql.append(" WHERE ").append(seekPredicate(orders, keyset.getKeys(), parameters));
+        }
+        jpql.append(" ORDER BY ");
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            jpql.append(i == 0 ? "" : ", ").append("a.").append(order.getProperty())
+                    .append(order.isAscending() ? " ASC" : " DESC").append(" NULLS LAST");
+        }
+
+        TypedQuery<ApartmentSummary> query = entityManager.createQuery(jpql.toString(), ApartmentSummary.class);
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        List<ApartmentSummary> rows = query.setMaxResults(limit + 1).getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<ApartmentSummary> content = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(content, i -> positionOf(content.get(i), orders), hasNext);
+    }
+
+    private static String seekPredicate(List<Sort.Order> orders, Map<String, Object> keys, List<Object> parameters) {
+        List<String> branches = new ArrayList<>();
+        StringBuilder equalPrefix = new StringBuilder();
+        for (Sort.Order order : orders) {
+            String property = order.getProperty();
+            if (!keys.containsKey(property)) {
+                throw new IllegalArgumentException("The position has no value for " + property);
+            }
+            Object value = keys.get(property);
+            String column = "a." + property;
+            if (value != null) {
+                parameters.add(value);
+                int parameter = parameters.size();
+                branches.add(equalPrefix + "(" + column + (order.isAscending() ? " > ?" : " < ?") + parameter
+                        + " OR " + column + " IS NULL)");
+                equalPrefix.append(column).append(" = ?").append(parameter).append(" AND ");
+            } else {
+                equalPrefix.append(column).append(" IS NULL AND ");
+            }
+        }
+        return branches.isEmpty() ? "1 = 0" : "(" + String.join(" OR ", branches) + ")";
+    }
+
+    private static ScrollPosition positionOf(ApartmentSummary row, List<Sort.Order> orders) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : orders) {
+            keys.put(order.getProperty(), KEYS.get(order.getProperty()).apply(row));
+        }
+        return ScrollPosition.forward(keys);
+    }
+}
@@ -0,0 +1,66 @@
+package com.cifo.apartmentpredictoralpy.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentRating;
+import com.cifo.apartmentpredictoralpy.model.RankedApartment;
+
+import jakarta.persistence.QueryHint;
+
+/**
+ * Read access to the per-apartment rating aggregates, plus the set-based rebuild.
+ * The aggregates themselves are kept up to date by ReviewRepository.
+ */
+public interface ApartmentRatingRepository extends CrudRepository<ApartmentRating, Long> {
+
+    /**
+     * Ratings of the given apartments, e.g. of one listing page.
+     * Apartments without reviews are absent from the result.
+     */
+    List<ApartmentRating> findByIdApartmentIn(Collection<Long> ids);
+
+    /**
+     * Review totals and segment attributes of the given apartments, read from the aggregates.
+     */
+    @Query("SELECT new com.cifo.apartmentpredictoralpy.model.RankedApartment("
+            + "a.idApartment, a.bedrooms, a.prefarea, a.furnishingstatus, r.reviewCount, r.ratingSum) "
+            + "FROM ApartmentRating r JOIN Apartment a ON a.idApartment = r.idApartment "
+            + "WHERE r.idApartment IN :ids")
+    List<RankedApartment> findRankedByIdApartmentIn(Collection<Long> ids);
+
+    /**
+     * Review totals of every reviewed apartment, aggregated straight from the REVIEW
+     * table in one query and streamed row by row. Must run inside a transaction
+     * and the stream must be closed.
+     */
+    @Query("SELECT new com.cifo.apartmentpredictoralpy.model.RankedApartment("
+            + "a.idApartment, a.bedrooms, a.prefarea, a.furnishingstatus, COUNT(r), SUM(r.rating)) "
+            + "FROM Review r JOIN r.apartment a "
+            + "GROUP BY a.idApartment, a.bedrooms, a.prefarea, a.furnishingstatus")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<RankedApartment> streamRankedFromReviews();
+
+    @Modifying
+    @Query(value = "DELETE FROM APARTMENT_RATING", nativeQuery = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "APARTMENT_RATING"))
+    int deleteAllRatings();
+
+    /**
+     * Recomputes every aggregate from the REVIEW table in one INSERT ... SELECT ... GROUP BY.
+     * Run deleteAllRatings() first, in the same transaction.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO APARTMENT_RATING "
+            + "(ID_APARTMENT, REVIEW_COUNT, RATING_SUM, MIN_RATING, MAX_RATING, LAST_REVIEW_DATE) "
+            + "SELECT ID_APARTMENT, COUNT(*), SUM(RATING), MIN(RATING), MAX(RATING), MAX(DATE) "
+            + "FROM REVIEW WHERE ID_APARTMENT IS NOT NULL GROUP BY ID_APARTMENT", nativeQuery = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "APARTMENT_RATING"))
+    int insertAllFromReviews();
+}
@@ -1,8 +1,24 @@
 package com.cifo.apartmentpredictoralpy.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.model.PricedApartmentTotals;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Repository interface for managing Apartment entities.
@@ -33,6 +49,108 @@ By extending CrudRepository, Spring Data automatically provides the
 implementation of these methods at runtime, so no manual coding is required.
 */
 
-public interface ApartmentRepository extends CrudRepository <Apartment, Long>{
+public interface ApartmentRepository extends CrudRepository<Apartment, Long>, BulkSaveRepository<Apartment>,
+        ApartmentListingRepository {
+
+    /**
+     * Returns one window of apartment summaries (scalar columns only).
+     *
+     * With a KeysetScrollPosition the query seeks past the last row of the
+     * previous window (WHERE (sort key, idApartment) > (...)) instead of using
+     * OFFSET, so every page costs the same however deep the client scrolls.
+     * The sort must end with idApartment so the keyset is unique, and every
+     * key must be NOT NULL: a NULL key cannot be compared, so such rows would
+     * be skipped. Use findPage() to sort by a nullable column.
+     */
+    Window<ApartmentSummary> findBy(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Loads one apartment with its reviews and reviewers in a single query.
+     * The result goes to the query cache; repeated reads of a hot apartment are
+     * then answered from the second-level cache until one of the tables changes.
+     */
+    @EntityGraph(Apartment.WITH_REVIEWS)
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    Optional<Apartment> findWithReviewsByIdApartment(long idApartment);
+
+    /**
+     * Summaries of the given apartments, e.g. the ids found by the search index.
+     */
+    List<ApartmentSummary> findByIdApartmentIn(Collection<Long> ids);
+
+    /**
+     * Apartments priced between min and max (inclusive), cheapest first.
+     * Range scan on IDX_APARTMENT_PRICE, which also delivers the order.
+     */
+    List<ApartmentSummary> findByPriceBetweenOrderByPrice(int minPrice, int maxPrice, Limit limit);
+
+    /**
+     * Apartments with an area between min and max (inclusive), smallest first.
+     * Range scan on IDX_APARTMENT_AREA.
+     */
+    List<ApartmentSummary> findByAreaBetweenOrderByArea(int minArea, int maxArea, Limit limit);
+
+    /**
+     * Apartments with exactly this many bedrooms and bathrooms (IDX_APARTMENT_ROOMS).
+     */
+    List<ApartmentSummary> findByBedroomsAndBathrooms(int bedrooms, int bathrooms, Limit limit);
+
+    /**
+     * Apartments in or outside the preferred area with the given furnishing
+     * status (IDX_APARTMENT_PREFAREA_FURNISHING).
+     */
+    List<ApartmentSummary> findByPrefareaAndFurnishingstatus(boolean prefarea, String furnishingstatus,
+                                                             Limit limit);
+
+    /**
+     * The apartments of one owner (IDX_APARTMENT_OWNER on the idPerson column).
+     */
+    List<ApartmentSummary> findByOwnerIdPerson(long idOwner);
+
+    /**
+     * Every apartment with its owner, in id order, read through a JDBC cursor
+     * 1000 rows at a time. The entities are read-only and bypass the second-level
+     * cache. Must run inside a transaction and the stream must be closed; clear
+     * the persistence context now and then, as every row stays managed.
+     */
+    @Query("SELECT a FROM Apartment a LEFT JOIN FETCH a.owner ORDER BY a.idApartment")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheMode", value = "IGNORE")})
+    Stream<Apartment> streamAllWithOwner();
+
+    /**
+     * Every apartment as a scalar summary, in id order, read through a JDBC
+     * cursor 1000 rows at a time. No entity is created, so the persistence
+     * context stays empty however many rows are read. Must run inside a
+     * transaction and the stream must be closed.
+     */
+    @Query("SELECT new com.cifo.apartmentpredictoralpy.model.ApartmentSummary("
+            + "a.idApartment, a.price, a.area, a.bedrooms, a.bathrooms, a.stories, a.mainroad, a.guestroom, "
+            + "a.basement, a.hotwater, a.heating, a.airconditioning, a.parking, a.prefarea, a.furnishingstatus) "
+            + "FROM Apartment a ORDER BY a.idApartment")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<ApartmentSummary> streamAllSummaries();
+
+    /**
+     * Like streamAllSummaries(), but only the apartments with an id above the
+     * given one, e.g. those not yet copied to the feature store.
+     */
+    @Query("SELECT new com.cifo.apartmentpredictoralpy.model.ApartmentSummary("
+            + "a.idApartment, a.price, a.area, a.bedrooms, a.bathrooms, a.stories, a.mainroad, a.guestroom, "
+            + "a.basement, a.hotwater, a.heating, a.airconditioning, a.parking, a.prefarea, a.furnishingstatus) "
+            + "FROM Apartment a WHERE a.idApartment > ?1 ORDER BY a.idApartment")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<ApartmentSummary> streamSummariesAfter(long idApartment);
+
+    /**
+     * Count, highest id and price and area sums of the priced apartments, in one
+     * aggregate scan that returns a single row.
+     */
+    @Query("SELECT new com.cifo.apartmentpredictoralpy.model.PricedApartmentTotals("
+            + "COUNT(a), COALESCE(MAX(a.idApartment), 0L), COALESCE(SUM(a.price), 0L), COALESCE(SUM(a.area), 0L)) "
+            + "FROM Apartment a WHERE a.price IS NOT NULL")
+    PricedApartmentTotals pricedTotals();
 
 }
@@ -0,0 +1,24 @@
+package com.cifo.apartmentpredictoralpy.repository;
+
+/**
+ * Repository fragment for saving large numbers of entities.
+ *
+ * CrudRepository.saveAll() keeps every saved entity in the persistence context
+ * until the transaction ends. bulkSave() instead flushes and clears the context
+ * every hibernate.jdbc.batch_size entities, so each flush becomes one JDBC batch
+ * per table and memory stays flat however many entities are saved.
+ *
+ * The repositories add it next to CrudRepository, for example:
+ * ApartmentRepository extends CrudRepository<Apartment, Long>, BulkSaveRepository<Apartment>
+ *
+ * Note: the saved entities are detached when the method returns.
+ */
+public interface BulkSaveRepository<T> {
+
+    /**
+     * Persists new entities and merges existing ones in one transaction.
+     *
+     * @return the number of entities saved
+     */
+    <S extends T> long bulkSave(Iterable<S> entities);
+}
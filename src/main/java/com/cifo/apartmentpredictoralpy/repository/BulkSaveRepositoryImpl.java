@@ -0,0 +1,49 @@
+package com.cifo.apartmentpredictoralpy.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Implementation of {@link BulkSaveRepository}. Spring Data finds it by the "Impl" suffix
+ * and uses it for every repository that extends the fragment interface.
+ */
+public class BulkSaveRepositoryImpl<T> implements BulkSaveRepository<T> {
+
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public BulkSaveRepositoryImpl(EntityManager entityManager,
+                                  @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Transactional
+    public <S extends T> long bulkSave(Iterable<S> entities) {
+        long count = 0;
+        for (S entity : entities) {
+            if (isNew(entity)) {
+                entityManager.persist(entity);
+            } else {
+                entityManager.merge(entity);
+            }
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S> boolean isNew(S entity) {
+        Class<S> type = (Class<S>) entity.getClass();
+        return JpaEntityInformationSupport.getEntityInformation(type, entityManager).isNew(entity);
+    }
+}
@@ -0,0 +1,99 @@
+package com.cifo.apartmentpredictoralpy.repository;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.Cache;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.CacheSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentsImportedEvent;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Hibernate second-level cache (JCache on Ehcache). The regions, their sizes
+ * and expiry are configured in the file named by apartment.cache.config.
+ *
+ * Entities and collections opt in through configuration rather than annotations:
+ * - apartment.cache.entities: entity class names, e.g. Apartment,Owner
+ * - apartment.cache.collections: collection roles, e.g. Apartment.reviews
+ * Both are cached read-write. With both lists empty the second-level and query
+ * caches are off. A cached collection only pays off if its elements' entity is
+ * cached too, otherwise every element is loaded one by one.
+ *
+ * Repository finders mark themselves cacheable with the HINT_CACHEABLE query
+ * hint; their results are kept while apartment.cache.query-cache is true.
+ *
+ * The CSV import writes with plain JDBC, so Hibernate cannot see it; cached
+ * query results are dropped after every import. Native updates elsewhere must
+ * declare the tables they touch (query spaces) or Hibernate empties every region.
+ */
+@Configuration
+public class CacheConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
+
+    private static final String MODEL_PACKAGE = Apartment.class.getPackageName();
+    private static final String READ_WRITE = "read-write";
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    public CacheConfig(ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Cache manager handed to Hibernate, built from apartment.cache.config so the
+     * file is resolved like any other Spring resource.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${apartment.cache.config:classpath:ehcache.xml}") Resource config)
+            throws IOException {
+        return Caching.getCachingProvider(EhcacheCachingProvider.class.getName())
+                .getCacheManager(config.getURI(), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheRegions(
+            CacheManager hibernateCacheManager,
+            @Value("${apartment.cache.entities:}") List<String> entities,
+            @Value("${apartment.cache.collections:}") List<String> collections,
+            @Value("${apartment.cache.query-cache:true}") boolean queryCache) {
+        return properties -> {
+            boolean enabled = !entities.isEmpty() || !collections.isEmpty();
+            properties.put(CacheSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(CacheSettings.USE_QUERY_CACHE, enabled && queryCache);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            for (String entity : entities) {
+                properties.put(CacheSettings.CLASS_CACHE_PREFIX + "." + MODEL_PACKAGE + "." + entity.trim(), READ_WRITE);
+            }
+            for (String role : collections) {
+                properties.put(CacheSettings.COLLECTION_CACHE_PREFIX + "." + MODEL_PACKAGE + "." + role.trim(), READ_WRITE);
+            }
+            if (enabled) {
+                log.info("Second-level cache enabled for entities {} and collections {}", entities, collections);
+            }
+        };
+    }
+
+    @EventListener(ApartmentsImportedEvent.class)
+    public void evictQueryResults() {
+        Cache cache = entityManagerFactory.getObject().getCache().unwrap(Cache.class);
+        cache.evictQueryRegions();
+    }
+}
@@ -1,9 +1,15 @@
 package com.cifo.apartmentpredictoralpy.repository;
 
+import java.util.stream.Stream;
+
 import com.cifo.apartmentpredictoralpy.model.Owner;
 import com.cifo.apartmentpredictoralpy.model.Reviewer;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository interface for managing Owner entities.
  *
@@ -34,6 +40,16 @@ import org.springframework.data.repository.CrudRepository;
  implementation of these methods at runtime, so no manual coding is required.
  */
 
-public interface OwnerRepository extends CrudRepository<Owner, Long> {
-
+public interface OwnerRepository extends CrudRepository<Owner, Long>, BulkSaveRepository<Owner> {
+
+    /**
+     * Every owner in id order, read through a JDBC cursor 1000 rows at a time.
+     * Same rules as ApartmentRepository.streamAllWithOwner().
+     */
+    @Query("SELECT o FROM Owner o ORDER BY o.idPerson")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheMode", value = "IGNORE")})
+    Stream<Owner> streamAll();
 }
@@ -1,8 +1,16 @@
 package com.cifo.apartmentpredictoralpy.repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 import com.cifo.apartmentpredictoralpy.model.Review;
+import com.cifo.apartmentpredictoralpy.model.ReviewSummary;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Repository interface for managing Review entities.
  *
@@ -15,6 +23,9 @@ import org.springframework.data.repository.CrudRepository;
  * Spring automatically generates the implementation at runtime,
  * allowing the application to interact with the database in a clean
  * and declarative way.
+ *
+ * The write methods (save, delete, ...) are replaced by ReviewWriteRepository,
+ * which keeps the APARTMENT_RATING aggregates in step with the reviews.
  */
 
 /**
@@ -33,5 +44,50 @@ import org.springframework.data.repository.CrudRepository;
  implementation of these methods at runtime, so no manual coding is required.
  */
 
-public interface ReviewRepository extends CrudRepository<Review, Long> {
+public interface ReviewRepository extends CrudRepository<Review, Long>, ReviewWriteRepository {
+
+    // Redeclared so calls resolve to ReviewWriteRepository rather than being ambiguous
+
+    @Override
+    <S extends Review> S save(S review);
+
+    @Override
+    <S extends Review> Iterable<S> saveAll(Iterable<S> reviews);
+
+    @Override
+    void delete(Review review);
+
+    @Override
+    void deleteById(Long id);
+
+    @Override
+    void deleteAllById(Iterable<? extends Long> ids);
+
+    @Override
+    void deleteAll(Iterable<? extends Review> reviews);
+
+    @Override
+    void deleteAll();
+
+    /**
+     * Reviews of one apartment, newest first (lookup on IDX_REVIEW_APARTMENT).
+     */
+    List<Review> findByApartmentIdApartmentOrderByDateDesc(long idApartment);
+
+    /**
+     * Reviews written by one reviewer, newest first (IDX_REVIEW_REVIEWER).
+     */
+    List<Review> findByReviewerIdPersonOrderByDateDesc(long idReviewer);
+
+    /**
+     * Every review as a ReviewSummary, in id order, read through a JDBC cursor
+     * 1000 rows at a time. Only the foreign keys of the apartment and the
+     * reviewer are read, so nothing else is loaded. Must run inside a
+     * transaction and the stream must be closed.
+     */
+    @Query("SELECT new com.cifo.apartmentpredictoralpy.model.ReviewSummary("
+            + "r.id, r.rating, r.title, r.comment, r.date, a.idApartment, v.idPerson) "
+            + "FROM Review r LEFT JOIN r.apartment a LEFT JOIN r.reviewer v ORDER BY r.id")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    Stream<ReviewSummary> streamAllSummaries();
 }
@@ -0,0 +1,38 @@
+package com.cifo.apartmentpredictoralpy.repository;
+
+import com.cifo.apartmentpredictoralpy.model.Review;
+
+/**
+ * Repository fragment that replaces the write methods of ReviewRepository so that
+ * every insert, update and delete also updates the APARTMENT_RATING aggregates,
+ * in the same transaction.
+ *
+ * - A new review adds its rating to the aggregate with one MERGE (O(1)).
+ * - An update or delete recomputes the aggregates of the affected apartments
+ *   (the old and the new one) from their reviews.
+ *
+ * Reviews written another way (cascaded from Apartment, plain SQL) are not
+ * counted until ApartmentService.rebuildRatings() runs.
+ */
+public interface ReviewWriteRepository {
+
+    <S extends Review> S save(S review);
+
+    <S extends Review> Iterable<S> saveAll(Iterable<S> reviews);
+
+    /**
+     * Same as BulkSaveRepository.bulkSave(), keeping the aggregates up to date
+     * batch by batch.
+     */
+    <S extends Review> long bulkSave(Iterable<S> reviews);
+
+    void delete(Review review);
+
+    void deleteById(Long id);
+
+    void deleteAllById(Iterable<? extends Long> ids);
+
+    void deleteAll(Iterable<? extends Review> reviews);
+
+    void deleteAll();
+}
@@ -0,0 +1,213 @@
+package com.cifo.apartmentpredictoralpy.repository;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentRating;
+import com.cifo.apartmentpredictoralpy.model.Review;
+import com.cifo.apartmentpredictoralpy.model.ReviewsChangedEvent;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.Query;
+
+/**
+ * Implementation of {@link ReviewWriteRepository}. Every aggregate change is
+ * followed by a ReviewsChangedEvent naming the apartments concerned.
+ */
+public class ReviewWriteRepositoryImpl implements ReviewWriteRepository {
+
+    private static final String ADD_RATING_SQL = "MERGE INTO APARTMENT_RATING r "
+            + "USING (VALUES (CAST(?1 AS BIGINT), CAST(?2 AS INTEGER), CAST(?3 AS DATE))) "
+            + "AS s(ID_APARTMENT, RATING, REVIEW_DATE) ON r.ID_APARTMENT = s.ID_APARTMENT "
+            + "WHEN MATCHED THEN UPDATE SET REVIEW_COUNT = r.REVIEW_COUNT + 1, "
+            + "RATING_SUM = r.RATING_SUM + s.RATING, "
+            + "MIN_RATING = LEAST(COALESCE(r.MIN_RATING, s.RATING), s.RATING), "
+            + "MAX_RATING = GREATEST(COALESCE(r.MAX_RATING, s.RATING), s.RATING), "
+            + "LAST_REVIEW_DATE = GREATEST(COALESCE(r.LAST_REVIEW_DATE, s.REVIEW_DATE), "
+            + "COALESCE(s.REVIEW_DATE, r.LAST_REVIEW_DATE)) "
+            + "WHEN NOT MATCHED THEN INSERT "
+            + "(ID_APARTMENT, REVIEW_COUNT, RATING_SUM, MIN_RATING, MAX_RATING, LAST_REVIEW_DATE) "
+            + "VALUES (s.ID_APARTMENT, 1, s.RATING, s.RATING, s.RATING, s.REVIEW_DATE)";
+
+    private static final String DELETE_RATINGS_SQL = "DELETE FROM APARTMENT_RATING WHERE ID_APARTMENT IN (?1)";
+
+    private static final String RECOMPUTE_RATINGS_SQL = "INSERT INTO APARTMENT_RATING "
+            + "(ID_APARTMENT, REVIEW_COUNT, RATING_SUM, MIN_RATING, MAX_RATING, LAST_REVIEW_DATE) "
+            + "SELECT ID_APARTMENT, COUNT(*), SUM(RATING), MIN(RATING), MAX(RATING), MAX(DATE) "
+            + "FROM REVIEW WHERE ID_APARTMENT IN (?1) GROUP BY ID_APARTMENT";
+
+    private static final String NATIVE_SPACES_HINT = "org.hibernate.query.native.spaces";
+
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+
+    public ReviewWriteRepositoryImpl(EntityManager entityManager, ApplicationEventPublisher events,
+                                     @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.entityManager = entityManager;
+        this.events = events;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Transactional
+    public <S extends Review> S save(S review) {
+        if (review.getId() == null) {
+            entityManager.persist(review);
+            addRating(review);
+            return review;
+        }
+        Set<Long> apartments = new HashSet<>();
+        addStoredApartment(review.getId(), apartments);
+        S saved = entityManager.merge(review);
+        addApartment(saved, apartments);
+        recompute(apartments);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public <S extends Review> Iterable<S> saveAll(Iterable<S> reviews) {
+        List<S> saved = new ArrayList<>();
+        for (S review : reviews) {
+            saved.add(save(review));
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public <S extends Review> long bulkSave(Iterable<S> reviews) {
+        long count = 0;
+        Set<Long> apartments = new HashSet<>();
+        for (S review : reviews) {
+            if (review.getId() == null) {
+                entityManager.persist(review);
+            } else {
+                addStoredApartment(review.getId(), apartments);
+                review = entityManager.merge(review);
+            }
+            addApartment(review, apartments);
+            if (++count % batchSize == 0) {
+                recompute(apartments);
+                entityManager.clear();
+                apartments.clear();
+            }
+        }
+        recompute(apartments);
+        entityManager.clear();
+        return count;
+    }
+
+    @Override
+    @Transactional
+    public void delete(Review review) {
+        Set<Long> apartments = new HashSet<>();
+        addStoredApartment(review.getId(), apartments);
+        Review managed = review.getId() == null ? null : entityManager.find(Review.class, review.getId());
+        if (managed != null) {
+            entityManager.remove(managed);
+        }
+        recompute(apartments);
+    }
+
+    @Override
+    @Transactional
+    public void deleteById(Long id) {
+        Review review = entityManager.find(Review.class, id);
+        if (review != null) {
+            delete(review);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    @Transactional
+    public void deleteAll(Iterable<? extends Review> reviews) {
+        reviews.forEach(this::delete);
+    }
+
+    @Override
+    @Transactional
+    public void deleteAll() {
+        entityManager.createQuery("SELECT r FROM Review r", Review.class).getResultList()
+                .forEach(entityManager::remove);
+        entityManager.flush();
+        List<Long> apartments = entityManager.createQuery(
+                "SELECT r.idApartment FROM ApartmentRating r", Long.class).getResultList();
+        ratingUpdate("DELETE FROM APARTMENT_RATING").executeUpdate();
+        events.publishEvent(new ReviewsChangedEvent(new HashSet<>(apartments)));
+    }
+
+    private void addRating(Review review) {
+        if (review.getApartment() == null) {
+            return;
+        }
+        ratingUpdate(ADD_RATING_SQL)
+                .setParameter(1, review.getApartment().getIdApartment())
+                .setParameter(2, review.getRating())
+                .setParameter(3, review.getDate() == null ? null : Date.valueOf(review.getDate()))
+                .executeUpdate();
+        events.publishEvent(new ReviewsChangedEvent(Set.of(review.getApartment().getIdApartment())));
+    }
+
+    /**
+     * Adds the apartment the review currently has in the database, ignoring
+     * unflushed changes of this persistence context.
+     */
+    private void addStoredApartment(Long reviewId, Set<Long> apartments) {
+        if (reviewId == null) {
+            return;
+        }
+        entityManager.createQuery(
+                        "SELECT r.apartment.idApartment FROM Review r WHERE r.id = :id", Long.class)
+                .setParameter("id", reviewId)
+                .setFlushMode(FlushModeType.COMMIT)
+                .getResultStream()
+                .findFirst()
+                .ifPresent(apartments::add);
+    }
+
+    private static void addApartment(Review review, Set<Long> apartments) {
+        if (review.getApartment() != null) {
+            apartments.add(review.getApartment().getIdApartment());
+        }
+    }
+
+    /**
+     * Flushes pending review changes and recomputes the aggregates of the given
+     * apartments with one DELETE and one INSERT ... SELECT ... GROUP BY.
+     */
+    private void recompute(Collection<Long> apartments) {
+        entityManager.flush();
+        if (apartments.isEmpty()) {
+            return;
+        }
+        ratingUpdate(DELETE_RATINGS_SQL).setParameter(1, apartments).executeUpdate();
+        ratingUpdate(RECOMPUTE_RATINGS_SQL).setParameter(1, apartments).executeUpdate();
+        events.publishEvent(new ReviewsChangedEvent(new HashSet<>(apartments)));
+    }
+
+    /**
+     * Native statement that only writes APARTMENT_RATING. Declaring the table lets
+     * Hibernate keep every other second-level cache region; an undeclared native
+     * update would empty them all.
+     */
+    private Query ratingUpdate(String sql) {
+        return entityManager.createNativeQuery(sql).setHint(NATIVE_SPACES_HINT, ApartmentRating.class);
+    }
+}
@@ -31,6 +31,6 @@ import org.springframework.data.repository.CrudRepository;
  implementation of these methods at runtime, so no manual coding is required.
  */
 
-public interface ReviewerRepository extends CrudRepository<Reviewer, Long> {
+public interface ReviewerRepository extends CrudRepository<Reviewer, Long>, BulkSaveRepository<Reviewer> {
 
 }
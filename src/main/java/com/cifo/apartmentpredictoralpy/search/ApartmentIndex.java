@@ -0,0 +1,341 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+/**
+ * In-memory search index over apartment attributes.
+ *
+ * Every indexed apartment occupies a slot of a SlotTable. For each slot the index keeps
+ * - one Roaring bitmap per boolean amenity and per furnishingstatus value,
+ * - for each RangeField, the value in a per-slot column and a sorted array of
+ *   (value << 32 | slot) keys, so a range is two binary searches.
+ * A query intersects bitmaps; a range becomes a bitmap of the slots between the two
+ * search positions, or, when fewer candidates than range entries are left, a
+ * column check of the remaining candidates.
+ *
+ * The sorted arrays cover the indexed slots of the table; the tail slots of new and
+ * changed apartments are checked against the columns instead. When the table asks
+ * for it, compact() renumbers the live slots by apartment id and rebuilds the
+ * bitmaps and sorted arrays in O(n log n).
+ */
+public final class ApartmentIndex {
+
+    public enum Amenity {
+        MAINROAD, GUESTROOM, BASEMENT, HOTWATER, HEATING, AIRCONDITIONING, PREFAREA
+    }
+
+    public enum RangeField {
+        PRICE, AREA, BEDROOMS, PARKING
+    }
+
+    /** Column value of a missing (null) field. Never matches a range. */
+    static final int MISSING = Integer.MIN_VALUE;
+
+    /** Tail and dead slots always tolerated before compaction. */
+    private static final int MIN_TAIL = 4_096;
+
+    private static final Amenity[] AMENITIES = Amenity.values();
+    private static final RangeField[] RANGE_FIELDS = RangeField.values();
+
+    private final SlotTable slots = new SlotTable(MIN_TAIL);
+    private final int[][] columns = new int[RANGE_FIELDS.length][SlotTable.capacityFor(0)];
+
+    private RoaringBitmap[] amenities = newBitmaps(AMENITIES.length);
+    private Map<String, RoaringBitmap> furnishing = new HashMap<>();
+
+    /** Sorted (value << 32 | slot) keys per range field, covering the indexed slots. */
+    private long[][] sortedKeys = new long[RANGE_FIELDS.length][0];
+
+    private static RoaringBitmap[] newBitmaps(int count) {
+        RoaringBitmap[] bitmaps = new RoaringBitmap[count];
+        Arrays.setAll(bitmaps, i -> new RoaringBitmap());
+        return bitmaps;
+    }
+
+    public int size() {
+        slots.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            slots.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an apartment, or replaces the indexed values of an apartment with the same id.
+     */
+    public void put(ApartmentSummary apartment) {
+        slots.writeLock().lock();
+        try {
+            insert(apartment);
+            compactIfNeeded();
+        } finally {
+            slots.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds many apartments and compacts once at the end, e.g. to build the index.
+     */
+    public void putAll(Iterable<ApartmentSummary> apartments) {
+        slots.writeLock().lock();
+        try {
+            apartments.forEach(this::insert);
+            compact();
+        } finally {
+            slots.writeLock().unlock();
+        }
+    }
+
+    private void insert(ApartmentSummary apartment) {
+        int slot = slots.add(apartment.idApartment());
+        if (slot == columns[0].length) {
+            for (int f = 0; f < columns.length; f++) {
+                columns[f] = Arrays.copyOf(columns[f], slot * 2);
+            }
+        }
+        columns[RangeField.PRICE.ordinal()][slot] = valueOf(apartment.price());
+        columns[RangeField.AREA.ordinal()][slot] = valueOf(apartment.area());
+        columns[RangeField.BEDROOMS.ordinal()][slot] = valueOf(apartment.bedrooms());
+        columns[RangeField.PARKING.ordinal()][slot] = apartment.parking();
+        boolean[] flags = flags(apartment);
+        for (int a = 0; a < flags.length; a++) {
+            if (flags[a]) {
+                amenities[a].add(slot);
+            }
+        }
+        if (apartment.furnishingstatus() != null) {
+            furnishing.computeIfAbsent(apartment.furnishingstatus().toLowerCase(Locale.ROOT),
+                    k -> new RoaringBitmap()).add(slot);
+        }
+    }
+
+    public void remove(long idApartment) {
+        slots.writeLock().lock();
+        try {
+            if (slots.remove(idApartment)) {
+                compactIfNeeded();
+            }
+        } finally {
+            slots.writeLock().unlock();
+        }
+    }
+
+    private static int valueOf(Integer value) {
+        return value == null ? MISSING : value;
+    }
+
+    private static boolean[] flags(ApartmentSummary a) {
+        return new boolean[] {a.mainroad(), a.guestroom(), a.basement(), a.hotwater(), a.heating(),
+                a.airconditioning(), a.prefarea()};
+    }
+
+    private void compactIfNeeded() {
+        if (slots.needsCompaction()) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumbers the live slots in apartment id order and rebuilds the bitmaps and
+     * sorted arrays, so the tail and the dead slots become empty.
+     */
+    public void compact() {
+        slots.writeLock().lock();
+        try {
+            int[] liveSlots = slots.live().toArray();
+            long[] order = new long[liveSlots.length];
+            for (int i = 0; i < liveSlots.length; i++) {
+                order[i] = slots.id(liveSlots[i]);
+            }
+            Arrays.sort(order);
+
+            int n = order.length;
+            int[] oldSlots = new int[n];
+            int[][] newColumns = new int[RANGE_FIELDS.length][SlotTable.capacityFor(n)];
+            int[] newSlotOf = new int[slots.slotCount()];
+            for (int slot = 0; slot < n; slot++) {
+                int old = slots.slotOf(order[slot]);
+                oldSlots[slot] = old;
+                newSlotOf[old] = slot;
+                for (int f = 0; f < RANGE_FIELDS.length; f++) {
+                    newColumns[f][slot] = columns[f][old];
+                }
+            }
+            RoaringBitmap[] newAmenities = new RoaringBitmap[AMENITIES.length];
+            for (int a = 0; a < AMENITIES.length; a++) {
+                newAmenities[a] = renumber(amenities[a], newSlotOf);
+            }
+            Map<String, RoaringBitmap> newFurnishing = new HashMap<>();
+            furnishing.forEach((value, bitmap) -> newFurnishing.put(value, renumber(bitmap, newSlotOf)));
+
+            slots.compact(oldSlots);
+            System.arraycopy(newColumns, 0, columns, 0, columns.length);
+            amenities = newAmenities;
+            furnishing = newFurnishing;
+
+            for (int f = 0; f < RANGE_FIELDS.length; f++) {
+                int[] column = columns[f];
+                long[] keys = new long[n];
+                int count = 0;
+                for (int slot = 0; slot < n; slot++) {
+                    if (column[slot] != MISSING) {
+                        keys[count++] = (long) column[slot] << 32 | slot;
+                    }
+                }
+                keys = Arrays.copyOf(keys, count);
+                Arrays.sort(keys);
+                sortedKeys[f] = keys;
+            }
+        } finally {
+            slots.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Maps the live slots of a bitmap to their new numbers. The new numbers keep
+     * the id order, so they are not ascending in general.
+     */
+    private RoaringBitmap renumber(RoaringBitmap bitmap, int[] newSlotOf) {
+        RoaringBitmap alive = RoaringBitmap.and(bitmap, slots.live());
+        int[] newSlots = new int[alive.getCardinality()];
+        int count = 0;
+        PeekableIntIterator it = alive.getIntIterator();
+        while (it.hasNext()) {
+            newSlots[count++] = newSlotOf[it.next()];
+        }
+        RoaringBitmap renumbered = RoaringBitmap.bitmapOfUnordered(newSlots);
+        renumbered.runOptimize();
+        return renumbered;
+    }
+
+    /**
+     * @param limit most ids to return
+     * @return the number of matches and the ids of the first {@code limit} of them, in
+     *         index order (ascending id, except for apartments added or changed since the
+     *         last compaction, which come last)
+     */
+    public SearchResult search(ApartmentQuery query, int limit) {
+        slots.readLock().lock();
+        try {
+            RoaringBitmap candidates = slots.live().clone();
+            for (Map.Entry<Amenity, Boolean> criterion : query.amenities().entrySet()) {
+                RoaringBitmap bitmap = amenities[criterion.getKey().ordinal()];
+                if (criterion.getValue()) {
+                    candidates.and(bitmap);
+                } else {
+                    candidates.andNot(bitmap);
+                }
+            }
+            if (!query.furnishing().isEmpty()) {
+                RoaringBitmap any = new RoaringBitmap();
+                for (String value : query.furnishing()) {
+                    RoaringBitmap bitmap = furnishing.get(value);
+                    if (bitmap != null) {
+                        any.or(bitmap);
+                    }
+                }
+                candidates.and(any);
+            }
+            // Most selective range first, so later ranges see fewer candidates
+            query.ranges().entrySet().stream()
+                    .map(e -> new RangeFilter(e.getKey().ordinal(), e.getValue()))
+                    .sorted((a, b) -> Integer.compare(a.estimate(), b.estimate()))
+                    .forEachOrdered(filter -> filter.apply(candidates));
+
+            int total = candidates.getCardinality();
+            long[] matches = new long[Math.min(limit, total)];
+            PeekableIntIterator it = candidates.getIntIterator();
+            for (int i = 0; i < matches.length; i++) {
+                matches[i] = slots.id(it.next());
+            }
+            return new SearchResult(total, matches);
+        } finally {
+            slots.readLock().unlock();
+        }
+    }
+
+    public record SearchResult(int total, long[] ids) {
+    }
+
+    /**
+     * One range criterion, resolved against the sorted keys of its field.
+     */
+    private final class RangeFilter {
+
+        private final int field;
+        private final ApartmentQuery.Range range;
+        private final int from;
+        private final int to;
+
+        RangeFilter(int field, ApartmentQuery.Range range) {
+            this.field = field;
+            this.range = range;
+            long[] keys = sortedKeys[field];
+            this.from = lowerBound(keys, (long) range.min() << 32);
+            this.to = lowerBound(keys, ((long) range.max() << 32) | 0xFFFF_FFFFL);
+        }
+
+        /** Upper bound of the number of slots in the range. */
+        int estimate() {
+            return to - from + slots.slotCount() - slots.indexedSlots();
+        }
+
+        void apply(RoaringBitmap candidates) {
+            int[] column = columns[field];
+            if (candidates.getCardinality() <= estimate()) {
+                int[] kept = new int[candidates.getCardinality()];
+                int count = 0;
+                PeekableIntIterator it = candidates.getIntIterator();
+                while (it.hasNext()) {
+                    int slot = it.next();
+                    if (inRange(column[slot])) {
+                        kept[count++] = slot;
+                    }
+                }
+                candidates.clear();
+                candidates.addN(kept, 0, count);
+                return;
+            }
+            long[] keys = sortedKeys[field];
+            int[] matching = new int[to - from];
+            for (int i = from; i < to; i++) {
+                matching[i - from] = (int) keys[i];
+            }
+            RoaringBitmap inRange = RoaringBitmap.bitmapOfUnordered(matching);
+            for (int slot = slots.indexedSlots(); slot < slots.slotCount(); slot++) {
+                if (inRange(column[slot])) {
+                    inRange.add(slot);
+                }
+            }
+            candidates.and(inRange);
+        }
+
+        private boolean inRange(int value) {
+            return value != MISSING && value >= range.min() && value <= range.max();
+        }
+    }
+
+    /** First index whose key is greater than or equal to {@code key}. */
+    private static int lowerBound(long[] keys, long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
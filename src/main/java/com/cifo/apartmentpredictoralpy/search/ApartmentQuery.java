@@ -0,0 +1,72 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Multi-criteria apartment filter answered by ApartmentIndex.
+ *
+ * All criteria must hold (AND). An amenity mapped to true must be present, one
+ * mapped to false must be absent, and unlisted amenities do not matter.
+ * furnishing matches any of its values (OR); an empty set does not filter.
+ * Ranges are inclusive; apartments with no value for a ranged field never match.
+ */
+public record ApartmentQuery(Map<ApartmentIndex.Amenity, Boolean> amenities,
+                             Set<String> furnishing,
+                             Map<ApartmentIndex.RangeField, Range> ranges) {
+
+    public ApartmentQuery {
+        amenities = Map.copyOf(amenities);
+        furnishing = Set.copyOf(furnishing);
+        ranges = Map.copyOf(ranges);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public record Range(int min, int max) {
+
+        public Range {
+            if (min > max) {
+                throw new IllegalArgumentException("Range minimum " + min + " is above its maximum " + max);
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private final Map<ApartmentIndex.Amenity, Boolean> amenities = new EnumMap<>(ApartmentIndex.Amenity.class);
+        private final Set<String> furnishing = new HashSet<>();
+        private final Map<ApartmentIndex.RangeField, Range> ranges = new EnumMap<>(ApartmentIndex.RangeField.class);
+
+        public Builder amenity(ApartmentIndex.Amenity amenity, boolean present) {
+            amenities.put(amenity, present);
+            return this;
+        }
+
+        public Builder furnishing(String value) {
+            furnishing.add(value.toLowerCase(Locale.ROOT));
+            return this;
+        }
+
+        /**
+         * @param min lower bound, or null for none
+         * @param max upper bound, or null for none
+         */
+        public Builder range(ApartmentIndex.RangeField field, Integer min, Integer max) {
+            if (min != null || max != null) {
+                ranges.put(field, new Range(min != null ? min : Integer.MIN_VALUE + 1,
+                        max != null ? max : Integer.MAX_VALUE));
+            }
+            return this;
+        }
+
+        public ApartmentQuery build() {
+            return new ApartmentQuery(amenities, furnishing, ranges);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.cifo.apartmentpredictoralpy.model.RankedApartment;
+
+/**
+ * In-memory "top rated" and "most reviewed" leaderboards, global and per segment.
+ *
+ * Each (metric, segment) board is a TreeSet bounded to twice the published size, so
+ * an apartment that drops out of the top K can usually be replaced from the slack
+ * without rescanning. Only when a board that has ever discarded entries falls below
+ * K is it refilled from the totals of all rated apartments, which are kept here too.
+ *
+ * Writers are serialised; after each change the affected boards publish an
+ * immutable copy of their first K entries, so top() is a plain read of that copy.
+ *
+ * Segments are "all", "bedrooms=N", "prefarea=true|false" and "furnishing=value"
+ * (lower case), see segmentsOf().
+ */
+public final class ApartmentRankings {
+
+    public enum Metric {
+        /** Highest average rating first, among apartments with at least minReviews reviews. */
+        TOP_RATED,
+        /** Most reviews first. */
+        MOST_REVIEWED
+    }
+
+    public static final String ALL = "all";
+
+    private static final Comparator<RankedApartment> BY_ID = Comparator.comparingLong(RankedApartment::idApartment);
+
+    private static final Comparator<RankedApartment> TOP_RATED_ORDER =
+            Comparator.comparingDouble(RankedApartment::averageRating).reversed()
+                    .thenComparing(Comparator.comparingLong(RankedApartment::reviewCount).reversed())
+                    .thenComparing(BY_ID);
+
+    private static final Comparator<RankedApartment> MOST_REVIEWED_ORDER =
+            Comparator.comparingLong(RankedApartment::reviewCount).reversed()
+                    .thenComparing(Comparator.comparingDouble(RankedApartment::averageRating).reversed())
+                    .thenComparing(BY_ID);
+
+    private final int size;
+    private final int capacity;
+    private final long minReviews;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Totals of every rated apartment. Guarded by lock. */
+    private final Map<Long, RankedApartment> apartments = new HashMap<>();
+    /** Boards by key "METRIC/segment"; the map itself is read without locking. */
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+
+    /**
+     * @param size       K, the number of entries published per board
+     * @param minReviews reviews an apartment needs to appear in TOP_RATED
+     */
+    public ApartmentRankings(int size, long minReviews) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Ranking size must be positive");
+        }
+        this.size = size;
+        this.capacity = 2 * size;
+        this.minReviews = minReviews;
+    }
+
+    public static List<String> segmentsOf(RankedApartment apartment) {
+        List<String> segments = new ArrayList<>(4);
+        segments.add(ALL);
+        if (apartment.bedrooms() != null) {
+            segments.add("bedrooms=" + apartment.bedrooms());
+        }
+        segments.add("prefarea=" + apartment.prefarea());
+        if (apartment.furnishingstatus() != null) {
+            segments.add("furnishing=" + apartment.furnishingstatus().toLowerCase(Locale.ROOT));
+        }
+        return segments;
+    }
+
+    /**
+     * First entries of a board, best first. O(limit), no locking.
+     *
+     * @param segment one of the segment keys, e.g. "bedrooms=3"
+     */
+    public List<RankedApartment> top(Metric metric, String segment, int limit) {
+        Board board = boards.get(key(metric, segment.toLowerCase(Locale.ROOT)));
+        if (board == null) {
+            return List.of();
+        }
+        List<RankedApartment> snapshot = board.published;
+        return snapshot.subList(0, Math.min(limit, snapshot.size()));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the totals of many apartments and builds every board once.
+     */
+    public void putAll(Iterable<RankedApartment> rows) {
+        lock.lock();
+        try {
+            for (RankedApartment row : rows) {
+                RankedApartment old = apartments.put(row.idApartment(), row);
+                if (old != null) {
+                    remove(old);
+                }
+                offer(row);
+            }
+            for (Board board : boards.values()) {
+                board.refillIfNeeded();
+                board.publish();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds or updates the totals of one apartment.
+     */
+    public void put(RankedApartment row) {
+        lock.lock();
+        try {
+            RankedApartment old = apartments.put(row.idApartment(), row);
+            if (old != null) {
+                remove(old);
+            }
+            offer(row);
+            publish(old, row);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves an apartment to the segments of its new attributes, keeping its totals.
+     * Does nothing for apartments without reviews.
+     */
+    public void updateAttributes(long idApartment, Integer bedrooms, boolean prefarea, String furnishingstatus) {
+        lock.lock();
+        try {
+            RankedApartment current = apartments.get(idApartment);
+            if (current != null) {
+                put(current.withAttributes(bedrooms, prefarea, furnishingstatus));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(long idApartment) {
+        lock.lock();
+        try {
+            RankedApartment old = apartments.remove(idApartment);
+            if (old != null) {
+                remove(old);
+                publish(old, null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void offer(RankedApartment row) {
+        for (String segment : segmentsOf(row)) {
+            if (row.reviewCount() >= minReviews) {
+                board(Metric.TOP_RATED, segment).offer(row);
+            }
+            board(Metric.MOST_REVIEWED, segment).offer(row);
+        }
+    }
+
+    private void remove(RankedApartment old) {
+        for (String segment : segmentsOf(old)) {
+            for (Metric metric : Metric.values()) {
+                Board board = boards.get(key(metric, segment));
+                if (board != null) {
+                    board.remove(old);
+                }
+            }
+        }
+    }
+
+    private void publish(RankedApartment old, RankedApartment row) {
+        List<String> segments = new ArrayList<>();
+        if (old != null) {
+            segments.addAll(segmentsOf(old));
+        }
+        if (row != null) {
+            segments.addAll(segmentsOf(row));
+        }
+        for (String segment : segments) {
+            for (Metric metric : Metric.values()) {
+                Board board = boards.get(key(metric, segment));
+                if (board != null) {
+                    board.refillIfNeeded();
+                    board.publish();
+                }
+            }
+        }
+    }
+
+    private Board board(Metric metric, String segment) {
+        return boards.computeIfAbsent(key(metric, segment), k -> new Board(metric, segment));
+    }
+
+    private static String key(Metric metric, String segment) {
+        return metric + "/" + segment;
+    }
+
+    /**
+     * One bounded leaderboard. Mutated only under the rankings lock.
+     */
+    private final class Board {
+
+        private final Metric metric;
+        private final String segment;
+        private final TreeSet<RankedApartment> entries;
+        /** True once an entry has been discarded, i.e. apartments outside the set may qualify. */
+        private boolean truncated;
+        private volatile List<RankedApartment> published = List.of();
+
+        Board(Metric metric, String segment) {
+            this.metric = metric;
+            this.segment = segment;
+            this.entries = new TreeSet<>(metric == Metric.TOP_RATED ? TOP_RATED_ORDER : MOST_REVIEWED_ORDER);
+        }
+
+        /**
+         * Keeps entries equal to the best entries.size() qualifying apartments: once
+         * something has been discarded, a row may only enter ahead of the current last.
+         */
+        void offer(RankedApartment row) {
+            if (!truncated && entries.size() < capacity) {
+                entries.add(row);
+            } else if (!entries.isEmpty() && entries.comparator().compare(row, entries.last()) < 0) {
+                entries.add(row);
+                if (entries.size() > capacity) {
+                    entries.pollLast();
+                }
+                truncated = true;
+            } else {
+                truncated = true;
+            }
+        }
+
+        void remove(RankedApartment row) {
+            entries.remove(row);
+        }
+
+        /**
+         * Rebuilds the board from all rated apartments when it has fewer than K
+         * entries but others may qualify.
+         */
+        void refillIfNeeded() {
+            if (entries.size() >= size || !truncated) {
+                return;
+            }
+            entries.clear();
+            truncated = false;
+            for (RankedApartment row : apartments.values()) {
+                if ((metric != Metric.TOP_RATED || row.reviewCount() >= minReviews)
+                        && segmentsOf(row).contains(segment)) {
+                    offer(row);
+                }
+            }
+        }
+
+        void publish() {
+            List<RankedApartment> top = new ArrayList<>(size);
+            Iterator<RankedApartment> it = entries.iterator();
+            while (top.size() < size && it.hasNext()) {
+                top.add(it.next());
+            }
+            published = List.copyOf(top);
+        }
+    }
+}
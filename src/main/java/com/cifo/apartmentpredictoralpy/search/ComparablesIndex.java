@@ -0,0 +1,536 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.roaringbitmap.PeekableIntIterator;
+
+import com.cifo.apartmentpredictoralpy.ml.ApartmentFeatures;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+/**
+ * KD-tree over the feature vectors of priced apartments, for "comparable
+ * apartments" (k nearest neighbours) queries.
+ *
+ * Every feature of ApartmentFeatures except the price takes part, standardised
+ * to zero mean and unit variance over the indexed apartments, so one standard
+ * deviation of area weighs as much as one of bedrooms or of an amenity flag.
+ * A missing value is put at the mean. Distances are Euclidean in that space.
+ *
+ * Each apartment occupies a slot of a SlotTable. The tree covers the indexed
+ * slots; queries scan the tail of new and changed apartments linearly. When the
+ * table asks for it, compact() recomputes the scaling and rebuilds the tree over
+ * the live slots, renumbered so that every leaf covers a contiguous slot range.
+ *
+ * Every node keeps the bounding box of its points, and queries visit the
+ * leaves best-bin-first, nearest box first. With maxLeaves = EXACT they stop
+ * only when no unvisited box can hold a closer apartment, so the answer is
+ * exact; a smaller maxLeaves stops after that many leaves and trades recall
+ * for a bounded cost.
+ */
+public final class ComparablesIndex {
+
+    /** maxLeaves value for exact queries. */
+    public static final int EXACT = Integer.MAX_VALUE;
+
+    private static final int DIMENSIONS = ApartmentFeatures.COUNT;
+
+    /** Most slots per leaf. */
+    private static final int LEAF_SIZE = 16;
+
+    /** Factor applied to a box's distance bound before it is compared with the k-th best distance. */
+    private static final float PRUNE_SLACK = 0.9999f;
+
+    /** Tail and dead slots always tolerated before compaction; a tail is scanned at every query. */
+    private static final int MIN_TAIL = 1_024;
+
+    private final SlotTable slots = new SlotTable(MIN_TAIL);
+    private int[] prices = new int[SlotTable.capacityFor(0)];
+    /** Encoded features per slot, NaN where missing. */
+    private float[] features = new float[prices.length * DIMENSIONS];
+    /** Standardised features per slot. */
+    private float[] points = new float[prices.length * DIMENSIONS];
+
+    private float[] mean = new float[DIMENSIONS];
+    private float[] scale = filled(DIMENSIONS, 1f);
+
+    /** Tree over the indexed slots; node 0 is the root. */
+    private int nodeCount;
+    private int[] nodeStart = new int[0];
+    private int[] nodeEnd = new int[0];
+    /** Split feature, -1 for a leaf. */
+    private int[] nodeDimension = new int[0];
+    private float[] nodeSplit = new float[0];
+    private int[] nodeLeft = new int[0];
+    private int[] nodeRight = new int[0];
+    /** Bounding box of each node's points, DIMENSIONS values per node. */
+    private float[] nodeLow = new float[0];
+    private float[] nodeHigh = new float[0];
+
+    private static float[] filled(int length, float value) {
+        float[] array = new float[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    public int size() {
+        slots.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            slots.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an apartment, or replaces the one with the same id. An apartment
+     * without a price has no place among the comparables and is removed.
+     */
+    public void put(ApartmentSummary apartment) {
+        slots.writeLock().lock();
+        try {
+            if (apartment.price() == null) {
+                slots.remove(apartment.idApartment());
+            } else {
+                insert(apartment);
+            }
+            compactIfNeeded();
+        } finally {
+            slots.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds many apartments and compacts once at the end, e.g. to build the index.
+     */
+    public void putAll(Iterable<ApartmentSummary> apartments) {
+        slots.writeLock().lock();
+        try {
+            for (ApartmentSummary apartment : apartments) {
+                if (apartment.price() == null) {
+                    slots.remove(apartment.idApartment());
+                } else {
+                    insert(apartment);
+                }
+            }
+            compact();
+        } finally {
+            slots.writeLock().unlock();
+        }
+    }
+
+    public void remove(long idApartment) {
+        slots.writeLock().lock();
+        try {
+            if (slots.remove(idApartment)) {
+                compactIfNeeded();
+            }
+        } finally {
+            slots.writeLock().unlock();
+        }
+    }
+
+    private void insert(ApartmentSummary apartment) {
+        int slot = slots.add(apartment.idApartment());
+        if (slot == prices.length) {
+            int capacity = slot * 2;
+            prices = Arrays.copyOf(prices, capacity);
+            features = Arrays.copyOf(features, capacity * DIMENSIONS);
+            points = Arrays.copyOf(points, capacity * DIMENSIONS);
+        }
+        prices[slot] = apartment.price();
+        ApartmentFeatures.encode(apartment, features, slot * DIMENSIONS);
+        standardise(features, slot * DIMENSIONS, points, slot * DIMENSIONS);
+    }
+
+    private void standardise(float[] from, int fromOffset, float[] to, int toOffset) {
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float value = from[fromOffset + d];
+            to[toOffset + d] = Float.isNaN(value) ? 0 : (value - mean[d]) * scale[d];
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (slots.needsCompaction()) {
+            compact();
+        }
+    }
+
+    /**
+     * Recomputes the standardisation over the live apartments and rebuilds the
+     * tree, so the tail and the dead slots become empty.
+     */
+    public void compact() {
+        slots.writeLock().lock();
+        try {
+            int[] liveSlots = slots.live().toArray();
+            int n = liveSlots.length;
+            computeScaling(liveSlots);
+
+            float[] standardised = new float[n * DIMENSIONS];
+            for (int i = 0; i < n; i++) {
+                standardise(features, liveSlots[i] * DIMENSIONS, standardised, i * DIMENSIONS);
+            }
+            int[] order = new int[n];
+            Arrays.setAll(order, i -> i);
+            nodeCount = 0;
+            int nodes = Math.max(1, 4 * n / LEAF_SIZE + 1);
+            nodeStart = new int[nodes];
+            nodeEnd = new int[nodes];
+            nodeDimension = new int[nodes];
+            nodeSplit = new float[nodes];
+            nodeLeft = new int[nodes];
+            nodeRight = new int[nodes];
+            nodeLow = new float[nodes * DIMENSIONS];
+            nodeHigh = new float[nodes * DIMENSIONS];
+            if (n > 0) {
+                build(order, standardised, 0, n);
+            }
+
+            // Slot i of the new layout is the i-th entry of the tree order
+            int capacity = SlotTable.capacityFor(n);
+            int[] oldSlots = new int[n];
+            int[] newPrices = new int[capacity];
+            float[] newFeatures = new float[capacity * DIMENSIONS];
+            float[] newPoints = new float[capacity * DIMENSIONS];
+            for (int slot = 0; slot < n; slot++) {
+                int old = liveSlots[order[slot]];
+                oldSlots[slot] = old;
+                newPrices[slot] = prices[old];
+                System.arraycopy(features, old * DIMENSIONS, newFeatures, slot * DIMENSIONS, DIMENSIONS);
+                System.arraycopy(standardised, order[slot] * DIMENSIONS, newPoints, slot * DIMENSIONS, DIMENSIONS);
+            }
+            slots.compact(oldSlots);
+            prices = newPrices;
+            features = newFeatures;
+            points = newPoints;
+        } finally {
+            slots.writeLock().unlock();
+        }
+    }
+
+    private void computeScaling(int[] slots) {
+        float[] newMean = new float[DIMENSIONS];
+        float[] newScale = filled(DIMENSIONS, 1f);
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double sum = 0;
+            double squares = 0;
+            int count = 0;
+            for (int slot : slots) {
+                float value = features[slot * DIMENSIONS + d];
+                if (!Float.isNaN(value)) {
+                    sum += value;
+                    squares += (double) value * value;
+                    count++;
+                }
+            }
+            if (count > 0) {
+                double m = sum / count;
+                double variance = squares / count - m * m;
+                newMean[d] = (float) m;
+                if (variance > 1e-12) {
+                    newScale[d] = (float) (1 / Math.sqrt(variance));
+                }
+            }
+        }
+        mean = newMean;
+        scale = newScale;
+    }
+
+    /**
+     * Builds the subtree over order[start, end), splitting at the median of the
+     * feature with the widest spread, and returns its node. Every node keeps the
+     * bounding box of its points.
+     */
+    private int build(int[] order, float[] standardised, int start, int end) {
+        int node = newNode();
+        nodeStart[node] = start;
+        nodeEnd[node] = end;
+        nodeDimension[node] = -1;
+        int dimension = -1;
+        float widest = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = start; i < end; i++) {
+                float value = standardised[order[i] * DIMENSIONS + d];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            nodeLow[node * DIMENSIONS + d] = min;
+            nodeHigh[node * DIMENSIONS + d] = max;
+            if (max - min > widest) {
+                widest = max - min;
+                dimension = d;
+            }
+        }
+        if (end - start <= LEAF_SIZE || dimension < 0) {
+            // small enough, or all points identical
+            return node;
+        }
+        int mid = (start + end) >>> 1;
+        select(order, standardised, start, end - 1, mid, dimension);
+        nodeDimension[node] = dimension;
+        nodeSplit[node] = standardised[order[mid] * DIMENSIONS + dimension];
+        int left = build(order, standardised, start, mid);
+        int right = build(order, standardised, mid, end);
+        nodeLeft[node] = left;
+        nodeRight[node] = right;
+        return node;
+    }
+
+    /**
+     * Reorders order[low, high] so that position k holds its k-th smallest value
+     * of the dimension, with no larger value before it and no smaller one after.
+     */
+    private static void select(int[] order, float[] standardised, int low, int high, int k, int dimension) {
+        while (high > low) {
+            float pivot = standardised[order[(low + high) >>> 1] * DIMENSIONS + dimension];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (standardised[order[i] * DIMENSIONS + dimension] < pivot) {
+                    i++;
+                }
+                while (standardised[order[j] * DIMENSIONS + dimension] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i++] = order[j];
+                    order[j--] = tmp;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private int newNode() {
+        if (nodeCount == nodeStart.length) {
+            int capacity = nodeCount * 2;
+            nodeStart = Arrays.copyOf(nodeStart, capacity);
+            nodeEnd = Arrays.copyOf(nodeEnd, capacity);
+            nodeDimension = Arrays.copyOf(nodeDimension, capacity);
+            nodeSplit = Arrays.copyOf(nodeSplit, capacity);
+            nodeLeft = Arrays.copyOf(nodeLeft, capacity);
+            nodeRight = Arrays.copyOf(nodeRight, capacity);
+            nodeLow = Arrays.copyOf(nodeLow, capacity * DIMENSIONS);
+            nodeHigh = Arrays.copyOf(nodeHigh, capacity * DIMENSIONS);
+        }
+        return nodeCount++;
+    }
+
+    /**
+     * The k indexed apartments closest to the given one, nearest first. The
+     * apartment itself (same idApartment) is never among them.
+     *
+     * @param maxLeaves EXACT, or the most tree leaves to visit (approximate)
+     */
+    public List<Neighbor> nearest(ApartmentSummary apartment, int k, int maxLeaves) {
+        if (k < 1 || maxLeaves < 1) {
+            throw new IllegalArgumentException("k and maxLeaves must be positive");
+        }
+        float[] encoded = ApartmentFeatures.encode(apartment);
+        long exclude = apartment.idApartment();
+        slots.readLock().lock();
+        try {
+            float[] query = new float[DIMENSIONS];
+            standardise(encoded, 0, query, 0);
+            Best best = new Best(k);
+            if (slots.indexedSlots() > 0) {
+                searchTree(query, exclude, maxLeaves, best);
+            }
+            scan(query, exclude, slots.indexedSlots(), slots.slotCount(), best);
+            return best.neighbors();
+        } finally {
+            slots.readLock().unlock();
+        }
+    }
+
+    /**
+     * Same answer as an exact nearest(), by comparing the apartment with every
+     * indexed one. The baseline the tree is measured against.
+     */
+    public List<Neighbor> nearestByScan(ApartmentSummary apartment, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        float[] encoded = ApartmentFeatures.encode(apartment);
+        slots.readLock().lock();
+        try {
+            float[] query = new float[DIMENSIONS];
+            standardise(encoded, 0, query, 0);
+            Best best = new Best(k);
+            scan(query, apartment.idApartment(), 0, slots.slotCount(), best);
+            return best.neighbors();
+        } finally {
+            slots.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best-bin-first search. Pending subtrees wait in a min-heap keyed by the
+     * squared distance from the query to their bounding box, packed with the
+     * node into one long (non-negative float bits sort like the floats).
+     */
+    private void searchTree(float[] query, long exclude, int maxLeaves, Best best) {
+        long[] heap = new long[64];
+        int heapSize = 0;
+        heap[heapSize++] = (long) Float.floatToIntBits(boxDistance(query, 0)) << 32;
+        int leaves = 0;
+        while (heapSize > 0 && leaves < maxLeaves) {
+            long top = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+            float bound = Float.intBitsToFloat((int) (top >>> 32));
+            // A little slack, so float rounding never prunes a point lying on a box face
+            if (bound * PRUNE_SLACK >= best.worst()) {
+                break;
+            }
+            int node = (int) top;
+            while (node >= 0 && nodeDimension[node] >= 0) {
+                int left = nodeLeft[node];
+                int right = nodeRight[node];
+                float leftBound = boxDistance(query, left);
+                float rightBound = boxDistance(query, right);
+                int near = leftBound <= rightBound ? left : right;
+                int far = leftBound <= rightBound ? right : left;
+                float nearBound = Math.min(leftBound, rightBound);
+                float farBound = Math.max(leftBound, rightBound);
+                if (farBound * PRUNE_SLACK < best.worst()) {
+                    if (heapSize == heap.length) {
+                        heap = Arrays.copyOf(heap, heapSize * 2);
+                    }
+                    heap[heapSize] = (long) Float.floatToIntBits(farBound) << 32 | far;
+                    siftUp(heap, heapSize++);
+                }
+                node = nearBound * PRUNE_SLACK < best.worst() ? near : -1;
+            }
+            if (node >= 0) {
+                leaves++;
+                scan(query, exclude, nodeStart[node], nodeEnd[node], best);
+            }
+        }
+    }
+
+    /** Squared distance from the query to the node's bounding box. */
+    private float boxDistance(float[] query, int node) {
+        int offset = node * DIMENSIONS;
+        float distance = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float value = query[d];
+            float low = nodeLow[offset + d];
+            float high = nodeHigh[offset + d];
+            float diff = value < low ? low - value : value > high ? value - high : 0;
+            distance += diff * diff;
+        }
+        return distance;
+    }
+
+    private void scan(float[] query, long exclude, int from, int to, Best best) {
+        PeekableIntIterator it = slots.live().getIntIterator();
+        it.advanceIfNeeded(from);
+        while (it.hasNext() && it.peekNext() < to) {
+            int slot = it.next();
+            if (slots.id(slot) == exclude) {
+                continue;
+            }
+            int offset = slot * DIMENSIONS;
+            float distance = 0;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                float diff = query[d] - points[offset + d];
+                distance += diff * diff;
+            }
+            if (distance < best.worst()) {
+                best.add(distance, slot);
+            }
+        }
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        long value = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        long value = heap[0];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= value) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+
+    /**
+     * The k closest slots so far, sorted by squared distance.
+     */
+    private final class Best {
+
+        private final float[] distances;
+        private final int[] bestSlots;
+        private int size;
+
+        Best(int k) {
+            distances = new float[k];
+            bestSlots = new int[k];
+        }
+
+        float worst() {
+            return size < distances.length ? Float.POSITIVE_INFINITY : distances[size - 1];
+        }
+
+        void add(float distance, int slot) {
+            int i = size < distances.length ? size++ : size - 1;
+            while (i > 0 && distances[i - 1] > distance) {
+                distances[i] = distances[i - 1];
+                bestSlots[i] = bestSlots[i - 1];
+                i--;
+            }
+            distances[i] = distance;
+            bestSlots[i] = slot;
+        }
+
+        List<Neighbor> neighbors() {
+            List<Neighbor> neighbors = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                neighbors.add(new Neighbor(slots.id(bestSlots[i]), prices[bestSlots[i]], Math.sqrt(distances[i])));
+            }
+            return neighbors;
+        }
+    }
+
+    /**
+     * @param distance Euclidean distance in standardised feature space
+     */
+    public record Neighbor(long idApartment, int price, double distance) {
+    }
+}
@@ -0,0 +1,320 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+/**
+ * Quantile sketches of price and price per unit of area for every market segment.
+ *
+ * Each priced apartment is added to one cell, the combination of its bedrooms,
+ * prefarea, furnishing status and six amenity flags, whose two QuantileSketches
+ * are the unit that is persisted and merged. A query names any subset of those
+ * attributes (a Segment) and is answered from the merge of the matching cells.
+ * The merged sketches of the last MAX_VIEWS queried segments are kept and every
+ * later apartment is added to them as well, so a repeated query costs a map
+ * lookup, plus a sort of the few hundred kept items after a change.
+ *
+ * Sketches cannot forget values: updated and deleted apartments leave their old
+ * values behind, which is only counted (staleRows) here; the owner rebuilds the
+ * distributions once that count gets too large.
+ *
+ * All methods lock, none of them for longer than a merge of every cell.
+ */
+public final class PriceDistributions {
+
+    public static final int DEFAULT_K = 200;
+
+    /** Merged segments kept up to date, least recently queried dropped first. */
+    private static final int MAX_VIEWS = 64;
+
+    static final List<String> FURNISHING = List.of("furnished", "semi-furnished", "unfurnished");
+
+    /** Bedroom counts from this one up share a cell. */
+    static final int MAX_BEDROOMS = 14;
+
+    private static final int PREFAREA_BIT = 1 << 6;
+    private static final int FURNISHING_SHIFT = 7;
+    private static final int BEDROOMS_SHIFT = 9;
+    /** Furnishing code of null and unknown values. */
+    private static final int OTHER_FURNISHING = 3;
+    /** Bedrooms code of apartments without a bedroom count. */
+    private static final int UNKNOWN_BEDROOMS = 15;
+
+    private final int k;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Guarded by lock. */
+    private final Map<Integer, Cell> cells = new HashMap<>();
+    /** Guarded by lock; access ordered. */
+    private final Map<Long, View> views = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, View> eldest) {
+            return size() > MAX_VIEWS;
+        }
+    };
+    /** Guarded by lock. */
+    private long count;
+    /** Guarded by lock. */
+    private long staleRows;
+
+    public PriceDistributions(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("Sketch size k must be at least 8");
+        }
+        this.k = k;
+    }
+
+    public int k() {
+        return k;
+    }
+
+    /**
+     * Adds a priced apartment; apartments without a price are ignored.
+     */
+    public void add(ApartmentSummary apartment) {
+        if (apartment.price() == null) {
+            return;
+        }
+        int cell = cellOf(apartment);
+        double price = apartment.price();
+        double pricePerArea = apartment.area() != null && apartment.area() > 0
+                ? price / apartment.area() : Double.NaN;
+        lock.lock();
+        try {
+            cells.computeIfAbsent(cell, c -> new Cell(new QuantileSketch(k, c), new QuantileSketch(k, ~c)))
+                    .add(price, pricePerArea);
+            count++;
+            for (View view : views.values()) {
+                if (matches(view.key, cell)) {
+                    view.add(price, pricePerArea);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records that the values of this many apartments are out of date.
+     */
+    public void addStale(long rows) {
+        lock.lock();
+        try {
+            staleRows += rows;
+            views.values().forEach(view -> view.distribution = null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long staleRows() {
+        lock.lock();
+        try {
+            return staleRows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Prices added, including the out-of-date ones. */
+    public long count() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Distribution distribution(Segment segment) {
+        lock.lock();
+        try {
+            long key = segment.key();
+            View view = views.get(key);
+            if (view == null) {
+                view = new View(key, new QuantileSketch(k, key), new QuantileSketch(k, ~key));
+                for (Map.Entry<Integer, Cell> entry : cells.entrySet()) {
+                    if (matches(key, entry.getKey())) {
+                        view.price.merge(entry.getValue().price);
+                        view.pricePerArea.merge(entry.getValue().pricePerArea);
+                    }
+                }
+                views.put(key, view);
+            }
+            if (view.distribution == null) {
+                view.distribution = new Distribution(staleRows, Quantiles.of(view.price),
+                        Quantiles.of(view.pricePerArea));
+            }
+            return view.distribution;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Copies of the sketches of every cell, by cell code. */
+    Map<Integer, QuantileSketch[]> copyCells() {
+        lock.lock();
+        try {
+            Map<Integer, QuantileSketch[]> copy = new HashMap<>();
+            cells.forEach((key, cell) -> copy.put(key,
+                    new QuantileSketch[] {cell.price.copy(), cell.pricePerArea.copy()}));
+            return copy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Puts back a cell read from a file. */
+    void restore(int cell, QuantileSketch price, QuantileSketch pricePerArea) {
+        lock.lock();
+        try {
+            Cell old = cells.put(cell, new Cell(price, pricePerArea));
+            count += price.count() - (old == null ? 0 : old.price.count());
+            views.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static int cellOf(ApartmentSummary a) {
+        int cell = amenity(a.mainroad(), 0) | amenity(a.guestroom(), 1) | amenity(a.basement(), 2)
+                | amenity(a.hotwater(), 3) | amenity(a.heating(), 4) | amenity(a.airconditioning(), 5);
+        if (a.prefarea()) {
+            cell |= PREFAREA_BIT;
+        }
+        return cell | furnishingCode(a.furnishingstatus()) << FURNISHING_SHIFT
+                | bedroomsCode(a.bedrooms()) << BEDROOMS_SHIFT;
+    }
+
+    /** Whether the cell belongs to the segment with the given key. */
+    private static boolean matches(long segmentKey, int cell) {
+        return (cell & (int) (segmentKey >>> 32)) == (int) segmentKey;
+    }
+
+    private static int amenity(boolean present, int bit) {
+        return present ? 1 << bit : 0;
+    }
+
+    private static int furnishingCode(String furnishing) {
+        int code = furnishing == null ? -1 : FURNISHING.indexOf(furnishing.toLowerCase(Locale.ROOT));
+        return code < 0 ? OTHER_FURNISHING : code;
+    }
+
+    private static int bedroomsCode(Integer bedrooms) {
+        return bedrooms == null ? UNKNOWN_BEDROOMS : Math.clamp(bedrooms, 0, MAX_BEDROOMS);
+    }
+
+    /**
+     * Apartments to aggregate: every attribute that is not null must match.
+     * Bedroom counts from MAX_BEDROOMS up are one segment; furnishing must be
+     * one of FURNISHING.
+     */
+    public record Segment(Integer bedrooms, Boolean prefarea, String furnishing,
+                          Boolean mainroad, Boolean guestroom, Boolean basement,
+                          Boolean hotwater, Boolean heating, Boolean airconditioning) {
+
+        public static final Segment ALL = new Segment(null, null, null, null, null, null, null, null, null);
+
+        public Segment {
+            if (bedrooms != null && bedrooms < 0) {
+                throw new IllegalArgumentException("bedrooms must not be negative");
+            }
+            if (furnishing != null) {
+                furnishing = furnishing.toLowerCase(Locale.ROOT);
+                if (!FURNISHING.contains(furnishing)) {
+                    throw new IllegalArgumentException("furnishing must be one of " + FURNISHING);
+                }
+            }
+        }
+
+        /** The cell bits this segment fixes in the high half, their values in the low half. */
+        long key() {
+            int mask = 0;
+            int bits = 0;
+            Boolean[] amenities = {mainroad, guestroom, basement, hotwater, heating, airconditioning};
+            for (int i = 0; i < amenities.length; i++) {
+                if (amenities[i] != null) {
+                    mask |= 1 << i;
+                    bits |= amenity(amenities[i], i);
+                }
+            }
+            if (prefarea != null) {
+                mask |= PREFAREA_BIT;
+                bits |= prefarea ? PREFAREA_BIT : 0;
+            }
+            if (furnishing != null) {
+                mask |= 3 << FURNISHING_SHIFT;
+                bits |= furnishingCode(furnishing) << FURNISHING_SHIFT;
+            }
+            if (bedrooms != null) {
+                mask |= 15 << BEDROOMS_SHIFT;
+                bits |= bedroomsCode(bedrooms) << BEDROOMS_SHIFT;
+            }
+            return (long) mask << 32 | bits;
+        }
+    }
+
+    /**
+     * Quantiles of one metric in a segment.
+     *
+     * @param count values the quantiles were estimated from
+     */
+    public record Quantiles(long count, double min, double p10, double median, double p90, double max) {
+
+        /** The sketch's quantiles, null if it is empty. */
+        static Quantiles of(QuantileSketch sketch) {
+            if (sketch.count() == 0) {
+                return null;
+            }
+            return new Quantiles(sketch.count(), sketch.min(), sketch.quantile(0.1), sketch.quantile(0.5),
+                    sketch.quantile(0.9), sketch.max());
+        }
+    }
+
+    /**
+     * @param staleRows     apartments changed or deleted since the sketches were
+     *                      built, whose old values are still counted
+     * @param price         null if no apartment in the segment has a price
+     * @param pricePerArea  null if no apartment in the segment has a price and an area
+     */
+    public record Distribution(long staleRows, Quantiles price, Quantiles pricePerArea) {
+    }
+
+    private record Cell(QuantileSketch price, QuantileSketch pricePerArea) {
+
+        void add(double price, double pricePerArea) {
+            this.price.update(price);
+            if (!Double.isNaN(pricePerArea)) {
+                this.pricePerArea.update(pricePerArea);
+            }
+        }
+    }
+
+    private static final class View {
+        final long key;
+        final QuantileSketch price;
+        final QuantileSketch pricePerArea;
+        /** Null when it has to be recomputed. */
+        Distribution distribution;
+
+        View(long key, QuantileSketch price, QuantileSketch pricePerArea) {
+            this.key = key;
+            this.price = price;
+            this.pricePerArea = pricePerArea;
+        }
+
+        void add(double price, double pricePerArea) {
+            this.price.update(price);
+            if (!Double.isNaN(pricePerArea)) {
+                this.pricePerArea.update(pricePerArea);
+            }
+            distribution = null;
+        }
+    }
+}
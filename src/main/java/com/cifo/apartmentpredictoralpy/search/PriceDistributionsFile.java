@@ -0,0 +1,132 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import com.cifo.apartmentpredictoralpy.model.PricedApartmentTotals;
+
+/**
+ * Binary file format of PriceDistributions.
+ *
+ * Layout (little endian):
+ * - int magic "APQD", int format version, int sketch size k, int cell count
+ * - long staleRows
+ * - PricedApartmentTotals of the table the sketches were built from: long count,
+ *   long maxIdApartment, long priceSum, long areaSum
+ * - per cell: int cell code, then the price and the price per area sketch as
+ *   written by QuantileSketch.writeTo()
+ * - int CRC32C of every preceding byte
+ *
+ * Written to a temporary file in the target directory and moved into place
+ * atomically, like PriceModelFile.
+ */
+public final class PriceDistributionsFile {
+
+    private static final int MAGIC = 0x44515041; // "APQD" read as little endian
+    private static final int FORMAT_VERSION = 1;
+
+    private PriceDistributionsFile() {
+    }
+
+    /**
+     * @param totals fingerprint of the table, taken before the distributions were copied
+     */
+    public static void write(PriceDistributions distributions, PricedApartmentTotals totals, Path file)
+            throws IOException {
+        long staleRows = distributions.staleRows();
+        Map<Integer, QuantileSketch[]> cells = distributions.copyCells();
+        int size = 4 * 4 + 8 + 4 * 8 + 4;
+        for (QuantileSketch[] sketches : cells.values()) {
+            size += 4 + sketches[0].serializedSize() + sketches[1].serializedSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(distributions.k()).putInt(cells.size());
+        buffer.putLong(staleRows);
+        buffer.putLong(totals.count()).putLong(totals.maxIdApartment())
+                .putLong(totals.priceSum()).putLong(totals.areaSum());
+        cells.forEach((cell, sketches) -> {
+            buffer.putInt(cell);
+            sketches[0].writeTo(buffer);
+            sketches[1].writeTo(buffer);
+        });
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @throws IOException if the file cannot be read, is truncated, fails its
+     *                     checksum or was written with another sketch size than k
+     */
+    public static Contents read(Path file, int k) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        int size = buffer.limit();
+        if (size < 8 || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a price distributions file");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(file + " has unsupported format version " + buffer.getInt(4));
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, size - 4);
+        if ((int) crc.getValue() != buffer.getInt(size - 4)) {
+            throw new IOException(file + " is corrupt (checksum mismatch)");
+        }
+
+        try {
+            buffer.position(8);
+            int fileK = buffer.getInt();
+            if (fileK != k) {
+                throw new IOException(file + " holds sketches of size " + fileK + " instead of " + k);
+            }
+            int cellCount = buffer.getInt();
+            long staleRows = buffer.getLong();
+            PricedApartmentTotals totals = new PricedApartmentTotals(buffer.getLong(), buffer.getLong(),
+                    buffer.getLong(), buffer.getLong());
+            PriceDistributions distributions = new PriceDistributions(k);
+            for (int i = 0; i < cellCount; i++) {
+                int cell = buffer.getInt();
+                distributions.restore(cell, QuantileSketch.readFrom(buffer, k, cell),
+                        QuantileSketch.readFrom(buffer, k, ~cell));
+            }
+            if (buffer.remaining() != 4) {
+                throw new IOException(file + " has trailing data");
+            }
+            distributions.addStale(staleRows);
+            return new Contents(distributions, totals);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException(file + " is truncated or malformed", e);
+        }
+    }
+
+    /**
+     * @param totals fingerprint of the table the distributions were built from
+     */
+    public record Contents(PriceDistributions distributions, PricedApartmentTotals totals) {
+    }
+}
@@ -0,0 +1,338 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Mergeable streaming quantile sketch (KLL, Karnin, Lang and Liberty 2016).
+ *
+ * Values are kept in levels; an item on level h stands for 2^h values. When the
+ * sketch is full the lowest full level is sorted and every other item (odd or
+ * even positions, chosen at random) moves up a level, halving that level. The
+ * top level holds up to k items and each level below two thirds of the one
+ * above, so a sketch never keeps more than about 3k items however many values
+ * it has seen, and update() is an array append plus, amortised, a sort of a
+ * few hundred doubles every few hundred values.
+ *
+ * Two sketches with the same k merge into one with the same error guarantee as
+ * if it had seen both streams. With k = 200 the rank of a returned quantile is
+ * off by about 1% of the count; sketches that never compacted (fewer than
+ * about 3k values) are exact.
+ *
+ * Not thread safe.
+ */
+public final class QuantileSketch {
+
+    private static final int MIN_LEVEL_CAPACITY = 8;
+    private static final int MAX_LEVELS = 61;
+
+    private final int k;
+    private final SplittableRandom random;
+
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private int levelCount = 1;
+    private int totalCapacity;
+    private int retained;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    /** Sorted items and their cumulative weights, built on demand. */
+    private double[] sortedItems;
+    private long[] cumulativeWeights;
+
+    /**
+     * @param seed seeds the compaction coin flips, so equal inputs give equal sketches
+     */
+    public QuantileSketch(int k, long seed) {
+        if (k < MIN_LEVEL_CAPACITY || k > 65_536) {
+            throw new IllegalArgumentException("k must be between " + MIN_LEVEL_CAPACITY + " and 65536");
+        }
+        this.k = k;
+        this.random = new SplittableRandom(seed);
+        this.levels[0] = new double[MIN_LEVEL_CAPACITY];
+        this.totalCapacity = capacity(0);
+    }
+
+    public int k() {
+        return k;
+    }
+
+    /** Values seen, including those merged in. */
+    public long count() {
+        return count;
+    }
+
+    /** Items currently kept. */
+    public int retained() {
+        return retained;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Cannot add NaN to a quantile sketch");
+        }
+        append(0, value);
+        retained++;
+        count++;
+        if (count == 1 || value < min) {
+            min = value;
+        }
+        if (count == 1 || value > max) {
+            max = value;
+        }
+        sortedItems = null;
+        if (retained >= totalCapacity) {
+            compress();
+        }
+    }
+
+    /**
+     * Adds every value the other sketch has seen. The other sketch is not changed.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Cannot merge sketches with k " + k + " and " + other.k);
+        }
+        if (other.count == 0) {
+            return;
+        }
+        while (levelCount < other.levelCount) {
+            grow();
+        }
+        for (int h = 0; h < other.levelCount; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        retained += other.retained;
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        sortedItems = null;
+        if (retained >= totalCapacity) {
+            compress();
+        }
+    }
+
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch(k, random.nextLong());
+        copy.levels = new double[levels.length][];
+        for (int h = 0; h < levelCount; h++) {
+            copy.levels[h] = Arrays.copyOf(levels[h], Math.max(sizes[h], MIN_LEVEL_CAPACITY));
+        }
+        copy.sizes = Arrays.copyOf(sizes, sizes.length);
+        copy.levelCount = levelCount;
+        copy.totalCapacity = totalCapacity;
+        copy.retained = retained;
+        copy.count = count;
+        copy.min = min;
+        copy.max = max;
+        return copy;
+    }
+
+    /**
+     * The smallest kept value whose estimated rank is at least q * count(); the
+     * exact minimum and maximum for q = 0 and 1.
+     *
+     * @throws IllegalStateException if the sketch is empty
+     */
+    public double quantile(double q) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("q must be between 0 and 1");
+        }
+        if (count == 0) {
+            throw new IllegalStateException("The sketch is empty");
+        }
+        if (q == 0) {
+            return min;
+        }
+        if (q == 1) {
+            return max;
+        }
+        sort();
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        int i = Arrays.binarySearch(cumulativeWeights, rank);
+        return sortedItems[i >= 0 ? i : -i - 1];
+    }
+
+    /**
+     * Estimated share of the values that are at most the given one.
+     */
+    public double rank(double value) {
+        if (count == 0) {
+            return 0;
+        }
+        long weight = 0;
+        for (int h = 0; h < levelCount; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                if (levels[h][i] <= value) {
+                    weight += 1L << h;
+                }
+            }
+        }
+        return (double) weight / count;
+    }
+
+    private int capacity(int level) {
+        int depth = levelCount - level - 1;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(2.0 / 3, depth)));
+    }
+
+    private void append(int level, double value) {
+        double[] items = levels[level];
+        if (sizes[level] == items.length) {
+            items = Arrays.copyOf(items, items.length * 2);
+            levels[level] = items;
+        }
+        items[sizes[level]++] = value;
+    }
+
+    private void grow() {
+        if (levelCount == MAX_LEVELS) {
+            throw new IllegalStateException("Quantile sketch is out of levels");
+        }
+        if (levelCount == levels.length) {
+            levels = Arrays.copyOf(levels, levelCount * 2);
+            sizes = Arrays.copyOf(sizes, levelCount * 2);
+        }
+        levels[levelCount] = new double[MIN_LEVEL_CAPACITY];
+        levelCount++;
+        totalCapacity = 0;
+        for (int h = 0; h < levelCount; h++) {
+            totalCapacity += capacity(h);
+        }
+    }
+
+    /** Compacts the lowest full level until the sketch is below its capacity again. */
+    private void compress() {
+        while (retained >= totalCapacity) {
+            int h = 0;
+            while (sizes[h] < capacity(h)) {
+                h++;
+            }
+            if (h + 1 == levelCount) {
+                grow();
+            }
+            compact(h);
+        }
+    }
+
+    private void compact(int level) {
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        // With an odd size the smallest item stays behind on this level
+        int first = (size & 1) + (random.nextBoolean() ? 1 : 0);
+        int promoted = size / 2;
+        for (int i = first; i < size; i += 2) {
+            append(level + 1, items[i]);
+        }
+        sizes[level] = size & 1;
+        retained -= promoted;
+    }
+
+    private void sort() {
+        if (sortedItems != null) {
+            return;
+        }
+        double[][] sortedLevels = new double[levelCount][];
+        for (int h = 0; h < levelCount; h++) {
+            sortedLevels[h] = Arrays.copyOf(levels[h], sizes[h]);
+            Arrays.sort(sortedLevels[h]);
+        }
+        // Merge the sorted levels; there are only a few dozen of them
+        double[] items = new double[retained];
+        long[] cumulative = new long[retained];
+        int[] next = new int[levelCount];
+        long weight = 0;
+        for (int i = 0; i < retained; i++) {
+            int best = -1;
+            for (int h = 0; h < levelCount; h++) {
+                if (next[h] < sortedLevels[h].length
+                        && (best < 0 || sortedLevels[h][next[h]] < sortedLevels[best][next[best]])) {
+                    best = h;
+                }
+            }
+            items[i] = sortedLevels[best][next[best]++];
+            weight += 1L << best;
+            cumulative[i] = weight;
+        }
+        sortedItems = items;
+        cumulativeWeights = cumulative;
+    }
+
+    int serializedSize() {
+        return 8 + 8 + 8 + 4 + 4 * levelCount + 8 * retained;
+    }
+
+    /**
+     * Layout: long count, double min, double max, int level count, int[levels]
+     * level sizes, then the items of each level.
+     */
+    void writeTo(ByteBuffer buffer) {
+        buffer.putLong(count).putDouble(min).putDouble(max).putInt(levelCount);
+        for (int h = 0; h < levelCount; h++) {
+            buffer.putInt(sizes[h]);
+        }
+        for (int h = 0; h < levelCount; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                buffer.putDouble(levels[h][i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a sketch written by writeTo().
+     *
+     * @throws IllegalArgumentException if the data does not describe a valid sketch
+     */
+    static QuantileSketch readFrom(ByteBuffer buffer, int k, long seed) {
+        QuantileSketch sketch = new QuantileSketch(k, seed);
+        long count = buffer.getLong();
+        double min = buffer.getDouble();
+        double max = buffer.getDouble();
+        int levelCount = buffer.getInt();
+        if (levelCount < 1 || levelCount > MAX_LEVELS) {
+            throw new IllegalArgumentException("Invalid level count " + levelCount);
+        }
+        while (sketch.levelCount < levelCount) {
+            sketch.grow();
+        }
+        int[] sizes = new int[levelCount];
+        long weight = 0;
+        for (int h = 0; h < levelCount; h++) {
+            sizes[h] = buffer.getInt();
+            if (sizes[h] < 0 || sizes[h] > buffer.remaining() / 8) {
+                throw new IllegalArgumentException("Invalid level size " + sizes[h]);
+            }
+            weight += (long) sizes[h] << h;
+        }
+        if (weight != count || (count > 0 && !(min <= max))) {
+            throw new IllegalArgumentException("Sketch items do not add up to its count");
+        }
+        for (int h = 0; h < levelCount; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                sketch.append(h, buffer.getDouble());
+            }
+            sketch.retained += sizes[h];
+        }
+        sketch.count = count;
+        sketch.min = min;
+        sketch.max = max;
+        if (sketch.retained >= sketch.totalCapacity) {
+            sketch.compress();
+        }
+        return sketch;
+    }
+}
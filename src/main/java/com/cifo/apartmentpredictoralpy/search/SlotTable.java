@@ -0,0 +1,148 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Slot bookkeeping of the in-memory apartment indexes (ApartmentIndex,
+ * ComparablesIndex).
+ *
+ * Every indexed apartment occupies a slot, a dense int the index uses to address
+ * its own per-slot columns. The slots below indexedSlots() are covered by the
+ * index's ordered structure (sorted arrays, a tree); the ones above form the
+ * tail, which queries check one by one. A changed apartment takes a fresh slot
+ * in the tail and leaves its old one dead, a removed one just leaves the live
+ * set, so updates never touch the ordered structure. Once the tail grows past
+ * max(minTail, live / 16) slots, or the dead ones past max(minTail, live / 4),
+ * needsCompaction() turns true; the index then rebuilds its structure over the
+ * live slots and passes their new order to compact().
+ *
+ * One read-write lock guards the table together with the index's own data:
+ * queries hold readLock(), updates and compaction writeLock().
+ */
+final class SlotTable {
+
+    private static final int MIN_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int minTail;
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private long[] ids = new long[MIN_CAPACITY];
+    private RoaringBitmap live = new RoaringBitmap();
+    private int slotCount;
+    private int indexedSlots;
+
+    /**
+     * @param minTail tail and dead slots always tolerated before compaction
+     */
+    SlotTable(int minTail) {
+        this.minTail = minTail;
+    }
+
+    /** Per-slot capacity to allocate for n slots, at compaction or at first. */
+    static int capacityFor(int n) {
+        return Math.max(MIN_CAPACITY, n + n / 2);
+    }
+
+    Lock readLock() {
+        return lock.readLock();
+    }
+
+    Lock writeLock() {
+        return lock.writeLock();
+    }
+
+    /** Live apartments. */
+    int size() {
+        return slotById.size();
+    }
+
+    /** Slots in use, live or dead; the tail ends here. */
+    int slotCount() {
+        return slotCount;
+    }
+
+    /** Slots covered by the index's ordered structure; the tail starts here. */
+    int indexedSlots() {
+        return indexedSlots;
+    }
+
+    long id(int slot) {
+        return ids[slot];
+    }
+
+    /** The apartment's slot, or -1 if it is not indexed. */
+    int slotOf(long idApartment) {
+        Integer slot = slotById.get(idApartment);
+        return slot == null ? -1 : slot;
+    }
+
+    /** The live slots. Read it under a lock and do not modify it. */
+    RoaringBitmap live() {
+        return live;
+    }
+
+    /**
+     * Takes a fresh tail slot for the apartment; its previous slot, if any, dies.
+     * When the returned slot equals the index's column capacity the columns are
+     * full and must grow (doubling, as the table does).
+     */
+    int add(long idApartment) {
+        remove(idApartment);
+        int slot = slotCount++;
+        if (slot == ids.length) {
+            ids = Arrays.copyOf(ids, slot * 2);
+        }
+        ids[slot] = idApartment;
+        slotById.put(idApartment, slot);
+        live.add(slot);
+        return slot;
+    }
+
+    /**
+     * @return whether the apartment had a slot
+     */
+    boolean remove(long idApartment) {
+        Integer slot = slotById.remove(idApartment);
+        if (slot == null) {
+            return false;
+        }
+        live.remove(slot);
+        return true;
+    }
+
+    boolean needsCompaction() {
+        int liveSlots = slotById.size();
+        int tail = slotCount - indexedSlots;
+        int dead = slotCount - liveSlots;
+        return tail > Math.max(minTail, liveSlots / 16) || dead > Math.max(minTail, liveSlots / 4);
+    }
+
+    /**
+     * Renumbers the live slots after the index rebuilt its structure: new slot i
+     * is old slot oldSlots[i]. Every slot becomes live and indexed, so the tail
+     * and the dead slots are empty. Call it last, once the index has copied its
+     * columns (it may still need live() and id() of the old numbering).
+     *
+     * @param oldSlots every live slot once, in the new order
+     */
+    void compact(int[] oldSlots) {
+        int n = oldSlots.length;
+        long[] newIds = new long[capacityFor(n)];
+        for (int slot = 0; slot < n; slot++) {
+            newIds[slot] = ids[oldSlots[slot]];
+            slotById.put(newIds[slot], slot);
+        }
+        ids = newIds;
+        live = new RoaringBitmap();
+        live.add(0L, n);
+        slotCount = n;
+        indexedSlots = n;
+    }
+}
@@ -0,0 +1,276 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentsImportedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Streaming bulk loader for Housing.csv style files into the APARTMENT table.
+ *
+ * The file is read line by line, so memory use does not depend on the file size.
+ * Rows are written with a single prepared INSERT sent to H2 in JDBC batches of
+ * {@code apartment.import.batch-size} rows and committed every
+ * {@code apartment.import.commit-interval} rows, instead of one round trip
+ * (and one transaction) per row as with repository.save().
+ *
+ * Column mapping (by header name, so column order does not matter):
+ * - yes/no columns become booleans.
+ * - The Kaggle file has a single "hotwaterheating" column, which sets both
+ *   hotwater and heating. Separate "hotwater" and "heating" columns also work.
+ * - furnishingstatus is normalised to the values used in seed.sql
+ *   (Furnished, Semi-Furnished, Unfurnished).
+ *
+ * Ids are taken from APARTMENT_SEQ with the same pooled scheme Hibernate uses:
+ * one sequence call reserves Apartment.ID_ALLOCATION_SIZE ids, so imported rows
+ * never collide with ids generated by the repositories.
+ *
+ * The rows bypass JPA, so an ApartmentsImportedEvent is published once they are
+ * committed.
+ */
+@Service
+public class ApartmentCsvLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(ApartmentCsvLoader.class);
+
+    private static final String NEXT_ID_BLOCK_SQL = "SELECT NEXT VALUE FOR APARTMENT_SEQ";
+
+    private static final String INSERT_SQL = "INSERT INTO APARTMENT ("
+            + "ID_APARTMENT, PRICE, AREA, BEDROOMS, BATHROOMS, STORIES, MAINROAD, GUESTROOM, BASEMENT, "
+            + "HOTWATER, HEATING, AIRCONDITIONING, PARKING, PREFAREA, FURNISHINGSTATUS"
+            + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+    private final int commitInterval;
+    private final Counter importedRows;
+
+    public ApartmentCsvLoader(DataSource dataSource, ApplicationEventPublisher events, MeterRegistry meterRegistry,
+                              @Value("${apartment.import.batch-size:1000}") int batchSize,
+                              @Value("${apartment.import.commit-interval:10000}") int commitInterval) {
+        if (batchSize <= 0 || commitInterval <= 0) {
+            throw new IllegalArgumentException("batch-size and commit-interval must be positive");
+        }
+        this.dataSource = dataSource;
+        this.events = events;
+        this.batchSize = batchSize;
+        this.commitInterval = commitInterval;
+        this.importedRows = Counter.builder("apartment.import.rows")
+                .description("Apartments inserted by CSV imports")
+                .register(meterRegistry);
+    }
+
+    public ImportReport loadCsv(Path csvPath) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(csvPath, StandardCharsets.UTF_8)) {
+            return loadCsv(reader);
+        }
+    }
+
+    /**
+     * Imports every data row of the given CSV. The first line must be the header.
+     * Rows already committed stay in the table if a later row fails.
+     */
+    public ImportReport loadCsv(Reader source) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader br ? br : new BufferedReader(source);
+        String header = reader.readLine();
+        if (header == null) {
+            return new ImportReport(0, Duration.ZERO);
+        }
+        CsvColumns columns = CsvColumns.fromHeader(header);
+
+        long start = System.nanoTime();
+        long rows = 0;
+        long lineNumber = 1;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL);
+                 PreparedStatement nextIdBlock = connection.prepareStatement(NEXT_ID_BLOCK_SQL)) {
+                long nextId = 0;
+                long lastId = -1;
+                int pendingInBatch = 0;
+                int pendingInTransaction = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    if (nextId > lastId) {
+                        lastId = nextIdBlock(nextIdBlock);
+                        nextId = lastId - Apartment.ID_ALLOCATION_SIZE + 1;
+                    }
+                    insert.setLong(1, nextId++);
+                    columns.bind(insert, line, lineNumber);
+                    insert.addBatch();
+                    rows++;
+                    if (++pendingInBatch == batchSize) {
+                        insert.executeBatch();
+                        pendingInBatch = 0;
+                    }
+                    if (++pendingInTransaction == commitInterval) {
+                        if (pendingInBatch > 0) {
+                            insert.executeBatch();
+                            pendingInBatch = 0;
+                        }
+                        connection.commit();
+                        pendingInTransaction = 0;
+                    }
+                }
+                if (pendingInBatch > 0) {
+                    insert.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("CSV import failed near line " + lineNumber, e);
+        }
+
+        ImportReport report = new ImportReport(rows, Duration.ofNanos(System.nanoTime() - start));
+        log.info("Imported {} apartments in {} ms ({} rows/s)",
+                report.rows(), report.elapsed().toMillis(), Math.round(report.rowsPerSecond()));
+        importedRows.increment(rows);
+        if (rows > 0) {
+            events.publishEvent(new ApartmentsImportedEvent(rows));
+        }
+        return report;
+    }
+
+    private static long nextIdBlock(PreparedStatement nextIdBlock) throws SQLException {
+        try (ResultSet rs = nextIdBlock.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Result of one import run.
+     */
+    public record ImportReport(long rows, Duration elapsed) {
+
+        public double rowsPerSecond() {
+            long nanos = elapsed.toNanos();
+            return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+        }
+    }
+
+    /**
+     * Positions of the CSV columns, resolved once from the header line.
+     */
+    private record CsvColumns(int price, int area, int bedrooms, int bathrooms, int stories,
+                              int mainroad, int guestroom, int basement, int hotwater, int heating,
+                              int airconditioning, int parking, int prefarea, int furnishingstatus,
+                              int width) {
+
+        static CsvColumns fromHeader(String header) {
+            String[] names = header.split(",");
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < names.length; i++) {
+                index.put(names[i].trim().toLowerCase(Locale.ROOT), i);
+            }
+            Integer combined = index.get("hotwaterheating");
+            int hotwater = combined != null ? combined : required(index, "hotwater");
+            int heating = combined != null ? combined : required(index, "heating");
+            return new CsvColumns(
+                    required(index, "price"), required(index, "area"),
+                    required(index, "bedrooms"), required(index, "bathrooms"),
+                    required(index, "stories"), required(index, "mainroad"),
+                    required(index, "guestroom"), required(index, "basement"),
+                    hotwater, heating,
+                    required(index, "airconditioning"), required(index, "parking"),
+                    required(index, "prefarea"), required(index, "furnishingstatus"),
+                    names.length);
+        }
+
+        private static int required(Map<String, Integer> index, String name) {
+            Integer position = index.get(name);
+            if (position == null) {
+                throw new IllegalArgumentException("CSV header is missing column '" + name + "'");
+            }
+            return position;
+        }
+
+        void bind(PreparedStatement insert, String line, long lineNumber) throws SQLException {
+            String[] t = line.split(",", -1);
+            if (t.length != width) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected " + width
+                        + " columns but found " + t.length);
+            }
+            try {
+                setInteger(insert, 2, t[price]);
+                setInteger(insert, 3, t[area]);
+                setInteger(insert, 4, t[bedrooms]);
+                setInteger(insert, 5, t[bathrooms]);
+                setInteger(insert, 6, t[stories]);
+                insert.setBoolean(7, yesNo(t[mainroad]));
+                insert.setBoolean(8, yesNo(t[guestroom]));
+                insert.setBoolean(9, yesNo(t[basement]));
+                insert.setBoolean(10, yesNo(t[hotwater]));
+                insert.setBoolean(11, yesNo(t[heating]));
+                insert.setBoolean(12, yesNo(t[airconditioning]));
+                insert.setInt(13, t[parking].isBlank() ? 0 : Integer.parseInt(t[parking].trim()));
+                insert.setBoolean(14, yesNo(t[prefarea]));
+                insert.setString(15, furnishing(t[furnishingstatus]));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+
+        private static void setInteger(PreparedStatement insert, int parameter, String value) throws SQLException {
+            if (value.isBlank()) {
+                insert.setNull(parameter, Types.INTEGER);
+            } else {
+                insert.setInt(parameter, Integer.parseInt(value.trim()));
+            }
+        }
+
+        private static boolean yesNo(String value) {
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "yes", "true", "1" -> true;
+                case "no", "false", "0", "" -> false;
+                default -> throw new IllegalArgumentException("not a yes/no value: '" + value + "'");
+            };
+        }
+
+        private static String furnishing(String value) {
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "furnished" -> "Furnished";
+                case "semi-furnished" -> "Semi-Furnished";
+                case "unfurnished" -> "Unfurnished";
+                case "" -> null;
+                default -> throw new IllegalArgumentException("unknown furnishingstatus '" + value + "'");
+            };
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentChangedEvent;
+import com.cifo.apartmentpredictoralpy.model.RankedApartment;
+import com.cifo.apartmentpredictoralpy.model.ReviewsChangedEvent;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRatingRepository;
+import com.cifo.apartmentpredictoralpy.search.ApartmentRankings;
+
+/**
+ * Serves the "top rated" and "most reviewed" apartment leaderboards from memory.
+ *
+ * The rankings are seeded once the application is ready with a single aggregate
+ * query over REVIEW, streamed row by row. After that every committed
+ * ReviewsChangedEvent reloads the totals of the apartments it names from
+ * APARTMENT_RATING, and ApartmentChangedEvents move apartments between segments
+ * or drop them. The rankings are a RebuildingView of both kinds of event, so
+ * the events committed while the seed query runs are replayed on the seeded
+ * rankings before they are served.
+ */
+@Service
+public class ApartmentRankingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApartmentRankingService.class);
+
+    /** Apartments reloaded per query after a review change. */
+    private static final int RELOAD_CHUNK_SIZE = 1000;
+
+    private final ApartmentRatingRepository ratingRepository;
+    private final int size;
+    private final long minReviews;
+    private final RebuildingView<ApartmentRankings, Object> rankings = new RebuildingView<>(this::apply);
+
+    public ApartmentRankingService(ApartmentRatingRepository ratingRepository,
+                                   @Value("${apartment.ranking.size:20}") int size,
+                                   @Value("${apartment.ranking.min-reviews:3}") long minReviews) {
+        this.ratingRepository = ratingRepository;
+        this.size = size;
+        this.minReviews = minReviews;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void seed() {
+        long start = System.nanoTime();
+        List<RankedApartment> rows = new ArrayList<>();
+        rankings.rebuild(() -> {
+            try (Stream<RankedApartment> stream = ratingRepository.streamRankedFromReviews()) {
+                stream.forEach(rows::add);
+            }
+            ApartmentRankings seeded = new ApartmentRankings(size, minReviews);
+            seeded.putAll(rows);
+            return seeded;
+        });
+        log.info("Seeded apartment rankings with {} reviewed apartments in {} ms",
+                rows.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onReviewsChanged(ReviewsChangedEvent event) {
+        rankings.onChange(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onApartmentChanged(ApartmentChangedEvent event) {
+        rankings.onChange(event);
+    }
+
+    private void apply(ApartmentRankings rankings, Object event) {
+        if (event instanceof ReviewsChangedEvent reviews) {
+            reload(rankings, reviews.idApartments());
+        } else if (event instanceof ApartmentChangedEvent change) {
+            Apartment apartment = change.apartment();
+            if (change.change() == ApartmentChangedEvent.Change.DELETED) {
+                rankings.remove(apartment.getIdApartment());
+            } else if (change.change() == ApartmentChangedEvent.Change.UPDATED) {
+                rankings.updateAttributes(apartment.getIdApartment(), apartment.getBedrooms(),
+                        apartment.isPrefarea(), apartment.getFurnishingstatus());
+            }
+        }
+    }
+
+    private void reload(ApartmentRankings rankings, Set<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += RELOAD_CHUNK_SIZE) {
+            List<Long> chunk = all.subList(from, Math.min(from + RELOAD_CHUNK_SIZE, all.size()));
+            Set<Long> missing = new HashSet<>(chunk);
+            for (RankedApartment row : ratingRepository.findRankedByIdApartmentIn(chunk)) {
+                missing.remove(row.idApartment());
+                rankings.put(row);
+            }
+            missing.forEach(rankings::remove);
+        }
+    }
+
+    /**
+     * @param segment "all", "bedrooms=N", "prefarea=true|false" or "furnishing=value"
+     * @throws ServiceUnavailableException if the rankings have not been seeded yet
+     */
+    public List<RankedApartment> top(ApartmentRankings.Metric metric, String segment, int limit) {
+        ApartmentRankings rankings = this.rankings.current();
+        if (rankings == null) {
+            throw new ServiceUnavailableException("The apartment rankings are still being built");
+        }
+        if (limit < 1 || limit > rankings.size()) {
+            throw new InvalidRequestException("limit must be between 1 and " + rankings.size());
+        }
+        return rankings.top(metric, segment, limit);
+    }
+}
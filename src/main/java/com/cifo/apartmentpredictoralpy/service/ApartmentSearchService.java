@@ -0,0 +1,120 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentChangedEvent;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.model.ApartmentsImportedEvent;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+import com.cifo.apartmentpredictoralpy.search.ApartmentIndex;
+import com.cifo.apartmentpredictoralpy.search.ApartmentQuery;
+
+/**
+ * Keeps an ApartmentIndex in sync with the APARTMENT table and answers searches from it.
+ *
+ * The index is a RebuildingView: built once the application is ready (after any
+ * startup CSV import) and rebuilt after every bulk import, and following the
+ * committed ApartmentChangedEvents one apartment at a time in between.
+ */
+@Service
+public class ApartmentSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApartmentSearchService.class);
+
+    /** Rows read per query when building the index. */
+    private static final int BUILD_PAGE_SIZE = 10_000;
+
+    private final ApartmentRepository apartmentRepository;
+
+    private final RebuildingView<ApartmentIndex, ApartmentChangedEvent> index =
+            new RebuildingView<>(ApartmentSearchService::apply);
+
+    public ApartmentSearchService(ApartmentRepository apartmentRepository) {
+        this.apartmentRepository = apartmentRepository;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, ApartmentsImportedEvent.class})
+    public void rebuild() {
+        long start = System.nanoTime();
+        ApartmentIndex fresh = index.rebuild(() -> {
+            List<ApartmentSummary> rows = new ArrayList<>();
+            Sort byId = Sort.by("idApartment");
+            Window<ApartmentSummary> window = apartmentRepository.findBy(
+                    ScrollPosition.keyset(), byId, Limit.of(BUILD_PAGE_SIZE));
+            while (true) {
+                window.forEach(rows::add);
+                if (!window.hasNext()) {
+                    break;
+                }
+                window = apartmentRepository.findBy(window.positionAt(window.size() - 1), byId, Limit.of(BUILD_PAGE_SIZE));
+            }
+            ApartmentIndex built = new ApartmentIndex();
+            built.putAll(rows);
+            return built;
+        });
+        log.info("Built apartment search index with {} apartments in {} ms",
+                fresh.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onApartmentChanged(ApartmentChangedEvent event) {
+        index.onChange(event);
+    }
+
+    private static void apply(ApartmentIndex index, ApartmentChangedEvent event) {
+        if (event.change() == ApartmentChangedEvent.Change.DELETED) {
+            index.remove(event.apartment().getIdApartment());
+        } else {
+            index.put(ApartmentSummary.of(event.apartment()));
+        }
+    }
+
+    /**
+     * @throws ServiceUnavailableException if the index has not been built yet
+     */
+    public ApartmentIndex.SearchResult search(ApartmentQuery query, int limit) {
+        ApartmentIndex current = index.current();
+        if (current == null) {
+            throw new ServiceUnavailableException("The apartment search index is still being built");
+        }
+        return current.search(query, limit);
+    }
+
+    /**
+     * Runs the search and loads the summaries of the first {@code limit} matches,
+     * sorted by idApartment.
+     */
+    public SearchPage searchApartments(ApartmentQuery query, int limit) {
+        if (limit < 1 || limit > ApartmentService.MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("limit must be between 1 and " + ApartmentService.MAX_PAGE_SIZE);
+        }
+        ApartmentIndex.SearchResult result = search(query, limit);
+        List<Long> ids = new ArrayList<>(result.ids().length);
+        for (long id : result.ids()) {
+            ids.add(id);
+        }
+        List<ApartmentSummary> items = new ArrayList<>(apartmentRepository.findByIdApartmentIn(ids));
+        items.sort(Comparator.comparingLong(ApartmentSummary::idApartment));
+        return new SearchPage(result.total(), items);
+    }
+
+    /**
+     * @param total number of matching apartments
+     * @param items the first matches
+     */
+    public record SearchPage(int total, List<ApartmentSummary> items) {
+    }
+}
@@ -1,18 +1,61 @@
 package com.cifo.apartmentpredictoralpy.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.cifo.apartmentpredictoralpy.ml.ApartmentFeatures;
+import com.cifo.apartmentpredictoralpy.ml.PredictionBatcher;
+import com.cifo.apartmentpredictoralpy.ml.PredictionCache;
+import com.cifo.apartmentpredictoralpy.ml.PriceModel;
 import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentRating;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRatingRepository;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Service class responsible for handling business logic related to Apartment entities.
  *
  * This class defines high-level operations such as listing all apartments and 
- * creating, reading, updating, or deleting apartment records (CRUD). Although the methods 
- * are currently placeholders with no implementation, they represent the typical 
- * structure of a service layer in a Spring application.
+ * creating, reading, updating, or deleting apartment records (CRUD). Some of the
+ * CRUD methods are still placeholders with no implementation, but they represent
+ * the typical structure of a service layer in a Spring application.
+ *
+ * It also serves price predictions with the current model of the ModelRegistry
+ * (which trains and publishes the models). Single predictions go through a
+ * PredictionCache, which is emptied whenever a new model is published. Cache
+ * misses are scored by the PredictionBatcher when it is enabled, so concurrent
+ * single predictions are evaluated together in micro-batches.
+ *
+ * Ratings come from the APARTMENT_RATING aggregates (see ApartmentRating), never
+ * from the review lists.
+ *
+ * Operations are timed as apartment.service (tag operation) and predictions as
+ * apartment.prediction (tags model.version and kind, single or batch); the meters
+ * of the current model version are kept in a field so the hot path does no lookup.
  *
  * The @Service annotation indicates that this class is a Spring-managed component 
  * and can be injected into controllers or other services where apartment-related 
@@ -22,9 +65,275 @@ import com.cifo.apartmentpredictoralpy.model.Apartment;
 @Service
 public class ApartmentService {
 
+    /** Largest window returned by listApartments(). */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /** Scalar columns clients may sort the listing by. */
+    public static final Set<String> SORTABLE_PROPERTIES =
+            Set.of("idApartment", "price", "area", "bedrooms", "bathrooms", "stories", "parking");
+
+    private final ApartmentRepository apartmentRepository;
+    private final ApartmentRatingRepository ratingRepository;
+    private final ModelRegistry modelRegistry;
+    private final PredictionCache predictionCache;
+    /** Null when apartment.prediction.batch.enabled is false. */
+    private final PredictionBatcher predictionBatcher;
+    private final int parallelPredictionRows;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer findAllTimer;
+    private final Timer listTimer;
+    private final Timer findWithReviewsTimer;
+    private final Timer findRatingTimer;
+    private final Timer findRatingsTimer;
+    private final Timer rebuildRatingsTimer;
+    private volatile PredictionMeters predictionMeters;
+
+    public ApartmentService(ApartmentRepository apartmentRepository, ApartmentRatingRepository ratingRepository,
+                            ModelRegistry modelRegistry, PredictionCache predictionCache,
+                            ObjectProvider<PredictionBatcher> predictionBatcher, MeterRegistry meterRegistry,
+                            @Value("${apartment.prediction.parallel-rows:50000}") int parallelPredictionRows) {
+        this.apartmentRepository = apartmentRepository;
+        this.ratingRepository = ratingRepository;
+        this.modelRegistry = modelRegistry;
+        this.predictionCache = predictionCache;
+        this.predictionBatcher = predictionBatcher.getIfAvailable();
+        this.parallelPredictionRows = parallelPredictionRows;
+        this.meterRegistry = meterRegistry;
+        this.findAllTimer = operationTimer("findAllApartments");
+        this.listTimer = operationTimer("listApartments");
+        this.findWithReviewsTimer = operationTimer("findApartmentWithReviews");
+        this.findRatingTimer = operationTimer("findRating");
+        this.findRatingsTimer = operationTimer("findRatings");
+        this.rebuildRatingsTimer = operationTimer("rebuildRatings");
+        if (this.predictionBatcher != null) {
+            registerBatcherMeters(this.predictionBatcher);
+        }
+    }
+
+    private void registerBatcherMeters(PredictionBatcher batcher) {
+        FunctionCounter.builder("apartment.prediction.batches", batcher, b -> b.stats().batches())
+                .description("Micro-batches scored by the prediction batcher")
+                .register(meterRegistry);
+        FunctionCounter.builder("apartment.prediction.batched.rows", batcher, b -> b.stats().rows())
+                .description("Single predictions scored in micro-batches")
+                .register(meterRegistry);
+        FunctionCounter.builder("apartment.prediction.rejected", batcher, b -> b.stats().rejected())
+                .description("Single predictions rejected because the batcher queue was full")
+                .register(meterRegistry);
+        Gauge.builder("apartment.prediction.queued", batcher, b -> b.stats().queued())
+                .description("Single predictions waiting for a micro-batch")
+                .register(meterRegistry);
+    }
+
+    private Timer operationTimer(String operation) {
+        return Timer.builder("apartment.service")
+                .description("ApartmentService operations")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads every apartment entity. Reviews are not loaded (they are LAZY);
+     * prefer listApartments() for anything shown to users.
+     */
+    @Transactional(readOnly = true)
     public List<Apartment> findAllApartments(){
 
-        return null;
+        return findAllTimer.record(() -> (List<Apartment>) apartmentRepository.findAll());
+    }
+
+    /**
+     * Returns one window of apartment summaries using keyset pagination.
+     *
+     * @param position ScrollPosition.keyset() for the first window, or the position
+     *                 of the last row of the previous window
+     * @param sort     sort on any of SORTABLE_PROPERTIES; idApartment is always added
+     *                 as the final key so rows with equal values keep a stable order.
+     *                 Apartments with a NULL value come last in either direction
+     * @param size     rows per window, 1 to MAX_PAGE_SIZE
+     */
+    @Transactional(readOnly = true)
+    public Window<ApartmentSummary> listApartments(ScrollPosition position, Sort sort, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new InvalidRequestException("Cannot sort apartments by '" + order.getProperty() + "'");
+            }
+        }
+        Sort keysetSort = sort.getOrderFor("idApartment") == null ? sort.and(Sort.by("idApartment")) : sort;
+        return listTimer.record(() -> apartmentRepository.findPage(position, keysetSort, size));
+    }
+
+    /**
+     * Loads one apartment with its reviews (and their reviewers) in one query.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Apartment> findApartmentWithReviews(long idApartment) {
+        return findWithReviewsTimer.record(() -> apartmentRepository.findWithReviewsByIdApartment(idApartment));
+    }
+
+    /**
+     * Rating aggregate of one apartment; empty if it has no reviews.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ApartmentRating> findRating(long idApartment) {
+        return findRatingTimer.record(() -> ratingRepository.findById(idApartment));
+    }
+
+    /**
+     * Rating aggregates of several apartments (e.g. one listing page) in one query,
+     * keyed by idApartment. Apartments without reviews are absent.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ApartmentRating> findRatings(Collection<Long> idApartments) {
+        if (idApartments.isEmpty()) {
+            return Map.of();
+        }
+        return findRatingsTimer.record(() -> ratingRepository.findByIdApartmentIn(idApartments).stream()
+                .collect(Collectors.toMap(ApartmentRating::getIdApartment, Function.identity())));
+    }
+
+    /**
+     * Recomputes every rating aggregate from the REVIEW table in one set-based
+     * pass, e.g. after reviews were written without ReviewRepository.
+     *
+     * @return the number of apartments that have reviews
+     */
+    @Transactional
+    public int rebuildRatings() {
+        return rebuildRatingsTimer.record(() -> {
+            ratingRepository.deleteAllRatings();
+            return ratingRepository.insertAllFromReviews();
+        });
+    }
+
+    /**
+     * Predicts the price of an apartment with the current model.
+     *
+     * @throws ServiceUnavailableException if no model has been trained yet
+     */
+    public double predictPrice(Apartment apartment) {
+        return predictPrice(ApartmentFeatures.encode(apartment));
+    }
+
+    /**
+     * Predicts the price of an apartment described by its scalar fields
+     * (idApartment and price are ignored).
+     */
+    public double predictPrice(ApartmentSummary apartment) {
+        return predictPrice(ApartmentFeatures.encode(apartment));
+    }
+
+    private double predictPrice(float[] features) {
+        try {
+            return predictPriceAsync(features).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Same as predictPrice(ApartmentSummary), without blocking the caller while
+     * the prediction waits for its micro-batch.
+     *
+     * @throws ServiceUnavailableException if no model has been trained yet, or the
+     *                                     batcher queue is full
+     */
+    public CompletableFuture<Double> predictPriceAsync(ApartmentSummary apartment) {
+        return predictPriceAsync(ApartmentFeatures.encode(apartment));
+    }
+
+    private CompletableFuture<Double> predictPriceAsync(float[] features) {
+        long start = System.nanoTime();
+        PriceModel model = currentModel();
+        long key = PredictionCache.key(features, 0);
+        double cached = predictionCache.get(key, model.version());
+        if (!Double.isNaN(cached)) {
+            predictionMeters(model).single().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<Double> price;
+        if (predictionBatcher != null) {
+            try {
+                price = predictionBatcher.submit(model, features);
+            } catch (IllegalStateException e) {
+                throw new ServiceUnavailableException(e.getMessage(), e);
+            }
+        } else {
+            price = CompletableFuture.completedFuture(model.predict(features, 0));
+        }
+        return price.thenApply(p -> {
+            predictionCache.put(key, model.version(), p);
+            predictionMeters(model).single().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return p;
+        });
+    }
+
+    public PredictionCache.Stats predictionCacheStats() {
+        return predictionCache.stats();
+    }
+
+    /**
+     * Predicts the prices of many apartments given as feature columns
+     * (one float[] per feature, in ApartmentFeatures.FEATURE_NAMES order).
+     * Batches of at least apartment.prediction.parallel-rows rows are scored
+     * in parallel on the common ForkJoinPool.
+     */
+    public double[] predictPrices(float[][] columns) {
+        long start = System.nanoTime();
+        PriceModel model = currentModel();
+        int rows = columns.length == 0 ? 0 : columns[0].length;
+        double[] prices = model.predictBatch(columns, rows >= parallelPredictionRows ? ForkJoinPool.commonPool() : null);
+        PredictionMeters meters = predictionMeters(model);
+        meters.batch().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        meters.batchRows().increment(rows);
+        return prices;
+    }
+
+    public double[] predictPrices(List<Apartment> apartments) {
+        return predictPrices(ApartmentFeatures.toColumns(apartments));
+    }
+
+    public Optional<PriceModel> findCurrentModel() {
+        return modelRegistry.current();
+    }
+
+    private PriceModel currentModel() {
+        return modelRegistry.current()
+                .orElseThrow(() -> new ServiceUnavailableException("No price model has been trained yet"));
+    }
+
+    private PredictionMeters predictionMeters(PriceModel model) {
+        PredictionMeters meters = predictionMeters;
+        if (meters == null || meters.version() != model.version()) {
+            String version = Long.toString(model.version());
+            meters = new PredictionMeters(model.version(),
+                    predictionTimer(version, "single"), predictionTimer(version, "batch"),
+                    Counter.builder("apartment.prediction.rows")
+                            .description("Apartments priced by batch predictions")
+                            .tag("model.version", version)
+                            .register(meterRegistry));
+            predictionMeters = meters;
+        }
+        return meters;
+    }
+
+    private Timer predictionTimer(String version, String kind) {
+        return Timer.builder("apartment.prediction")
+                .description("Price prediction latency, single predictions include the cache lookup")
+                .tag("model.version", version)
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    /** Prediction meters of one model version. */
+    private record PredictionMeters(long version, Timer single, Timer batch, Counter batchRows) {
     }
 
     public void createApartment(){
@@ -0,0 +1,155 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentChangedEvent;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.model.ApartmentsImportedEvent;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+import com.cifo.apartmentpredictoralpy.search.ComparablesIndex;
+
+/**
+ * Finds comparable apartments (the nearest priced apartments in feature space)
+ * and estimates prices from them.
+ *
+ * The ComparablesIndex of the priced apartments is a RebuildingView, built once
+ * the application is ready and after every bulk import.
+ *
+ * APPROXIMATE queries visit at most apartment.comparables.approximate-leaves
+ * tree leaves; EXACT ones as many as needed.
+ */
+@Service
+public class ComparablesService {
+
+    private static final Logger log = LoggerFactory.getLogger(ComparablesService.class);
+
+    public enum Mode {
+        EXACT, APPROXIMATE
+    }
+
+    private final ApartmentRepository apartmentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int approximateLeaves;
+    private final int maxNeighbors;
+
+    private final RebuildingView<ComparablesIndex, ApartmentChangedEvent> index =
+            new RebuildingView<>(ComparablesService::apply);
+
+    public ComparablesService(ApartmentRepository apartmentRepository, PlatformTransactionManager transactionManager,
+                              @Value("${apartment.comparables.approximate-leaves:64}") int approximateLeaves,
+                              @Value("${apartment.comparables.max-k:100}") int maxNeighbors) {
+        if (approximateLeaves < 1 || maxNeighbors < 1) {
+            throw new IllegalArgumentException("approximate-leaves and max-k must be positive");
+        }
+        this.apartmentRepository = apartmentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.approximateLeaves = approximateLeaves;
+        this.maxNeighbors = maxNeighbors;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, ApartmentsImportedEvent.class})
+    public void rebuild() {
+        long start = System.nanoTime();
+        ComparablesIndex fresh = index.rebuild(() -> {
+            List<ApartmentSummary> rows = new ArrayList<>();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ApartmentSummary> all = apartmentRepository.streamAllSummaries()) {
+                    all.filter(a -> a.price() != null).forEach(rows::add);
+                }
+            });
+            ComparablesIndex built = new ComparablesIndex();
+            built.putAll(rows);
+            return built;
+        });
+        log.info("Built comparables index with {} priced apartments in {} ms",
+                fresh.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onApartmentChanged(ApartmentChangedEvent event) {
+        index.onChange(event);
+    }
+
+    private static void apply(ComparablesIndex index, ApartmentChangedEvent event) {
+        if (event.change() == ApartmentChangedEvent.Change.DELETED) {
+            index.remove(event.apartment().getIdApartment());
+        } else {
+            index.put(ApartmentSummary.of(event.apartment()));
+        }
+    }
+
+    /**
+     * The k priced apartments most similar to the given one, nearest first.
+     *
+     * @throws InvalidRequestException     if k is not between 1 and apartment.comparables.max-k
+     * @throws ServiceUnavailableException if the index has not been built yet
+     */
+    public List<ComparablesIndex.Neighbor> comparables(ApartmentSummary apartment, int k, Mode mode) {
+        if (k < 1 || k > maxNeighbors) {
+            throw new InvalidRequestException("k must be between 1 and " + maxNeighbors);
+        }
+        ComparablesIndex current = index.current();
+        if (current == null) {
+            throw new ServiceUnavailableException("The comparables index is still being built");
+        }
+        return current.nearest(apartment, k, mode == Mode.EXACT ? ComparablesIndex.EXACT : approximateLeaves);
+    }
+
+    /**
+     * Comparables of a stored apartment, or empty if there is no such apartment.
+     */
+    public Optional<List<ComparablesIndex.Neighbor>> comparables(long idApartment, int k, Mode mode) {
+        return apartmentRepository.findByIdApartmentIn(List.of(idApartment)).stream().findFirst()
+                .map(apartment -> comparables(apartment, k, mode));
+    }
+
+    /**
+     * Prices the apartment from its k comparables: their prices averaged with
+     * weights 1 / distance, or the plain average of the ones at distance 0 if
+     * there are any. Much cheaper than the tree model and needs no training,
+     * but blind to anything the distance does not capture.
+     *
+     * @throws ServiceUnavailableException if there is no priced apartment to compare with
+     */
+    public KnnEstimate estimate(ApartmentSummary apartment, int k, Mode mode) {
+        List<ComparablesIndex.Neighbor> neighbors = comparables(apartment, k, mode);
+        if (neighbors.isEmpty()) {
+            throw new ServiceUnavailableException("There are no priced apartments to compare with");
+        }
+        double weighted = 0;
+        double weights = 0;
+        double exactSum = 0;
+        int exact = 0;
+        for (ComparablesIndex.Neighbor neighbor : neighbors) {
+            if (neighbor.distance() == 0) {
+                exactSum += neighbor.price();
+                exact++;
+            } else {
+                weighted += neighbor.price() / neighbor.distance();
+                weights += 1 / neighbor.distance();
+            }
+        }
+        double price = exact > 0 ? exactSum / exact : weighted / weights;
+        return new KnnEstimate(price, neighbors);
+    }
+
+    /**
+     * @param comparables the apartments the price was derived from, nearest first
+     */
+    public record KnnEstimate(double price, List<ComparablesIndex.Neighbor> comparables) {
+    }
+}
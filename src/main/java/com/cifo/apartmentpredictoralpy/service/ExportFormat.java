@@ -0,0 +1,161 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.ObjectWriteContext;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.core.json.JsonFactory;
+
+/**
+ * Row formats of the data export. Each row is written to the output as soon as
+ * it is handed over; nothing but the writer's buffer is kept.
+ */
+public enum ExportFormat {
+
+    /**
+     * One JSON object per line (numbers, booleans, strings, null; dates as ISO strings).
+     */
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        public RowWriter open(OutputStream out, List<String> columns) {
+            JsonGenerator json = JSON.createGenerator(ObjectWriteContext.empty(), out);
+            return new RowWriter() {
+                @Override
+                public void write(Object[] values) {
+                    json.writeStartObject();
+                    for (int c = 0; c < values.length; c++) {
+                        json.writeName(columns.get(c));
+                        Object value = values[c];
+                        if (value == null) {
+                            json.writeNull();
+                        } else if (value instanceof Integer i) {
+                            json.writeNumber(i);
+                        } else if (value instanceof Long l) {
+                            json.writeNumber(l);
+                        } else if (value instanceof Boolean b) {
+                            json.writeBoolean(b);
+                        } else {
+                            json.writeString(value.toString());
+                        }
+                    }
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                }
+
+                @Override
+                public void flush() {
+                    json.flush();
+                }
+            };
+        }
+    },
+
+    /**
+     * RFC 4180 CSV with a header line. Booleans are written yes/no as in
+     * Housing.csv, so an apartment export can be imported again with
+     * ApartmentCsvLoader; null values are empty fields.
+     */
+    CSV("text/csv", "csv") {
+        @Override
+        public RowWriter open(OutputStream out, List<String> columns) throws IOException {
+            Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            csv.write(String.join(",", columns));
+            csv.write("\r\n");
+            return new RowWriter() {
+                @Override
+                public void write(Object[] values) throws IOException {
+                    for (int c = 0; c < values.length; c++) {
+                        if (c > 0) {
+                            csv.write(',');
+                        }
+                        Object value = values[c];
+                        if (value instanceof Boolean b) {
+                            csv.write(b ? "yes" : "no");
+                        } else if (value != null) {
+                            writeField(csv, value.toString());
+                        }
+                    }
+                    csv.write("\r\n");
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    csv.flush();
+                }
+            };
+        }
+    };
+
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .rootValueSeparator((String) null)
+            .build();
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * @param name "ndjson" or "csv", in any case
+     */
+    public static ExportFormat of(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unknown export format '" + name + "', use ndjson or csv");
+        }
+    }
+
+    /**
+     * Starts writing rows with the given columns to out. The writer never closes out.
+     */
+    public abstract RowWriter open(OutputStream out, List<String> columns) throws IOException;
+
+    private static void writeField(Writer csv, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char ch = value.charAt(i);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quote) {
+            csv.write(value);
+            return;
+        }
+        csv.write('"');
+        csv.write(value.replace("\"", "\"\""));
+        csv.write('"');
+    }
+
+    /**
+     * Writes one row per call, values in column order.
+     */
+    public interface RowWriter {
+
+        void write(Object[] values) throws IOException;
+
+        /**
+         * Pushes buffered rows to the output stream; call once after the last row.
+         */
+        void flush() throws IOException;
+    }
+}
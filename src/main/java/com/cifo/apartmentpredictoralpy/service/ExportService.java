@@ -0,0 +1,145 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.Owner;
+import com.cifo.apartmentpredictoralpy.model.ReviewSummary;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+import com.cifo.apartmentpredictoralpy.repository.OwnerRepository;
+import com.cifo.apartmentpredictoralpy.repository.ReviewRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Streams whole tables (apartments, owners, reviews) to an output stream as
+ * NDJSON or CSV in constant memory.
+ *
+ * Rows come from repository Streams backed by a JDBC cursor with a fixed fetch
+ * size, and each row is written as soon as it is read. Streamed entities stay in
+ * the persistence context, so it is cleared (and the output flushed) every
+ * apartment.export.clear-interval rows; reviews are read as ReviewSummary
+ * projections and never become entities.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    private static final List<Column<Apartment>> APARTMENT_COLUMNS = List.of(
+            new Column<>("idApartment", Apartment::getIdApartment),
+            new Column<>("price", Apartment::getPrice),
+            new Column<>("area", Apartment::getArea),
+            new Column<>("bedrooms", Apartment::getBedrooms),
+            new Column<>("bathrooms", Apartment::getBathrooms),
+            new Column<>("stories", Apartment::getStories),
+            new Column<>("mainroad", Apartment::isMainroad),
+            new Column<>("guestroom", Apartment::isGuestroom),
+            new Column<>("basement", Apartment::isBasement),
+            new Column<>("hotwater", Apartment::isHotwater),
+            new Column<>("heating", Apartment::isHeating),
+            new Column<>("airconditioning", Apartment::isAirconditioning),
+            new Column<>("parking", Apartment::getParking),
+            new Column<>("prefarea", Apartment::isPrefarea),
+            new Column<>("furnishingstatus", Apartment::getFurnishingstatus),
+            new Column<>("idOwner", a -> a.getOwner() != null ? a.getOwner().getIdPerson() : null));
+
+    private static final List<Column<Owner>> OWNER_COLUMNS = List.of(
+            new Column<>("idOwner", Owner::getIdPerson),
+            new Column<>("name", Owner::getName),
+            new Column<>("email", Owner::getEmail),
+            new Column<>("age", Owner::getAge),
+            new Column<>("isActive", Owner::getIsActive),
+            new Column<>("isBusiness", Owner::getIsBusiness),
+            new Column<>("idLegalOwner", Owner::getIdLegalOwner),
+            new Column<>("registrationDate", Owner::getRegistrationDate),
+            new Column<>("qtyDaysAsOwner", Owner::getQtyDaysAsOwner));
+
+    private static final List<Column<ReviewSummary>> REVIEW_COLUMNS = List.of(
+            new Column<>("id", ReviewSummary::id),
+            new Column<>("idApartment", ReviewSummary::idApartment),
+            new Column<>("idReviewer", ReviewSummary::idReviewer),
+            new Column<>("rating", ReviewSummary::rating),
+            new Column<>("title", ReviewSummary::title),
+            new Column<>("comment", ReviewSummary::comment),
+            new Column<>("date", ReviewSummary::date));
+
+    private final ApartmentRepository apartmentRepository;
+    private final OwnerRepository ownerRepository;
+    private final ReviewRepository reviewRepository;
+    private final EntityManager entityManager;
+    private final int clearInterval;
+
+    public ExportService(ApartmentRepository apartmentRepository, OwnerRepository ownerRepository,
+                         ReviewRepository reviewRepository, EntityManager entityManager,
+                         @Value("${apartment.export.clear-interval:1000}") int clearInterval) {
+        if (clearInterval <= 0) {
+            throw new IllegalArgumentException("apartment.export.clear-interval must be positive");
+        }
+        this.apartmentRepository = apartmentRepository;
+        this.ownerRepository = ownerRepository;
+        this.reviewRepository = reviewRepository;
+        this.entityManager = entityManager;
+        this.clearInterval = clearInterval;
+    }
+
+    /**
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportApartments(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Apartment> rows = apartmentRepository.streamAllWithOwner()) {
+            return write("apartments", rows, APARTMENT_COLUMNS, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportOwners(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Owner> rows = ownerRepository.streamAll()) {
+            return write("owners", rows, OWNER_COLUMNS, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportReviews(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<ReviewSummary> rows = reviewRepository.streamAllSummaries()) {
+            return write("reviews", rows, REVIEW_COLUMNS, format, out);
+        }
+    }
+
+    private <T> long write(String table, Stream<T> rows, List<Column<T>> columns, ExportFormat format,
+                           OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        ExportFormat.RowWriter writer = format.open(out, columns.stream().map(Column::name).toList());
+        Object[] values = new Object[columns.size()];
+        long count = 0;
+        for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+            T row = it.next();
+            for (int c = 0; c < values.length; c++) {
+                values[c] = columns.get(c).value().apply(row);
+            }
+            writer.write(values);
+            if (++count % clearInterval == 0) {
+                writer.flush();
+                entityManager.clear();
+            }
+        }
+        writer.flush();
+        log.info("Exported {} {} as {} in {} ms", count, table, format, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    private record Column<T>(String name, Function<T, Object> value) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cifo.apartmentpredictoralpy.ml.ApartmentFeatureMatrix;
+import com.cifo.apartmentpredictoralpy.model.ApartmentChangedEvent;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.model.ApartmentsImportedEvent;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+
+/**
+ * Keeps an ApartmentFeatureMatrix of the APARTMENT table for training and
+ * analytics.
+ *
+ * The matrix is built in one streaming pass once the application is ready and
+ * after every bulk import. Committed ApartmentChangedEvents are only recorded
+ * (the latest state per id); snapshot() folds them into a new matrix the next
+ * time one is asked for, so a burst of saves costs one column copy, not one
+ * per apartment. The matrix and its recorded changes form a RebuildingView, so
+ * changes committed while a rebuild reads the table are replayed on it.
+ */
+@Service
+public class FeatureMatrixService {
+
+    private static final Logger log = LoggerFactory.getLogger(FeatureMatrixService.class);
+
+    private final ApartmentRepository apartmentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final RebuildingView<Folding, ApartmentChangedEvent> matrix = new RebuildingView<>(Folding::add);
+
+    public FeatureMatrixService(ApartmentRepository apartmentRepository, PlatformTransactionManager transactionManager) {
+        this.apartmentRepository = apartmentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * The current matrix including every committed change seen so far. Builds
+     * it first if that has not happened yet.
+     */
+    public ApartmentFeatureMatrix snapshot() {
+        Folding current = matrix.current();
+        if (current == null) {
+            rebuild();
+            current = matrix.current();
+        }
+        return current.fold();
+    }
+
+    @EventListener({ApplicationReadyEvent.class, ApartmentsImportedEvent.class})
+    public void rebuild() {
+        long start = System.nanoTime();
+        Folding fresh = matrix.rebuild(() -> {
+            ApartmentFeatureMatrix.Builder builder = new ApartmentFeatureMatrix.Builder();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ApartmentSummary> rows = apartmentRepository.streamAllSummaries()) {
+                    rows.forEach(builder::add);
+                }
+            });
+            return new Folding(builder.build());
+        });
+        log.info("Built apartment feature matrix with {} rows ({} KB) in {} ms", fresh.built.rows(),
+                fresh.built.memoryBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onApartmentChanged(ApartmentChangedEvent event) {
+        matrix.onChange(event);
+    }
+
+    /**
+     * A built matrix and the changes recorded since, folded in on demand.
+     */
+    private static final class Folding {
+
+        private final ApartmentFeatureMatrix built;
+        private ApartmentFeatureMatrix matrix;
+        private final Changes pending = new Changes();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        Folding(ApartmentFeatureMatrix built) {
+            this.built = built;
+            this.matrix = built;
+        }
+
+        void add(ApartmentChangedEvent event) {
+            lock.lock();
+            try {
+                pending.add(event);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        ApartmentFeatureMatrix fold() {
+            lock.lock();
+            try {
+                if (!pending.isEmpty()) {
+                    matrix = pending.applyTo(matrix);
+                    pending.clear();
+                }
+                return matrix;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Latest committed state per apartment id.
+     */
+    private static final class Changes {
+
+        private final Map<Long, ApartmentSummary> upserts = new HashMap<>();
+        private final Set<Long> deletes = new HashSet<>();
+
+        void add(ApartmentChangedEvent event) {
+            long id = event.apartment().getIdApartment();
+            if (event.change() == ApartmentChangedEvent.Change.DELETED) {
+                upserts.remove(id);
+                deletes.add(id);
+            } else {
+                deletes.remove(id);
+                upserts.put(id, ApartmentSummary.of(event.apartment()));
+            }
+        }
+
+        boolean isEmpty() {
+            return upserts.isEmpty() && deletes.isEmpty();
+        }
+
+        ApartmentFeatureMatrix applyTo(ApartmentFeatureMatrix matrix) {
+            return matrix.withChanges(upserts.values(), deletes);
+        }
+
+        void clear() {
+            upserts.clear();
+            deletes.clear();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cifo.apartmentpredictoralpy.ml.ApartmentFeatures;
+import com.cifo.apartmentpredictoralpy.ml.FeatureStoreFile;
+import com.cifo.apartmentpredictoralpy.ml.MappedFeatureSource;
+import com.cifo.apartmentpredictoralpy.model.ApartmentChangedEvent;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.model.ApartmentsImportedEvent;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+
+/**
+ * Fills the on-disk feature store ({@code apartment.feature-store.file}) from the
+ * APARTMENT table and maps it for training.
+ *
+ * The store is an append-only file of the priced apartments, streamed from the
+ * database without creating entities. A changed apartment gets a new row that
+ * supersedes its old one, a deleted or unpriced one a removal row, and training
+ * maps only the newest row per apartment, so it sees the same data as the
+ * in-memory ApartmentFeatureMatrix. Ids are not a commit-ordered high-water mark
+ * (Hibernate and the CSV import both take ids from pooled sequence blocks, so a
+ * row can commit after a higher id was stored), so the service remembers which
+ * ids have a live row and what has to be written:
+ * - committed ApartmentChangedEvents are logged (creations only when priced)
+ * - sync() before each training run rewrites the rows of the logged apartments
+ *   and appends those with an id above the highest stored one (rows written
+ *   with plain JDBC)
+ * - the first sync after startup (the log does not survive a restart), every
+ *   bulk import, and any sync that finds fewer live ids than priced apartments
+ *   instead compare the whole table with the newest rows and write what differs
+ *
+ * Rows changed with plain SQL between those full syncs are only caught by the
+ * next one. An empty property disables the store, and training then uses the
+ * in-memory ApartmentFeatureMatrix.
+ */
+@Service
+public class FeatureStoreService {
+
+    private static final Logger log = LoggerFactory.getLogger(FeatureStoreService.class);
+
+    private final ApartmentRepository apartmentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path file;
+    /** Apartments read per query when appending logged changes. */
+    private static final int CHUNK_SIZE = 1000;
+
+    /** One appender at a time. */
+    private final ReentrantLock appendLock = new ReentrantLock();
+    /** Ids whose newest row is live (ids are ints, see Apartment), null until read. Guarded by appendLock. */
+    private BitSet storedIds;
+    /** Apartments changed since the last sync. */
+    private final Set<Long> changedIds = ConcurrentHashMap.newKeySet();
+
+    public FeatureStoreService(ApartmentRepository apartmentRepository, PlatformTransactionManager transactionManager,
+                               @Value("${apartment.feature-store.file:}") String file) {
+        this.apartmentRepository = apartmentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.file = file.isBlank() ? null : Path.of(file);
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Writes the rows of the apartments that changed since the last sync.
+     *
+     * @return the number of rows appended, removal rows included
+     */
+    public long sync() throws IOException {
+        return sync(false);
+    }
+
+    private long sync(boolean full) throws IOException {
+        requireEnabled();
+        appendLock.lock();
+        try (FeatureStoreFile.Appender appender = FeatureStoreFile.append(file)) {
+            long start = System.nanoTime();
+            if (storedIds == null || appender.rows() < storedIds.cardinality()) {
+                // First sync, or the file was replaced
+                storedIds = readStoredIds(appender);
+                full = true;
+            }
+            long before = appender.rows();
+            if (!full) {
+                appendChanged(appender);
+                if (storedIds.cardinality() < pricedApartments()) {
+                    log.warn("Feature store {} is missing apartments, checking every row", file);
+                    full = true;
+                }
+            }
+            if (full) {
+                changedIds.clear();
+                reconcile(appender);
+            }
+            long appended = appender.rows() - before;
+            log.info("Appended {} rows to feature store {} ({} rows, {} sync) in {} ms", appended, file,
+                    appender.rows(), full ? "full" : "incremental", (System.nanoTime() - start) / 1_000_000);
+            return appended;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /** Rewrites the logged apartments and appends those above the highest stored id. */
+    private void appendChanged(FeatureStoreFile.Appender appender) {
+        long after = storedIds.length() - 1;
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = changedIds.iterator(); it.hasNext(); ) {
+            ids.add(it.next());
+            it.remove();
+        }
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            BitSet found = new BitSet();
+            inTransaction(() -> {
+                for (ApartmentSummary apartment : apartmentRepository.findByIdApartmentIn(chunk)) {
+                    found.set(Math.toIntExact(apartment.idApartment()));
+                    write(appender, apartment);
+                }
+                for (long id : chunk) {
+                    if (!found.get(Math.toIntExact(id))) {
+                        remove(appender, Math.toIntExact(id));
+                    }
+                }
+            });
+        }
+        appendFrom(appender, () -> apartmentRepository.streamSummariesAfter(after));
+    }
+
+    /**
+     * Streams the whole table and writes every apartment whose newest row
+     * differs from it, then removes the stored apartments that are gone.
+     */
+    private void reconcile(FeatureStoreFile.Appender appender) throws IOException {
+        appender.flush();
+        MappedFeatureSource stored = appender.rows() == 0 ? null : FeatureStoreFile.map(file).latest();
+        int[] rowOf = new int[storedIds.length()];
+        Arrays.fill(rowOf, -1);
+        for (int row = 0; stored != null && row < stored.rows(); row++) {
+            rowOf[Math.toIntExact(stored.id(row))] = row;
+        }
+        BitSet seen = new BitSet();
+        float[] features = new float[ApartmentFeatures.COUNT];
+        inTransaction(() -> {
+            try (Stream<ApartmentSummary> rows = apartmentRepository.streamAllSummaries()) {
+                for (Iterator<ApartmentSummary> it = rows.iterator(); it.hasNext(); ) {
+                    ApartmentSummary apartment = it.next();
+                    int id = Math.toIntExact(apartment.idApartment());
+                    seen.set(id);
+                    int row = id < rowOf.length ? rowOf[id] : -1;
+                    if (row < 0 || !sameRow(stored, row, apartment, features)) {
+                        write(appender, apartment);
+                    }
+                }
+            }
+        });
+        for (int id = storedIds.nextSetBit(0); id >= 0; id = storedIds.nextSetBit(id + 1)) {
+            if (!seen.get(id)) {
+                remove(appender, id);
+            }
+        }
+    }
+
+    private static boolean sameRow(MappedFeatureSource stored, int row, ApartmentSummary apartment,
+                                   float[] features) {
+        if (apartment.price() == null || stored.label(row) != apartment.price().floatValue()) {
+            return false;
+        }
+        ApartmentFeatures.encode(apartment, features, 0);
+        for (int f = 0; f < features.length; f++) {
+            if (Float.floatToIntBits(stored.value(row, f)) != Float.floatToIntBits(features[f])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Appends the apartment's current row, or a removal row if it lost its price. */
+    private void write(FeatureStoreFile.Appender appender, ApartmentSummary apartment) throws IOException {
+        int id = Math.toIntExact(apartment.idApartment());
+        if (appender.append(apartment)) {
+            storedIds.set(id);
+        } else {
+            remove(appender, id);
+        }
+    }
+
+    private void remove(FeatureStoreFile.Appender appender, int id) throws IOException {
+        if (storedIds.get(id)) {
+            appender.appendRemoval(id);
+            storedIds.clear(id);
+        }
+    }
+
+    private void inTransaction(IoAction action) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try {
+                action.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    /** Appends every priced apartment of the stream that is not stored yet. */
+    private void appendFrom(FeatureStoreFile.Appender appender, Supplier<Stream<ApartmentSummary>> query) {
+        inTransaction(() -> {
+            try (Stream<ApartmentSummary> rows = query.get()) {
+                for (Iterator<ApartmentSummary> it = rows.iterator(); it.hasNext(); ) {
+                    ApartmentSummary apartment = it.next();
+                    int id = Math.toIntExact(apartment.idApartment());
+                    if (!storedIds.get(id) && appender.append(apartment)) {
+                        storedIds.set(id);
+                    }
+                }
+            }
+        });
+    }
+
+    private BitSet readStoredIds(FeatureStoreFile.Appender appender) throws IOException {
+        BitSet ids = new BitSet();
+        appender.flush();
+        if (appender.rows() > 0) {
+            MappedFeatureSource rows = FeatureStoreFile.map(file).latest();
+            for (int row = 0; row < rows.rows(); row++) {
+                ids.set(Math.toIntExact(rows.id(row)));
+            }
+        }
+        return ids;
+    }
+
+    private long pricedApartments() {
+        return readOnlyTransaction.execute(status -> apartmentRepository.pricedTotals()).count();
+    }
+
+    /**
+     * Syncs the store and maps the newest row of every priced apartment. The
+     * returned source reads straight from the page cache; it sees the rows
+     * present now, not those appended later.
+     */
+    public MappedFeatureSource trainingRows() throws IOException {
+        sync();
+        return FeatureStoreFile.map(file).latest();
+    }
+
+    /** Bulk imports may fill ids below the highest stored one, so they get a full sync. */
+    @EventListener(ApartmentsImportedEvent.class)
+    void onImported() throws IOException {
+        if (isEnabled()) {
+            sync(true);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onApartmentChanged(ApartmentChangedEvent event) {
+        if (isEnabled() && (event.change() != ApartmentChangedEvent.Change.CREATED || event.isPriced())) {
+            changedIds.add(event.apartment().getIdApartment());
+        }
+    }
+
+    private void requireEnabled() {
+        if (file == null) {
+            throw new IllegalStateException("No feature store configured (apartment.feature-store.file)");
+        }
+    }
+}
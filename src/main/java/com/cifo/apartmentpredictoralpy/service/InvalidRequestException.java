@@ -0,0 +1,20 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+/**
+ * A request a client got wrong: a parameter out of range, an unknown name, a
+ * malformed body. The message is written for the client and ApiExceptionHandler
+ * returns it with 400 Bad Request.
+ *
+ * Only throw it where client input is checked. An IllegalArgumentException from
+ * anywhere else is a bug and stays a 500.
+ */
+public class InvalidRequestException extends IllegalArgumentException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,362 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.cifo.apartmentpredictoralpy.ml.ArrayFeatureSource;
+import com.cifo.apartmentpredictoralpy.ml.FeatureSource;
+import com.cifo.apartmentpredictoralpy.ml.GradientBoostingParams;
+import com.cifo.apartmentpredictoralpy.ml.GradientBoostingTrainer;
+import com.cifo.apartmentpredictoralpy.ml.PredictionCache;
+import com.cifo.apartmentpredictoralpy.ml.PriceModel;
+import com.cifo.apartmentpredictoralpy.ml.PriceModelFile;
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentChangedEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Owns the current price model and trains new ones in the background.
+ *
+ * Training jobs run one at a time on a dedicated "model-training" thread (the
+ * trees themselves are built on the training ForkJoinPool). At most
+ * apartment.model.training-queue jobs can wait; further submissions are rejected
+ * with an IllegalStateException instead of piling up.
+ *
+ * A finished model is published with a single AtomicReference swap, so readers
+ * (ApartmentService) never lock and always see a complete model. The models it
+ * replaced are kept, newest first, up to apartment.model.history-size, and
+ * rollback() puts one of them back. Every published model is also saved to
+ * apartment.model.file and loaded from there on startup. Published models are
+ * numbered one after the other, continuing from the saved model's version, so
+ * two trainings never share a version however close together they finish.
+ *
+ * Besides explicit submit() calls, training is triggered by the
+ * apartment.model.retrain-cron schedule and after
+ * apartment.model.retrain-after-priced-rows new priced apartments have been
+ * committed through JPA (0 or "-" disable the respective trigger).
+ */
+@Service
+public class ModelRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelRegistry.class);
+
+    /** Finished jobs remembered for status queries. */
+    private static final int MAX_REMEMBERED_JOBS = 20;
+
+    private final FeatureMatrixService featureMatrixService;
+    private final FeatureStoreService featureStoreService;
+    private final GradientBoostingTrainer trainer;
+    private final PredictionCache predictionCache;
+    private final Path modelFile;
+    private final int historySize;
+    private final long retrainAfterPricedRows;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicReference<PriceModel> current = new AtomicReference<>();
+    /** Serialises publish() and rollback(); never taken by readers. */
+    private final ReentrantLock publishLock = new ReentrantLock();
+    /** Replaced models, newest first. Guarded by publishLock. */
+    private final Deque<PriceModel> history = new ArrayDeque<>();
+    /** Version of the last published model. */
+    private final AtomicLong versions = new AtomicLong();
+
+    private final AtomicLong jobIds = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, TrainingJob> jobs = new ConcurrentSkipListMap<>();
+    private final AtomicLong newPricedRows = new AtomicLong();
+
+    public ModelRegistry(FeatureMatrixService featureMatrixService, FeatureStoreService featureStoreService,
+                         GradientBoostingTrainer trainer,
+                         PredictionCache predictionCache,
+                         @Value("${apartment.model.file:}") String modelFile,
+                         @Value("${apartment.model.history-size:3}") int historySize,
+                         @Value("${apartment.model.training-queue:2}") int trainingQueue,
+                         @Value("${apartment.model.retrain-after-priced-rows:0}") long retrainAfterPricedRows) {
+        if (historySize < 0 || trainingQueue < 1) {
+            throw new IllegalArgumentException("history-size must not be negative and training-queue must be positive");
+        }
+        this.featureMatrixService = featureMatrixService;
+        this.featureStoreService = featureStoreService;
+        this.trainer = trainer;
+        this.predictionCache = predictionCache;
+        this.modelFile = modelFile.isBlank() ? null : Path.of(modelFile);
+        this.historySize = historySize;
+        this.retrainAfterPricedRows = retrainAfterPricedRows;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(trainingQueue), runnable -> {
+                    Thread thread = new Thread(runnable, "model-training");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Publishes the model saved by a previous run, if there is one. A file that is
+     * corrupt or was trained on other features is ignored (the application then
+     * starts without a model).
+     */
+    @PostConstruct
+    void loadSavedModel() {
+        if (modelFile == null || !Files.exists(modelFile)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            PriceModel model = PriceModelFile.read(modelFile);
+            current.set(model);
+            versions.accumulateAndGet(model.version(), Math::max);
+            log.info("Loaded price model {} ({} trees) from {} in {} ms", model.version(), model.treeCount(),
+                    modelFile, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Ignoring saved price model: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(TrainingJob::cancel);
+        executor.shutdownNow();
+    }
+
+    /** The model used for predictions. Lock free. */
+    public Optional<PriceModel> current() {
+        return Optional.ofNullable(current.get());
+    }
+
+    /** Models replaced by the current one, newest first. */
+    public List<PriceModel> history() {
+        publishLock.lock();
+        try {
+            return List.copyOf(history);
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Queues a training run on every apartment that has a price. The training
+     * thread takes the rows from the feature store if apartment.feature-store.file
+     * is set, otherwise from the current ApartmentFeatureMatrix snapshot.
+     *
+     * @throws ServiceUnavailableException if the training queue is full
+     */
+    public TrainingJob submit(GradientBoostingParams params) {
+        return submit("manual", params, this::trainingRows);
+    }
+
+    /**
+     * Queues a training run on the given apartments (those without a price are skipped).
+     * The feature rows are copied before this method returns.
+     */
+    public TrainingJob submit(Iterable<Apartment> apartments, GradientBoostingParams params) {
+        ArrayFeatureSource.Builder rows = new ArrayFeatureSource.Builder();
+        apartments.forEach(rows::add);
+        ArrayFeatureSource source = rows.build();
+        return submit("manual", params, () -> source);
+    }
+
+    private TrainingJob submit(String trigger, GradientBoostingParams params, Supplier<FeatureSource> data) {
+        TrainingJob job = new TrainingJob(jobIds.incrementAndGet(), trigger, params);
+        try {
+            executor.execute(() -> run(job, data));
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many training jobs are waiting, try again later");
+        }
+        jobs.put(job.id(), job);
+        forgetOldJobs();
+        return job;
+    }
+
+    private void run(TrainingJob job, Supplier<FeatureSource> data) {
+        try {
+            if (job.isCancelled()) {
+                throw new CancellationException("Cancelled before start");
+            }
+            job.started(TrainingJob.State.LOADING_DATA);
+            FeatureSource rows = data.get();
+            job.started(TrainingJob.State.TRAINING);
+            long start = System.nanoTime();
+            PriceModel model = trainer.train(rows, job.params(), job).withVersion(versions.incrementAndGet());
+            publish(model);
+            log.info("Training job {} published model {} ({} rows, {} ms)", job.id(), model.version(),
+                    rows.rows(), (System.nanoTime() - start) / 1_000_000);
+            job.succeeded(model);
+        } catch (CancellationException e) {
+            log.info("Training job {} cancelled", job.id());
+            job.failed(e);
+        } catch (RuntimeException | Error e) {
+            log.error("Training job {} failed", job.id(), e);
+            job.failed(e);
+        }
+    }
+
+    /**
+     * The feature store when one is configured (synced first, then read through
+     * its memory mapping), otherwise the priced rows of the feature matrix.
+     * Also the data set of ModelTuningService.
+     *
+     * Both hold the current state of every priced apartment: the store maps only
+     * the newest row per apartment and drops deleted or unpriced ones. They can
+     * differ in one case: a row changed with plain SQL, which the matrix sees at
+     * its next rebuild and the store at its next full sync (startup or import).
+     */
+    FeatureSource trainingRows() {
+        if (featureStoreService.isEnabled()) {
+            try {
+                return featureStoreService.trainingRows();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return featureMatrixService.snapshot().priced();
+    }
+
+    public Optional<TrainingJob> findJob(long id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /** Recent jobs, oldest first. */
+    public List<TrainingJob> jobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    private void forgetOldJobs() {
+        Iterator<TrainingJob> it = jobs.values().iterator();
+        int excess = jobs.size() - MAX_REMEMBERED_JOBS;
+        while (excess > 0 && it.hasNext()) {
+            if (it.next().result().isDone()) {
+                it.remove();
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * Makes the model replaced by the current one current again.
+     *
+     * @throws ServiceUnavailableException if there is no previous model
+     */
+    public PriceModel rollback() {
+        publishLock.lock();
+        try {
+            if (history.isEmpty()) {
+                throw new ServiceUnavailableException("There is no previous price model to roll back to");
+            }
+            return rollback(history.peekFirst().version());
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Makes the given model version current again. The current model and any
+     * version newer than the target are dropped from the history.
+     *
+     * @throws InvalidRequestException if the version is not in the history
+     */
+    public PriceModel rollback(long version) {
+        publishLock.lock();
+        try {
+            PriceModel target = history.stream().filter(m -> m.version() == version).findFirst()
+                    .orElseThrow(() -> new InvalidRequestException("Price model " + version + " is not in the history"));
+            while (history.removeFirst() != target) {
+                // drop the versions newer than the target
+            }
+            current.set(target);
+            predictionCache.invalidateAll();
+            save(target);
+            log.info("Rolled back to price model {}", version);
+            return target;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private void publish(PriceModel model) {
+        publishLock.lock();
+        try {
+            PriceModel previous = current.getAndSet(model);
+            if (previous != null && historySize > 0) {
+                history.addFirst(previous);
+                while (history.size() > historySize) {
+                    history.removeLast();
+                }
+            }
+            predictionCache.invalidateAll();
+            save(model);
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private void save(PriceModel model) {
+        if (modelFile == null) {
+            return;
+        }
+        try {
+            PriceModelFile.write(model, modelFile);
+        } catch (IOException e) {
+            log.warn("Could not save price model {} to {}", model.version(), modelFile, e);
+        }
+    }
+
+    @Scheduled(cron = "${apartment.model.retrain-cron:-}")
+    void scheduledRetrain() {
+        submitIfIdle("schedule");
+    }
+
+    /**
+     * Counts committed new priced apartments and starts a retraining once
+     * apartment.model.retrain-after-priced-rows of them have accumulated.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    void onApartmentChanged(ApartmentChangedEvent event) {
+        if (retrainAfterPricedRows <= 0 || event.change() != ApartmentChangedEvent.Change.CREATED
+                || !event.isPriced()) {
+            return;
+        }
+        if (newPricedRows.incrementAndGet() >= retrainAfterPricedRows) {
+            newPricedRows.set(0);
+            submitIfIdle("new-priced-rows");
+        }
+    }
+
+    /** Starts a default training run unless one is already queued or running. */
+    private void submitIfIdle(String trigger) {
+        if (executor.getActiveCount() > 0 || !executor.getQueue().isEmpty()) {
+            log.debug("Skipping {} retraining, a training job is already pending", trigger);
+            return;
+        }
+        try {
+            submit(trigger, GradientBoostingParams.DEFAULTS, this::trainingRows);
+        } catch (IllegalStateException e) {
+            log.debug("Skipping {} retraining: {}", trigger, e.getMessage());
+        }
+    }
+}
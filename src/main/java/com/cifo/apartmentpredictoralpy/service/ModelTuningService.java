@@ -0,0 +1,161 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.cifo.apartmentpredictoralpy.ml.CrossValidationReport;
+import com.cifo.apartmentpredictoralpy.ml.CrossValidator;
+import com.cifo.apartmentpredictoralpy.ml.FeatureSource;
+import com.cifo.apartmentpredictoralpy.ml.GradientBoostingParams;
+import com.cifo.apartmentpredictoralpy.ml.ParameterGrid;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs k-fold cross-validated grid searches over GradientBoostingParams.
+ *
+ * A search takes the same rows as a ModelRegistry training run (feature store
+ * or feature matrix snapshot) and hands them to the CrossValidator, which
+ * spreads the training runs over the training ForkJoinPool. Searches run one at
+ * a time on a "model-tuning" thread with one more allowed to wait; the models
+ * they train are only scored, never published. Train the winning parameters
+ * through ModelRegistry.submit() to use them.
+ */
+@Service
+public class ModelTuningService {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelTuningService.class);
+
+    /** Finished jobs remembered for status queries. */
+    private static final int MAX_REMEMBERED_JOBS = 20;
+
+    private final ModelRegistry modelRegistry;
+    private final CrossValidator crossValidator;
+    private final int defaultFolds;
+    private final double pruneMargin;
+    private final int maxConfigurations;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong jobIds = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, TuningJob> jobs = new ConcurrentSkipListMap<>();
+
+    public ModelTuningService(ModelRegistry modelRegistry, CrossValidator crossValidator,
+                              @Value("${apartment.model.tuning.folds:5}") int defaultFolds,
+                              @Value("${apartment.model.tuning.prune-margin:0.25}") double pruneMargin,
+                              @Value("${apartment.model.tuning.max-configurations:200}") int maxConfigurations) {
+        if (defaultFolds < 2 || pruneMargin < 0 || maxConfigurations < 1) {
+            throw new IllegalArgumentException(
+                    "tuning folds must be at least 2, prune-margin not negative and max-configurations positive");
+        }
+        this.modelRegistry = modelRegistry;
+        this.crossValidator = crossValidator;
+        this.defaultFolds = defaultFolds;
+        this.pruneMargin = pruneMargin;
+        this.maxConfigurations = maxConfigurations;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), runnable -> {
+                    Thread thread = new Thread(runnable, "model-tuning");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(TuningJob::cancel);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues a grid search.
+     *
+     * @param folds number of folds, null for apartment.model.tuning.folds
+     * @param seed  seed of the row shuffle, so a search can be repeated on the same folds
+     * @throws InvalidRequestException     if the grid is empty, too large or has invalid values
+     * @throws ServiceUnavailableException if a search is already waiting
+     */
+    public TuningJob submit(ParameterGrid grid, Integer folds, long seed) {
+        long size = grid.size();
+        if (size > maxConfigurations) {
+            throw new InvalidRequestException("The grid has " + size + " configurations, at most "
+                    + maxConfigurations + " are allowed");
+        }
+        int k = folds != null ? folds : defaultFolds;
+        if (k < 2) {
+            throw new InvalidRequestException("folds must be at least 2");
+        }
+        List<GradientBoostingParams> configurations;
+        try {
+            configurations = grid.expand();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e.getMessage(), e);
+        }
+        TuningJob job = new TuningJob(jobIds.incrementAndGet(), configurations.size(), k);
+        try {
+            executor.execute(() -> run(job, configurations, seed));
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("A tuning job is already waiting, try again later");
+        }
+        jobs.put(job.id(), job);
+        forgetOldJobs();
+        return job;
+    }
+
+    private void run(TuningJob job, List<GradientBoostingParams> configurations, long seed) {
+        try {
+            if (job.isCancelled()) {
+                throw new CancellationException("Cancelled before start");
+            }
+            job.started(TuningJob.State.LOADING_DATA);
+            FeatureSource rows = modelRegistry.trainingRows();
+            job.started(TuningJob.State.RUNNING);
+            CrossValidationReport report = crossValidator.run(rows, configurations, job.folds(), seed,
+                    pruneMargin, job);
+            log.info("Tuning job {}: {} configurations x {} folds on {} rows in {} ms, core utilization {}, best {}",
+                    job.id(), configurations.size(), job.folds(), rows.rows(), report.wallClock().toMillis(),
+                    String.format("%.2f", report.coreUtilization()),
+                    report.best().map(CrossValidationReport.Result::params).orElse(null));
+            job.succeeded(report);
+        } catch (CancellationException e) {
+            log.info("Tuning job {} cancelled", job.id());
+            job.failed(e);
+        } catch (RuntimeException | Error e) {
+            log.error("Tuning job {} failed", job.id(), e);
+            job.failed(e);
+        }
+    }
+
+    public Optional<TuningJob> findJob(long id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /** Recent jobs, oldest first. */
+    public List<TuningJob> jobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    private void forgetOldJobs() {
+        Iterator<TuningJob> it = jobs.values().iterator();
+        int excess = jobs.size() - MAX_REMEMBERED_JOBS;
+        while (excess > 0 && it.hasNext()) {
+            if (it.next().result().isDone()) {
+                it.remove();
+                excess--;
+            }
+        }
+    }
+}
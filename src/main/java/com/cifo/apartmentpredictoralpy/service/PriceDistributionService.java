@@ -0,0 +1,247 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentChangedEvent;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.model.ApartmentsImportedEvent;
+import com.cifo.apartmentpredictoralpy.model.PricedApartmentTotals;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+import com.cifo.apartmentpredictoralpy.search.PriceDistributions;
+import com.cifo.apartmentpredictoralpy.search.PriceDistributionsFile;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Serves price and price per area quantiles per market segment from memory,
+ * instead of sorting the matching APARTMENT rows on every request.
+ *
+ * Once the application is ready the PriceDistributions are loaded from
+ * apartment.price-distributions.file if the PricedApartmentTotals saved with
+ * them still match the table, and rebuilt with one streamed pass over APARTMENT
+ * otherwise and after every bulk import. They are saved again after each
+ * rebuild and on shutdown. The totals cannot see a changed segment column or
+ * two swapped prices, so the first ApartmentChangedEvent after a save deletes
+ * the file: a run that ends without the shutdown save (a crash, a kill) then
+ * rebuilds on the next start. Only rows changed behind the application's back
+ * (plain SQL) still depend on the totals.
+ *
+ * The distributions are a RebuildingView: committed ApartmentChangedEvents add
+ * the new values in constant time, also to a rebuild in progress. Updated and
+ * deleted apartments leave their old values in the sketches, so once these
+ * stale rows exceed apartment.price-distributions.max-stale-fraction of the
+ * count the distributions are rebuilt in the background. A quantile's rank is then off
+ * by at most about 1% (sketch error at k = 200) plus that fraction.
+ */
+@Service
+public class PriceDistributionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceDistributionService.class);
+
+    private final ApartmentRepository apartmentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path file;
+    private final int k;
+    private final double maxStaleFraction;
+    /** Runs the rebuilds triggered by stale rows; one can wait, later ones are dropped. */
+    private final ThreadPoolExecutor executor;
+
+    private final RebuildingView<PriceDistributions, ApartmentChangedEvent> distributions =
+            new RebuildingView<>(PriceDistributionService::apply);
+
+    /** Serialises saving the file and deleting it once it is out of date. */
+    private final ReentrantLock fileLock = new ReentrantLock();
+    /** Whether the file holds the distributions with every change seen so far. */
+    private volatile boolean fileCurrent;
+
+    public PriceDistributionService(ApartmentRepository apartmentRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${apartment.price-distributions.file:}") String file,
+                                    @Value("${apartment.price-distributions.k:200}") int k,
+                                    @Value("${apartment.price-distributions.max-stale-fraction:0.05}")
+                                    double maxStaleFraction) {
+        if (k < 8 || !(maxStaleFraction > 0)) {
+            throw new IllegalArgumentException("k must be at least 8 and max-stale-fraction positive");
+        }
+        this.apartmentRepository = apartmentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.k = k;
+        this.maxStaleFraction = maxStaleFraction;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "price-distributions");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (file != null && Files.exists(file)) {
+            long start = System.nanoTime();
+            try {
+                PricedApartmentTotals totals = totals();
+                PriceDistributionsFile.Contents saved = PriceDistributionsFile.read(file, k);
+                if (saved.totals().equals(totals)) {
+                    distributions.publish(saved.distributions());
+                    fileCurrent = true;
+                    log.info("Loaded price distributions of {} apartments from {} in {} ms",
+                            totals.count(), file, (System.nanoTime() - start) / 1_000_000);
+                    return;
+                }
+                log.info("Saved price distributions in {} are out of date, rebuilding", file);
+            } catch (IOException e) {
+                log.warn("Ignoring saved price distributions: {}", e.getMessage());
+            }
+        }
+        rebuild();
+    }
+
+    @EventListener(ApartmentsImportedEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        PriceDistributions fresh = distributions.rebuild(() -> readOnlyTransaction.execute(status -> {
+            PriceDistributions built = new PriceDistributions(k);
+            try (Stream<ApartmentSummary> all = apartmentRepository.streamAllSummaries()) {
+                all.forEach(built::add);
+            }
+            return built;
+        }), PriceDistributionService::replay);
+        log.info("Built price distributions of {} apartments in {} ms",
+                fresh.count(), (System.nanoTime() - start) / 1_000_000);
+        if (file != null) {
+            save(fresh, totals());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+        PriceDistributions current = distributions.current();
+        if (file == null || current == null) {
+            return;
+        }
+        try {
+            save(current, totals());
+        } catch (RuntimeException e) {
+            log.warn("Could not read the apartment totals to save the price distributions", e);
+        }
+    }
+
+    private PricedApartmentTotals totals() {
+        return readOnlyTransaction.execute(status -> apartmentRepository.pricedTotals());
+    }
+
+    /**
+     * @param totals taken before the distributions are copied, so that a change
+     *               in between makes the file look out of date rather than current
+     */
+    private void save(PriceDistributions current, PricedApartmentTotals totals) {
+        if (file == null) {
+            return;
+        }
+        fileLock.lock();
+        try {
+            // Set first: a change from now on either is in the copy or deletes the file
+            fileCurrent = true;
+            PriceDistributionsFile.write(current, totals, file);
+        } catch (IOException e) {
+            fileCurrent = false;
+            log.warn("Could not save price distributions to {}", file, e);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the saved file after the first change since it was written.
+     */
+    private void fileOutOfDate() {
+        fileLock.lock();
+        try {
+            if (fileCurrent) {
+                fileCurrent = false;
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete the out of date price distributions in {}", file, e);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    void onApartmentChanged(ApartmentChangedEvent event) {
+        PriceDistributions current = distributions.onChange(event);
+        if (fileCurrent) {
+            fileOutOfDate();
+        }
+        if (current != null && isStale(current)) {
+            executor.execute(() -> {
+                if (isStale(distributions.current())) {
+                    rebuild();
+                }
+            });
+        }
+    }
+
+    private boolean isStale(PriceDistributions current) {
+        return current.staleRows() > maxStaleFraction * current.count();
+    }
+
+    private static void apply(PriceDistributions distributions, ApartmentChangedEvent event) {
+        // The old values of an updated or deleted apartment cannot be taken out
+        switch (event.change()) {
+            case CREATED -> distributions.add(ApartmentSummary.of(event.apartment()));
+            case UPDATED -> {
+                distributions.addStale(1);
+                distributions.add(ApartmentSummary.of(event.apartment()));
+            }
+            case DELETED -> {
+                if (event.isPriced()) {
+                    distributions.addStale(1);
+                }
+            }
+        }
+    }
+
+    /** A replayed change may already be in the table read by the rebuild, so it also counts as stale. */
+    private static void replay(PriceDistributions distributions, ApartmentChangedEvent event) {
+        apply(distributions, event);
+        if (event.change() == ApartmentChangedEvent.Change.CREATED) {
+            distributions.addStale(1);
+        }
+    }
+
+    /**
+     * Quantiles of price and price per area of the apartments in the segment.
+     *
+     * @throws ServiceUnavailableException if the distributions have not been built yet
+     */
+    public PriceDistributions.Distribution distribution(PriceDistributions.Segment segment) {
+        PriceDistributions current = distributions.current();
+        if (current == null) {
+            throw new ServiceUnavailableException("The price distributions are still being built");
+        }
+        return current.distribution(segment);
+    }
+}
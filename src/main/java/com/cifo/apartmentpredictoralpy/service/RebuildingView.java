@@ -0,0 +1,137 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory view of the database (an index, sketches, a matrix, rankings)
+ * that is rebuilt from its tables now and then and follows the committed change
+ * events in between, usually Es.
+ *
+ * The owning service calls rebuild() from its ApplicationReadyEvent and
+ * ApartmentsImportedEvent listeners and onChange() from its change event
+ * listeners. Changes committed while a rebuild reads the
+ * table are queued and replayed on the new view before it is published, so none
+ * is lost; the same lock orders replays and live changes, so a view sees every
+ * change once and in commit order.
+ *
+ * @param <V> the view; it must accept changes from any thread
+ * @param <E> the change events
+ */
+final class RebuildingView<V, E> {
+
+    private final BiConsumer<V, E> apply;
+
+    private volatile V current;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    /** Guards the hand-over between onChange() and a finishing rebuild. */
+    private final ReentrantLock eventLock = new ReentrantLock();
+    /** Changes seen while a rebuild runs, null otherwise. Guarded by eventLock. */
+    private Queue<E> pending;
+
+    /**
+     * @param apply applies one committed change to a view
+     */
+    RebuildingView(BiConsumer<V, E> apply) {
+        this.apply = apply;
+    }
+
+    /**
+     * The published view, or null before the first rebuild or publish.
+     */
+    V current() {
+        return current;
+    }
+
+    /**
+     * Builds a new view, replays with apply the changes seen meanwhile and
+     * publishes it. Rebuilds run one at a time.
+     *
+     * @param build reads the table into a new view
+     */
+    V rebuild(Supplier<V> build) {
+        return rebuild(build, apply);
+    }
+
+    /**
+     * Same as rebuild(build), replaying the changes seen meanwhile with replay
+     * instead of apply, e.g. when a replayed change may already be in the table
+     * read by build.
+     */
+    V rebuild(Supplier<V> build, BiConsumer<V, E> replay) {
+        rebuildLock.lock();
+        try {
+            Queue<E> queue = new ConcurrentLinkedQueue<>();
+            eventLock.lock();
+            try {
+                pending = queue;
+            } finally {
+                eventLock.unlock();
+            }
+
+            V fresh;
+            try {
+                fresh = build.get();
+            } catch (RuntimeException | Error e) {
+                eventLock.lock();
+                try {
+                    pending = null;
+                } finally {
+                    eventLock.unlock();
+                }
+                throw e;
+            }
+
+            eventLock.lock();
+            try {
+                queue.forEach(event -> replay.accept(fresh, event));
+                pending = null;
+                current = fresh;
+            } finally {
+                eventLock.unlock();
+            }
+            return fresh;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Publishes a view that is already up to date, e.g. one loaded from a file
+     * that matches the table.
+     */
+    void publish(V view) {
+        eventLock.lock();
+        try {
+            current = view;
+        } finally {
+            eventLock.unlock();
+        }
+    }
+
+    /**
+     * Applies a committed change to the published view and queues it for the
+     * running rebuild, if any.
+     *
+     * @return the published view, or null if there is none yet
+     */
+    V onChange(E event) {
+        eventLock.lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            V view = current;
+            if (view != null) {
+                apply.accept(view, event);
+            }
+            return view;
+        } finally {
+            eventLock.unlock();
+        }
+    }
+}
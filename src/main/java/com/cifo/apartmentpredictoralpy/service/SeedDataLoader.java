@@ -0,0 +1,221 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentsImportedEvent;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Applies the seed script ({@code apartment.seed.script}, seed.sql by default)
+ * only when it has changed since it was last applied.
+ *
+ * The SHA-256 checksum of each applied script is recorded in the SEED_HISTORY
+ * table (created on first use). When the stored checksum matches, nothing else
+ * is read or written, so an unchanged seed costs one indexed lookup at startup.
+ * Otherwise every statement of the script is sent as one JDBC batch and
+ * committed together with the new SEED_HISTORY row; a failing statement rolls
+ * the whole script back and the old checksum stays in place.
+ *
+ * The script must be idempotent (MERGE ... KEY, not DELETE + INSERT), as it is
+ * applied again over the rows it wrote last time. The rows bypass JPA, so the
+ * cached Apartment entities are evicted and an ApartmentsImportedEvent is
+ * published after the commit.
+ */
+@Service
+public class SeedDataLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(SeedDataLoader.class);
+
+    private static final String CREATE_HISTORY_SQL = "CREATE TABLE IF NOT EXISTS SEED_HISTORY ("
+            + "SCRIPT VARCHAR(255) PRIMARY KEY, CHECKSUM VARCHAR(64) NOT NULL, STATEMENTS INT NOT NULL, "
+            + "APPLIED_AT TIMESTAMP NOT NULL, DURATION_MS BIGINT NOT NULL)";
+
+    private static final String SELECT_CHECKSUM_SQL = "SELECT CHECKSUM FROM SEED_HISTORY WHERE SCRIPT = ?";
+
+    private static final String MERGE_HISTORY_SQL = "MERGE INTO SEED_HISTORY "
+            + "(SCRIPT, CHECKSUM, STATEMENTS, APPLIED_AT, DURATION_MS) KEY (SCRIPT) VALUES (?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher events;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ResourceLoader resourceLoader;
+    private final String script;
+
+    public SeedDataLoader(DataSource dataSource, ApplicationEventPublisher events,
+                          EntityManagerFactory entityManagerFactory, ResourceLoader resourceLoader,
+                          @Value("${apartment.seed.script:classpath:seed.sql}") String script) {
+        this.dataSource = dataSource;
+        this.events = events;
+        this.entityManagerFactory = entityManagerFactory;
+        this.resourceLoader = resourceLoader;
+        this.script = script;
+    }
+
+    /**
+     * Applies the configured seed script if it changed. Does nothing when
+     * {@code apartment.seed.script} is empty.
+     */
+    public SeedReport applyConfiguredSeed() throws IOException {
+        if (script.isBlank()) {
+            return new SeedReport("", "", 0, false, Duration.ZERO);
+        }
+        Resource resource = resourceLoader.getResource(script);
+        if (!resource.exists()) {
+            throw new IllegalArgumentException("Seed script " + script + " not found");
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return apply(script, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Applies the given script under the given name unless a script with the
+     * same name and checksum has already been applied.
+     */
+    public SeedReport apply(String name, String sql) {
+        long start = System.nanoTime();
+        String checksum = checksum(sql);
+        List<String> statements;
+        int rows = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement ddl = connection.createStatement()) {
+                ddl.execute(CREATE_HISTORY_SQL);
+            }
+            if (checksum.equals(appliedChecksum(connection, name))) {
+                SeedReport report = new SeedReport(name, checksum, 0, false,
+                        Duration.ofNanos(System.nanoTime() - start));
+                log.info("Seed {} unchanged (checksum {}), skipped in {} ms",
+                        name, checksum.substring(0, 12), report.elapsed().toMillis());
+                return report;
+            }
+
+            statements = split(sql);
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement batch = connection.createStatement();
+                 PreparedStatement history = connection.prepareStatement(MERGE_HISTORY_SQL)) {
+                for (String statement : statements) {
+                    batch.addBatch(statement);
+                }
+                for (int count : batch.executeBatch()) {
+                    rows += Math.max(count, 0);
+                }
+                history.setString(1, name);
+                history.setString(2, checksum);
+                history.setInt(3, statements.size());
+                history.setTimestamp(4, Timestamp.from(Instant.now()));
+                history.setLong(5, (System.nanoTime() - start) / 1_000_000);
+                history.executeUpdate();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Seed script " + name + " failed", e);
+        }
+
+        SeedReport report = new SeedReport(name, checksum, statements.size(), true,
+                Duration.ofNanos(System.nanoTime() - start));
+        log.info("Applied seed {} ({} statements, {} rows, checksum {}) in {} ms",
+                name, statements.size(), rows, checksum.substring(0, 12), report.elapsed().toMillis());
+        entityManagerFactory.getCache().evict(Apartment.class);
+        if (rows > 0) {
+            events.publishEvent(new ApartmentsImportedEvent(rows));
+        }
+        return report;
+    }
+
+    private static String appliedChecksum(Connection connection, String name) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(SELECT_CHECKSUM_SQL)) {
+            select.setString(1, name);
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private static String checksum(String sql) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sql.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Splits a script into statements at semicolons outside string literals.
+     * Lines starting with -- are comments.
+     */
+    static List<String> split(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inString = false;
+        for (String line : sql.split("\r?\n")) {
+            if (!inString && line.strip().startsWith("--")) {
+                continue;
+            }
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '\'') {
+                    inString = !inString;
+                }
+                if (c == ';' && !inString) {
+                    addStatement(statements, current);
+                } else {
+                    current.append(c);
+                }
+            }
+            current.append('\n');
+        }
+        if (inString) {
+            throw new IllegalArgumentException("Seed script ends inside a string literal");
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String statement = current.toString().strip();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+
+    /**
+     * Result of one seed run; applied is false when the script was unchanged.
+     */
+    public record SeedReport(String script, String checksum, int statements, boolean applied, Duration elapsed) {
+    }
+}
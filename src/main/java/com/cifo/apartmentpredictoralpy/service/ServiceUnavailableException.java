@@ -0,0 +1,18 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+/**
+ * A request the service cannot serve right now but may serve later: an
+ * in-memory index still being built, no price model trained yet, a full queue.
+ * The message is written for the client and ApiExceptionHandler returns it
+ * with 503 Service Unavailable.
+ */
+public class ServiceUnavailableException extends IllegalStateException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,119 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.time.Instant;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import com.cifo.apartmentpredictoralpy.ml.GradientBoostingParams;
+import com.cifo.apartmentpredictoralpy.ml.PriceModel;
+import com.cifo.apartmentpredictoralpy.ml.TrainingMonitor;
+
+/**
+ * One training run submitted to the ModelRegistry.
+ *
+ * The job is its own TrainingMonitor: the trainer reports every finished tree to
+ * it and stops at the next tree once cancel() has been called. status() gives a
+ * consistent snapshot for callers polling the progress.
+ */
+public final class TrainingJob implements TrainingMonitor {
+
+    public enum State {
+        QUEUED, LOADING_DATA, TRAINING, DONE, FAILED, CANCELLED
+    }
+
+    private final long id;
+    private final String trigger;
+    private final GradientBoostingParams params;
+    private final Instant submittedAt = Instant.now();
+    private final CompletableFuture<PriceModel> result = new CompletableFuture<>();
+
+    private volatile State state = State.QUEUED;
+    private volatile int treesBuilt;
+    private volatile boolean cancelRequested;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    TrainingJob(long id, String trigger, GradientBoostingParams params) {
+        this.id = id;
+        this.trigger = trigger;
+        this.params = params;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public GradientBoostingParams params() {
+        return params;
+    }
+
+    /**
+     * Completes with the published model, or exceptionally when the job fails
+     * or is cancelled (CancellationException).
+     */
+    public CompletableFuture<PriceModel> result() {
+        return result;
+    }
+
+    /**
+     * Asks the job to stop. A queued job never starts; a running one stops
+     * before its next tree and publishes nothing.
+     *
+     * @return false if the job had already finished
+     */
+    public boolean cancel() {
+        if (result.isDone()) {
+            return false;
+        }
+        cancelRequested = true;
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    @Override
+    public void treeBuilt(int built, int total) {
+        treesBuilt = built;
+    }
+
+    void started(State state) {
+        this.state = state;
+    }
+
+    void succeeded(PriceModel model) {
+        finish(State.DONE, null);
+        result.complete(model);
+    }
+
+    void failed(Throwable cause) {
+        if (cause instanceof CancellationException) {
+            finish(State.CANCELLED, null);
+        } else {
+            finish(State.FAILED, cause.toString());
+        }
+        result.completeExceptionally(cause);
+    }
+
+    private void finish(State state, String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.state = state;
+    }
+
+    public Status status() {
+        PriceModel model = result.isDone() && !result.isCompletedExceptionally() ? result.join() : null;
+        return new Status(id, trigger, state, treesBuilt, params.numTrees(),
+                submittedAt, finishedAt, model == null ? null : model.version(), error);
+    }
+
+    public record Status(long id, String trigger, State state, int treesBuilt, int totalTrees,
+                         Instant submittedAt, Instant finishedAt, Long modelVersion, String error) {
+
+        public double progress() {
+            return totalTrees == 0 ? 0 : (double) treesBuilt / totalTrees;
+        }
+    }
+}
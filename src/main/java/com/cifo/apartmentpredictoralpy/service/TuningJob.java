@@ -0,0 +1,121 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import java.time.Instant;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import com.cifo.apartmentpredictoralpy.ml.CrossValidationReport;
+import com.cifo.apartmentpredictoralpy.ml.CrossValidator;
+
+/**
+ * One cross-validated grid search submitted to the ModelTuningService.
+ *
+ * Like TrainingJob, the job is its own monitor: the CrossValidator reports every
+ * finished training run to it, and after cancel() skips the queued runs and
+ * stops the running ones at their next tree.
+ */
+public final class TuningJob implements CrossValidator.Monitor {
+
+    public enum State {
+        QUEUED, LOADING_DATA, RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    private final long id;
+    private final int configurations;
+    private final int folds;
+    private final Instant submittedAt = Instant.now();
+    private final CompletableFuture<CrossValidationReport> result = new CompletableFuture<>();
+
+    private volatile State state = State.QUEUED;
+    private volatile int runsFinished;
+    private volatile boolean cancelRequested;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    TuningJob(long id, int configurations, int folds) {
+        this.id = id;
+        this.configurations = configurations;
+        this.folds = folds;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public int folds() {
+        return folds;
+    }
+
+    /**
+     * Completes with the report, or exceptionally when the job fails or is
+     * cancelled (CancellationException).
+     */
+    public CompletableFuture<CrossValidationReport> result() {
+        return result;
+    }
+
+    /**
+     * Asks the job to stop; a cancelled job reports nothing.
+     *
+     * @return false if the job had already finished
+     */
+    public boolean cancel() {
+        if (result.isDone()) {
+            return false;
+        }
+        cancelRequested = true;
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    @Override
+    public void runFinished(int finished, int total) {
+        runsFinished = finished;
+    }
+
+    void started(State state) {
+        this.state = state;
+    }
+
+    void succeeded(CrossValidationReport report) {
+        finish(State.DONE, null);
+        result.complete(report);
+    }
+
+    void failed(Throwable cause) {
+        if (cause instanceof CancellationException) {
+            finish(State.CANCELLED, null);
+        } else {
+            finish(State.FAILED, cause.toString());
+        }
+        result.completeExceptionally(cause);
+    }
+
+    private void finish(State state, String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.state = state;
+    }
+
+    public Status status() {
+        CrossValidationReport report = result.isDone() && !result.isCompletedExceptionally() ? result.join() : null;
+        return new Status(id, state, configurations, folds, runsFinished, configurations * folds,
+                submittedAt, finishedAt, error, report);
+    }
+
+    /**
+     * @param runsFinished training runs done so far, pruned and skipped ones included
+     * @param report       the results once the job is DONE, otherwise null
+     */
+    public record Status(long id, State state, int configurations, int folds, int runsFinished, int totalRuns,
+                         Instant submittedAt, Instant finishedAt, String error, CrossValidationReport report) {
+
+        public double progress() {
+            return totalRuns == 0 ? 0 : (double) runsFinished / totalRuns;
+        }
+    }
+}
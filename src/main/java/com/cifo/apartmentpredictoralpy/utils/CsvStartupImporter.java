@@ -0,0 +1,34 @@
+package com.cifo.apartmentpredictoralpy.utils;
+
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.cifo.apartmentpredictoralpy.service.ApartmentCsvLoader;
+
+/**
+ * Imports the CSV file set in {@code apartment.import.file} once the application has started.
+ * Does nothing when the property is empty (the default).
+ */
+@Component
+public class CsvStartupImporter implements ApplicationRunner {
+
+    private final ApartmentCsvLoader csvLoader;
+    private final String importFile;
+
+    public CsvStartupImporter(ApartmentCsvLoader csvLoader,
+                              @Value("${apartment.import.file:}") String importFile) {
+        this.csvLoader = csvLoader;
+        this.importFile = importFile;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!importFile.isBlank()) {
+            csvLoader.loadCsv(Path.of(importFile));
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.cifo.apartmentpredictoralpy.utils;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+/**
+ * Diagnostic dump of entities and their associations, one line per entity,
+ * written straight to a Writer. Replaces printing toString() of whole graphs.
+ *
+ * Associations are followed up to apartment.dump.max-depth levels (0 = only the
+ * entity's own columns); beyond that, and for entities already on the current
+ * path (back-references such as review.apartment), only Type#id is printed.
+ * Collections show at most apartment.dump.max-elements elements.
+ *
+ * Nothing is ever loaded: fields are read directly, uninitialised proxies print
+ * as Type#id and collections that are not loaded as {@code <not loaded>}
+ * (PersistenceUnitUtil.isLoaded). Only the current path is remembered, so
+ * dumpAll() over a stream of any length uses constant memory as long as the
+ * caller clears its persistence context now and then.
+ *
+ * Example at depth 1:
+ * Review{id=7, rating=4, ..., reviewer=Reviewer#3, apartment=Apartment{idApartment=1, ..., owner=Owner#5, reviews=[Review#7, Review#8]}}
+ */
+@Component
+public class EntityDumper {
+
+    private final PersistenceUnitUtil persistenceUnitUtil;
+    private final Metamodel metamodel;
+    private final int maxDepth;
+    private final int maxElements;
+    private final Set<Class<?>> entityClasses;
+    /** Attributes of each entity class, id first, then in field declaration order. */
+    private final Map<Class<?>, List<Attribute<?, ?>>> attributes = new ConcurrentHashMap<>();
+
+    public EntityDumper(EntityManagerFactory entityManagerFactory,
+                        @Value("${apartment.dump.max-depth:1}") int maxDepth,
+                        @Value("${apartment.dump.max-elements:20}") int maxElements) {
+        if (maxDepth < 0 || maxElements < 0) {
+            throw new IllegalArgumentException("max-depth and max-elements must not be negative");
+        }
+        this.persistenceUnitUtil = entityManagerFactory.getPersistenceUnitUtil();
+        this.metamodel = entityManagerFactory.getMetamodel();
+        this.maxDepth = maxDepth;
+        this.maxElements = maxElements;
+        this.entityClasses = metamodel.getEntities().stream()
+                .<Class<?>>map(EntityType::getJavaType)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Writes each element on its own line, preceded by its position (#1, #2, ...).
+     * Elements that are not entities are written with toString().
+     *
+     * @return the number of elements written
+     */
+    public long dumpAll(Iterable<?> elements, Writer out) throws IOException {
+        long index = 0;
+        Set<Object> path = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object element : elements) {
+            out.write('#');
+            out.write(Long.toString(++index));
+            out.write(' ');
+            write(element, 0, path, out);
+            out.write('\n');
+        }
+        out.flush();
+        return index;
+    }
+
+    /**
+     * Writes one entity (or any object) without a trailing newline.
+     */
+    public void dump(Object entity, Writer out) throws IOException {
+        write(entity, 0, Collections.newSetFromMap(new IdentityHashMap<>()), out);
+    }
+
+    /**
+     * The dump of one entity as a string, e.g. for log messages.
+     */
+    public String toString(Object entity) {
+        StringWriter out = new StringWriter();
+        try {
+            dump(entity, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private void write(Object value, int depth, Set<Object> path, Writer out) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        if (!entityClasses.contains(Hibernate.getClassLazy(value))) {
+            out.write(value instanceof CharSequence && depth > 0 ? "'" + value + "'" : String.valueOf(value));
+            return;
+        }
+        if (!persistenceUnitUtil.isLoaded(value) || depth > maxDepth || path.contains(value)) {
+            writeReference(value, out);
+            return;
+        }
+
+        Object entity = Hibernate.unproxy(value);
+        path.add(value);
+        out.write(entity.getClass().getSimpleName());
+        out.write('{');
+        boolean first = true;
+        for (Attribute<?, ?> attribute : attributesOf(entity.getClass())) {
+            if (!first) {
+                out.write(", ");
+            }
+            first = false;
+            out.write(attribute.getName());
+            out.write('=');
+            Object field = read(entity, attribute);
+            if (attribute.isCollection()) {
+                writeCollection(entity, attribute, field, depth, path, out);
+            } else {
+                write(field, depth + 1, path, out);
+            }
+        }
+        out.write('}');
+        path.remove(value);
+    }
+
+    private void writeCollection(Object owner, Attribute<?, ?> attribute, Object collection, int depth,
+                                 Set<Object> path, Writer out) throws IOException {
+        if (collection == null) {
+            out.write("null");
+            return;
+        }
+        if (!persistenceUnitUtil.isLoaded(owner, attribute.getName())) {
+            out.write("<not loaded>");
+            return;
+        }
+        Collection<?> elements = collection instanceof Map<?, ?> map ? map.values() : (Collection<?>) collection;
+        out.write('[');
+        int written = 0;
+        for (Iterator<?> it = elements.iterator(); it.hasNext() && written < maxElements; written++) {
+            if (written > 0) {
+                out.write(", ");
+            }
+            write(it.next(), depth + 1, path, out);
+        }
+        if (elements.size() > written) {
+            out.write((written > 0 ? ", ... " : "... ") + (elements.size() - written) + " more");
+        }
+        out.write(']');
+    }
+
+    private void writeReference(Object entity, Writer out) throws IOException {
+        out.write(Hibernate.getClassLazy(entity).getSimpleName());
+        out.write('#');
+        out.write(String.valueOf(persistenceUnitUtil.getIdentifier(entity)));
+    }
+
+    private List<Attribute<?, ?>> attributesOf(Class<?> type) {
+        return attributes.computeIfAbsent(type, t -> {
+            EntityType<?> entityType = metamodel.entity(t);
+            Map<Member, Integer> order = new HashMap<>();
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                hierarchy.addFirst(c);
+            }
+            for (Class<?> c : hierarchy) {
+                for (Field field : c.getDeclaredFields()) {
+                    order.put(field, order.size());
+                }
+            }
+            List<Attribute<?, ?>> sorted = new ArrayList<>(entityType.getAttributes());
+            sorted.sort(Comparator.comparing((Attribute<?, ?> a) -> !isId(a))
+                    .thenComparing(a -> order.getOrDefault(a.getJavaMember(), Integer.MAX_VALUE)));
+            for (Attribute<?, ?> attribute : sorted) {
+                if (attribute.getJavaMember() instanceof Field field) {
+                    field.setAccessible(true);
+                }
+            }
+            return List.copyOf(sorted);
+        });
+    }
+
+    private static boolean isId(Attribute<?, ?> attribute) {
+        return attribute instanceof SingularAttribute<?, ?> singular && singular.isId();
+    }
+
+    /**
+     * Reads the field behind an attribute without calling the getter, so lazy
+     * collections and proxies are returned as they are rather than initialised.
+     */
+    private static Object read(Object entity, Attribute<?, ?> attribute) {
+        if (!(attribute.getJavaMember() instanceof Field field)) {
+            throw new IllegalStateException("Attribute " + attribute.getName() + " is not field-mapped");
+        }
+        try {
+            return field.get(entity);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read " + attribute.getName(), e);
+        }
+    }
+}
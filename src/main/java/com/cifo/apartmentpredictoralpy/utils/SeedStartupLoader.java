@@ -0,0 +1,30 @@
+package com.cifo.apartmentpredictoralpy.utils;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.cifo.apartmentpredictoralpy.service.SeedDataLoader;
+
+/**
+ * Applies the seed script once the application has started, before any CSV
+ * import (see CsvStartupImporter) and before the ApplicationReadyEvent listeners
+ * build their in-memory views. An unchanged seed is skipped.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SeedStartupLoader implements ApplicationRunner {
+
+    private final SeedDataLoader seedDataLoader;
+
+    public SeedStartupLoader(SeedDataLoader seedDataLoader) {
+        this.seedDataLoader = seedDataLoader;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        seedDataLoader.applyConfiguredSeed();
+    }
+}
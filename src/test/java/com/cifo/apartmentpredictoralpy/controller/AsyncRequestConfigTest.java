@@ -0,0 +1,108 @@
+package com.cifo.apartmentpredictoralpy.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@AutoConfigureMockMvc
+public class AsyncRequestConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("apiExecutor")
+    private ExecutorService apiExecutor;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Test
+    void testAsyncListingMatchesSynchronousListing() throws Exception {
+        assertThat(apiExecutor.submit(() -> Thread.currentThread().isVirtual()).get()).isTrue();
+
+        List<Apartment> saved = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Apartment apartment = new Apartment();
+            apartment.setArea(1000 + i);
+            saved.add(apartmentRepository.save(apartment));
+        }
+
+        String expected = mockMvc.perform(get("/api/apartments").param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        MvcResult started = mockMvc.perform(get("/api/apartments/async").param("size", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String actual = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(actual).isEqualTo(expected);
+
+        MvcResult invalid = mockMvc.perform(get("/api/apartments/async").param("size", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(invalid)).andExpect(status().isBadRequest());
+
+        apartmentRepository.deleteAll(saved);
+    }
+
+    @Test
+    void testConcurrentAsyncListingsDoNotPinCarrierThreads() throws Exception {
+        Path dump = Files.createTempFile("pinned", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            List<CompletableFuture<?>> requests = new ArrayList<>();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 200; i++) {
+                    requests.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            MvcResult started = mockMvc.perform(get("/api/apartments/async").param("size", "20"))
+                                    .andReturn();
+                            mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }, clients));
+                }
+                CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).get(1, TimeUnit.MINUTES);
+            }
+
+            recording.stop();
+            recording.dump(dump);
+        }
+        List<RecordedEvent> pinned = RecordingFile.readAllEvents(dump);
+        Files.delete(dump);
+        assertThat(pinned).isEmpty();
+    }
+}
@@ -0,0 +1,68 @@
+package com.cifo.apartmentpredictoralpy.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cifo.apartmentpredictoralpy.ml.GradientBoostingParams;
+import com.cifo.apartmentpredictoralpy.service.ModelRegistry;
+
+@SpringBootTest(properties = "apartment.prediction.max-batch-rows=3")
+@AutoConfigureMockMvc
+public class PricePredictionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ModelRegistry modelRegistry;
+
+    @Test
+    void testBatchAtTheRowCapIsPredicted() throws Exception {
+        modelRegistry.submit(new GradientBoostingParams(5, 3, 0.1, 1, 1.0, 255)).result().get(1, TimeUnit.MINUTES);
+
+        mockMvc.perform(post("/api/predictions/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"area\": [7420, 8960, 9960], \"bedrooms\": [4, 4, null]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.prices.length()").value(3));
+    }
+
+    @Test
+    void testBatchOverTheRowCapIsRejected() throws Exception {
+        mockMvc.perform(post("/api/predictions/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"area\": [1, 2, 3, 4], \"bedrooms\": [1, 2, 3, 4]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("At most 3 rows can be predicted per request"));
+        mockMvc.perform(post("/api/predictions/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"area\": [1, 2, 3], \"bedrooms\": [1, 2]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/predictions/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"area\": [1], \"area\": [2]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Feature 'area' is given twice"));
+    }
+
+    @Test
+    void testBatchStopsReadingAtTheRowCap() throws Exception {
+        // Whatever follows the fourth value is never read
+        mockMvc.perform(post("/api/predictions/batch/async").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"area\": [1, 2, 3, 4, not even json"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("At most 3 rows can be predicted per request"));
+        mockMvc.perform(post("/api/predictions/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"area\": [1, 2, \"3\"]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/predictions/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"area\": [1, 2"))
+                .andExpect(status().isBadRequest());
+    }
+}
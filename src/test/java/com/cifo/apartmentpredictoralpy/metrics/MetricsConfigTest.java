@@ -0,0 +1,94 @@
+package com.cifo.apartmentpredictoralpy.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cifo.apartmentpredictoralpy.ml.GradientBoostingParams;
+import com.cifo.apartmentpredictoralpy.ml.PriceModel;
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+import com.cifo.apartmentpredictoralpy.service.ApartmentService;
+import com.cifo.apartmentpredictoralpy.service.ModelRegistry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MetricsConfigTest {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private ApartmentService apartmentService;
+
+    @Autowired
+    private ModelRegistry modelRegistry;
+
+    @Test
+    void testRepositoryRowsAndQueriesPerRequest() throws Exception {
+        double before = rows("saveAll");
+        List<Apartment> saved = new ArrayList<>();
+        apartmentRepository.saveAll(List.of(new Apartment(), new Apartment(), new Apartment())).forEach(saved::add);
+        assertThat(rows("saveAll") - before).isEqualTo(3);
+        assertThat(registry.find("spring.data.repository.invocations")
+                .tag("repository", "ApartmentRepository").tag("method", "saveAll").timer()).isNotNull();
+
+        mockMvc.perform(get("/api/apartments").param("size", "5")).andExpect(status().isOk());
+        assertThat(registry.get("apartment.http.queries").tag("uri", "/api/apartments").summary().max())
+                .isGreaterThanOrEqualTo(1);
+        assertThat(registry.get("apartment.service").tag("operation", "listApartments").timer().count())
+                .isPositive();
+        assertThat(registry.find("hibernate.statements").functionCounter()).isNotNull();
+
+        apartmentRepository.deleteAll(saved);
+    }
+
+    @Test
+    void testPredictionLatencyIsTaggedWithModelVersion() throws Exception {
+        Random random = new Random(3);
+        List<Apartment> apartments = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Apartment apartment = new Apartment();
+            apartment.setArea(2000 + random.nextInt(8000));
+            apartment.setBedrooms(1 + random.nextInt(5));
+            apartment.setPrice(apartment.getArea() * 1000);
+            apartments.add(apartment);
+        }
+        PriceModel model = modelRegistry.submit(apartments, new GradientBoostingParams(5, 3, 0.1, 2, 1.0, 255))
+                .result().get(1, TimeUnit.MINUTES);
+
+        apartmentService.predictPrice(apartments.get(0));
+        apartmentService.predictPrices(apartments);
+
+        String version = Long.toString(model.version());
+        assertThat(registry.get("apartment.prediction").tag("model.version", version).tag("kind", "single")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("apartment.prediction.rows").tag("model.version", version).counter().count())
+                .isEqualTo(100);
+    }
+
+    private double rows(String method) {
+        var counter = registry.find("apartment.repository.rows")
+                .tag("repository", "ApartmentRepository").tag("method", method).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,133 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+public class ApartmentFeatureMatrixTest {
+
+    private static final String[] FURNISHING = {"Furnished", "Semi-Furnished", "Unfurnished", "unknown", null};
+
+    static List<ApartmentSummary> randomSummaries(int count, Random random) {
+        List<ApartmentSummary> rows = new ArrayList<>();
+        long id = 0;
+        for (int i = 0; i < count; i++) {
+            id += 1 + random.nextInt(3);
+            rows.add(new ApartmentSummary(id,
+                    random.nextInt(10) == 0 ? null : 40_000 + random.nextInt(200_000),
+                    random.nextInt(20) == 0 ? null : 30 + random.nextInt(300),
+                    1 + random.nextInt(5), random.nextInt(10) == 0 ? null : 1 + random.nextInt(3),
+                    1 + random.nextInt(4),
+                    random.nextBoolean(), random.nextBoolean(), random.nextBoolean(), random.nextBoolean(),
+                    random.nextBoolean(), random.nextBoolean(), random.nextInt(4), random.nextBoolean(),
+                    FURNISHING[random.nextInt(FURNISHING.length)]));
+        }
+        return rows;
+    }
+
+    private static ApartmentFeatureMatrix build(List<ApartmentSummary> rows) {
+        ApartmentFeatureMatrix.Builder builder = new ApartmentFeatureMatrix.Builder();
+        rows.forEach(builder::add);
+        return builder.build();
+    }
+
+    private static void assertSameRows(ApartmentFeatureMatrix matrix, List<ApartmentSummary> expected) {
+        assertThat(matrix.rows()).isEqualTo(expected.size());
+        for (int r = 0; r < expected.size(); r++) {
+            ApartmentSummary apartment = expected.get(r);
+            float[] features = ApartmentFeatures.encode(apartment);
+            assertThat(matrix.id(r)).isEqualTo(apartment.idApartment());
+            assertThat(matrix.rowOf(apartment.idApartment())).isEqualTo(r);
+            for (int f = 0; f < ApartmentFeatures.COUNT; f++) {
+                assertThat(matrix.value(r, f)).as("row %d feature %d", r, f).isEqualTo(Float.valueOf(features[f]));
+            }
+            assertThat(matrix.label(r)).isEqualTo(apartment.price() == null ? Float.valueOf(Float.NaN)
+                    : Float.valueOf(apartment.price()));
+            assertThat(matrix.furnishingstatus(r)).isEqualTo(apartment.furnishingstatus() == null ? null
+                    : apartment.furnishingstatus().trim().toLowerCase(Locale.ROOT));
+            assertThat(matrix.flag(r, ApartmentFeatures.PREFAREA)).isEqualTo(apartment.prefarea());
+        }
+    }
+
+    @Test
+    void testColumnsMatchTheFeatureEncoding() {
+        List<ApartmentSummary> rows = randomSummaries(1_000, new Random(7));
+        ApartmentFeatureMatrix matrix = build(rows);
+
+        assertSameRows(matrix, rows);
+        assertThat(matrix.rowOf(0)).isEqualTo(-1);
+        assertThat(matrix.priced().rows()).isEqualTo(matrix.pricedRows())
+                .isEqualTo((int) rows.stream().filter(a -> a.price() != null).count());
+        assertThat(matrix.priced().label(0)).isNotNaN();
+        // 8 (id) + 6 * 4 (int columns) + 1 (furnishing) + 7 bits, against hundreds for an entity
+        assertThat(matrix.memoryBytes() / (double) matrix.rows()).isLessThan(35);
+    }
+
+    @Test
+    void testWithChangesReplacesAddsAndRemovesRows() {
+        List<ApartmentSummary> rows = randomSummaries(300, new Random(11));
+        ApartmentFeatureMatrix matrix = build(rows);
+        List<ApartmentSummary> fresh = randomSummaries(3, new Random(12));
+        ApartmentSummary changed = new ApartmentSummary(rows.get(10).idApartment(), 1, 2, 3, 4, 5,
+                true, true, true, true, true, true, 6, true, "Brand-New");
+        ApartmentSummary added = new ApartmentSummary(rows.getLast().idApartment() + 5, null, null, null, null,
+                null, false, false, false, false, false, false, 0, false, null);
+        ApartmentSummary inserted = new ApartmentSummary(rows.get(20).idApartment() + 1, 7, 8, 9, 1, 2,
+                false, true, false, true, false, true, 1, false, fresh.get(0).furnishingstatus());
+        long removed = rows.get(0).idApartment();
+
+        ApartmentFeatureMatrix next = matrix.withChanges(List.of(added, changed, inserted), Set.of(removed));
+
+        List<ApartmentSummary> expected = new ArrayList<>(rows);
+        expected.set(10, changed);
+        if (rows.get(21).idApartment() != inserted.idApartment()) {
+            expected.add(21, inserted);
+        } else {
+            expected.set(21, inserted);
+        }
+        expected.add(added);
+        expected.remove(0);
+        assertSameRows(next, expected);
+        assertSameRows(matrix, rows);
+        assertThat(matrix.withChanges(List.of(), Set.of())).isSameAs(matrix);
+    }
+
+    @Test
+    void testFurnishingIsNormalisedAndFreeTextCannotOverflowTheDictionary() {
+        List<ApartmentSummary> rows = new ArrayList<>();
+        for (int id = 1; id <= 200; id++) {
+            rows.add(new ApartmentSummary(id, 100_000, 50, 1, 1, 1, false, false, false, false, false, false, 0,
+                    false, "listing " + id));
+        }
+        rows.add(new ApartmentSummary(201, 100_000, 50, 1, 1, 1, false, false, false, false, false, false, 0,
+                false, " FURNISHED "));
+
+        ApartmentFeatureMatrix matrix = build(rows);
+
+        assertThat(matrix.furnishingstatus(0)).isEqualTo("listing 1");
+        assertThat(matrix.furnishingstatus(199)).isNull();
+        assertThat(matrix.value(199, ApartmentFeatures.FURNISHING)).isNaN();
+        assertThat(matrix.furnishingstatus(200)).isEqualTo("furnished");
+        assertThat(matrix.value(200, ApartmentFeatures.FURNISHING)).isEqualTo(2f);
+    }
+
+    @Test
+    void testRowsMustArriveInIdOrder() {
+        ApartmentFeatureMatrix.Builder builder = new ApartmentFeatureMatrix.Builder();
+        List<ApartmentSummary> rows = randomSummaries(2, new Random(3));
+        builder.add(rows.get(1));
+
+        assertThatThrownBy(() -> builder.add(rows.get(0))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ApartmentFeatureMatrix.EMPTY.flag(0, ApartmentFeatures.AREA))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,88 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class CrossValidatorTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final CrossValidator crossValidator = new CrossValidator(new GradientBoostingTrainer(pool), pool);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testGridIsRankedByOutOfFoldError() {
+        ArrayFeatureSource rows = GradientBoostingTrainerTest.syntheticRows(3_000, new Random(4));
+        ParameterGrid grid = new ParameterGrid(List.of(30), List.of(1, 4), List.of(0.05, 0.3), null, null, null);
+
+        CrossValidationReport report = crossValidator.run(rows, grid.expand(), 4, 1,
+                Double.POSITIVE_INFINITY, CrossValidator.Monitor.NONE);
+
+        assertThat(report.results()).hasSize(4).noneMatch(CrossValidationReport.Result::pruned)
+                .allMatch(r -> r.foldsCompleted() == 4 && r.rmse() >= r.mae() && !r.foldRmse().contains(null));
+        assertThat(report.results()).extracting(CrossValidationReport.Result::rmse).isSorted();
+        CrossValidationReport.Result best = report.best().orElseThrow();
+        assertThat(best.params().maxDepth()).isEqualTo(4);
+        assertThat(best.params().learningRate()).isEqualTo(0.3);
+        assertThat(report.rows()).isEqualTo(3_000);
+        assertThat(report.wallClock()).isPositive();
+    }
+
+    @Test
+    void testClearlyLosingConfigurationsArePruned() {
+        ArrayFeatureSource rows = GradientBoostingTrainerTest.syntheticRows(3_000, new Random(5));
+        GradientBoostingParams good = new GradientBoostingParams(60, 4, 0.3, 5, 1.0, 255);
+        GradientBoostingParams bad = new GradientBoostingParams(60, 1, 0.01, 5, 1.0, 255);
+        int[] runs = new int[1];
+        CrossValidator.Monitor monitor = new CrossValidator.Monitor() {
+            @Override
+            public void runFinished(int finished, int total) {
+                runs[0] = Math.max(runs[0], finished);
+                assertThat(total).isEqualTo(10);
+            }
+        };
+
+        // One worker runs the folds in submission order, so fold 0 of both is done first
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            CrossValidationReport report = new CrossValidator(new GradientBoostingTrainer(single), single)
+                    .run(rows, List.of(bad, good), 5, 1, 0.25, monitor);
+
+            assertThat(report.best().orElseThrow().params()).isEqualTo(good);
+            assertThat(report.results().get(0).foldsCompleted()).isEqualTo(5);
+            CrossValidationReport.Result loser = report.results().get(1);
+            assertThat(loser.params()).isEqualTo(bad);
+            assertThat(loser.pruned()).isTrue();
+            assertThat(loser.foldsCompleted()).isLessThan(5);
+            assertThat(runs[0]).isEqualTo(10);
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    void testCancelledRunThrows() {
+        ArrayFeatureSource rows = GradientBoostingTrainerTest.syntheticRows(500, new Random(6));
+
+        assertThatThrownBy(() -> crossValidator.run(rows, List.of(GradientBoostingParams.DEFAULTS), 3, 1, 0.25,
+                new CrossValidator.Monitor() {
+                    @Override
+                    public boolean isCancelled() {
+                        return true;
+                    }
+                })).isInstanceOf(CancellationException.class);
+        assertThatThrownBy(() -> crossValidator.run(rows, List.of(GradientBoostingParams.DEFAULTS), 1, 1, 0.25,
+                CrossValidator.Monitor.NONE)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
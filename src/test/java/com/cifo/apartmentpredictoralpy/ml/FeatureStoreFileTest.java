@@ -0,0 +1,130 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FeatureStoreFileTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private static void appendAll(Path file, FeatureSource rows, int from, int to) throws IOException {
+        float[] features = new float[ApartmentFeatures.COUNT];
+        try (FeatureStoreFile.Appender appender = FeatureStoreFile.append(file)) {
+            for (int r = from; r < to; r++) {
+                for (int f = 0; f < features.length; f++) {
+                    features[f] = rows.value(r, f);
+                }
+                appender.append(r + 1, features, rows.label(r));
+            }
+        }
+    }
+
+    @Test
+    void testAppendedRowsReadBackAcrossSegments() throws IOException {
+        ArrayFeatureSource rows = GradientBoostingTrainerTest.syntheticRows(5_000, new Random(5));
+        Path file = directory.resolve("store/features.bin");
+        appendAll(file, rows, 0, 3_000);
+        appendAll(file, rows, 3_000, 5_000);
+
+        MappedFeatureSource mapped = FeatureStoreFile.map(file, 700);
+
+        assertThat(mapped.rows()).isEqualTo(5_000);
+        assertThat(mapped.mappedBytes()).isEqualTo(5_000L * FeatureStoreFile.ROW_BYTES);
+        for (int r = 0; r < rows.rows(); r++) {
+            assertThat(mapped.id(r)).isEqualTo(r + 1);
+            assertThat(mapped.label(r)).isEqualTo(rows.label(r));
+            for (int f = 0; f < ApartmentFeatures.COUNT; f++) {
+                assertThat(mapped.value(r, f)).isEqualTo(rows.value(r, f));
+            }
+        }
+    }
+
+    @Test
+    void testTrainingFromTheMappedFileMatchesTheHeapRows() throws IOException {
+        ArrayFeatureSource rows = GradientBoostingTrainerTest.syntheticRows(4_000, new Random(9));
+        Path file = directory.resolve("features.bin");
+        appendAll(file, rows, 0, rows.rows());
+        GradientBoostingParams params = new GradientBoostingParams(15, 4, 0.1, 5, 1.0, 255);
+        GradientBoostingTrainer trainer = new GradientBoostingTrainer(pool);
+
+        PriceModel fromHeap = trainer.train(rows, params);
+        PriceModel fromDisk = trainer.train(FeatureStoreFile.map(file, 1_000), params);
+
+        float[] row = new float[ApartmentFeatures.COUNT];
+        for (int r = 0; r < rows.rows(); r += 97) {
+            for (int f = 0; f < row.length; f++) {
+                row[f] = rows.value(r, f);
+            }
+            assertThat(fromDisk.predict(row, 0)).isEqualTo(fromHeap.predict(row, 0));
+        }
+    }
+
+    @Test
+    void testNewestRowPerApartmentWins() throws IOException {
+        Path file = directory.resolve("features.bin");
+        float[] features = new float[ApartmentFeatures.COUNT];
+        try (FeatureStoreFile.Appender appender = FeatureStoreFile.append(file)) {
+            for (int id = 1; id <= 3; id++) {
+                appender.append(id, features, id * 100f);
+            }
+            appender.append(2, features, 250f);
+            appender.appendRemoval(3);
+            appender.appendRemoval(1);
+            appender.append(1, features, 150f);
+        }
+
+        MappedFeatureSource all = FeatureStoreFile.map(file);
+        MappedFeatureSource latest = all.latest();
+
+        assertThat(all.rows()).isEqualTo(7);
+        assertThat(latest.rows()).isEqualTo(2);
+        assertThat(latest.mappedBytes()).isEqualTo(all.mappedBytes());
+        assertThat(latest.id(0)).isEqualTo(2);
+        assertThat(latest.label(0)).isEqualTo(250f);
+        assertThat(latest.id(1)).isEqualTo(1);
+        assertThat(latest.label(1)).isEqualTo(150f);
+        assertThatThrownBy(() -> latest.label(2)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void testTornRowIsDroppedAndForeignFilesAreRejected() throws IOException {
+        ArrayFeatureSource rows = GradientBoostingTrainerTest.syntheticRows(10, new Random(2));
+        Path file = directory.resolve("features.bin");
+        appendAll(file, rows, 0, 10);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(FeatureStoreFile.ROW_BYTES / 2));
+        }
+
+        assertThat(FeatureStoreFile.map(file).rows()).isEqualTo(10);
+        try (FeatureStoreFile.Appender appender = FeatureStoreFile.append(file)) {
+            assertThat(appender.rows()).isEqualTo(10);
+        }
+        assertThat(Files.size(file) % FeatureStoreFile.ROW_BYTES).isZero();
+
+        Path other = directory.resolve("other.bin");
+        Files.write(other, new byte[128]);
+        assertThatThrownBy(() -> FeatureStoreFile.map(other)).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> FeatureStoreFile.append(other)).isInstanceOf(IOException.class);
+    }
+}
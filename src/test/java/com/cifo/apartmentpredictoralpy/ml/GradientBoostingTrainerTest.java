@@ -0,0 +1,96 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class GradientBoostingTrainerTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final GradientBoostingTrainer trainer = new GradientBoostingTrainer(pool);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testLearnsPriceFunction() {
+        ArrayFeatureSource train = syntheticRows(50_000, new Random(1));
+        ArrayFeatureSource test = syntheticRows(2_000, new Random(2));
+
+        PriceModel model = trainer.train(train, new GradientBoostingParams(150, 6, 0.2, 5, 1.0, 255));
+
+        double errorSum = 0;
+        double priceSum = 0;
+        float[] row = new float[ApartmentFeatures.COUNT];
+        for (int r = 0; r < test.rows(); r++) {
+            for (int f = 0; f < row.length; f++) {
+                row[f] = test.value(r, f);
+            }
+            errorSum += Math.abs(model.predict(row, 0) - test.label(r));
+            priceSum += test.label(r);
+        }
+        // Noise is +-2% of the price, so the mean error should be a few percent at most
+        assertThat(errorSum / priceSum).isLessThan(0.05);
+        assertThat(model.treeCount()).isEqualTo(150);
+    }
+
+    @Test
+    void testMissingValuesStillPredict() {
+        PriceModel model = trainer.train(syntheticRows(5_000, new Random(3)), GradientBoostingParams.DEFAULTS);
+
+        float[] row = new float[ApartmentFeatures.COUNT];
+        Arrays.fill(row, Float.NaN);
+
+        assertThat(model.predict(row, 0)).isFinite().isPositive();
+    }
+
+    @Test
+    void testBinsSplitBetweenDistinctValues() {
+        float[] values = new float[4 * ApartmentFeatures.COUNT];
+        float[] labels = new float[4];
+        values[0] = 10;
+        values[ApartmentFeatures.COUNT] = 20;
+        values[2 * ApartmentFeatures.COUNT] = 20;
+        values[3 * ApartmentFeatures.COUNT] = Float.NaN;
+
+        BinnedFeatures binned = BinnedFeatures.build(new ArrayFeatureSource(values, labels), 255, pool);
+
+        assertThat(binned.valueBins(ApartmentFeatures.AREA)).isEqualTo(2);
+        assertThat(binned.upperBound(ApartmentFeatures.AREA, 0)).isEqualTo(15f);
+        assertThat(binned.bin(ApartmentFeatures.AREA, 0)).isEqualTo(0);
+        assertThat(binned.bin(ApartmentFeatures.AREA, 1)).isEqualTo(1);
+        assertThat(binned.bin(ApartmentFeatures.AREA, 3)).isEqualTo(2);
+    }
+
+    static ArrayFeatureSource syntheticRows(int rows, Random random) {
+        float[] values = new float[rows * ApartmentFeatures.COUNT];
+        float[] labels = new float[rows];
+        for (int r = 0; r < rows; r++) {
+            int o = r * ApartmentFeatures.COUNT;
+            int area = 1500 + random.nextInt(15000);
+            int bedrooms = 1 + random.nextInt(6);
+            int bathrooms = 1 + random.nextInt(4);
+            boolean prefarea = random.nextBoolean();
+            int furnishing = random.nextInt(3);
+            values[o + ApartmentFeatures.AREA] = area;
+            values[o + ApartmentFeatures.BEDROOMS] = bedrooms;
+            values[o + ApartmentFeatures.BATHROOMS] = bathrooms;
+            values[o + ApartmentFeatures.STORIES] = 1 + random.nextInt(4);
+            values[o + ApartmentFeatures.PARKING] = random.nextInt(4);
+            values[o + ApartmentFeatures.MAINROAD] = random.nextBoolean() ? 1 : 0;
+            values[o + ApartmentFeatures.PREFAREA] = prefarea ? 1 : 0;
+            values[o + ApartmentFeatures.FURNISHING] = furnishing;
+            double price = 400 * area + 150_000 * bedrooms + 500_000 * bathrooms
+                    + (prefarea ? 800_000 : 0) + 250_000 * furnishing;
+            labels[r] = (float) (price * (0.98 + 0.04 * random.nextDouble()));
+        }
+        return new ArrayFeatureSource(values, labels);
+    }
+}
@@ -0,0 +1,104 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class PredictionBatcherTest {
+
+    private static PriceModel model;
+    private static ArrayFeatureSource rows;
+
+    @BeforeAll
+    static void train() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        model = new GradientBoostingTrainer(pool).train(
+                GradientBoostingTrainerTest.syntheticRows(2_000, new Random(1)), GradientBoostingParams.DEFAULTS);
+        pool.shutdown();
+        rows = GradientBoostingTrainerTest.syntheticRows(500, new Random(2));
+    }
+
+    @Test
+    void testConcurrentRequestsAreScoredTogether() throws Exception {
+        try (PredictionBatcher batcher = new PredictionBatcher(64, Duration.ofMillis(50), 1000, 1)) {
+            List<CompletableFuture<Double>> futures = new ArrayList<>();
+            for (int r = 0; r < rows.rows(); r++) {
+                futures.add(batcher.submit(model, row(r)));
+            }
+            for (int r = 0; r < rows.rows(); r++) {
+                assertThat(futures.get(r).get(10, TimeUnit.SECONDS)).isEqualTo(model.predict(row(r), 0));
+            }
+
+            PredictionBatcher.Stats stats = batcher.stats();
+            assertThat(stats.rows()).isEqualTo(rows.rows());
+            assertThat(stats.batches()).isLessThan(rows.rows() / 10);
+            assertThat(stats.rejected()).isZero();
+        }
+    }
+
+    @Test
+    void testLoneRequestIsScoredAtOnce() throws Exception {
+        try (PredictionBatcher batcher = new PredictionBatcher(64, Duration.ofSeconds(30), 10, 1)) {
+            for (int r = 0; r < 3; r++) {
+                long start = System.nanoTime();
+                double price = batcher.submit(model, row(r)).get(10, TimeUnit.SECONDS);
+
+                assertThat(price).isEqualTo(model.predict(row(r), 0));
+                assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+            }
+            assertThat(batcher.stats().batches()).isEqualTo(3);
+            assertThat(batcher.stats().rows()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void testFullQueueRejectsAtOnce() throws Exception {
+        try (PredictionBatcher batcher = new PredictionBatcher(1, Duration.ZERO, 1, 1)) {
+            List<CompletableFuture<Double>> accepted = new ArrayList<>();
+            List<Integer> acceptedRows = new ArrayList<>();
+            int rejected = 0;
+            for (int i = 0; i < 5_000; i++) {
+                int r = i % rows.rows();
+                try {
+                    accepted.add(batcher.submit(model, row(r)));
+                    acceptedRows.add(r);
+                } catch (IllegalStateException e) {
+                    rejected++;
+                }
+            }
+            for (int i = 0; i < accepted.size(); i++) {
+                assertThat(accepted.get(i).get(10, TimeUnit.SECONDS)).isEqualTo(model.predict(row(acceptedRows.get(i)), 0));
+            }
+
+            assertThat(rejected).isPositive();
+            assertThat(batcher.stats().rejected()).isEqualTo(rejected);
+        }
+    }
+
+    @Test
+    void testClosedBatcherRejects() {
+        PredictionBatcher batcher = new PredictionBatcher(8, Duration.ofMillis(1), 10, 2);
+        batcher.close();
+
+        assertThatThrownBy(() -> batcher.submit(model, row(0))).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> batcher.submit(model, new float[3])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static float[] row(int r) {
+        float[] row = new float[ApartmentFeatures.COUNT];
+        for (int f = 0; f < ApartmentFeatures.COUNT; f++) {
+            row[f] = rows.value(r, f);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,87 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+public class PredictionCacheTest {
+
+    @Test
+    void testKeyIsExactForEveryFeature() {
+        float[] base = features(7420, 4, 2, 3, 2);
+        long baseKey = PredictionCache.key(base, 0);
+        assertThat(baseKey).isNotEqualTo(PredictionCache.NOT_CACHEABLE);
+
+        for (int f = 0; f < ApartmentFeatures.COUNT; f++) {
+            float[] changed = base.clone();
+            changed[f] = f >= ApartmentFeatures.MAINROAD && f <= ApartmentFeatures.PREFAREA ? 1 - changed[f] : changed[f] + 1;
+            if (f == ApartmentFeatures.FURNISHING) {
+                changed[f] = 0;
+            }
+            assertThat(PredictionCache.key(changed, 0)).as("feature %d", f).isNotEqualTo(baseKey);
+        }
+    }
+
+    @Test
+    void testValuesThatDoNotFitAreNotCached() {
+        assertThat(PredictionCache.key(features(2_000_000, 4, 2, 3, 2), 0)).isEqualTo(PredictionCache.NOT_CACHEABLE);
+        assertThat(PredictionCache.key(features(7420, 20, 2, 3, 2), 0)).isEqualTo(PredictionCache.NOT_CACHEABLE);
+        assertThat(PredictionCache.key(features(7420.5f, 4, 2, 3, 2), 0)).isEqualTo(PredictionCache.NOT_CACHEABLE);
+        assertThat(PredictionCache.key(features(Float.NaN, 4, 2, 3, 2), 0)).isNotEqualTo(PredictionCache.NOT_CACHEABLE);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        PredictionCache cache = new PredictionCache(2, Duration.ofMinutes(1));
+        cache.put(1, 7, 100);
+        cache.put(2, 7, 200);
+        cache.get(1, 7);
+        cache.put(3, 7, 300);
+
+        assertThat(cache.get(1, 7)).isEqualTo(100);
+        assertThat(cache.get(2, 7)).isNaN();
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void testOtherModelVersionsAndExpiredEntriesMiss() throws Exception {
+        PredictionCache cache = new PredictionCache(10, Duration.ofMillis(20));
+        cache.put(1, 7, 100);
+
+        assertThat(cache.get(1, 8)).isNaN();
+        cache.put(2, 7, 200);
+        Thread.sleep(40);
+        assertThat(cache.get(2, 7)).isNaN();
+
+        PredictionCache.Stats stats = cache.stats();
+        assertThat(stats.hits()).isZero();
+        assertThat(stats.misses()).isEqualTo(2);
+        assertThat(stats.size()).isZero();
+    }
+
+    @Test
+    void testInvalidateAllDropsEverything() {
+        PredictionCache cache = new PredictionCache(10, Duration.ofMinutes(1));
+        cache.put(1, 7, 100);
+        cache.put(2, 7, 200);
+
+        cache.invalidateAll();
+
+        assertThat(cache.get(1, 7)).isNaN();
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    private static float[] features(float area, float bedrooms, float bathrooms, float stories, float parking) {
+        float[] f = new float[ApartmentFeatures.COUNT];
+        f[ApartmentFeatures.AREA] = area;
+        f[ApartmentFeatures.BEDROOMS] = bedrooms;
+        f[ApartmentFeatures.BATHROOMS] = bathrooms;
+        f[ApartmentFeatures.STORIES] = stories;
+        f[ApartmentFeatures.PARKING] = parking;
+        f[ApartmentFeatures.MAINROAD] = 1;
+        f[ApartmentFeatures.FURNISHING] = 2;
+        return f;
+    }
+}
@@ -0,0 +1,85 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PriceModelFileTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private PriceModel trainModel() {
+        return new GradientBoostingTrainer(pool).train(
+                GradientBoostingTrainerTest.syntheticRows(2_000, new Random(1)),
+                new GradientBoostingParams(20, 4, 0.1, 5, 1.0, 255));
+    }
+
+    @Test
+    void testRoundTripKeepsPredictions() throws IOException {
+        PriceModel model = trainModel();
+        Path file = directory.resolve("models/price-model.bin");
+
+        PriceModelFile.write(model, file);
+        PriceModel loaded = PriceModelFile.read(file);
+
+        assertThat(loaded.version()).isEqualTo(model.version());
+        assertThat(loaded.trainedAt()).isEqualTo(model.trainedAt());
+        assertThat(loaded.treeCount()).isEqualTo(model.treeCount());
+        assertThat(loaded.nodeCount()).isEqualTo(model.nodeCount());
+        ArrayFeatureSource rows = GradientBoostingTrainerTest.syntheticRows(200, new Random(2));
+        float[] row = new float[ApartmentFeatures.COUNT];
+        for (int r = 0; r < rows.rows(); r++) {
+            for (int f = 0; f < ApartmentFeatures.COUNT; f++) {
+                row[f] = rows.value(r, f);
+            }
+            assertThat(loaded.predict(row, 0)).isEqualTo(model.predict(row, 0));
+        }
+        try (var files = Files.list(file.getParent())) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void testRejectsCorruptFile() throws IOException {
+        Path file = directory.resolve("price-model.bin");
+        PriceModelFile.write(trainModel(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+
+        assertThatThrownBy(() -> PriceModelFile.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("checksum");
+    }
+
+    @Test
+    void testRejectsModelTrainedOnOtherFeatures() throws IOException {
+        Path file = directory.resolve("price-model.bin");
+        List<String> features = new ArrayList<>(ApartmentFeatures.FEATURE_NAMES);
+        features.set(ApartmentFeatures.PARKING, "garage");
+        PriceModelFile.write(trainModel(), file, features);
+
+        assertThatThrownBy(() -> PriceModelFile.read(file))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("garage");
+    }
+}
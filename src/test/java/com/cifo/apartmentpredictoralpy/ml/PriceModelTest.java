@@ -0,0 +1,50 @@
+package com.cifo.apartmentpredictoralpy.ml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class PriceModelTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testBatchPredictionMatchesSingleRows() {
+        PriceModel model = new GradientBoostingTrainer(pool).train(
+                GradientBoostingTrainerTest.syntheticRows(5_000, new Random(1)), GradientBoostingParams.DEFAULTS);
+        ArrayFeatureSource rows = GradientBoostingTrainerTest.syntheticRows(1_000, new Random(2));
+        float[][] columns = new float[ApartmentFeatures.COUNT][rows.rows()];
+        float[] row = new float[ApartmentFeatures.COUNT];
+        double[] expected = new double[rows.rows()];
+        for (int r = 0; r < rows.rows(); r++) {
+            for (int f = 0; f < ApartmentFeatures.COUNT; f++) {
+                row[f] = rows.value(r, f);
+                columns[f][r] = row[f];
+            }
+            expected[r] = model.predict(row, 0);
+        }
+
+        assertThat(model.predictBatch(columns, null)).containsExactly(expected);
+        assertThat(model.predictBatch(columns, pool)).containsExactly(expected);
+    }
+
+    @Test
+    void testRejectsRaggedColumns() {
+        PriceModel model = new GradientBoostingTrainer(pool).train(
+                GradientBoostingTrainerTest.syntheticRows(500, new Random(1)), GradientBoostingParams.DEFAULTS);
+        float[][] columns = new float[ApartmentFeatures.COUNT][3];
+        columns[4] = new float[2];
+
+        assertThatThrownBy(() -> model.predictBatch(columns, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
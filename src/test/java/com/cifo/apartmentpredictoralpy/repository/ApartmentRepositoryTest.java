@@ -2,15 +2,21 @@ package com.cifo.apartmentpredictoralpy.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
 
 import com.cifo.apartmentpredictoralpy.model.Owner;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 //import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 
 import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
 import com.cifo.apartmentpredictoralpy.model.Owner;
+import com.cifo.apartmentpredictoralpy.model.Review;
 
 /**
  * NOTE: Difference between @SpringBootTest and @DataJpaTest
@@ -33,11 +39,18 @@ import com.cifo.apartmentpredictoralpy.model.Owner;
 
 //@DataJpaTest 
 @SpringBootTest
+@Import(QueryPlans.class)
 public class ApartmentRepositoryTest {
 
     @Autowired
     private ApartmentRepository apartmentRepository;
 
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private QueryPlans queryPlans;
+
     @Test
     void testCreateAndPersistApartment() {
 
@@ -72,5 +85,84 @@ public class ApartmentRepositoryTest {
         assertThat(saved.getPrice()).isEqualTo(150000);
     }
 
+    @Test
+    void testBulkSaveApartmentsWithReviews() {
+
+        List<Apartment> apartments = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Apartment apartment = new Apartment();
+            apartment.setPrice(100000 + i);
+            apartment.setArea(60 + i);
+            apartment.addReview(new Review(null, 4, "Bulk review " + i));
+            apartments.add(apartment);
+        }
+
+        long before = apartmentRepository.count();
+        long saved = apartmentRepository.bulkSave(apartments);
+
+        assertThat(saved).isEqualTo(120);
+        assertThat(apartmentRepository.count()).isEqualTo(before + 120);
+        // Ids come from APARTMENT_SEQ, above the ids reserved for seed.sql
+        assertThat(apartments).allSatisfy(a -> assertThat(a.getIdApartment()).isGreaterThan(20));
+
+        // Every test class shares the JVM's in-memory database, so leave no rows behind for the others
+        apartmentRepository.deleteAll(apartmentRepository.findAllById(
+                apartments.stream().map(Apartment::getIdApartment).toList()));
+    }
+
+    @Test
+    void testFilterFindersReturnMatchingApartments() {
+        Owner owner = new Owner(0, "Index Owner", "index@example.com", 45);
+        List<Apartment> apartments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Apartment apartment = new Apartment();
+            apartment.setPrice(9_100_000 + i);
+            apartment.setArea(91_000 + i);
+            apartment.setBedrooms(91);
+            apartment.setBathrooms(90 + i);
+            apartment.setPrefarea(true);
+            apartment.setFurnishingstatus("Index-Furnished");
+            owner.addApartment(apartment);
+            apartments.add(apartment);
+        }
+        apartmentRepository.saveAll(apartments);
+        long idOwner = apartments.get(0).getOwner().getIdPerson();
+
+        assertThat(apartmentRepository.findByPriceBetweenOrderByPrice(9_100_001, 9_100_002, Limit.of(10)))
+                .extracting(ApartmentSummary::price).containsExactly(9_100_001, 9_100_002);
+        assertThat(apartmentRepository.findByAreaBetweenOrderByArea(91_000, 91_005, Limit.of(2)))
+                .extracting(ApartmentSummary::area).containsExactly(91_000, 91_001);
+        assertThat(apartmentRepository.findByBedroomsAndBathrooms(91, 92, Limit.of(10)))
+                .extracting(ApartmentSummary::price).containsExactly(9_100_002);
+        assertThat(apartmentRepository.findByPrefareaAndFurnishingstatus(true, "Index-Furnished", Limit.of(10)))
+                .hasSize(3);
+        assertThat(apartmentRepository.findByOwnerIdPerson(idOwner)).hasSize(3);
+
+        apartmentRepository.deleteAll(apartmentRepository.findAllById(
+                apartments.stream().map(Apartment::getIdApartment).toList()));
+        ownerRepository.deleteById(idOwner);
+    }
+
+    /**
+     * The SQL each filter finder issues must be answered from its index; a dropped
+     * index or a changed column order shows up as a table scan in H2's plan.
+     */
+    @Test
+    void testFilterFindersUseIndexes() {
+        assertThat(queryPlans.explain(() -> apartmentRepository.findByPriceBetweenOrderByPrice(1, 2, Limit.of(10)),
+                1, 2, 10))
+                .contains("IDX_APARTMENT_PRICE").contains("index sorted");
+        assertThat(queryPlans.explain(() -> apartmentRepository.findByAreaBetweenOrderByArea(1, 2, Limit.of(10)),
+                1, 2, 10))
+                .contains("IDX_APARTMENT_AREA").contains("index sorted");
+        assertThat(queryPlans.explain(() -> apartmentRepository.findByBedroomsAndBathrooms(3, 2, Limit.of(10)),
+                3, 2, 10))
+                .containsPattern("IDX_APARTMENT_ROOMS: \\S*BEDROOMS = \\?1 AND \\S*BATHROOMS = \\?2");
+        assertThat(queryPlans.explain(() -> apartmentRepository.findByPrefareaAndFurnishingstatus(true,
+                "Furnished", Limit.of(10)), true, "Furnished", 10))
+                .containsPattern("IDX_APARTMENT_PREFAREA_FURNISHING: \\S*PREFAREA = \\?1 AND \\S*FURNISHINGSTATUS = \\?2");
+        assertThat(queryPlans.explain(() -> apartmentRepository.findByOwnerIdPerson(1), 1))
+                .containsPattern("IDX_APARTMENT_OWNER: \\S*ID_PERSON = \\?1");
+    }
 
 }
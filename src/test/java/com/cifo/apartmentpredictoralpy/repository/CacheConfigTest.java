@@ -0,0 +1,65 @@
+package com.cifo.apartmentpredictoralpy.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.Review;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+public class CacheConfigTest {
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testRepeatedReadsAreServedFromTheCache() {
+        Apartment apartment = new Apartment();
+        apartment.setArea(4200);
+        apartment = apartmentRepository.save(apartment);
+        Review review = new Review(null, 4, "ok");
+        review.setApartment(apartment);
+        reviewRepository.save(review);
+        long id = apartment.getIdApartment();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        apartmentRepository.findById(id);
+        apartmentRepository.findById(id);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        // The review write above updated APARTMENT_RATING natively without evicting other regions
+        assertThat(entityManagerFactory.getCache().contains(Apartment.class, id)).isTrue();
+
+        statistics.clear();
+        assertThat(apartmentRepository.findWithReviewsByIdApartment(id).orElseThrow().getReviews()).hasSize(1);
+        assertThat(apartmentRepository.findWithReviewsByIdApartment(id).orElseThrow().getReviews()).hasSize(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        // Writes go through the cache and invalidate the cached query
+        apartment.setArea(4300);
+        apartmentRepository.save(apartment);
+        assertThat(apartmentRepository.findById(id).orElseThrow().getArea()).isEqualTo(4300);
+        Review second = new Review(null, 2, "meh");
+        second.setApartment(apartment);
+        reviewRepository.save(second);
+        assertThat(apartmentRepository.findWithReviewsByIdApartment(id).orElseThrow().getReviews()).hasSize(2);
+
+        reviewRepository.deleteAll(apartmentRepository.findWithReviewsByIdApartment(id).orElseThrow().getReviews());
+        apartmentRepository.deleteById(id);
+    }
+}
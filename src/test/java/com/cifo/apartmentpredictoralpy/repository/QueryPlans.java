@@ -0,0 +1,74 @@
+package com.cifo.apartmentpredictoralpy.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.cifo.apartmentpredictoralpy.metrics.QueryCounter;
+
+/**
+ * EXPLAINs the SQL a repository finder really issues, for tests that check which
+ * index a query uses. Import it with @Import(QueryPlans.class) and autowire it.
+ *
+ * It swaps the application's QueryCounter, Hibernate's StatementInspector, for
+ * one that also keeps the SQL prepared on the current thread while explain()
+ * runs the finder.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryPlans {
+
+    private final CapturingQueryCounter queryCounter;
+    private final JdbcTemplate jdbcTemplate;
+
+    QueryPlans(QueryCounter queryCounter, JdbcTemplate jdbcTemplate) {
+        this.queryCounter = (CapturingQueryCounter) queryCounter;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Bean
+    static BeanPostProcessor capturingQueryCounter() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof QueryCounter ? new CapturingQueryCounter() : bean;
+            }
+        };
+    }
+
+    /**
+     * EXPLAIN of the one statement the finder issues, with the given parameters,
+     * whitespace collapsed.
+     */
+    public String explain(Runnable finder, Object... parameters) {
+        List<String> statements = new ArrayList<>();
+        queryCounter.captured.set(statements);
+        try {
+            finder.run();
+        } finally {
+            queryCounter.captured.remove();
+        }
+        assertThat(statements).hasSize(1);
+        return jdbcTemplate.queryForObject("EXPLAIN " + statements.get(0), String.class, parameters)
+                .replaceAll("\\s+", " ");
+    }
+
+    private static final class CapturingQueryCounter extends QueryCounter {
+
+        private final ThreadLocal<List<String>> captured = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = captured.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return super.inspect(sql);
+        }
+    }
+}
@@ -1,18 +1,41 @@
 package com.cifo.apartmentpredictoralpy.repository;
 
 import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentRating;
 import com.cifo.apartmentpredictoralpy.model.Review;
+import com.cifo.apartmentpredictoralpy.service.ApartmentService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import com.cifo.apartmentpredictoralpy.model.Reviewer;
 
 import java.time.LocalDate;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
+@Import(QueryPlans.class)
 public class ReviewRepositoryTest {
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private ApartmentRatingRepository ratingRepository;
+
+    @Autowired
+    private ApartmentService apartmentService;
+
+    @Autowired
+    private ReviewerRepository reviewerRepository;
+
+    @Autowired
+    private QueryPlans queryPlans;
+
     @Test
     void testCreateAndPersistReview() {
 
@@ -28,4 +51,73 @@ public class ReviewRepositoryTest {
 
     }
 
+    @Test
+    void testRatingAggregateFollowsReviewWrites() {
+        Apartment first = apartmentRepository.save(new Apartment());
+        Apartment second = apartmentRepository.save(new Apartment());
+        Review good = review(first, 4, LocalDate.of(2024, 5, 1));
+        Review bad = review(first, 2, LocalDate.of(2024, 6, 1));
+        good = reviewRepository.save(good);
+        bad = reviewRepository.save(bad);
+
+        ApartmentRating rating = ratingRepository.findById(first.getIdApartment()).orElseThrow();
+        assertThat(rating.getReviewCount()).isEqualTo(2);
+        assertThat(rating.getAverageRating()).isEqualTo(3.0);
+        assertThat(rating.getMinRating()).isEqualTo(2);
+        assertThat(rating.getMaxRating()).isEqualTo(4);
+        assertThat(rating.getLastReviewDate()).isEqualTo(LocalDate.of(2024, 6, 1));
+
+        bad.setRating(5);
+        bad.setApartment(second);
+        bad = reviewRepository.save(bad);
+        assertThat(ratingRepository.findById(first.getIdApartment()).orElseThrow().getRatingSum()).isEqualTo(4);
+        assertThat(ratingRepository.findById(second.getIdApartment()).orElseThrow().getMaxRating()).isEqualTo(5);
+
+        reviewRepository.delete(good);
+        assertThat(ratingRepository.findById(first.getIdApartment())).isEmpty();
+        assertThat(apartmentService.rebuildRatings()).isEqualTo((int) ratingRepository.count());
+        assertThat(ratingRepository.findById(second.getIdApartment()).orElseThrow().getReviewCount()).isEqualTo(1);
+
+        reviewRepository.delete(bad);
+        apartmentRepository.delete(first);
+        apartmentRepository.delete(second);
+    }
+
+    @Test
+    void testReviewsByApartmentAndReviewerNewestFirst() {
+        Apartment apartment = apartmentRepository.save(new Apartment());
+        Reviewer reviewer = reviewerRepository.save(new Reviewer(0, "Rosa", "rosa@example.com", 33));
+        Review older = review(apartment, 3, LocalDate.of(2024, 1, 10));
+        Review newer = review(apartment, 5, LocalDate.of(2024, 3, 10));
+        older.setReviewer(reviewer);
+        newer.setReviewer(reviewer);
+        older = reviewRepository.save(older);
+        newer = reviewRepository.save(newer);
+
+        assertThat(reviewRepository.findByApartmentIdApartmentOrderByDateDesc(apartment.getIdApartment()))
+                .extracting(Review::getId).containsExactly(newer.getId(), older.getId());
+        assertThat(reviewRepository.findByReviewerIdPersonOrderByDateDesc(reviewer.getIdPerson()))
+                .extracting(Review::getId).containsExactly(newer.getId(), older.getId());
+
+        reviewRepository.delete(older);
+        reviewRepository.delete(newer);
+        apartmentRepository.delete(apartment);
+        reviewerRepository.deleteById(reviewer.getIdPerson());
+    }
+
+    @Test
+    void testReviewFindersUseForeignKeyIndexes() {
+        assertThat(queryPlans.explain(() -> reviewRepository.findByApartmentIdApartmentOrderByDateDesc(1), 1L))
+                .containsPattern("IDX_REVIEW_APARTMENT: \\S*ID_APARTMENT = \\?1");
+        assertThat(queryPlans.explain(() -> reviewRepository.findByReviewerIdPersonOrderByDateDesc(1), 1L))
+                .containsPattern("IDX_REVIEW_REVIEWER: \\S*ID_REVIEWER = \\?1");
+    }
+
+    private static Review review(Apartment apartment, int rating, LocalDate date) {
+        Review review = new Review(null, rating, "ok");
+        review.setDate(date);
+        review.setApartment(apartment);
+        return review;
+    }
+
 }
@@ -0,0 +1,118 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import static com.cifo.apartmentpredictoralpy.search.RandomApartments.apartment;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+public class ApartmentIndexTest {
+
+    @Test
+    void testSearchMatchesBruteForceThroughUpdates() {
+        Random random = new Random(7);
+        Map<Long, ApartmentSummary> apartments = new HashMap<>();
+        List<ApartmentSummary> initial = new ArrayList<>();
+        for (long id = 1; id <= 20_000; id++) {
+            ApartmentSummary apartment = apartment(id, random);
+            apartments.put(id, apartment);
+            initial.add(apartment);
+        }
+        ApartmentIndex index = new ApartmentIndex();
+        index.putAll(initial);
+        checkQueries(index, apartments, random);
+
+        // Enough changes to go through several compactions
+        for (int i = 0; i < 15_000; i++) {
+            long id = 1 + random.nextInt(25_000);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+                apartments.remove(id);
+            } else {
+                ApartmentSummary apartment = apartment(id, random);
+                index.put(apartment);
+                apartments.put(id, apartment);
+            }
+            if (i % 5_000 == 0) {
+                checkQueries(index, apartments, random);
+            }
+        }
+        assertThat(index.size()).isEqualTo(apartments.size());
+        checkQueries(index, apartments, random);
+    }
+
+    @Test
+    void testLimitKeepsTotal() {
+        ApartmentIndex index = new ApartmentIndex();
+        Random random = new Random(1);
+        for (long id = 1; id <= 100; id++) {
+            index.put(apartment(id, random));
+        }
+
+        ApartmentIndex.SearchResult result = index.search(ApartmentQuery.builder().build(), 10);
+
+        assertThat(result.total()).isEqualTo(100);
+        assertThat(result.ids()).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    private static void checkQueries(ApartmentIndex index, Map<Long, ApartmentSummary> apartments, Random random) {
+        for (int q = 0; q < 200; q++) {
+            ApartmentQuery.Builder builder = ApartmentQuery.builder();
+            Predicate<ApartmentSummary> expected = a -> true;
+            ApartmentIndex.Amenity amenity = ApartmentIndex.Amenity.values()[random.nextInt(7)];
+            boolean present = random.nextBoolean();
+            builder.amenity(amenity, present);
+            expected = expected.and(a -> flag(a, amenity) == present);
+            if (random.nextBoolean()) {
+                String furnishing = RandomApartments.FURNISHING[random.nextInt(3)];
+                builder.furnishing(furnishing);
+                expected = expected.and(a -> furnishing.equals(a.furnishingstatus()));
+            }
+            if (random.nextBoolean()) {
+                int min = 1_000_000 + random.nextInt(5_000_000);
+                int max = min + random.nextInt(3_000_000);
+                builder.range(ApartmentIndex.RangeField.PRICE, min, max);
+                expected = expected.and(a -> a.price() != null && a.price() >= min && a.price() <= max);
+            }
+            if (random.nextBoolean()) {
+                int min = random.nextInt(5);
+                builder.range(ApartmentIndex.RangeField.BEDROOMS, min, null);
+                expected = expected.and(a -> a.bedrooms() != null && a.bedrooms() >= min);
+            }
+            if (random.nextBoolean()) {
+                int max = random.nextInt(4);
+                builder.range(ApartmentIndex.RangeField.PARKING, null, max);
+                expected = expected.and(a -> a.parking() <= max);
+            }
+            long count = apartments.values().stream().filter(expected).count();
+
+            ApartmentIndex.SearchResult result = index.search(builder.build(), Integer.MAX_VALUE);
+
+            assertThat(result.total()).isEqualTo((int) count);
+            Predicate<ApartmentSummary> filter = expected;
+            for (long id : result.ids()) {
+                assertThat(apartments.get(id)).matches(filter);
+            }
+        }
+    }
+
+    private static boolean flag(ApartmentSummary a, ApartmentIndex.Amenity amenity) {
+        return switch (amenity) {
+            case MAINROAD -> a.mainroad();
+            case GUESTROOM -> a.guestroom();
+            case BASEMENT -> a.basement();
+            case HOTWATER -> a.hotwater();
+            case HEATING -> a.heating();
+            case AIRCONDITIONING -> a.airconditioning();
+            case PREFAREA -> a.prefarea();
+        };
+    }
+}
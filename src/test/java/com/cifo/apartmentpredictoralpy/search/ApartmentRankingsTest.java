@@ -0,0 +1,105 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.cifo.apartmentpredictoralpy.model.RankedApartment;
+
+public class ApartmentRankingsTest {
+
+    private static final String[] FURNISHING = {"Furnished", "Semi-Furnished", "Unfurnished", null};
+    private static final String[] SEGMENTS = {"all", "bedrooms=1", "bedrooms=3", "prefarea=true",
+            "prefarea=false", "furnishing=semi-furnished", "furnishing=unfurnished"};
+
+    @Test
+    void testTopMatchesBruteForceThroughUpdates() {
+        Random random = new Random(11);
+        Map<Long, RankedApartment> apartments = new HashMap<>();
+        List<RankedApartment> initial = new ArrayList<>();
+        for (long id = 1; id <= 3_000; id++) {
+            RankedApartment apartment = apartment(id, random);
+            apartments.put(id, apartment);
+            initial.add(apartment);
+        }
+        ApartmentRankings rankings = new ApartmentRankings(10, 3);
+        rankings.putAll(initial);
+        check(rankings, apartments);
+
+        // Mostly removals and downgrades, so boards run out of slack and get refilled
+        for (int i = 0; i < 6_000; i++) {
+            long id = 1 + random.nextInt(3_500);
+            int action = random.nextInt(10);
+            if (action < 3) {
+                rankings.remove(id);
+                apartments.remove(id);
+            } else if (action < 5 && apartments.containsKey(id)) {
+                RankedApartment moved = apartments.get(id).withAttributes(1 + random.nextInt(5), random.nextBoolean(),
+                        FURNISHING[random.nextInt(FURNISHING.length)]);
+                rankings.updateAttributes(id, moved.bedrooms(), moved.prefarea(), moved.furnishingstatus());
+                apartments.put(id, moved);
+            } else {
+                RankedApartment apartment = apartment(id, random);
+                rankings.put(apartment);
+                apartments.put(id, apartment);
+            }
+            if (i % 500 == 0) {
+                check(rankings, apartments);
+            }
+        }
+        check(rankings, apartments);
+    }
+
+    @Test
+    void testTopRatedNeedsMinimumReviews() {
+        ApartmentRankings rankings = new ApartmentRankings(5, 3);
+        rankings.put(new RankedApartment(1, 2, true, "furnished", 1, 5));
+        rankings.put(new RankedApartment(2, 2, true, "furnished", 4, 12));
+
+        assertThat(rankings.top(ApartmentRankings.Metric.TOP_RATED, "all", 5))
+                .extracting(RankedApartment::idApartment).containsExactly(2L);
+        assertThat(rankings.top(ApartmentRankings.Metric.MOST_REVIEWED, "FURNISHING=Furnished", 5))
+                .extracting(RankedApartment::idApartment).containsExactly(2L, 1L);
+        assertThat(rankings.top(ApartmentRankings.Metric.MOST_REVIEWED, "bedrooms=9", 5)).isEmpty();
+    }
+
+    private static void check(ApartmentRankings rankings, Map<Long, RankedApartment> apartments) {
+        for (String segment : SEGMENTS) {
+            List<RankedApartment> members = apartments.values().stream()
+                    .filter(a -> ApartmentRankings.segmentsOf(a).contains(segment)).toList();
+
+            List<Long> topRated = members.stream()
+                    .filter(a -> a.reviewCount() >= 3)
+                    .sorted(Comparator.comparingDouble(RankedApartment::averageRating).reversed()
+                            .thenComparing(Comparator.comparingLong(RankedApartment::reviewCount).reversed())
+                            .thenComparingLong(RankedApartment::idApartment))
+                    .limit(10).map(RankedApartment::idApartment).toList();
+            assertThat(rankings.top(ApartmentRankings.Metric.TOP_RATED, segment, 10))
+                    .as("top rated in %s", segment)
+                    .extracting(RankedApartment::idApartment).containsExactlyElementsOf(topRated);
+
+            List<Long> mostReviewed = members.stream()
+                    .sorted(Comparator.comparingLong(RankedApartment::reviewCount).reversed()
+                            .thenComparing(Comparator.comparingDouble(RankedApartment::averageRating).reversed())
+                            .thenComparingLong(RankedApartment::idApartment))
+                    .limit(10).map(RankedApartment::idApartment).toList();
+            assertThat(rankings.top(ApartmentRankings.Metric.MOST_REVIEWED, segment, 10))
+                    .as("most reviewed in %s", segment)
+                    .extracting(RankedApartment::idApartment).containsExactlyElementsOf(mostReviewed);
+        }
+    }
+
+    private static RankedApartment apartment(long id, Random random) {
+        long reviews = 1 + random.nextInt(40);
+        long sum = reviews + random.nextInt((int) reviews * 4 + 1);
+        return new RankedApartment(id, 1 + random.nextInt(5), random.nextBoolean(),
+                FURNISHING[random.nextInt(FURNISHING.length)], reviews, sum);
+    }
+}
@@ -0,0 +1,108 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import static com.cifo.apartmentpredictoralpy.search.RandomApartments.apartment;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+public class ComparablesIndexTest {
+
+    @Test
+    void testExactQueriesMatchTheScanThroughUpdates() {
+        Random random = new Random(3);
+        List<ApartmentSummary> initial = new ArrayList<>();
+        for (long id = 1; id <= 10_000; id++) {
+            initial.add(apartment(id, random));
+        }
+        ComparablesIndex index = new ComparablesIndex();
+        index.putAll(initial);
+        checkExact(index, random);
+
+        // Enough changes to go through several compactions
+        for (int i = 0; i < 8_000; i++) {
+            long id = 1 + random.nextInt(12_000);
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+            } else {
+                index.put(apartment(id, random));
+            }
+            if (i % 2_000 == 0) {
+                checkExact(index, random);
+            }
+        }
+        checkExact(index, random);
+    }
+
+    @Test
+    void testApproximateQueriesFindMostNeighbours() {
+        Random random = new Random(4);
+        List<ApartmentSummary> apartments = new ArrayList<>();
+        for (long id = 1; id <= 20_000; id++) {
+            apartments.add(apartment(id, random));
+        }
+        ComparablesIndex index = new ComparablesIndex();
+        index.putAll(apartments);
+
+        int found = 0;
+        int wanted = 0;
+        for (int q = 0; q < 200; q++) {
+            ApartmentSummary query = apartment(0, random);
+            Set<Long> exact = ids(index.nearest(query, 10, ComparablesIndex.EXACT));
+            List<ComparablesIndex.Neighbor> approximate = index.nearest(query, 10, 64);
+            assertThat(approximate).hasSize(10);
+            assertThat(approximate).extracting(ComparablesIndex.Neighbor::distance).isSorted();
+            for (ComparablesIndex.Neighbor neighbor : approximate) {
+                found += exact.contains(neighbor.idApartment()) ? 1 : 0;
+            }
+            wanted += exact.size();
+        }
+        assertThat((double) found / wanted).isGreaterThan(0.5);
+    }
+
+    @Test
+    void testQueryExcludesItselfAndUnpricedApartments() {
+        ComparablesIndex index = new ComparablesIndex();
+        ApartmentSummary a = new ApartmentSummary(1, 100_000, 5_000, 3, 1, 2,
+                true, false, false, false, false, true, 1, false, "furnished");
+        ApartmentSummary twin = new ApartmentSummary(2, 120_000, 5_000, 3, 1, 2,
+                true, false, false, false, false, true, 1, false, "furnished");
+        ApartmentSummary far = new ApartmentSummary(3, 900_000, 15_000, 6, 4, 4,
+                false, true, true, true, true, false, 3, true, "unfurnished");
+        index.putAll(List.of(a, twin, far));
+
+        assertThat(index.nearest(a, 5, ComparablesIndex.EXACT))
+                .extracting(ComparablesIndex.Neighbor::idApartment).containsExactly(2L, 3L);
+        assertThat(index.nearest(a, 1, ComparablesIndex.EXACT).get(0).distance()).isZero();
+
+        index.put(new ApartmentSummary(2, null, 5_000, 3, 1, 2,
+                true, false, false, false, false, true, 1, false, "furnished"));
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.nearest(a, 5, ComparablesIndex.EXACT))
+                .extracting(ComparablesIndex.Neighbor::idApartment).containsExactly(3L);
+    }
+
+    private static void checkExact(ComparablesIndex index, Random random) {
+        for (int q = 0; q < 50; q++) {
+            ApartmentSummary query = apartment(random.nextInt(12_000), random);
+            int k = 1 + random.nextInt(20);
+            assertThat(index.nearest(query, k, ComparablesIndex.EXACT))
+                    .extracting(ComparablesIndex.Neighbor::distance)
+                    .containsExactlyElementsOf(index.nearestByScan(query, k).stream()
+                            .map(ComparablesIndex.Neighbor::distance).toList());
+        }
+    }
+
+    private static Set<Long> ids(List<ComparablesIndex.Neighbor> neighbors) {
+        Set<Long> ids = new HashSet<>();
+        neighbors.forEach(n -> ids.add(n.idApartment()));
+        return ids;
+    }
+}
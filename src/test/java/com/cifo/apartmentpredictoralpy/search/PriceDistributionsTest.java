@@ -0,0 +1,122 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import static com.cifo.apartmentpredictoralpy.search.RandomApartments.apartment;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.model.PricedApartmentTotals;
+
+public class PriceDistributionsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSegmentsMatchTheExactQuantiles() {
+        Random random = new Random(7);
+        List<ApartmentSummary> priced = new ArrayList<>();
+        PriceDistributions distributions = new PriceDistributions(200);
+        // Query some segments before and some after adding, so both the merge and
+        // the incremental view updates are checked
+        PriceDistributions.Segment threeBedrooms = segment(3, null, null, null);
+        distributions.distribution(threeBedrooms);
+        for (long id = 1; id <= 50_000; id++) {
+            ApartmentSummary apartment = apartment(id, random);
+            if (apartment.price() != null) {
+                priced.add(apartment);
+            }
+            distributions.add(apartment);
+        }
+
+        check(distributions, priced, PriceDistributions.Segment.ALL, a -> true);
+        check(distributions, priced, threeBedrooms, a -> Integer.valueOf(3).equals(a.bedrooms()));
+        check(distributions, priced, segment(null, true, "SEMI-FURNISHED", null),
+                a -> a.prefarea() && "semi-furnished".equalsIgnoreCase(a.furnishingstatus()));
+        check(distributions, priced, segment(2, false, null, true),
+                a -> Integer.valueOf(2).equals(a.bedrooms()) && !a.prefarea() && a.airconditioning());
+        assertThat(distributions.count()).isEqualTo(priced.size());
+
+        PriceDistributions.Distribution before = distributions.distribution(threeBedrooms);
+        distributions.addStale(10);
+        assertThat(distributions.distribution(threeBedrooms).staleRows()).isEqualTo(10);
+        assertThat(distributions.distribution(threeBedrooms).price()).isEqualTo(before.price());
+
+        PriceDistributions.Distribution none = distributions.distribution(segment(9, true, "furnished", true));
+        assertThat(none.price()).isNull();
+        assertThatThrownBy(() -> segment(null, null, "gold-plated", null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testFileRoundTripKeepsTheDistributions() throws IOException {
+        Random random = new Random(8);
+        PriceDistributions distributions = new PriceDistributions(200);
+        for (long id = 1; id <= 20_000; id++) {
+            distributions.add(apartment(id, random));
+        }
+        distributions.addStale(3);
+        PricedApartmentTotals totals = new PricedApartmentTotals(20_000, 20_000, 123, 456);
+        Path file = directory.resolve("sketches/price-distributions.bin");
+
+        PriceDistributionsFile.write(distributions, totals, file);
+        PriceDistributionsFile.Contents read = PriceDistributionsFile.read(file, 200);
+
+        assertThat(read.totals()).isEqualTo(totals);
+        assertThat(read.distributions().count()).isEqualTo(distributions.count());
+        for (PriceDistributions.Segment segment : List.of(PriceDistributions.Segment.ALL,
+                segment(4, null, null, null), segment(null, true, "unfurnished", false))) {
+            assertThat(read.distributions().distribution(segment)).isEqualTo(distributions.distribution(segment));
+        }
+        assertThatThrownBy(() -> PriceDistributionsFile.read(file, 100)).isInstanceOf(IOException.class);
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        assertThatThrownBy(() -> PriceDistributionsFile.read(file, 200))
+                .isInstanceOf(IOException.class).hasMessageContaining("checksum");
+    }
+
+    private static void check(PriceDistributions distributions, List<ApartmentSummary> apartments,
+                              PriceDistributions.Segment segment, Predicate<ApartmentSummary> filter) {
+        double[] prices = apartments.stream().filter(filter).mapToDouble(ApartmentSummary::price).sorted().toArray();
+        PriceDistributions.Quantiles price = distributions.distribution(segment).price();
+        assertThat(price.count()).isEqualTo(prices.length);
+        assertThat(price.min()).isEqualTo(prices[0]);
+        assertThat(price.max()).isEqualTo(prices[prices.length - 1]);
+        assertRank(prices, price.p10(), 0.1);
+        assertRank(prices, price.median(), 0.5);
+        assertRank(prices, price.p90(), 0.9);
+
+        double[] perArea = apartments.stream().filter(filter).filter(a -> a.area() != null)
+                .mapToDouble(a -> (double) a.price() / a.area()).sorted().toArray();
+        PriceDistributions.Quantiles pricePerArea = distributions.distribution(segment).pricePerArea();
+        assertThat(pricePerArea.count()).isEqualTo(perArea.length);
+        assertRank(perArea, pricePerArea.median(), 0.5);
+    }
+
+    private static void assertRank(double[] sorted, double value, double q) {
+        int index = Arrays.binarySearch(sorted, value);
+        assertThat(index).as("quantile is one of the values").isNotNegative();
+        assertThat((double) index / sorted.length).isCloseTo(q, within(0.02));
+    }
+
+    private static PriceDistributions.Segment segment(Integer bedrooms, Boolean prefarea, String furnishing,
+                                                      Boolean airconditioning) {
+        return new PriceDistributions.Segment(bedrooms, prefarea, furnishing, null, null, null, null, null,
+                airconditioning);
+    }
+}
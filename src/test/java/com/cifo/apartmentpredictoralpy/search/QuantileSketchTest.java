@@ -0,0 +1,116 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class QuantileSketchTest {
+
+    @Test
+    void testQuantilesAreWithinTheRankError() {
+        Random random = new Random(5);
+        double[] values = new double[200_000];
+        QuantileSketch sketch = new QuantileSketch(200, 1);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(15 + random.nextGaussian() * 0.5);
+            sketch.update(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertThat(sketch.count()).isEqualTo(values.length);
+        assertThat(sketch.retained()).isLessThan(3 * 200);
+        assertThat(sketch.min()).isEqualTo(values[0]);
+        assertThat(sketch.max()).isEqualTo(values[values.length - 1]);
+        assertThat(maxRankError(sketch, values)).isLessThan(0.015);
+    }
+
+    @Test
+    void testMergedSketchesKeepTheErrorBound() {
+        Random random = new Random(6);
+        double[] values = new double[100_000];
+        QuantileSketch merged = new QuantileSketch(200, 2);
+        QuantileSketch part = null;
+        for (int i = 0; i < values.length; i++) {
+            if (i % 2_000 == 0) {
+                if (part != null) {
+                    merged.merge(part);
+                }
+                part = new QuantileSketch(200, i);
+            }
+            // Parts with different ranges, like segments with different price levels
+            values[i] = (i / 2_000 % 7) * 100_000 + random.nextInt(500_000);
+            part.update(values[i]);
+        }
+        merged.merge(part);
+        Arrays.sort(values);
+
+        assertThat(merged.count()).isEqualTo(values.length);
+        assertThat(maxRankError(merged, values)).isLessThan(0.015);
+        assertThatThrownBy(() -> merged.merge(new QuantileSketch(100, 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testSmallSketchesAreExactAndSurviveSerialization() {
+        QuantileSketch sketch = new QuantileSketch(200, 3);
+        for (int i = 100; i >= 1; i--) {
+            sketch.update(i);
+        }
+        assertThat(sketch.quantile(0.1)).isEqualTo(10);
+        assertThat(sketch.quantile(0.5)).isEqualTo(50);
+        assertThat(sketch.quantile(0.9)).isEqualTo(90);
+        assertThat(sketch.quantile(0)).isEqualTo(1);
+        assertThat(sketch.quantile(1)).isEqualTo(100);
+        assertThat(sketch.rank(25)).isEqualTo(0.25);
+
+        for (int i = 0; i < 10_000; i++) {
+            sketch.update(i % 1_000);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(sketch.serializedSize());
+        sketch.writeTo(buffer);
+        assertThat(buffer.hasRemaining()).isFalse();
+        QuantileSketch read = QuantileSketch.readFrom(buffer.flip(), 200, 3);
+        assertThat(read.count()).isEqualTo(sketch.count());
+        assertThat(read.retained()).isEqualTo(sketch.retained());
+        for (double q = 0; q <= 1; q += 0.05) {
+            assertThat(read.quantile(q)).isEqualTo(sketch.quantile(q));
+        }
+
+        buffer.putLong(0, sketch.count() + 1);
+        assertThatThrownBy(() -> QuantileSketch.readFrom(buffer.rewind(), 200, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** Largest difference between q and the true rank of the sketch's q-quantile. */
+    private static double maxRankError(QuantileSketch sketch, double[] sorted) {
+        double max = 0;
+        for (int p = 1; p < 100; p++) {
+            double q = p / 100.0;
+            double estimate = sketch.quantile(q);
+            // Any rank the estimate covers (ties) is fine
+            double below = (double) lowerBound(sorted, estimate) / sorted.length;
+            double upTo = (double) lowerBound(sorted, Math.nextUp(estimate)) / sorted.length;
+            max = Math.max(max, Math.max(below - q, q - upTo));
+        }
+        return max;
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
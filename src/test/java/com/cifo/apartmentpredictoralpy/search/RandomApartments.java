@@ -0,0 +1,28 @@
+package com.cifo.apartmentpredictoralpy.search;
+
+import java.util.Random;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+
+/**
+ * Random apartment summaries for the index and sketch tests. Price, area and
+ * bedrooms are NULL about one time in 20, the furnishing one time in 4.
+ */
+final class RandomApartments {
+
+    static final String[] FURNISHING = {"Furnished", "Semi-Furnished", "unfurnished", null};
+
+    private RandomApartments() {
+    }
+
+    static ApartmentSummary apartment(long id, Random random) {
+        return new ApartmentSummary(id,
+                random.nextInt(20) == 0 ? null : 1_000_000 + random.nextInt(10_000_000),
+                random.nextInt(20) == 0 ? null : 1_500 + random.nextInt(15_000),
+                random.nextInt(20) == 0 ? null : 1 + random.nextInt(6),
+                1 + random.nextInt(4), 1 + random.nextInt(4),
+                random.nextBoolean(), random.nextInt(5) == 0, random.nextInt(3) == 0,
+                random.nextInt(10) == 0, random.nextBoolean(), random.nextBoolean(),
+                random.nextInt(4), random.nextInt(4) == 0, FURNISHING[random.nextInt(FURNISHING.length)]);
+    }
+}
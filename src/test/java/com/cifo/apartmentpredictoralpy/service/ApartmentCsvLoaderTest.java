@@ -0,0 +1,110 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.cifo.apartmentpredictoralpy.model.ApartmentsImportedEvent;
+
+@SpringBootTest
+public class ApartmentCsvLoaderTest {
+
+    @Autowired
+    private ApartmentCsvLoader csvLoader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    private Set<Long> existingIds;
+
+    @BeforeEach
+    void rememberExistingApartments() {
+        existingIds = new HashSet<>(apartmentIds());
+    }
+
+    /**
+     * Deletes the rows the test imported, and lets the in-memory indexes and the
+     * second-level cache reload as after any other bulk change.
+     */
+    @AfterEach
+    void deleteImportedApartments() {
+        List<Long> imported = importedIds();
+        if (!imported.isEmpty()) {
+            imported.forEach(id -> jdbcTemplate.update("DELETE FROM APARTMENT WHERE ID_APARTMENT = ?", id));
+            events.publishEvent(new ApartmentsImportedEvent(imported.size()));
+        }
+    }
+
+    @Test
+    void testLoadHousingCsv() throws Exception {
+        long before = countApartments();
+
+        ApartmentCsvLoader.ImportReport report = csvLoader.loadCsv(Path.of("db/Housing.csv"));
+
+        assertThat(report.rows()).isEqualTo(545);
+        assertThat(report.rowsPerSecond()).isGreaterThan(0);
+        assertThat(countApartments()).isEqualTo(before + 545);
+    }
+
+    @Test
+    void testMapsYesNoAndFurnishingStatus() throws Exception {
+        String csv = """
+                furnishingstatus,price,area,bedrooms,bathrooms,stories,mainroad,guestroom,basement,hotwater,heating,airconditioning,parking,prefarea
+                semi-furnished,4242421,777,3,2,1,yes,no,yes,no,yes,no,2,yes
+                """;
+
+        csvLoader.loadCsv(new StringReader(csv));
+
+        List<Long> imported = importedIds();
+        assertThat(imported).hasSize(1);
+        var row = jdbcTemplate.queryForMap("SELECT * FROM APARTMENT WHERE ID_APARTMENT = ?", imported.get(0));
+        assertThat(row.get("PRICE")).isEqualTo(4242421);
+        assertThat(row.get("FURNISHINGSTATUS")).isEqualTo("Semi-Furnished");
+        assertThat(row.get("AREA")).isEqualTo(777);
+        assertThat(row.get("MAINROAD")).isEqualTo(true);
+        assertThat(row.get("GUESTROOM")).isEqualTo(false);
+        assertThat(row.get("HEATING")).isEqualTo(true);
+        assertThat(row.get("PREFAREA")).isEqualTo(true);
+        assertThat(row.get("PARKING")).isEqualTo(2);
+    }
+
+    @Test
+    void testRejectsMalformedRow() {
+        String csv = """
+                price,area,bedrooms,bathrooms,stories,mainroad,guestroom,basement,hotwaterheating,airconditioning,parking,prefarea,furnishingstatus
+                100,50,1,1,1,maybe,no,no,no,no,0,no,furnished
+                """;
+
+        assertThatThrownBy(() -> csvLoader.loadCsv(new StringReader(csv)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Line 2");
+    }
+
+    private List<Long> apartmentIds() {
+        return jdbcTemplate.queryForList("SELECT ID_APARTMENT FROM APARTMENT", Long.class);
+    }
+
+    private List<Long> importedIds() {
+        return apartmentIds().stream().filter(id -> !existingIds.contains(id)).toList();
+    }
+
+    private long countApartments() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM APARTMENT", Long.class);
+    }
+}
@@ -0,0 +1,76 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.RankedApartment;
+import com.cifo.apartmentpredictoralpy.model.Review;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+import com.cifo.apartmentpredictoralpy.repository.ReviewRepository;
+import com.cifo.apartmentpredictoralpy.search.ApartmentRankings;
+
+@SpringBootTest
+public class ApartmentRankingServiceTest {
+
+    @Autowired
+    private ApartmentRankingService rankingService;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Test
+    void testRankingsFollowReviewsAndApartments() {
+        // Bedroom counts no other test uses, so the segments hold only these apartments
+        Apartment best = apartment(97);
+        Apartment busy = apartment(97);
+        List<Review> reviews = new ArrayList<>();
+        reviewRepository.saveAll(List.of(
+                review(best, 5), review(best, 5), review(best, 4),
+                review(busy, 3), review(busy, 3), review(busy, 4), review(busy, 2))).forEach(reviews::add);
+
+        assertThat(ids(ApartmentRankings.Metric.TOP_RATED, "bedrooms=97"))
+                .containsExactly(best.getIdApartment(), busy.getIdApartment());
+        assertThat(ids(ApartmentRankings.Metric.MOST_REVIEWED, "bedrooms=97"))
+                .containsExactly(busy.getIdApartment(), best.getIdApartment());
+
+        reviewRepository.delete(reviews.get(0));
+        assertThat(ids(ApartmentRankings.Metric.TOP_RATED, "bedrooms=97")).containsExactly(busy.getIdApartment());
+
+        busy.setBedrooms(98);
+        busy = apartmentRepository.save(busy);
+        assertThat(ids(ApartmentRankings.Metric.MOST_REVIEWED, "bedrooms=97")).containsExactly(best.getIdApartment());
+        assertThat(ids(ApartmentRankings.Metric.MOST_REVIEWED, "bedrooms=98")).containsExactly(busy.getIdApartment());
+
+        reviewRepository.deleteAll(reviews.subList(1, reviews.size()));
+        assertThat(ids(ApartmentRankings.Metric.MOST_REVIEWED, "bedrooms=97")).isEmpty();
+        assertThat(ids(ApartmentRankings.Metric.MOST_REVIEWED, "bedrooms=98")).isEmpty();
+        apartmentRepository.delete(best);
+        apartmentRepository.delete(busy);
+    }
+
+    private List<Long> ids(ApartmentRankings.Metric metric, String segment) {
+        return rankingService.top(metric, segment, 10).stream().map(RankedApartment::idApartment).toList();
+    }
+
+    private Apartment apartment(int bedrooms) {
+        Apartment apartment = new Apartment();
+        apartment.setBedrooms(bedrooms);
+        return apartmentRepository.save(apartment);
+    }
+
+    private static Review review(Apartment apartment, int rating) {
+        Review review = new Review(null, rating, "ok");
+        review.setApartment(apartment);
+        return review;
+    }
+}
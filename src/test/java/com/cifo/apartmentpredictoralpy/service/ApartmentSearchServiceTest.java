@@ -0,0 +1,75 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+import com.cifo.apartmentpredictoralpy.search.ApartmentIndex;
+import com.cifo.apartmentpredictoralpy.search.ApartmentQuery;
+
+@SpringBootTest
+public class ApartmentSearchServiceTest {
+
+    @Autowired
+    private ApartmentSearchService searchService;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Test
+    void testFiltersSeeUpdatedFields() {
+        Apartment apartment = new Apartment();
+        apartment.setArea(987_654);
+        apartment.setPrefarea(true);
+        apartment.setPrice(123_000);
+        apartment = apartmentRepository.save(apartment);
+
+        assertThat(searchService.search(byArea(987_654).amenity(ApartmentIndex.Amenity.PREFAREA, true).build(), 10)
+                .total()).isEqualTo(1);
+
+        apartment.setPrefarea(false);
+        apartment.setPrice(456_000);
+        apartment = apartmentRepository.save(apartment);
+        assertThat(searchService.search(byArea(987_654).amenity(ApartmentIndex.Amenity.PREFAREA, true).build(), 10)
+                .total()).isZero();
+        assertThat(searchService.search(byArea(987_654).amenity(ApartmentIndex.Amenity.PREFAREA, false)
+                .range(ApartmentIndex.RangeField.PRICE, 400_000, 500_000).build(), 10).total()).isEqualTo(1);
+
+        apartmentRepository.delete(apartment);
+        assertThat(searchService.search(byArea(987_654).build(), 10).total()).isZero();
+    }
+
+    @Test
+    void testSearchPageLoadsTheFirstMatchesInIdOrder() {
+        List<Apartment> saved = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Apartment apartment = new Apartment();
+            apartment.setArea(876_543);
+            saved.add(apartmentRepository.save(apartment));
+        }
+
+        ApartmentSearchService.SearchPage page = searchService.searchApartments(byArea(876_543).build(), 2);
+
+        assertThat(page.total()).isEqualTo(3);
+        assertThat(page.items()).extracting(ApartmentSummary::idApartment)
+                .containsExactly(saved.get(0).getIdApartment(), saved.get(1).getIdApartment());
+        assertThat(page.items()).extracting(ApartmentSummary::area).containsOnly(876_543);
+        assertThatThrownBy(() -> searchService.searchApartments(byArea(876_543).build(), 0))
+                .isInstanceOf(InvalidRequestException.class);
+
+        apartmentRepository.deleteAll(saved);
+    }
+
+    private static ApartmentQuery.Builder byArea(int area) {
+        return ApartmentQuery.builder().range(ApartmentIndex.RangeField.AREA, area, area);
+    }
+}
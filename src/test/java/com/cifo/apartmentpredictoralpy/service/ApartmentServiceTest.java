@@ -0,0 +1,147 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import com.cifo.apartmentpredictoralpy.ml.GradientBoostingParams;
+import com.cifo.apartmentpredictoralpy.ml.PriceModel;
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.model.Review;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+
+@SpringBootTest
+public class ApartmentServiceTest {
+
+    @Autowired
+    private ApartmentService apartmentService;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private ApartmentCsvLoader csvLoader;
+
+    @Autowired
+    private ModelRegistry modelRegistry;
+
+    @Test
+    void testKeysetListingVisitsEveryApartmentOnce() {
+        List<Long> seen = new ArrayList<>();
+        Window<ApartmentSummary> window = apartmentService.listApartments(ScrollPosition.keyset(), Sort.unsorted(), 7);
+        while (true) {
+            window.forEach(summary -> seen.add(summary.idApartment()));
+            if (!window.hasNext()) {
+                break;
+            }
+            window = apartmentService.listApartments(window.positionAt(window.size() - 1), Sort.unsorted(), 7);
+        }
+
+        assertThat(seen).hasSize((int) apartmentRepository.count()).doesNotHaveDuplicates().isSorted();
+    }
+
+    @Test
+    void testListingSortedByPriceDescending() {
+        Window<ApartmentSummary> window = apartmentService.listApartments(
+                ScrollPosition.keyset(), Sort.by(Sort.Direction.DESC, "price"), 5);
+
+        List<Integer> prices = window.map(ApartmentSummary::price).getContent();
+        assertThat(prices).hasSize(5);
+        assertThat(prices).isSortedAccordingTo((a, b) -> Integer.compare(b, a));
+    }
+
+    @Test
+    void testKeysetListingPagesAcrossNullPrices() {
+        List<Apartment> unpriced = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            unpriced.add(apartmentRepository.save(new Apartment()));
+        }
+
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            List<ApartmentSummary> seen = new ArrayList<>();
+            Window<ApartmentSummary> window = apartmentService.listApartments(
+                    ScrollPosition.keyset(), Sort.by(direction, "price"), 3);
+            while (true) {
+                window.forEach(seen::add);
+                if (!window.hasNext()) {
+                    break;
+                }
+                window = apartmentService.listApartments(
+                        window.positionAt(window.size() - 1), Sort.by(direction, "price"), 3);
+            }
+
+            assertThat(seen).extracting(ApartmentSummary::idApartment)
+                    .hasSize((int) apartmentRepository.count()).doesNotHaveDuplicates();
+            int firstNull = seen.indexOf(seen.stream().filter(s -> s.price() == null).findFirst().orElseThrow());
+            List<ApartmentSummary> tail = seen.subList(firstNull, seen.size());
+            assertThat(tail).extracting(ApartmentSummary::price).containsOnlyNulls();
+            assertThat(tail).extracting(ApartmentSummary::idApartment).isSorted()
+                    .containsAll(unpriced.stream().map(Apartment::getIdApartment).toList());
+        }
+
+        apartmentRepository.deleteAll(unpriced);
+    }
+
+    @Test
+    void testRejectsUnknownSortProperty() {
+        assertThatThrownBy(() -> apartmentService.listApartments(
+                ScrollPosition.keyset(), Sort.by("owner"), 5))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void testReviewsLoadOnlyWhenAskedFor() {
+        Apartment apartment = new Apartment();
+        apartment.setPrice(99000);
+        apartment.addReview(new Review(null, 5, "Great"));
+        apartment.addReview(new Review(null, 3, "Noisy"));
+        long id = apartmentRepository.save(apartment).getIdApartment();
+
+        Apartment plain = apartmentRepository.findById(id).orElseThrow();
+        Apartment withReviews = apartmentService.findApartmentWithReviews(id).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(plain.getReviews())).isFalse();
+        assertThat(Hibernate.isInitialized(withReviews.getReviews())).isTrue();
+        assertThat(withReviews.getReviews()).extracting(Review::getRating).containsExactlyInAnyOrder(5, 3);
+
+        apartmentRepository.deleteById(id);
+    }
+
+    @Test
+    void testTrainAndPredictPrice() throws Exception {
+        csvLoader.loadCsv(Path.of("db/Housing.csv"));
+
+        PriceModel model = modelRegistry.submit(new GradientBoostingParams(100, 4, 0.1, 5, 1.0, 255))
+                .result().get(1, TimeUnit.MINUTES);
+
+        Apartment large = apartment(12000, 5, 4, "Furnished");
+        Apartment small = apartment(2000, 1, 1, "Unfurnished");
+        large.setPrefarea(true);
+        assertThat(model.treeCount()).isEqualTo(100);
+        assertThat(apartmentService.findCurrentModel()).contains(model);
+        assertThat(apartmentService.predictPrice(large)).isGreaterThan(apartmentService.predictPrice(small));
+    }
+
+    private static Apartment apartment(int area, int bedrooms, int bathrooms, String furnishing) {
+        Apartment apartment = new Apartment();
+        apartment.setArea(area);
+        apartment.setBedrooms(bedrooms);
+        apartment.setBathrooms(bathrooms);
+        apartment.setStories(2);
+        apartment.setFurnishingstatus(furnishing);
+        return apartment;
+    }
+}
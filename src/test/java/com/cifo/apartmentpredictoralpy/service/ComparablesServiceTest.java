@@ -0,0 +1,88 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.ApartmentSummary;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+import com.cifo.apartmentpredictoralpy.search.ComparablesIndex;
+
+@SpringBootTest
+public class ComparablesServiceTest {
+
+    @Autowired
+    private ComparablesService comparablesService;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Test
+    void testComparablesExcludeTheApartmentAndUnpricedOnes() {
+        Apartment first = apartmentRepository.save(apartment(700_000, 123_456));
+        Apartment second = apartmentRepository.save(apartment(900_000, 123_457));
+        ApartmentSummary query = ApartmentSummary.of(apartment(null, 123_456));
+
+        assertThat(comparablesService.comparables(query, 2, ComparablesService.Mode.EXACT))
+                .extracting(ComparablesIndex.Neighbor::idApartment)
+                .containsExactly(first.getIdApartment(), second.getIdApartment());
+        assertThat(comparablesService.comparables(first.getIdApartment(), 1, ComparablesService.Mode.APPROXIMATE))
+                .hasValueSatisfying(list -> assertThat(list).extracting(ComparablesIndex.Neighbor::idApartment)
+                        .containsExactly(second.getIdApartment()));
+
+        // Losing its price takes an apartment out of the comparables
+        first.setPrice(null);
+        first = apartmentRepository.save(first);
+        assertThat(comparablesService.comparables(query, 1, ComparablesService.Mode.EXACT))
+                .extracting(ComparablesIndex.Neighbor::idApartment).containsExactly(second.getIdApartment());
+
+        apartmentRepository.delete(first);
+        apartmentRepository.delete(second);
+        assertThat(comparablesService.comparables(-1, 5, ComparablesService.Mode.EXACT)).isEmpty();
+        assertThatThrownBy(() -> comparablesService.comparables(query, 0, ComparablesService.Mode.EXACT))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void testEstimateWeighsComparablesByDistance() {
+        Apartment twin = apartmentRepository.save(apartment(600_000, 234_567));
+        Apartment otherTwin = apartmentRepository.save(apartment(800_000, 234_567));
+        Apartment near = apartmentRepository.save(apartment(1_000_000, 234_600));
+        ApartmentSummary query = ApartmentSummary.of(apartment(null, 234_567));
+
+        // Comparables at distance 0 are averaged and the farther ones ignored
+        assertThat(comparablesService.estimate(query, 3, ComparablesService.Mode.EXACT).price())
+                .isEqualTo(700_000);
+
+        // Otherwise each price counts with weight 1 / distance
+        ComparablesService.KnnEstimate estimate = comparablesService.estimate(
+                ApartmentSummary.of(apartment(null, 234_590)), 3, ComparablesService.Mode.EXACT);
+        double weighted = 0;
+        double weights = 0;
+        for (ComparablesIndex.Neighbor neighbor : estimate.comparables()) {
+            weighted += neighbor.price() / neighbor.distance();
+            weights += 1 / neighbor.distance();
+        }
+        assertThat(estimate.comparables()).extracting(ComparablesIndex.Neighbor::idApartment)
+                .first().isEqualTo(near.getIdApartment());
+        assertThat(estimate.price()).isEqualTo(weighted / weights).isBetween(600_000.0, 1_000_000.0);
+
+        apartmentRepository.deleteAll(List.of(twin, otherTwin, near));
+    }
+
+    private static Apartment apartment(Integer price, int area) {
+        Apartment apartment = new Apartment();
+        apartment.setPrice(price);
+        apartment.setArea(area);
+        apartment.setBedrooms(9);
+        apartment.setBathrooms(7);
+        apartment.setStories(5);
+        return apartment;
+    }
+}
@@ -0,0 +1,149 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.Owner;
+import com.cifo.apartmentpredictoralpy.model.Review;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+import com.cifo.apartmentpredictoralpy.repository.OwnerRepository;
+import com.cifo.apartmentpredictoralpy.repository.ReviewRepository;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = "apartment.export.clear-interval=7")
+@AutoConfigureMockMvc
+public class ExportServiceTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ApartmentCsvLoader csvLoader;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testNdjsonHasOneObjectPerRow() throws Exception {
+        Apartment apartment = new Apartment();
+        apartment.setPrice(123_456);
+        apartment.setArea(789);
+        apartment.setMainroad(true);
+        apartment.setFurnishingstatus("Furnished");
+        apartment.setOwner(new Owner(0, "Ana, \"the\" owner", "ana@example.com", 41));
+        apartment = apartmentRepository.save(apartment);
+        long idApartment = apartment.getIdApartment();
+        Owner owner = apartment.getOwner();
+        Review review = new Review(null, 4, "Line one\nline two");
+        review.setApartment(apartment);
+        review = reviewRepository.save(review);
+
+        List<JsonNode> apartments = ndjson(exportService::exportApartments);
+        assertThat(apartments).hasSize((int) apartmentRepository.count());
+        JsonNode exported = apartments.stream()
+                .filter(a -> a.get("idApartment").asLong() == idApartment)
+                .findFirst().orElseThrow();
+        assertThat(exported.get("price").asInt()).isEqualTo(123_456);
+        assertThat(exported.get("mainroad").asBoolean()).isTrue();
+        assertThat(exported.get("idOwner").asLong()).isEqualTo(owner.getIdPerson());
+        assertThat(exported.get("bedrooms").isNull()).isTrue();
+
+        assertThat(ndjson(exportService::exportOwners)).anySatisfy(o ->
+                assertThat(o.get("name").asString()).isEqualTo("Ana, \"the\" owner"));
+        long reviewId = review.getId();
+        assertThat(ndjson(exportService::exportReviews)).anySatisfy(r -> {
+            assertThat(r.get("id").asLong()).isEqualTo(reviewId);
+            assertThat(r.get("comment").asString()).isEqualTo("Line one\nline two");
+            assertThat(r.get("idReviewer").isNull()).isTrue();
+        });
+
+        reviewRepository.delete(review);
+        apartmentRepository.delete(apartment);
+        ownerRepository.delete(owner);
+    }
+
+    @Test
+    void testApartmentCsvCanBeImportedAgain() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.exportApartments(ExportFormat.CSV, out);
+        long before = apartmentRepository.count();
+        long pricesBefore = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(PRICE), 0) FROM APARTMENT", Long.class);
+
+        ApartmentCsvLoader.ImportReport report =
+                csvLoader.loadCsv(new StringReader(out.toString(StandardCharsets.UTF_8)));
+
+        assertThat(report.rows()).isEqualTo(rows).isEqualTo(before);
+        assertThat(jdbcTemplate.queryForObject("SELECT COALESCE(SUM(PRICE), 0) FROM APARTMENT", Long.class))
+                .isEqualTo(2 * pricesBefore);
+    }
+
+    @Test
+    void testGzipExportOverHttp() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/export/apartments").param("format", "csv").param("gzip", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"apartments.csv\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertThat(csv).startsWith("idApartment,price,area,");
+        assertThat(csv.split("\r\n")).hasSize((int) apartmentRepository.count() + 1);
+
+        mockMvc.perform(get("/api/export/apartments").param("format", "xml")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/export/secrets")).andExpect(status().isBadRequest());
+    }
+
+    private List<JsonNode> ndjson(Export export) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = export.write(ExportFormat.NDJSON, out);
+        List<JsonNode> nodes = new ArrayList<>();
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertThat(text).endsWith("\n");
+        for (String line : text.split("\n")) {
+            nodes.add(objectMapper.readTree(line));
+        }
+        assertThat(nodes).hasSize((int) rows);
+        return nodes;
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        long write(ExportFormat format, ByteArrayOutputStream out) throws Exception;
+    }
+}
@@ -0,0 +1,54 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.cifo.apartmentpredictoralpy.ml.ApartmentFeatureMatrix;
+import com.cifo.apartmentpredictoralpy.ml.ApartmentFeatures;
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+
+@SpringBootTest
+public class FeatureMatrixServiceTest {
+
+    @Autowired
+    private FeatureMatrixService featureMatrixService;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Test
+    void testSnapshotFollowsCommittedChanges() {
+        ApartmentFeatureMatrix before = featureMatrixService.snapshot();
+        Apartment apartment = new Apartment();
+        apartment.setPrice(321_000);
+        apartment.setArea(77);
+        apartment.setHeating(true);
+        apartment.setFurnishingstatus("Furnished");
+        apartment = apartmentRepository.save(apartment);
+        long id = apartment.getIdApartment();
+
+        ApartmentFeatureMatrix added = featureMatrixService.snapshot();
+        int row = added.rowOf(id);
+        assertThat(added.rows()).isEqualTo(before.rows() + 1);
+        assertThat(row).isNotNegative();
+        assertThat(added.price(row)).isEqualTo(321_000);
+        assertThat(added.value(row, ApartmentFeatures.AREA)).isEqualTo(77f);
+        assertThat(added.flag(row, ApartmentFeatures.HEATING)).isTrue();
+        assertThat(added.value(row, ApartmentFeatures.FURNISHING)).isEqualTo(2f);
+        assertThat(featureMatrixService.snapshot()).isSameAs(added);
+
+        apartment.setPrice(300_000);
+        apartment = apartmentRepository.save(apartment);
+        assertThat(featureMatrixService.snapshot().label(row)).isEqualTo(300_000f);
+
+        apartmentRepository.delete(apartment);
+        assertThat(featureMatrixService.snapshot().rowOf(id)).isEqualTo(-1);
+
+        featureMatrixService.rebuild();
+        assertThat(featureMatrixService.snapshot().rows()).isEqualTo((int) apartmentRepository.count());
+    }
+}
@@ -0,0 +1,117 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.cifo.apartmentpredictoralpy.ml.GradientBoostingParams;
+import com.cifo.apartmentpredictoralpy.ml.MappedFeatureSource;
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+
+@SpringBootTest(properties = {
+        "apartment.feature-store.file=target/feature-store-test/features.bin",
+        "apartment.model.file="})
+public class FeatureStoreServiceTest {
+
+    @Autowired
+    private FeatureStoreService featureStoreService;
+
+    @Autowired
+    private ModelRegistry modelRegistry;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testSyncAppendsOnlyNewPricedApartments() throws Exception {
+        Files.deleteIfExists(Path.of("target/feature-store-test/features.bin"));
+        long priced = apartmentRepository.findByPriceBetweenOrderByPrice(Integer.MIN_VALUE, Integer.MAX_VALUE,
+                Limit.unlimited()).size();
+
+        assertThat(featureStoreService.sync()).isEqualTo(priced);
+        assertThat(featureStoreService.sync()).isZero();
+
+        Apartment apartment = new Apartment();
+        apartment.setPrice(250_000);
+        apartment.setArea(90);
+        apartment = apartmentRepository.save(apartment);
+        Apartment unpriced = apartmentRepository.save(new Apartment());
+
+        MappedFeatureSource rows = featureStoreService.trainingRows();
+        assertThat(rows.rows()).isEqualTo(priced + 1);
+        assertThat(rows.id(rows.rows() - 1)).isEqualTo(apartment.getIdApartment());
+        assertThat(rows.label(rows.rows() - 1)).isEqualTo(250_000f);
+
+        // A higher id is stored first; the apartment priced later is still added
+        Apartment higher = new Apartment();
+        higher.setPrice(300_000);
+        higher = apartmentRepository.save(higher);
+        assertThat(featureStoreService.sync()).isEqualTo(1);
+        unpriced.setPrice(150_000);
+        apartmentRepository.save(unpriced);
+        rows = featureStoreService.trainingRows();
+        assertThat(rows.rows()).isEqualTo(priced + 3);
+        assertThat(rows.id(rows.rows() - 2)).isEqualTo(higher.getIdApartment());
+        assertThat(rows.id(rows.rows() - 1)).isEqualTo(unpriced.getIdApartment());
+        assertThat(featureStoreService.sync()).isZero();
+
+        TrainingJob job = modelRegistry.submit(new GradientBoostingParams(5, 3, 0.1, 1, 1.0, 255));
+        assertThat(job.result().get(1, TimeUnit.MINUTES).treeCount()).isEqualTo(5);
+    }
+
+    @Test
+    void testChangedApartmentsSupersedeTheirRows() throws Exception {
+        featureStoreService.sync();
+        Apartment apartment = new Apartment();
+        apartment.setPrice(200_000);
+        apartment = apartmentRepository.save(apartment);
+        featureStoreService.sync();
+        long live = featureStoreService.trainingRows().rows();
+
+        apartment.setPrice(210_000);
+        apartment = apartmentRepository.save(apartment);
+        assertThat(featureStoreService.sync()).isEqualTo(1);
+        MappedFeatureSource rows = featureStoreService.trainingRows();
+        assertThat(rows.rows()).isEqualTo(live);
+        assertThat(labelOf(rows, apartment.getIdApartment())).isEqualTo(210_000f);
+
+        // A restarted service finds the change made with plain SQL by comparing every row
+        jdbcTemplate.update("UPDATE APARTMENT SET PRICE = 220000 WHERE ID_APARTMENT = ?", apartment.getIdApartment());
+        FeatureStoreService restarted = new FeatureStoreService(apartmentRepository, transactionManager,
+                "target/feature-store-test/features.bin");
+        assertThat(restarted.sync()).isEqualTo(1);
+        assertThat(labelOf(restarted.trainingRows(), apartment.getIdApartment())).isEqualTo(220_000f);
+
+        apartmentRepository.delete(apartment);
+        assertThat(featureStoreService.sync()).isEqualTo(1);
+        rows = featureStoreService.trainingRows();
+        assertThat(rows.rows()).isEqualTo(live - 1);
+        assertThat(labelOf(rows, apartment.getIdApartment())).isNaN();
+    }
+
+    /** The label of the apartment's row, NaN when it has none. */
+    private static float labelOf(MappedFeatureSource rows, long id) {
+        for (int row = 0; row < rows.rows(); row++) {
+            if (rows.id(row) == id) {
+                return rows.label(row);
+            }
+        }
+        return Float.NaN;
+    }
+}
@@ -0,0 +1,98 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.cifo.apartmentpredictoralpy.ml.GradientBoostingParams;
+import com.cifo.apartmentpredictoralpy.ml.PriceModel;
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+
+@SpringBootTest(properties = "apartment.model.retrain-after-priced-rows=30")
+public class ModelRegistryTest {
+
+    private static final GradientBoostingParams SMALL = new GradientBoostingParams(10, 3, 0.1, 2, 1.0, 255);
+
+    @Autowired
+    private ModelRegistry modelRegistry;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Test
+    void testPublishedModelsCanBeRolledBack() throws Exception {
+        List<Apartment> apartments = apartments(200, new Random(1));
+        PriceModel first = modelRegistry.submit(apartments, SMALL).result().get(1, TimeUnit.MINUTES);
+        TrainingJob job = modelRegistry.submit(apartments, SMALL);
+        PriceModel second = job.result().get(1, TimeUnit.MINUTES);
+
+        assertThat(modelRegistry.current()).contains(second);
+        assertThat(second.version()).isEqualTo(first.version() + 1);
+        assertThat(modelRegistry.history()).first().isEqualTo(first);
+        assertThat(job.status().state()).isEqualTo(TrainingJob.State.DONE);
+        assertThat(job.status().progress()).isEqualTo(1.0);
+
+        assertThat(modelRegistry.rollback()).isEqualTo(first);
+        assertThat(modelRegistry.current()).contains(first);
+        assertThatThrownBy(() -> modelRegistry.rollback(second.version()))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void testCancelledJobPublishesNothing() throws Exception {
+        List<Apartment> apartments = apartments(200, new Random(2));
+        modelRegistry.submit(apartments, SMALL).result().get(1, TimeUnit.MINUTES);
+        PriceModel before = modelRegistry.current().orElseThrow();
+
+        TrainingJob job = modelRegistry.submit(apartments, new GradientBoostingParams(100_000, 3, 0.1, 2, 1.0, 255));
+        job.cancel();
+
+        assertThatThrownBy(() -> job.result().get(1, TimeUnit.MINUTES))
+                .isInstanceOf(CancellationException.class);
+        assertThat(job.status().state()).isEqualTo(TrainingJob.State.CANCELLED);
+        assertThat(modelRegistry.current()).contains(before);
+    }
+
+    @Test
+    void testRetrainsAfterNewPricedApartments() throws Exception {
+        List<Apartment> apartments = apartments(30, new Random(3));
+        long jobsBefore = modelRegistry.jobs().stream().mapToLong(TrainingJob::id).max().orElse(0);
+
+        apartmentRepository.bulkSave(apartments);
+        try {
+            TrainingJob job = modelRegistry.jobs().stream()
+                    .filter(j -> j.id() > jobsBefore).findFirst().orElseThrow();
+            PriceModel model = job.result().get(1, TimeUnit.MINUTES);
+            assertThat(job.status().trigger()).isEqualTo("new-priced-rows");
+            assertThat(modelRegistry.current()).contains(model);
+        } finally {
+            apartmentRepository.deleteAll(apartments);
+        }
+    }
+
+    private static List<Apartment> apartments(int count, Random random) {
+        List<Apartment> apartments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Apartment apartment = new Apartment();
+            apartment.setArea(1500 + random.nextInt(10_000));
+            apartment.setBedrooms(1 + random.nextInt(5));
+            apartment.setBathrooms(1 + random.nextInt(3));
+            apartment.setStories(1 + random.nextInt(3));
+            apartment.setPrefarea(random.nextBoolean());
+            apartment.setFurnishingstatus("Furnished");
+            apartment.setPrice(apartment.getArea() * 500 + apartment.getBedrooms() * 100_000);
+            apartments.add(apartment);
+        }
+        return apartments;
+    }
+}
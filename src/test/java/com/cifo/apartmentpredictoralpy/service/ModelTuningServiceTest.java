@@ -0,0 +1,47 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.cifo.apartmentpredictoralpy.ml.CrossValidationReport;
+import com.cifo.apartmentpredictoralpy.ml.ParameterGrid;
+
+@SpringBootTest(properties = "apartment.model.tuning.max-configurations=8")
+public class ModelTuningServiceTest {
+
+    @Autowired
+    private ModelTuningService modelTuningService;
+
+    @Test
+    void testGridSearchReportsEveryConfiguration() throws Exception {
+        ParameterGrid grid = new ParameterGrid(List.of(10, 20), List.of(2, 3), null, List.of(2), null, null);
+
+        TuningJob job = modelTuningService.submit(grid, 3, 7);
+        CrossValidationReport report = job.result().get(1, TimeUnit.MINUTES);
+
+        assertThat(report.folds()).isEqualTo(3);
+        assertThat(report.results()).hasSize(4);
+        assertThat(report.best()).isPresent();
+        assertThat(report.best().orElseThrow().mae()).isPositive();
+        TuningJob.Status status = job.status();
+        assertThat(status.state()).isEqualTo(TuningJob.State.DONE);
+        assertThat(status.progress()).isEqualTo(1.0);
+        assertThat(status.report()).isSameAs(report);
+        assertThat(modelTuningService.findJob(job.id())).contains(job);
+    }
+
+    @Test
+    void testOversizedGridIsRejected() {
+        ParameterGrid grid = new ParameterGrid(List.of(10, 20, 30), List.of(2, 3, 4), null, null, null, null);
+
+        assertThatThrownBy(() -> modelTuningService.submit(grid, null, 1))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+}
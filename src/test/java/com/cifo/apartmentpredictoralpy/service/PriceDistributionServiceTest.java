@@ -0,0 +1,117 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+import com.cifo.apartmentpredictoralpy.search.PriceDistributions;
+
+@SpringBootTest(properties = "apartment.price-distributions.file=target/price-distributions-test/distributions.bin")
+public class PriceDistributionServiceTest {
+
+    private static final Path FILE = Path.of("target/price-distributions-test/distributions.bin");
+
+    /** A segment no seeded apartment is in. */
+    private static final PriceDistributions.Segment SEGMENT = new PriceDistributions.Segment(
+            13, true, "furnished", true, true, true, true, true, true);
+
+    @Autowired
+    private PriceDistributionService priceDistributionService;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testDistributionsFollowSavesAndRebuilds() {
+        // Start without stale rows left by other tests, so no background rebuild interferes
+        priceDistributionService.rebuild();
+        Apartment first = apartmentRepository.save(apartment(1_000_000, 1_000));
+        Apartment second = apartmentRepository.save(apartment(3_000_000, 2_000));
+        Apartment unpriced = apartmentRepository.save(apartment(null, 1_000));
+
+        PriceDistributions.Distribution distribution = priceDistributionService.distribution(SEGMENT);
+        assertThat(distribution.price().count()).isEqualTo(2);
+        assertThat(distribution.price().min()).isEqualTo(1_000_000);
+        assertThat(distribution.price().median()).isEqualTo(1_000_000);
+        assertThat(distribution.price().max()).isEqualTo(3_000_000);
+        assertThat(distribution.pricePerArea().max()).isEqualTo(1_500);
+
+        // The old price stays in the sketch until the next rebuild
+        first.setPrice(2_000_000);
+        first = apartmentRepository.save(first);
+        distribution = priceDistributionService.distribution(SEGMENT);
+        assertThat(distribution.staleRows()).isEqualTo(1);
+        assertThat(distribution.price().count()).isEqualTo(3);
+
+        priceDistributionService.rebuild();
+        distribution = priceDistributionService.distribution(SEGMENT);
+        assertThat(distribution.staleRows()).isZero();
+        assertThat(distribution.price().count()).isEqualTo(2);
+        assertThat(distribution.price().min()).isEqualTo(2_000_000);
+
+        // The rebuild saved the sketches, and the table has not changed since
+        assertThat(FILE).exists();
+        priceDistributionService.load();
+        assertThat(priceDistributionService.distribution(SEGMENT)).isEqualTo(distribution);
+
+        apartmentRepository.deleteAll(List.of(first, second, unpriced));
+        assertThat(priceDistributionService.distribution(SEGMENT).staleRows()).isEqualTo(2);
+    }
+
+    @Test
+    void testSavedSketchesAreDroppedOnceTheTableChanges() {
+        Apartment apartment = apartmentRepository.save(apartment(1_000_000, 1_000));
+        priceDistributionService.rebuild();
+        assertThat(FILE).exists();
+
+        // Another segment keeps every total, so the first change after the save deletes the file
+        apartment.setBedrooms(12);
+        apartment = apartmentRepository.save(apartment);
+        assertThat(FILE).doesNotExist();
+        priceDistributionService.load();
+        assertThat(FILE).exists();
+        assertThat(priceDistributionService.distribution(SEGMENT).price()).isNull();
+
+        // The same move made with plain SQL is not seen: the unchanged totals load the file
+        jdbcTemplate.update("UPDATE APARTMENT SET BEDROOMS = 13 WHERE ID_APARTMENT = ?", apartment.getIdApartment());
+        priceDistributionService.load();
+        assertThat(priceDistributionService.distribution(SEGMENT).price()).isNull();
+
+        // A price change made with plain SQL changes the totals and forces a rebuild
+        jdbcTemplate.update("UPDATE APARTMENT SET PRICE = 1_200_000 WHERE ID_APARTMENT = ?",
+                apartment.getIdApartment());
+        priceDistributionService.load();
+        assertThat(priceDistributionService.distribution(SEGMENT).price().count()).isEqualTo(1);
+        assertThat(priceDistributionService.distribution(SEGMENT).price().max()).isEqualTo(1_200_000);
+
+        jdbcTemplate.update("DELETE FROM APARTMENT WHERE ID_APARTMENT = ?", apartment.getIdApartment());
+        priceDistributionService.rebuild();
+    }
+
+    private static Apartment apartment(Integer price, int area) {
+        Apartment apartment = new Apartment();
+        apartment.setPrice(price);
+        apartment.setArea(area);
+        apartment.setBedrooms(13);
+        apartment.setPrefarea(true);
+        apartment.setFurnishingstatus("furnished");
+        apartment.setMainroad(true);
+        apartment.setGuestroom(true);
+        apartment.setBasement(true);
+        apartment.setHotwater(true);
+        apartment.setHeating(true);
+        apartment.setAirconditioning(true);
+        return apartment;
+    }
+}
@@ -0,0 +1,95 @@
+package com.cifo.apartmentpredictoralpy.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@SpringBootTest
+public class SeedDataLoaderTest {
+
+    private static final String SEED = """
+            -- test seed; with a ; in a comment
+            MERGE INTO APARTMENT (ID_APARTMENT, PRICE, FURNISHINGSTATUS, MAINROAD, GUESTROOM, BASEMENT,
+                HOTWATER, HEATING, AIRCONDITIONING, PARKING, PREFAREA)
+            KEY (ID_APARTMENT) VALUES (901, %d, 'Semi;Furnished', FALSE, FALSE, FALSE, FALSE, FALSE, FALSE, 0, FALSE);
+            MERGE INTO APARTMENT (ID_APARTMENT, PRICE, MAINROAD, GUESTROOM, BASEMENT,
+                HOTWATER, HEATING, AIRCONDITIONING, PARKING, PREFAREA)
+            KEY (ID_APARTMENT) VALUES (902, 2000, FALSE, FALSE, FALSE, FALSE, FALSE, FALSE, 0, FALSE);
+            """;
+
+    @Autowired
+    private SeedDataLoader seedDataLoader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM APARTMENT WHERE ID_APARTMENT IN (901, 902, 903)");
+        jdbcTemplate.update("DELETE FROM SEED_HISTORY WHERE SCRIPT = 'test-seed'");
+    }
+
+    @Test
+    void testStartupSeedIsRecordedAndNotReappliedWhenUnchanged() throws Exception {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT STATEMENTS FROM SEED_HISTORY WHERE SCRIPT = 'classpath:seed.sql'", Integer.class))
+                .isEqualTo(20);
+        Integer price = jdbcTemplate.queryForObject("SELECT PRICE FROM APARTMENT WHERE ID_APARTMENT = 1", Integer.class);
+        jdbcTemplate.update("UPDATE APARTMENT SET PRICE = 1 WHERE ID_APARTMENT = 1");
+        try {
+            SeedDataLoader.SeedReport report = seedDataLoader.applyConfiguredSeed();
+
+            assertThat(report.applied()).isFalse();
+            assertThat(jdbcTemplate.queryForObject("SELECT PRICE FROM APARTMENT WHERE ID_APARTMENT = 1",
+                    Integer.class)).isEqualTo(1);
+        } finally {
+            jdbcTemplate.update("UPDATE APARTMENT SET PRICE = ? WHERE ID_APARTMENT = 1", price);
+        }
+    }
+
+    @Test
+    void testChangedSeedIsMergedWithoutDuplicates() {
+        long before = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM APARTMENT", Long.class);
+
+        SeedDataLoader.SeedReport first = seedDataLoader.apply("test-seed", SEED.formatted(1000));
+        SeedDataLoader.SeedReport unchanged = seedDataLoader.apply("test-seed", SEED.formatted(1000));
+        SeedDataLoader.SeedReport changed = seedDataLoader.apply("test-seed", SEED.formatted(1500));
+
+        assertThat(first.applied()).isTrue();
+        assertThat(first.statements()).isEqualTo(2);
+        assertThat(unchanged.applied()).isFalse();
+        assertThat(changed.applied()).isTrue();
+        assertThat(changed.checksum()).isNotEqualTo(first.checksum());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM APARTMENT", Long.class)).isEqualTo(before + 2);
+        assertThat(jdbcTemplate.queryForObject("SELECT PRICE FROM APARTMENT WHERE ID_APARTMENT = 901", Integer.class))
+                .isEqualTo(1500);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT FURNISHINGSTATUS FROM APARTMENT WHERE ID_APARTMENT = 901", String.class))
+                .isEqualTo("Semi;Furnished");
+    }
+
+    @Test
+    void testFailingSeedRollsBackEveryStatement() {
+        seedDataLoader.apply("test-seed", SEED.formatted(1000));
+        String checksum = jdbcTemplate.queryForObject(
+                "SELECT CHECKSUM FROM SEED_HISTORY WHERE SCRIPT = 'test-seed'", String.class);
+
+        String broken = SEED.formatted(1200)
+                + "MERGE INTO APARTMENT (ID_APARTMENT, PARKING) KEY (ID_APARTMENT) VALUES (903, 0);\n"
+                + "INSERT INTO NO_SUCH_TABLE VALUES (1);\n";
+        assertThatThrownBy(() -> seedDataLoader.apply("test-seed", broken))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT PRICE FROM APARTMENT WHERE ID_APARTMENT = 901", Integer.class))
+                .isEqualTo(1000);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM APARTMENT WHERE ID_APARTMENT = 903", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT CHECKSUM FROM SEED_HISTORY WHERE SCRIPT = 'test-seed'", String.class)).isEqualTo(checksum);
+    }
+}
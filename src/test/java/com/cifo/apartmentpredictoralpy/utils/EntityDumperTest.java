@@ -0,0 +1,109 @@
+package com.cifo.apartmentpredictoralpy.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cifo.apartmentpredictoralpy.model.Apartment;
+import com.cifo.apartmentpredictoralpy.model.Owner;
+import com.cifo.apartmentpredictoralpy.model.Review;
+import com.cifo.apartmentpredictoralpy.model.Reviewer;
+import com.cifo.apartmentpredictoralpy.repository.ApartmentRepository;
+import com.cifo.apartmentpredictoralpy.repository.ReviewerRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+public class EntityDumperTest {
+
+    @Autowired
+    private EntityDumper dumper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private ReviewerRepository reviewerRepository;
+
+    @Test
+    void testBackReferencesPrintIdsAndNothingIsLoaded() throws Exception {
+        Reviewer reviewer = reviewerRepository.save(new Reviewer(0, "Rita", "rita@example.com", 30));
+        Owner owner = new Owner(0, "Olga", "olga@example.com", 50);
+        Apartment apartment = new Apartment();
+        apartment.setPrice(100_000);
+        owner.addApartment(apartment);
+        for (int rating = 1; rating <= 3; rating++) {
+            Review review = new Review(null, rating, "comment " + rating);
+            reviewer.addReview(review);
+            apartment.addReview(review);
+        }
+        long id = apartmentRepository.save(apartment).getIdApartment();
+        Apartment saved = apartmentRepository.findById(id).orElseThrow();
+        long idOwner = saved.getOwner().getIdPerson();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Apartment lazy = entityManager.find(Apartment.class, id);
+            String dump = dumper.toString(lazy);
+
+            assertThat(dump).startsWith("Apartment{idApartment=" + id + ", price=100000,");
+            assertThat(dump).contains("owner=Owner{idPerson=" + idOwner + ", name='Olga'");
+            assertThat(dump).contains("apartments=<not loaded>");
+            assertThat(dump).endsWith("reviews=<not loaded>}");
+            assertThat(Hibernate.isInitialized(lazy.getReviews())).isFalse();
+            assertThat(Hibernate.isInitialized(lazy.getOwner().getApartments())).isFalse();
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Apartment withReviews = apartmentRepository.findWithReviewsByIdApartment(id).orElseThrow();
+            Review first = withReviews.getReviews().get(0);
+            String dump = dumper.toString(first);
+
+            assertThat(dump).startsWith("Review{id=" + first.getId() + ", rating=");
+            assertThat(dump).contains("reviewer=Reviewer{idPerson=" + reviewer.getIdPerson());
+            assertThat(dump).contains("apartment=Apartment{idApartment=" + id);
+            assertThat(dump).contains("owner=Owner#" + idOwner);
+            assertThat(dump).contains("Review#" + first.getId());
+        });
+
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        apartmentRepository.deleteById(id);
+    }
+
+    @Test
+    void testDepthAndCollectionLimits() throws Exception {
+        EntityDumper shallow = new EntityDumper(entityManagerFactory, 0, 2);
+        Owner owner = new Owner(7, "Olga", "olga@example.com", 50);
+        for (int i = 1; i <= 5; i++) {
+            Apartment apartment = new Apartment();
+            apartment.setIdApartment(i);
+            owner.addApartment(apartment);
+        }
+
+        StringWriter out = new StringWriter();
+        long rows = shallow.dumpAll(List.of(owner, owner.getApartments().get(0), "text"), out);
+
+        String[] lines = out.toString().split("\n");
+        assertThat(rows).isEqualTo(3);
+        assertThat(lines[0]).startsWith("#1 Owner{idPerson=7, name='Olga',")
+                .endsWith("apartments=[Apartment#1, Apartment#2, ... 3 more]}");
+        assertThat(lines[1]).startsWith("#2 Apartment{idApartment=1,").contains("owner=Owner#7");
+        assertThat(lines[2]).isEqualTo("#3 text");
+    }
+}